@@ -0,0 +1,72 @@
+package com.quickcode.common.event;
+
+import com.quickcode.entity.Project;
+import lombok.Getter;
+
+/**
+ * 项目变更事件
+ * 由ProjectServiceImpl在项目创建、更新、状态变化、删除后发布，
+ * 供搜索索引等内存结构在事务提交后做增量更新
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Getter
+public class ProjectChangedEvent {
+
+    /**
+     * 项目ID
+     */
+    private final Long projectId;
+
+    /**
+     * 变更类型
+     */
+    private final ChangeType changeType;
+
+    /**
+     * 变更后的项目快照（删除时为null）
+     */
+    private final Project project;
+
+    private ProjectChangedEvent(Long projectId, ChangeType changeType, Project project) {
+        this.projectId = projectId;
+        this.changeType = changeType;
+        this.project = project;
+    }
+
+    /**
+     * 创建项目变更事件
+     */
+    public static ProjectChangedEvent of(Project project, ChangeType changeType) {
+        return new ProjectChangedEvent(project.getId(), changeType, project);
+    }
+
+    /**
+     * 创建项目删除事件
+     */
+    public static ProjectChangedEvent deleted(Long projectId) {
+        return new ProjectChangedEvent(projectId, ChangeType.DELETED, null);
+    }
+
+    /**
+     * 是否为删除事件
+     */
+    public boolean isDeleted() {
+        return changeType == ChangeType.DELETED || project == null;
+    }
+
+    /**
+     * 变更类型枚举
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        PUBLISHED,
+        APPROVED,
+        REJECTED,
+        OFFLINE,
+        STATUS_CHANGED,
+        DELETED
+    }
+}
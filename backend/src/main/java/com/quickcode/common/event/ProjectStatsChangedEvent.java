@@ -0,0 +1,58 @@
+package com.quickcode.common.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 项目统计数据变更事件
+ * 浏览、下载、点赞、收藏计数同步到数据库以及评分重算后发布，
+ * 供首页榜单等依赖排序字段的物化结构按需刷新
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Getter
+public class ProjectStatsChangedEvent {
+
+    /**
+     * 统计数据发生变化的项目ID
+     */
+    private final Collection<Long> projectIds;
+
+    /**
+     * 变化的统计类型
+     */
+    private final StatType statType;
+
+    private ProjectStatsChangedEvent(StatType statType, Collection<Long> projectIds) {
+        this.statType = statType;
+        this.projectIds = projectIds;
+    }
+
+    /**
+     * 创建单个项目的统计变更事件
+     */
+    public static ProjectStatsChangedEvent of(StatType statType, Long projectId) {
+        return new ProjectStatsChangedEvent(statType, List.of(projectId));
+    }
+
+    /**
+     * 创建批量统计变更事件
+     */
+    public static ProjectStatsChangedEvent of(StatType statType, Collection<Long> projectIds) {
+        return new ProjectStatsChangedEvent(statType, List.copyOf(projectIds));
+    }
+
+    /**
+     * 统计类型枚举
+     */
+    public enum StatType {
+        VIEW_COUNT,
+        DOWNLOAD_COUNT,
+        LIKE_COUNT,
+        FAVORITE_COUNT,
+        RATING
+    }
+}
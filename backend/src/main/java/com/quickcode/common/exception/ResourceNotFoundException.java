@@ -56,6 +56,10 @@ public class ResourceNotFoundException extends BusinessException {
         return new ResourceNotFoundException("权限", "代码", permissionCode);
     }
 
+    public static ResourceNotFoundException project(Long projectId) {
+        return new ResourceNotFoundException("项目", projectId);
+    }
+
     public static ResourceNotFoundException pointAccount(Long userId) {
         return new ResourceNotFoundException("积分账户", "用户ID", userId);
     }
@@ -0,0 +1,49 @@
+package com.quickcode.common.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 游标分页响应格式
+ * 不包含总数和总页数，前端通过nextCursor请求下一页
+ *
+ * @param <T> 数据类型
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+  /**
+   * 数据列表
+   */
+  private List<T> content;
+
+  /**
+   * 每页大小
+   */
+  private Integer size;
+
+  /**
+   * 下一页游标（没有下一页时为null）
+   */
+  private String nextCursor;
+
+  /**
+   * 是否有下一页
+   */
+  private Boolean hasNext;
+
+  /**
+   * 获取当前页的记录数
+   */
+  public Integer getCurrentSize() {
+    return content != null ? content.size() : 0;
+  }
+}
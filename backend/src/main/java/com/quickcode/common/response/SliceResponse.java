@@ -0,0 +1,70 @@
+package com.quickcode.common.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 切片分页响应格式
+ * 按页码翻页但不执行COUNT查询，通过多取一条记录判断是否有下一页；
+ * total为定期刷新的近似总数，仅用于展示
+ *
+ * @param <T> 数据类型
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+
+  /**
+   * 数据列表
+   */
+  private List<T> content;
+
+  /**
+   * 当前页码（从1开始）
+   */
+  private Integer page;
+
+  /**
+   * 每页大小
+   */
+  private Integer size;
+
+  /**
+   * 是否有下一页
+   */
+  private Boolean hasNext;
+
+  /**
+   * 是否为第一页
+   */
+  private Boolean first;
+
+  /**
+   * 是否为最后一页
+   */
+  private Boolean last;
+
+  /**
+   * 总记录数（近似值，见totalExact）
+   */
+  private Long total;
+
+  /**
+   * 总记录数是否为精确值（已翻到最后一页或来自内存索引时为true）
+   */
+  private Boolean totalExact;
+
+  /**
+   * 获取当前页的记录数
+   */
+  public Integer getCurrentSize() {
+    return content != null ? content.size() : 0;
+  }
+}
@@ -0,0 +1,79 @@
+package com.quickcode.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 下载带宽限制配置属性
+ * 速率单位均为字节/秒，0表示不限制
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.download.bandwidth")
+public class DownloadBandwidthProperties {
+
+    /**
+     * 是否启用带宽限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 全站下载出口带宽上限，超出时按权重在所有连接间公平分配
+     */
+    private long globalLimit = 0;
+
+    /**
+     * 令牌桶可积攒的突发时长（毫秒）
+     */
+    private long burstMillis = 200;
+
+    /**
+     * 匿名用户（含令牌下载）
+     */
+    private TierLimit anonymous = new TierLimit(1024 * 1024, 2 * 1024 * 1024, 1);
+
+    /**
+     * 普通登录用户
+     */
+    private TierLimit regular = new TierLimit(5 * 1024 * 1024, 10 * 1024 * 1024, 2);
+
+    /**
+     * VIP用户
+     */
+    private TierLimit vip = new TierLimit(0, 0, 4);
+
+    /**
+     * 单个等级的限制
+     */
+    @Data
+    public static class TierLimit {
+
+        /**
+         * 单个连接的速率上限
+         */
+        private long connectionLimit;
+
+        /**
+         * 同一用户（匿名用户按IP）所有连接合计的速率上限
+         */
+        private long userLimit;
+
+        /**
+         * 全站带宽不足时的分配权重
+         */
+        private int weight = 1;
+
+        public TierLimit() {
+        }
+
+        public TierLimit(long connectionLimit, long userLimit, int weight) {
+            this.connectionLimit = connectionLimit;
+            this.userLimit = userLimit;
+            this.weight = weight;
+        }
+    }
+}
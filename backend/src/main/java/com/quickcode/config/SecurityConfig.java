@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.List;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -84,6 +85,9 @@ public class SecurityConfig {
             .requestMatchers("/api/public/categories/**").permitAll()
             .requestMatchers("/api/public/search/**").permitAll()
 
+            // 签名下载链接（链接本身即为凭证）
+            .requestMatchers(HttpMethod.GET, "/api/downloads/signed/**").permitAll()
+
             // 健康检查和监控
             .requestMatchers("/actuator/health").permitAll()
             .requestMatchers("/actuator/**").hasRole("ADMIN")
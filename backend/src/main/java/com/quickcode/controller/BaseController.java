@@ -10,6 +10,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import com.quickcode.common.response.ApiResponse;
 import com.quickcode.common.response.PageResponse;
 import com.quickcode.security.jwt.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * 基础Controller类 提供通用的响应处理和分页处理方法
@@ -127,6 +128,23 @@ public abstract class BaseController {
     return null;
   }
 
+  /**
+   * 获取客户端IP地址
+   */
+  protected String getClientIpAddress(HttpServletRequest request) {
+    String xForwardedFor = request.getHeader("X-Forwarded-For");
+    if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
+      return xForwardedFor.split(",")[0].trim();
+    }
+
+    String xRealIp = request.getHeader("X-Real-IP");
+    if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
+      return xRealIp;
+    }
+
+    return request.getRemoteAddr();
+  }
+
   /**
    * 检查是否为当前用户
    */
@@ -144,6 +162,19 @@ public abstract class BaseController {
     }
   }
 
+  /**
+   * 检查当前用户是否为有效的VIP会员
+   */
+  protected boolean isCurrentUserVip() {
+    SecurityContext context = SecurityContextHolder.getContext();
+    Authentication authentication = context.getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+      UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+      return userPrincipal.isVip();
+    }
+    return false;
+  }
+
   /**
    * 检查当前用户是否有管理员权限
    */
@@ -13,6 +13,7 @@ import com.quickcode.entity.ProjectFile;
 import com.quickcode.service.ProjectService;
 import com.quickcode.service.ProjectFileService;
 import com.quickcode.service.FavoriteService;
+import com.quickcode.service.counter.ProjectVisitorCounter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -22,6 +23,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +46,7 @@ public class ProjectController extends BaseController {
     private final ProjectService projectService;
     private final ProjectFileService projectFileService;
     private final FavoriteService favoriteService;
+    private final ProjectVisitorCounter projectVisitorCounter;
 
     /**
      * 创建项目
@@ -101,7 +104,7 @@ public class ProjectController extends BaseController {
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
-    public ApiResponse<ProjectDetailDTO> getProjectDetail(@PathVariable Long id) {
+    public ApiResponse<ProjectDetailDTO> getProjectDetail(@PathVariable Long id, HttpServletRequest request) {
         log.info("获取项目详情: id={}", id);
 
         try {
@@ -109,6 +112,7 @@ public class ProjectController extends BaseController {
             Long userId = getCurrentUserId();
             
             ProjectDetailDTO project = projectService.getProjectDetail(id, userId);
+            projectVisitorCounter.recordVisit(id, project.getUserId(), userId, getClientIpAddress(request));
             return success(project);
         } catch (RuntimeException e) {
             log.warn("获取项目详情失败: {}", e.getMessage());
@@ -410,6 +414,26 @@ public class ProjectController extends BaseController {
         }
     }
 
+    /**
+     * 批量查询点赞状态
+     * 列表页用一次请求获取整页项目的点赞状态
+     */
+    @GetMapping("/likes/status")
+    @PreAuthorize("hasRole('USER')")
+    public ApiResponse<Map<Long, Boolean>> getLikedStatus(@RequestParam List<Long> projectIds) {
+        Long userId = getCurrentUserId();
+        log.debug("批量查询点赞状态: userId={}, projects={}", userId, projectIds.size());
+
+        try {
+            return success(projectService.getLikedStatus(userId, projectIds));
+        } catch (IllegalArgumentException e) {
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("批量查询点赞状态失败", e);
+            return error("批量查询点赞状态失败: " + e.getMessage());
+        }
+    }
+
     // ==================== 管理员功能 ====================
 
     /**
@@ -2,16 +2,30 @@ package com.quickcode.controller;
 
 import com.quickcode.common.response.ApiResponse;
 import com.quickcode.dto.ProjectDownloadHistoryResponse;
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
 import com.quickcode.dto.ProjectDownloadStatisticsResponse;
 import com.quickcode.entity.ProjectDownload;
+import com.quickcode.entity.User;
 import com.quickcode.service.DownloadTokenService;
 import com.quickcode.service.ProjectDownloadService;
+import com.quickcode.service.UserService;
+import com.quickcode.service.counter.ProjectVisitorCounter;
+import com.quickcode.service.download.ByteRange;
+import com.quickcode.service.download.BandwidthLease;
+import com.quickcode.service.download.DownloadAnomalyDetector;
+import com.quickcode.service.download.DownloadBandwidthShaper;
+import com.quickcode.service.download.DownloadProgress;
+import com.quickcode.service.download.DownloadProgressRegistry;
+import com.quickcode.service.download.DownloadResponseWriter;
+import com.quickcode.service.download.DownloadResponseWriter.TransferResult;
+import com.quickcode.service.download.SignedDownloadUrlService;
+import com.quickcode.service.download.SignedDownloadUrlService.SignedDownload;
+import com.quickcode.service.download.SignedDownloadUrlService.Verification;
 import com.quickcode.service.impl.ProjectDownloadServiceImpl;
 import com.quickcode.service.ProjectDownloadService.DownloadResult;
 import com.quickcode.service.ProjectDownloadService.DownloadStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -19,17 +33,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 项目下载控制器
@@ -46,105 +63,96 @@ public class ProjectDownloadController extends BaseController {
 
     private final ProjectDownloadService projectDownloadService;
     private final DownloadTokenService downloadTokenService;
+    private final ProjectVisitorCounter projectVisitorCounter;
+    private final DownloadResponseWriter downloadResponseWriter;
+    private final DownloadAnomalyDetector downloadAnomalyDetector;
+    private final DownloadProgressRegistry downloadProgressRegistry;
+    private final DownloadBandwidthShaper downloadBandwidthShaper;
+    private final SignedDownloadUrlService signedDownloadUrlService;
+    private final UserService userService;
+
+    private static final int FLAGGED_ACTORS_LIMIT = 100;
 
     /**
      * 下载项目主文件
+     * 支持Range/If-Range断点续传
      */
     @GetMapping("/project/{projectId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Resource> downloadProject(
+    public void downloadProject(
             @PathVariable Long projectId,
             @RequestParam(value = "source", defaultValue = "WEB") String downloadSource,
-            HttpServletRequest request) throws IOException {
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
         Long userId = getCurrentUserId();
         String userAgent = request.getHeader("User-Agent");
         String clientIp = getClientIpAddress(request);
+        long rangeStart = ByteRange.requestedStart(request.getHeader(HttpHeaders.RANGE));
         
-        log.info("下载项目请求: projectId={}, userId={}, source={}, ip={}", 
-                projectId, userId, downloadSource, clientIp);
+        log.info("下载项目请求: projectId={}, userId={}, source={}, ip={}, rangeStart={}", 
+                projectId, userId, downloadSource, clientIp, rangeStart);
 
         try {
-            DownloadResult result = projectDownloadService.downloadProject(
-                    projectId, userId, downloadSource, userAgent, clientIp);
+            DownloadResult result = projectDownloadService.downloadWithRange(
+                    projectId, null, userId, downloadSource, userAgent, clientIp, rangeStart);
 
             if (!result.isSuccess()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(null);
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
 
-            Resource resource = result.getResource();
-            String filename = resource.getFilename();
-            
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, 
-                    "attachment; filename=\"" + filename + "\"");
-            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
-
-            log.info("项目下载成功: projectId={}, userId={}, filename={}", 
-                    projectId, userId, filename);
+            TransferResult transfer = writeDownload(result, request, response);
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            log.info("项目下载结束: projectId={}, userId={}, status={}, bytes={}, aborted={}", 
+                    projectId, userId, transfer.getStatus(), transfer.getBytesWritten(), transfer.isAborted());
 
         } catch (IOException e) {
             log.error("项目下载失败: projectId={}, userId={}, error={}", 
                     projectId, userId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
     }
 
     /**
      * 下载指定项目文件
+     * 支持Range/If-Range断点续传
      */
     @GetMapping("/project/{projectId}/file/{fileId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Resource> downloadProjectFile(
+    public void downloadProjectFile(
             @PathVariable Long projectId,
             @PathVariable Long fileId,
             @RequestParam(value = "source", defaultValue = "WEB") String downloadSource,
-            HttpServletRequest request) throws IOException {
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
         Long userId = getCurrentUserId();
         String userAgent = request.getHeader("User-Agent");
         String clientIp = getClientIpAddress(request);
+        long rangeStart = ByteRange.requestedStart(request.getHeader(HttpHeaders.RANGE));
         
-        log.info("下载项目文件请求: projectId={}, fileId={}, userId={}, source={}, ip={}", 
-                projectId, fileId, userId, downloadSource, clientIp);
+        log.info("下载项目文件请求: projectId={}, fileId={}, userId={}, source={}, ip={}, rangeStart={}", 
+                projectId, fileId, userId, downloadSource, clientIp, rangeStart);
 
         try {
-            DownloadResult result = projectDownloadService.downloadProjectFile(
-                    projectId, fileId, userId, downloadSource, userAgent, clientIp);
+            DownloadResult result = projectDownloadService.downloadWithRange(
+                    projectId, fileId, userId, downloadSource, userAgent, clientIp, rangeStart);
 
             if (!result.isSuccess()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(null);
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
 
-            Resource resource = result.getResource();
-            String filename = resource.getFilename();
-            
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, 
-                    "attachment; filename=\"" + filename + "\"");
-            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
-
-            log.info("项目文件下载成功: projectId={}, fileId={}, userId={}, filename={}", 
-                    projectId, fileId, userId, filename);
+            TransferResult transfer = writeDownload(result, request, response);
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            log.info("项目文件下载结束: projectId={}, fileId={}, userId={}, status={}, bytes={}, aborted={}", 
+                    projectId, fileId, userId, transfer.getStatus(), transfer.getBytesWritten(), transfer.isAborted());
 
         } catch (IOException e) {
             log.error("项目文件下载失败: projectId={}, fileId={}, userId={}, error={}", 
                     projectId, fileId, userId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
     }
 
@@ -210,59 +218,294 @@ public class ProjectDownloadController extends BaseController {
 
     /**
      * 使用令牌下载项目
+     * 支持Range/If-Range断点续传
      */
     @GetMapping("/project/{projectId}/token/{token}")
-    public ResponseEntity<Resource> downloadWithToken(
+    public void downloadWithToken(
             @PathVariable Long projectId,
             @PathVariable String token,
-            HttpServletRequest request) throws IOException {
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
         String userAgent = request.getHeader("User-Agent");
         String clientIp = getClientIpAddress(request);
+        long rangeStart = ByteRange.requestedStart(request.getHeader(HttpHeaders.RANGE));
         
-        log.info("令牌下载项目请求: projectId={}, token={}, ip={}", 
-                projectId, token, clientIp);
+        log.info("令牌下载项目请求: projectId={}, token={}, ip={}, rangeStart={}", 
+                projectId, token, clientIp, rangeStart);
 
         try {
             // 验证令牌
             if (!projectDownloadService.validateDownloadToken(token, projectId, null)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(null);
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                return;
             }
 
             // 执行下载（使用系统用户ID或从令牌中解析用户ID）
-            DownloadResult result = projectDownloadService.downloadProject(
-                    projectId, null, "TOKEN", userAgent, clientIp);
+            DownloadResult result = projectDownloadService.downloadWithRange(
+                    projectId, null, null, "TOKEN", userAgent, clientIp, rangeStart);
 
             if (!result.isSuccess()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(null);
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
 
-            Resource resource = result.getResource();
-            String filename = resource.getFilename();
-            
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, 
-                    "attachment; filename=\"" + filename + "\"");
-            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
-
-            log.info("令牌下载成功: projectId={}, token={}, filename={}", 
-                    projectId, token, filename);
+            TransferResult transfer = writeDownload(result, request, response);
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            log.info("令牌下载结束: projectId={}, token={}, status={}, bytes={}, aborted={}", 
+                    projectId, token, transfer.getStatus(), transfer.getBytesWritten(), transfer.isAborted());
 
         } catch (IOException e) {
             log.error("令牌下载失败: projectId={}, token={}, error={}", 
                     projectId, token, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+    }
+
+    /**
+     * 签发签名下载链接
+     * 与下载令牌不同，签发和校验都不写Redis，链接可直接交给未登录的客户端或下载工具使用
+     */
+    @PostMapping("/project/{projectId}/signed-url")
+    @PreAuthorize("isAuthenticated()")
+    public ApiResponse<Map<String, Object>> generateSignedUrl(
+            @PathVariable Long projectId,
+            @RequestParam(value = "fileId", required = false) Long fileId,
+            @RequestParam(value = "expirationMinutes", defaultValue = "60") int expirationMinutes) {
+
+        Long userId = getCurrentUserId();
+        log.info("签发下载链接: projectId={}, fileId={}, userId={}, expiration={}分钟",
+                projectId, fileId, userId, expirationMinutes);
+
+        try {
+            if (!projectDownloadService.hasDownloadPermission(projectId, userId)) {
+                return error("没有下载权限");
+            }
+            if (!signedDownloadUrlService.isAvailable()) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE.value(), "下载链接服务暂时不可用，请稍后再试");
+            }
+
+            SignedDownload signed = signedDownloadUrlService.sign(projectId, userId, fileId, expirationMinutes);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("url", signed.getPath());
+            result.put("token", signed.token());
+            result.put("projectId", projectId);
+            result.put("fileId", fileId);
+            result.put("expirationTime", LocalDateTime.ofInstant(Instant.ofEpochSecond(signed.expiresAt()),
+                    ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+            return success(result, "下载链接签发成功");
+
+        } catch (Exception e) {
+            log.error("签发下载链接失败: projectId={}, userId={}", projectId, userId, e);
+            return error("签发下载链接失败");
+        }
+    }
+
+    /**
+     * 使用签名链接下载
+     * 链接本身即为凭证，校验只读本地状态；下载仍按签发用户重新检查权限和记录
+     */
+    @GetMapping("/signed/{token}")
+    public void downloadWithSignedUrl(
+            @PathVariable String token,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String userAgent = request.getHeader("User-Agent");
+        String clientIp = getClientIpAddress(request);
+        long rangeStart = ByteRange.requestedStart(request.getHeader(HttpHeaders.RANGE));
+
+        if (!signedDownloadUrlService.isAvailable()) {
+            log.warn("签名下载链接撤销版本尚未同步，拒绝下载: ip={}", clientIp);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        Verification verification = signedDownloadUrlService.verify(token);
+        if (!verification.valid()) {
+            log.warn("签名下载链接无效: ip={}, reason={}", clientIp, verification.reason());
+            response.setStatus(verification.download() != null
+                    ? HttpStatus.FORBIDDEN.value() : HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+
+        SignedDownload signed = verification.download();
+        log.info("签名链接下载请求: projectId={}, fileId={}, userId={}, ip={}, rangeStart={}",
+                signed.projectId(), signed.fileId(), signed.userId(), clientIp, rangeStart);
+
+        try {
+            DownloadResult result = projectDownloadService.downloadWithRange(signed.projectId(), signed.fileId(),
+                    signed.userId(), "SIGNED_URL", userAgent, clientIp, rangeStart);
+
+            if (!result.isSuccess()) {
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
+            }
+
+            // 签名链接不带登录态，按签发用户申请带宽配额
+            TransferResult transfer = writeDownload(result, request, response,
+                    signed.userId(), isVipUser(signed.userId()));
+
+            log.info("签名链接下载结束: projectId={}, userId={}, status={}, bytes={}, aborted={}",
+                    signed.projectId(), signed.userId(), transfer.getStatus(), transfer.getBytesWritten(),
+                    transfer.isAborted());
+
+        } catch (IOException e) {
+            log.error("签名链接下载失败: projectId={}, userId={}, error={}",
+                    signed.projectId(), signed.userId(), e.getMessage(), e);
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
     }
 
+    /**
+     * 撤销当前用户签发的所有签名下载链接
+     */
+    @DeleteMapping("/signed-urls")
+    @PreAuthorize("isAuthenticated()")
+    public ApiResponse<Map<String, Object>> revokeUserSignedUrls() {
+        Long userId = getCurrentUserId();
+        log.info("撤销用户签名下载链接: userId={}", userId);
+
+        try {
+            int epoch = signedDownloadUrlService.revokeUser(userId);
+            return success(Map.of("userId", userId, "epoch", epoch), "下载链接已撤销");
+
+        } catch (Exception e) {
+            log.error("撤销用户签名下载链接失败: userId={}", userId, e);
+            return error("撤销下载链接失败");
+        }
+    }
+
+    /**
+     * 撤销项目已签发的所有签名下载链接，仅项目作者或管理员可操作
+     */
+    @DeleteMapping("/project/{projectId}/signed-urls")
+    @PreAuthorize("isAuthenticated()")
+    public ApiResponse<Map<String, Object>> revokeProjectSignedUrls(@PathVariable Long projectId) {
+        Long userId = getCurrentUserId();
+        log.info("撤销项目签名下载链接: projectId={}, userId={}", projectId, userId);
+
+        try {
+            if (!hasAdminRole()
+                    && !projectDownloadService.getDownloadPermissionInfo(projectId, userId).getIsProjectOwner()) {
+                return error(HttpStatus.FORBIDDEN.value(), "无权撤销该项目的下载链接");
+            }
+
+            int epoch = signedDownloadUrlService.revokeProject(projectId);
+            return success(Map.of("projectId", projectId, "epoch", epoch), "下载链接已撤销");
+
+        } catch (Exception e) {
+            log.error("撤销项目签名下载链接失败: projectId={}, userId={}", projectId, userId, e);
+            return error("撤销下载链接失败");
+        }
+    }
+
+    /**
+     * 按当前登录用户输出文件并记录本次传输
+     */
+    private TransferResult writeDownload(DownloadResult result, HttpServletRequest request,
+                                         HttpServletResponse response) throws IOException {
+        return writeDownload(result, request, response, getCurrentUserId(), isCurrentUserVip());
+    }
+
+    /**
+     * 输出文件并记录本次传输，客户端中途断开时记为取消并保留断点位置
+     * 传输ID通过响应头返回，可用于查询实时进度；耗时和字节数取自传输结束时。
+     * 按下载用户等级申请带宽配额，传输结束后释放
+     *
+     * @param userId 下载用户ID，匿名下载为null
+     * @param vip 下载用户是否为VIP
+     */
+    private TransferResult writeDownload(DownloadResult result, HttpServletRequest request,
+                                         HttpServletResponse response, Long userId,
+                                         boolean vip) throws IOException {
+        ProjectDownload downloadRecord = result.getDownloadRecord();
+        DownloadProgress progress = downloadRecord != null
+                ? downloadProgressRegistry.start(downloadRecord.getProjectId(), downloadRecord.getUserId(), true)
+                : downloadProgressRegistry.start(null, null, false);
+        response.setHeader(DownloadProgressRegistry.TRANSFER_ID_HEADER, progress.getTransferId());
+
+        DownloadBandwidthShaper.Tier tier = DownloadBandwidthShaper.resolveTier(userId, vip);
+
+        TransferResult transfer;
+        try (BandwidthLease lease = downloadBandwidthShaper.open(tier, userId, getClientIpAddress(request))) {
+            transfer = downloadResponseWriter.write(
+                    request, response, result.getProjectFile(), result.getResource(), progress, lease);
+        } catch (IOException | RuntimeException e) {
+            // 读取文件出错时记录为失败，失败的下载仍可续传
+            if (downloadRecord != null) {
+                projectDownloadService.recordDownloadFailed(downloadRecord, e.getMessage());
+            }
+            throw e;
+        }
+
+        if (downloadRecord == null) {
+            return transfer;
+        }
+        if (transfer.getStatus() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+            projectDownloadService.discardDownloadTransfer(downloadRecord);
+            return transfer;
+        }
+        if (transfer.isAborted()) {
+            projectDownloadService.recordDownloadAborted(downloadRecord, transfer.getRangeStart(),
+                    transfer.getTransferredEnd(), transfer.getContentLength(), transfer.getBytesWritten(),
+                    progress.getElapsedMillis());
+        } else {
+            projectDownloadService.recordDownloadTransfer(downloadRecord, transfer.getRangeStart(),
+                    transfer.getTransferredEnd(), transfer.getContentLength(), progress.getElapsedMillis());
+        }
+        return transfer;
+    }
+
+    /**
+     * 查询用户是否为VIP，用于没有登录态的签名链接下载
+     */
+    private boolean isVipUser(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (userId.equals(getCurrentUserId())) {
+            return isCurrentUserVip();
+        }
+        try {
+            return userService.findById(userId).map(User::isVipUser).orElse(false);
+        } catch (Exception e) {
+            log.warn("查询用户VIP状态失败，按普通用户限速: userId={}", userId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 查询传输进度
+     * 只读内存中的进度，不访问数据库；传输ID来自下载响应头，是查询进行中下载的唯一方式
+     */
+    @GetMapping("/progress/{transferId}")
+    public ApiResponse<Map<String, Object>> getTransferProgress(@PathVariable String transferId) {
+        Optional<DownloadProgress> progressOpt = downloadProgressRegistry.get(transferId);
+        if (progressOpt.isEmpty()) {
+            return error(HttpStatus.NOT_FOUND.value(), "传输不存在或已过期");
+        }
+
+        DownloadProgress progress = progressOpt.get();
+        if (progress.getUserId() != null && !isCurrentUser(progress.getUserId()) && !hasAdminRole()) {
+            return error(HttpStatus.FORBIDDEN.value(), "无权查看该下载进度");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transferId", progress.getTransferId());
+        result.put("projectId", progress.getProjectId());
+        result.put("state", progress.getState());
+        result.put("percent", progress.getPercent());
+        result.put("position", progress.getPosition());
+        result.put("total", progress.getTotal());
+        result.put("transferred", progress.getTransferred());
+        result.put("elapsedMillis", progress.getElapsedMillis());
+        result.put("bytesPerSecond", progress.getBytesPerSecond());
+        return success(result);
+    }
+
     /**
      * 获取用户下载历史
      */
@@ -311,6 +554,7 @@ public class ProjectDownloadController extends BaseController {
                     projectId, startTime, endTime);
             
             ProjectDownloadStatisticsResponse response = ProjectDownloadStatisticsResponse.fromDownloadStatistics(statistics);
+            response.setUniqueVisitors(projectVisitorCounter.getStats(projectId));
 
             return success(response, "获取下载统计成功");
 
@@ -320,23 +564,6 @@ public class ProjectDownloadController extends BaseController {
         }
     }
 
-    /**
-     * 获取客户端IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
-
     // ==================== 令牌管理接口 ====================
 
     /**
@@ -552,6 +779,7 @@ public class ProjectDownloadController extends BaseController {
             // TODO: 验证用户是否为项目所有者或管理员
 
             Map<String, Object> statistics = ((ProjectDownloadServiceImpl) projectDownloadService).getProjectDownloadStatistics(projectId);
+            statistics.put("uniqueVisitors", projectVisitorCounter.getStats(projectId));
             return success(statistics);
 
         } catch (Exception e) {
@@ -628,14 +856,20 @@ public class ProjectDownloadController extends BaseController {
     @PreAuthorize("hasRole('ADMIN')")
     public ApiResponse<List<Map<String, Object>>> getDownloadTrends(
             @RequestParam(required = false) Long projectId,
-            @RequestParam(defaultValue = "30") int days) {
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "DAY") String granularity) {
 
-        log.info("获取下载趋势: projectId={}, days={}", projectId, days);
+        log.info("获取下载趋势: projectId={}, days={}, granularity={}", projectId, days, granularity);
 
         try {
-            List<Map<String, Object>> trends = projectDownloadService.getDownloadTrends(projectId, days);
+            Granularity trendGranularity = Granularity.valueOf(granularity.toUpperCase());
+            // 按小时统计时，days表示小时数
+            List<Map<String, Object>> trends = projectDownloadService.getDownloadTrends(
+                    projectId, days, trendGranularity);
             return success(trends);
 
+        } catch (IllegalArgumentException e) {
+            return error("不支持的统计粒度: " + granularity);
         } catch (Exception e) {
             log.error("获取下载趋势失败", e);
             return error("获取下载趋势失败");
@@ -644,6 +878,7 @@ public class ProjectDownloadController extends BaseController {
 
     /**
      * 检测异常下载行为
+     * 基于实时检测的内存状态，不查询数据库
      */
     @PostMapping("/security/detect-abnormal")
     @PreAuthorize("hasRole('ADMIN')")
@@ -657,13 +892,17 @@ public class ProjectDownloadController extends BaseController {
         try {
             boolean isAbnormal = projectDownloadService.detectAbnormalDownloadBehavior(userId, clientIp, timeWindowMinutes);
 
-            Map<String, Object> result = Map.of(
-                    "isAbnormal", isAbnormal,
-                    "userId", userId != null ? userId : "N/A",
-                    "clientIp", clientIp != null ? clientIp : "N/A",
-                    "timeWindowMinutes", timeWindowMinutes,
-                    "timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-            );
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("isAbnormal", isAbnormal);
+            result.put("userId", userId != null ? userId : "N/A");
+            result.put("clientIp", clientIp != null ? clientIp : "N/A");
+            result.put("timeWindowMinutes", timeWindowMinutes);
+            result.put("flags", downloadAnomalyDetector.getFlags(userId, clientIp));
+            if (userId == null && clientIp == null) {
+                // 未指定用户和IP时返回当前所有被标记的主体
+                result.put("flaggedActors", downloadAnomalyDetector.getFlaggedActors(FLAGGED_ACTORS_LIMIT));
+            }
+            result.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
 
             return success(result);
 
@@ -12,13 +12,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.quickcode.common.response.ApiResponse;
+import com.quickcode.common.response.CursorPageResponse;
 import com.quickcode.common.response.PageResponse;
+import com.quickcode.common.response.SliceResponse;
 import com.quickcode.dto.project.ProjectDTO;
 import com.quickcode.dto.project.ProjectDetailDTO;
+import com.quickcode.dto.project.ProjectFacetsDTO;
 import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.dto.project.ProjectSuggestionDTO;
 import com.quickcode.dto.category.CategoryDTO;
 import com.quickcode.service.ProjectService;
 import com.quickcode.service.CategoryService;
+import com.quickcode.service.counter.ProjectVisitorCounter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,6 +44,7 @@ public class PublicProjectController extends BaseController {
 
     private final ProjectService projectService;
     private final CategoryService categoryService;
+    private final ProjectVisitorCounter projectVisitorCounter;
 
     /**
      * 获取项目列表（公开接口）
@@ -48,16 +55,22 @@ public class PublicProjectController extends BaseController {
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> techStack,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
             @RequestParam(defaultValue = "created_time") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
 
-        log.info("获取公开项目列表: page={}, size={}, category={}, keyword={}",
-                page, size, category, keyword);
+        log.info("获取公开项目列表: page={}, size={}, category={}, keyword={}, techStack={}, tags={}",
+                page, size, category, keyword, techStack, tags);
 
         try {
             // 构建搜索请求
             ProjectSearchRequest searchRequest = ProjectSearchRequest.builder()
                     .keyword(keyword)
+                    .techStack(techStack)
+                    .tags(tags)
+                    .tagMatchMode(tagMatch)
                     .page(page)
                     .size(size)
                     .sortBy(sortBy)
@@ -92,11 +105,94 @@ public class PublicProjectController extends BaseController {
         }
     }
 
+    /**
+     * 切片分页获取项目列表（公开接口）
+     * 参数与列表接口一致，不执行COUNT查询，返回是否有下一页和近似总数
+     */
+    @GetMapping("/slice")
+    public ApiResponse<SliceResponse<ProjectDTO>> getPublicProjectsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> techStack,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
+            @RequestParam(defaultValue = "created_time") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        log.info("切片分页获取公开项目列表: page={}, size={}, category={}, keyword={}, techStack={}, tags={}",
+                page, size, category, keyword, techStack, tags);
+
+        try {
+            ProjectSearchRequest searchRequest = ProjectSearchRequest.builder()
+                    .keyword(keyword)
+                    .techStack(techStack)
+                    .tags(tags)
+                    .tagMatchMode(tagMatch)
+                    .page(page)
+                    .size(size)
+                    .sortBy(sortBy)
+                    .sortDirection(sortDir)
+                    .status(1) // 只查询已发布的项目
+                    .build();
+
+            if (category != null && !category.isEmpty()) {
+                categoryService.getCategoryByCode(category)
+                        .ifPresent(categoryDTO -> searchRequest.setCategoryId(categoryDTO.getId()));
+            }
+
+            return success(projectService.searchProjectsSlice(searchRequest));
+        } catch (IllegalArgumentException e) {
+            log.warn("切片分页参数无效: {}", e.getMessage());
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("切片分页获取项目列表失败", e);
+            return error("获取项目列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 游标分页获取项目列表（公开接口）
+     * 适用于无限滚动，按（排序值, ID）定位下一页，不统计总数
+     */
+    @GetMapping("/cursor")
+    public ApiResponse<CursorPageResponse<ProjectDTO>> getPublicProjectsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "published_time") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        log.info("游标分页获取公开项目列表: cursor={}, size={}, category={}, keyword={}, sortBy={}",
+                cursor, size, category, keyword, sortBy);
+
+        try {
+            Long categoryId = null;
+            if (category != null && !category.isEmpty()) {
+                categoryId = categoryService.getCategoryByCode(category)
+                        .map(CategoryDTO::getId)
+                        .orElse(null);
+            }
+
+            CursorPageResponse<ProjectDTO> response = projectService.getPublishedProjectsByCursor(
+                    categoryId, keyword, sortBy, sortDir, cursor, size);
+            return success(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("游标分页参数无效: {}", e.getMessage());
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("游标分页获取项目列表失败", e);
+            return error("获取项目列表失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取项目详情（公开接口）
      */
     @GetMapping("/{id}")
-    public ApiResponse<ProjectDetailDTO> getPublicProjectDetail(@PathVariable Long id) {
+    public ApiResponse<ProjectDetailDTO> getPublicProjectDetail(@PathVariable Long id, HttpServletRequest request) {
         log.info("获取公开项目详情: id={}", id);
 
         try {
@@ -107,8 +203,8 @@ public class PublicProjectController extends BaseController {
                 return error("项目不存在或已下架");
             }
 
-            // 异步增加浏览次数
-            projectService.incrementViewCount(id);
+            // 浏览次数已在getPublishedProjectDetail中计入，这里按访客去重记录
+            projectVisitorCounter.recordVisit(id, project.getUserId(), getCurrentUserId(), getClientIpAddress(request));
 
             return success(project);
         } catch (Exception e) {
@@ -118,6 +214,45 @@ public class PublicProjectController extends BaseController {
         }
     }
 
+    /**
+     * 搜索框输入联想（公开接口）
+     * 输入时高频调用，只记录debug日志
+     */
+    @GetMapping("/suggest")
+    public ApiResponse<List<ProjectSuggestionDTO>> suggest(
+            @RequestParam(value = "q", required = false) String keyword,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("输入联想: q={}, limit={}", keyword, limit);
+
+        try {
+            List<ProjectSuggestionDTO> suggestions = projectService.suggest(keyword, Math.min(Math.max(limit, 1), 20));
+            return success(suggestions);
+        } catch (Exception e) {
+            log.error("输入联想失败: q={}", keyword, e);
+            return error("输入联想失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取相关项目推荐（公开接口）
+     */
+    @GetMapping("/{id}/related")
+    public ApiResponse<List<ProjectDTO>> getRelatedProjects(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit) {
+
+        log.info("获取相关项目推荐: id={}, limit={}", id, limit);
+
+        try {
+            List<ProjectDTO> projects = projectService.getRelatedProjects(id, Math.min(Math.max(limit, 1), 20));
+            return success(projects);
+        } catch (Exception e) {
+            log.error("获取相关项目推荐失败: id={}", id, e);
+            return error("获取相关项目推荐失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取项目分类（公开接口）
      */
@@ -165,17 +300,64 @@ public class PublicProjectController extends BaseController {
         }
     }
 
+    /**
+     * 获取搜索分面统计（公开接口）
+     * 返回当前筛选条件下各技术栈、标签的项目数量，供搜索页侧边栏使用
+     */
+    @GetMapping("/facets")
+    public ApiResponse<ProjectFacetsDTO> getSearchFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> techStack,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        log.info("获取搜索分面统计: category={}, keyword={}, techStack={}, tags={}",
+                category, keyword, techStack, tags);
+
+        try {
+            ProjectSearchRequest searchRequest = ProjectSearchRequest.builder()
+                    .keyword(keyword)
+                    .techStack(techStack)
+                    .tags(tags)
+                    .tagMatchMode(tagMatch)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .minRating(minRating)
+                    .build();
+
+            if (category != null && !category.isEmpty()) {
+                categoryService.getCategoryByCode(category)
+                        .ifPresent(categoryDTO -> searchRequest.setCategoryId(categoryDTO.getId()));
+            }
+
+            return success(projectService.getSearchFacets(searchRequest, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("分面统计参数无效: {}", e.getMessage());
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("获取搜索分面统计失败", e);
+            return error("获取搜索分面统计失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取热门项目（公开接口）
+     * 按近期浏览、收藏、下载、购买的衰减热度排序，传入categoryId时返回分类热门
      */
     @GetMapping("/popular")
     public ApiResponse<List<ProjectDTO>> getPopularProjects(
+            @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "10") int limit) {
 
-        log.info("获取热门项目列表: limit={}", limit);
+        log.info("获取热门项目列表: categoryId={}, limit={}", categoryId, limit);
 
         try {
-            List<ProjectDTO> projects = projectService.getPopularProjects(limit);
+            List<ProjectDTO> projects = projectService.getPopularProjects(categoryId, limit);
             return success(projects);
         } catch (Exception e) {
             log.error("获取热门项目失败", e);
@@ -251,4 +433,60 @@ public class PublicProjectController extends BaseController {
             return error("根据分类获取项目失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 根据分类切片分页获取已发布项目（公开接口，不执行COUNT查询）
+     */
+    @GetMapping("/category/{categoryId}/slice")
+    public ApiResponse<SliceResponse<ProjectDTO>> getProjectsByCategorySlice(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+
+        log.info("根据分类切片分页获取项目: categoryId={}, page={}, size={}", categoryId, page, size);
+
+        try {
+            ProjectSearchRequest searchRequest = ProjectSearchRequest.builder()
+                    .categoryId(categoryId)
+                    .page(page)
+                    .size(size)
+                    .sortBy("created_time")
+                    .sortDirection("desc")
+                    .status(1)
+                    .build();
+            return success(projectService.searchProjectsSlice(searchRequest));
+        } catch (IllegalArgumentException e) {
+            log.warn("切片分页参数无效: {}", e.getMessage());
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("根据分类切片分页获取项目失败", e);
+            return error("根据分类获取项目失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 根据分类游标分页获取项目（公开接口）
+     */
+    @GetMapping("/category/{categoryId}/cursor")
+    public ApiResponse<CursorPageResponse<ProjectDTO>> getProjectsByCategoryCursor(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "published_time") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        log.info("根据分类游标分页获取项目: categoryId={}, cursor={}, size={}, sortBy={}", categoryId, cursor, size, sortBy);
+
+        try {
+            CursorPageResponse<ProjectDTO> response = projectService.getPublishedProjectsByCursor(
+                    categoryId, null, sortBy, sortDir, cursor, size);
+            return success(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("游标分页参数无效: {}", e.getMessage());
+            return error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("根据分类游标分页获取项目失败", e);
+            return error("根据分类获取项目失败: " + e.getMessage());
+        }
+    }
 }
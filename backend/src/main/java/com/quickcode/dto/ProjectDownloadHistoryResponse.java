@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDateTime;
 
@@ -125,7 +126,10 @@ public class ProjectDownloadHistoryResponse {
      * 获取项目标题
      */
     private static String getProjectTitle(ProjectDownload download) {
-        // 暂时返回默认值，后续可以通过服务层注入项目信息
+        // 仅使用查询时已一并加载的项目，避免逐条触发懒加载
+        if (Hibernate.isInitialized(download.getProject()) && download.getProject() != null) {
+            return download.getProject().getTitle();
+        }
         return "项目-" + download.getProjectId();
     }
 
@@ -133,7 +137,9 @@ public class ProjectDownloadHistoryResponse {
      * 获取文件名
      */
     private static String getFileName(ProjectDownload download) {
-        // 暂时返回默认值，后续可以通过服务层注入文件信息
+        if (Hibernate.isInitialized(download.getProjectFile()) && download.getProjectFile() != null) {
+            return download.getProjectFile().getOriginalName();
+        }
         return "文件-" + download.getFileId();
     }
 
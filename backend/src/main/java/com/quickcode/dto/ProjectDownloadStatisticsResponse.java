@@ -1,5 +1,6 @@
 package com.quickcode.dto;
 
+import com.quickcode.dto.project.UniqueVisitorStats;
 import com.quickcode.service.ProjectDownloadService.DownloadStatistics;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -60,6 +61,11 @@ public class ProjectDownloadStatisticsResponse {
      */
     private Map<String, Long> downloadsByDate;
 
+    /**
+     * 项目详情页独立访客统计
+     */
+    private UniqueVisitorStats uniqueVisitors;
+
     /**
      * 从DownloadStatistics转换
      */
@@ -0,0 +1,136 @@
+package com.quickcode.dto.project;
+
+import com.quickcode.entity.Project;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * 项目列表游标
+ * 记录上一页最后一条记录的（排序值, 项目ID），编码为不透明字符串返回给前端，
+ * 下一页按该位置做键集（seek）查询，避免OFFSET深翻页和COUNT查询
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class ProjectCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 排序字段
+     */
+    private final SortKey sortKey;
+
+    /**
+     * 是否升序
+     */
+    private final boolean ascending;
+
+    /**
+     * 排序字段值（可能为null）
+     */
+    private final Comparable<?> value;
+
+    /**
+     * 项目ID（同值时按ID倒序）
+     */
+    private final Long id;
+
+    /**
+     * 根据项目生成游标
+     */
+    public static ProjectCursor of(SortKey sortKey, boolean ascending, Project project) {
+        return new ProjectCursor(sortKey, ascending, sortKey.valueOf(project), project.getId());
+    }
+
+    /**
+     * 编码为URL安全的字符串
+     */
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR
+                + (value == null ? "" : value.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 从字符串解码游标
+     */
+    public static ProjectCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !("asc".equals(parts[1]) || "desc".equals(parts[1]))) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            boolean ascending = "asc".equals(parts[1]);
+            Comparable<?> value = parts[2].isEmpty() ? null : sortKey.parse(parts[2]);
+            return new ProjectCursor(sortKey, ascending, value, Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    /**
+     * 游标分页支持的排序字段
+     */
+    @Getter
+    public enum SortKey {
+        PUBLISHED_TIME("publishedTime", Project::getPublishedTime, LocalDateTime::parse),
+        DOWNLOAD_COUNT("downloadCount", Project::getDownloadCount, Integer::valueOf),
+        RATING("rating", Project::getRating, BigDecimal::new),
+        PRICE("price", Project::getPrice, BigDecimal::new);
+
+        /**
+         * 实体属性名
+         */
+        private final String property;
+
+        private final Function<Project, Comparable<?>> extractor;
+        private final Function<String, Comparable<?>> parser;
+
+        SortKey(String property, Function<Project, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+            this.property = property;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        /**
+         * 读取项目的排序字段值
+         */
+        public Comparable<?> valueOf(Project project) {
+            return extractor.apply(project);
+        }
+
+        /**
+         * 解析游标中的排序字段值
+         */
+        public Comparable<?> parse(String raw) {
+            return parser.apply(raw);
+        }
+
+        /**
+         * 将前端排序参数映射为排序字段，未指定时按发布时间排序
+         */
+        public static SortKey fromParam(String param) {
+            if (param == null || param.trim().isEmpty()) {
+                return PUBLISHED_TIME;
+            }
+            return switch (param.trim().toLowerCase()) {
+                case "publishedtime", "published_time", "publishedat", "published_at", "latest" -> PUBLISHED_TIME;
+                case "downloadcount", "download_count", "downloads" -> DOWNLOAD_COUNT;
+                case "rating" -> RATING;
+                case "price" -> PRICE;
+                default -> throw new IllegalArgumentException("游标分页不支持的排序字段: " + param);
+            };
+        }
+    }
+}
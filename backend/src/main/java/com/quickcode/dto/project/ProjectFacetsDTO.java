@@ -0,0 +1,67 @@
+package com.quickcode.dto.project;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 项目搜索分面统计DTO
+ * 用于搜索页侧边栏展示各技术栈、标签在当前筛选结果中的项目数量
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectFacetsDTO {
+
+    /**
+     * 当前筛选条件下的项目总数
+     */
+    private Long total;
+
+    /**
+     * 技术栈分面（按数量倒序）
+     */
+    private List<FacetCount> techStack;
+
+    /**
+     * 标签分面（按数量倒序）
+     */
+    private List<FacetCount> tags;
+
+    /**
+     * 空的分面统计
+     */
+    public static ProjectFacetsDTO empty() {
+        return ProjectFacetsDTO.builder()
+                .total(0L)
+                .techStack(List.of())
+                .tags(List.of())
+                .build();
+    }
+
+    /**
+     * 单个分面值及其项目数量
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+
+        /**
+         * 分面值（技术栈或标签名称）
+         */
+        private String value;
+
+        /**
+         * 项目数量
+         */
+        private Long count;
+    }
+}
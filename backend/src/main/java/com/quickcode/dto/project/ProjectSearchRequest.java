@@ -67,6 +67,12 @@ public class ProjectSearchRequest {
      */
     private List<String> tags;
 
+    /**
+     * 技术栈/标签的匹配方式
+     * 可选值：all（必须包含全部所选值，默认）, any（技术栈、标签各自命中任意一个即可）
+     */
+    private String tagMatchMode;
+
     /**
      * 项目状态
      */
@@ -172,6 +178,11 @@ public class ProjectSearchRequest {
             throw new IllegalArgumentException("排序方向只能是asc或desc");
         }
 
+        // 验证匹配方式
+        if (tagMatchMode != null && !"all".equals(tagMatchMode) && !"any".equals(tagMatchMode)) {
+            throw new IllegalArgumentException("匹配方式只能是all或any");
+        }
+
         // 验证技术栈数量
         if (techStack != null && techStack.size() > 10) {
             throw new IllegalArgumentException("技术栈筛选条件不能超过10个");
@@ -216,6 +227,11 @@ public class ProjectSearchRequest {
             sortDirection = sortDirection.trim().toLowerCase();
         }
 
+        // 清理匹配方式
+        if (tagMatchMode != null) {
+            tagMatchMode = tagMatchMode.trim().toLowerCase();
+        }
+
         // 清理技术栈
         if (techStack != null) {
             techStack = techStack.stream()
@@ -277,6 +293,20 @@ public class ProjectSearchRequest {
         return Boolean.TRUE.equals(featuredOnly);
     }
 
+    /**
+     * 检查是否有技术栈或标签筛选
+     */
+    public boolean hasTagFilter() {
+        return techStack != null || tags != null;
+    }
+
+    /**
+     * 技术栈/标签是否按任意一个匹配
+     */
+    public boolean isMatchAnyTag() {
+        return "any".equalsIgnoreCase(tagMatchMode);
+    }
+
     /**
      * 获取排序方向（升序或降序）
      */
@@ -0,0 +1,54 @@
+package com.quickcode.dto.project;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索框输入联想DTO
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSuggestionDTO {
+
+    /**
+     * 联想类型
+     */
+    private SuggestionType type;
+
+    /**
+     * 展示文本（项目标题、标签、技术栈或分类名称）
+     */
+    private String text;
+
+    /**
+     * 项目ID（类型为PROJECT时有值）
+     */
+    private Long projectId;
+
+    /**
+     * 分类ID（类型为PROJECT、CATEGORY时有值）
+     */
+    private Long categoryId;
+
+    /**
+     * 分类编码（类型为CATEGORY时有值）
+     */
+    private String categoryCode;
+
+    /**
+     * 联想类型枚举
+     */
+    public enum SuggestionType {
+        PROJECT,
+        TAG,
+        TECH_STACK,
+        CATEGORY
+    }
+}
@@ -70,6 +70,11 @@ public class UserProjectStats {
      */
     private BigDecimal averageRating;
 
+    /**
+     * 项目独立访客统计（所有项目合计去重）
+     */
+    private UniqueVisitorStats uniqueVisitors;
+
     /**
      * 创建空的统计数据
      * 
@@ -87,6 +92,7 @@ public class UserProjectStats {
                 .totalViews(0L)
                 .totalLikes(0L)
                 .averageRating(BigDecimal.ZERO)
+                .uniqueVisitors(UniqueVisitorStats.empty())
                 .build();
     }
 
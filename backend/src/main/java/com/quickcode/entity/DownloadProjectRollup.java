@@ -0,0 +1,114 @@
+package com.quickcode.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 项目下载汇总实体类
+ * 按小时、按天汇总每个项目在各下载来源、下载状态下的下载次数、字节数和耗时，
+ * 统计接口只读取汇总，不再聚合下载明细
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "download_project_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_download_project_rollup",
+                columnNames = {"granularity", "period_start", "project_id", "download_source", "download_status"}),
+        indexes = {
+                @Index(name = "idx_download_project_rollup_period", columnList = "granularity, period_start"),
+                @Index(name = "idx_download_project_rollup_project", columnList = "project_id, granularity, period_start")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadProjectRollup {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 汇总粒度
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    /**
+     * 汇总周期开始时间（整点或零点）
+     */
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    /**
+     * 项目ID
+     */
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    /**
+     * 下载来源，未知来源记为UNKNOWN
+     */
+    @Column(name = "download_source", nullable = false, length = 20)
+    private String downloadSource;
+
+    /**
+     * 下载状态
+     */
+    @Column(name = "download_status", nullable = false)
+    private Integer downloadStatus;
+
+    /**
+     * 下载次数
+     */
+    @Column(name = "download_count", nullable = false)
+    private Long downloadCount;
+
+    /**
+     * 文件大小合计（字节）
+     */
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    /**
+     * 下载耗时合计（毫秒）
+     */
+    @Column(name = "total_duration", nullable = false)
+    private Long totalDuration;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_time")
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_time")
+    private LocalDateTime updatedTime;
+
+    /**
+     * 汇总粒度枚举
+     */
+    public enum Granularity {
+        HOUR,
+        DAY;
+
+        /**
+         * 时间所在周期的开始时间
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return this == HOUR
+                    ? time.withMinute(0).withSecond(0).withNano(0)
+                    : time.toLocalDate().atStartOfDay();
+        }
+    }
+}
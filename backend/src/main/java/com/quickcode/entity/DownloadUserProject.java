@@ -0,0 +1,67 @@
+package com.quickcode.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户已下载项目实体类
+ * 每个(用户, 项目)组合在首次成功下载后保留一行，用于统计去重的下载用户数和下载项目数
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "download_user_projects",
+        uniqueConstraints = @UniqueConstraint(name = "uk_download_user_project", columnNames = {"user_id", "project_id"}),
+        indexes = @Index(name = "idx_download_user_project_project", columnList = "project_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadUserProject {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 项目ID
+     */
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    /**
+     * 首次成功下载时间
+     */
+    @Column(name = "first_download_time", nullable = false)
+    private LocalDateTime firstDownloadTime;
+
+    /**
+     * 最近一次成功下载时间
+     */
+    @Column(name = "last_download_time", nullable = false)
+    private LocalDateTime lastDownloadTime;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_time")
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_time")
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,84 @@
+package com.quickcode.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户下载汇总实体类
+ * 按小时、按天汇总每个用户在各下载状态下的下载次数和字节数
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "download_user_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_download_user_rollup",
+                columnNames = {"granularity", "period_start", "user_id", "download_status"}),
+        indexes = {
+                @Index(name = "idx_download_user_rollup_period", columnList = "granularity, period_start"),
+                @Index(name = "idx_download_user_rollup_user", columnList = "user_id, granularity, period_start")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadUserRollup {
+
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 汇总粒度
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private DownloadProjectRollup.Granularity granularity;
+
+    /**
+     * 汇总周期开始时间（整点或零点）
+     */
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    /**
+     * 用户ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 下载状态
+     */
+    @Column(name = "download_status", nullable = false)
+    private Integer downloadStatus;
+
+    /**
+     * 下载次数
+     */
+    @Column(name = "download_count", nullable = false)
+    private Long downloadCount;
+
+    /**
+     * 文件大小合计（字节）
+     */
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_time")
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_time")
+    private LocalDateTime updatedTime;
+}
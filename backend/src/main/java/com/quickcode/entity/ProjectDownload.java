@@ -65,6 +65,7 @@ public class ProjectDownload extends BaseEntity {
      * 1: 下载完成
      * 2: 下载失败
      * 3: 下载取消
+     * 4: 下载暂停
      */
     @Builder.Default
     @Column(name = "download_status", nullable = false)
@@ -113,6 +114,13 @@ public class ProjectDownload extends BaseEntity {
     @Column(name = "is_repeat", nullable = false)
     private Boolean isRepeat = false;
 
+    /**
+     * 断点续传位置（字节），即已连续发送到客户端的字节数
+     */
+    @Builder.Default
+    @Column(name = "resume_offset", nullable = false)
+    private Long resumeOffset = 0L;
+
     /**
      * 下载备注
      */
@@ -148,7 +156,8 @@ public class ProjectDownload extends BaseEntity {
         DOWNLOADING(0, "下载中"),
         COMPLETED(1, "下载完成"),
         FAILED(2, "下载失败"),
-        CANCELLED(3, "下载取消");
+        CANCELLED(3, "下载取消"),
+        PAUSED(4, "下载暂停");
 
         private final Integer code;
         private final String description;
@@ -240,6 +249,45 @@ public class ProjectDownload extends BaseEntity {
         this.downloadStatus = DownloadStatus.CANCELLED.getCode();
     }
 
+    /**
+     * 暂停下载，保留断点位置
+     */
+    public void pauseDownload() {
+        this.downloadStatus = DownloadStatus.PAUSED.getCode();
+    }
+
+    /**
+     * 从断点继续下载
+     */
+    public void resumeDownload() {
+        this.downloadStatus = DownloadStatus.DOWNLOADING.getCode();
+    }
+
+    /**
+     * 推进断点位置
+     * 只接受从当前断点或之前开始的传输，避免跳跃的分段请求留下空洞
+     *
+     * @param rangeStart 本次传输的起始位置
+     * @param transferredEnd 本次传输结束后的位置（不含）
+     */
+    public void advanceResumeOffset(long rangeStart, long transferredEnd) {
+        long current = resumeOffset != null ? resumeOffset : 0L;
+        if (rangeStart <= current && transferredEnd > current) {
+            this.resumeOffset = transferredEnd;
+        }
+    }
+
+    /**
+     * 检查是否可以断点续传
+     * 客户端中断的传输记为取消，同样保留断点位置
+     */
+    public boolean isResumable() {
+        return DownloadStatus.DOWNLOADING.getCode().equals(this.downloadStatus)
+                || DownloadStatus.PAUSED.getCode().equals(this.downloadStatus)
+                || DownloadStatus.FAILED.getCode().equals(this.downloadStatus)
+                || DownloadStatus.CANCELLED.getCode().equals(this.downloadStatus);
+    }
+
     /**
      * 检查是否下载完成
      */
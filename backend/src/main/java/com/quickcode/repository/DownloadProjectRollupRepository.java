@@ -0,0 +1,83 @@
+package com.quickcode.repository;
+
+import com.quickcode.entity.DownloadProjectRollup;
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 项目下载汇总Repository接口
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Repository
+public interface DownloadProjectRollupRepository extends JpaRepository<DownloadProjectRollup, Long> {
+
+    /**
+     * 统计时间段内下载次数最多的项目
+     *
+     * @return [项目ID, 下载次数]
+     */
+    @Query("SELECT r.projectId, SUM(r.downloadCount) AS total FROM DownloadProjectRollup r " +
+           "WHERE r.granularity = :granularity AND r.periodStart >= :startTime AND r.downloadStatus = :status " +
+           "GROUP BY r.projectId ORDER BY total DESC")
+    List<Object[]> findTopProjects(@Param("granularity") Granularity granularity,
+                                   @Param("startTime") LocalDateTime startTime,
+                                   @Param("status") Integer status,
+                                   Pageable pageable);
+
+    /**
+     * 按下载来源统计时间段内的下载次数
+     *
+     * @return [下载来源, 下载次数]
+     */
+    @Query("SELECT r.downloadSource, SUM(r.downloadCount) AS total FROM DownloadProjectRollup r " +
+           "WHERE r.granularity = :granularity AND r.periodStart >= :startTime AND r.downloadStatus = :status " +
+           "GROUP BY r.downloadSource ORDER BY total DESC")
+    List<Object[]> sumBySource(@Param("granularity") Granularity granularity,
+                               @Param("startTime") LocalDateTime startTime,
+                               @Param("status") Integer status);
+
+    /**
+     * 全站下载趋势
+     *
+     * @return [周期开始时间, 下载次数]
+     */
+    @Query("SELECT r.periodStart, SUM(r.downloadCount) FROM DownloadProjectRollup r " +
+           "WHERE r.granularity = :granularity AND r.periodStart >= :startTime AND r.downloadStatus = :status " +
+           "GROUP BY r.periodStart ORDER BY r.periodStart")
+    List<Object[]> findTrend(@Param("granularity") Granularity granularity,
+                             @Param("startTime") LocalDateTime startTime,
+                             @Param("status") Integer status);
+
+    /**
+     * 项目下载趋势
+     *
+     * @return [周期开始时间, 下载次数]
+     */
+    @Query("SELECT r.periodStart, SUM(r.downloadCount) FROM DownloadProjectRollup r " +
+           "WHERE r.projectId = :projectId AND r.granularity = :granularity AND r.periodStart >= :startTime " +
+           "AND r.downloadStatus = :status GROUP BY r.periodStart ORDER BY r.periodStart")
+    List<Object[]> findProjectTrend(@Param("projectId") Long projectId,
+                                    @Param("granularity") Granularity granularity,
+                                    @Param("startTime") LocalDateTime startTime,
+                                    @Param("status") Integer status);
+
+    /**
+     * 项目累计下载次数、字节数、耗时
+     *
+     * @return 单行[下载次数, 字节数, 耗时]
+     */
+    @Query("SELECT SUM(r.downloadCount), SUM(r.totalSize), SUM(r.totalDuration) FROM DownloadProjectRollup r " +
+           "WHERE r.projectId = :projectId AND r.granularity = :granularity AND r.downloadStatus = :status")
+    List<Object[]> sumByProject(@Param("projectId") Long projectId,
+                                @Param("granularity") Granularity granularity,
+                                @Param("status") Integer status);
+}
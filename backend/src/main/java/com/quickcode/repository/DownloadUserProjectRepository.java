@@ -0,0 +1,25 @@
+package com.quickcode.repository;
+
+import com.quickcode.entity.DownloadUserProject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 用户已下载项目Repository接口
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Repository
+public interface DownloadUserProjectRepository extends JpaRepository<DownloadUserProject, Long> {
+
+    /**
+     * 用户成功下载过的项目数
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * 成功下载过项目的用户数
+     */
+    long countByProjectId(Long projectId);
+}
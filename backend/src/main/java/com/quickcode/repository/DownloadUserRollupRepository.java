@@ -0,0 +1,46 @@
+package com.quickcode.repository;
+
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
+import com.quickcode.entity.DownloadUserRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 用户下载汇总Repository接口
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Repository
+public interface DownloadUserRollupRepository extends JpaRepository<DownloadUserRollup, Long> {
+
+    /**
+     * 统计时间段内下载次数最多的用户
+     *
+     * @return [用户ID, 下载次数]
+     */
+    @Query("SELECT r.userId, SUM(r.downloadCount) AS total FROM DownloadUserRollup r " +
+           "WHERE r.granularity = :granularity AND r.periodStart >= :startTime AND r.downloadStatus = :status " +
+           "GROUP BY r.userId ORDER BY total DESC")
+    List<Object[]> findTopUsers(@Param("granularity") Granularity granularity,
+                                @Param("startTime") LocalDateTime startTime,
+                                @Param("status") Integer status,
+                                Pageable pageable);
+
+    /**
+     * 用户累计下载次数和字节数
+     *
+     * @return 单行[下载次数, 字节数]
+     */
+    @Query("SELECT SUM(r.downloadCount), SUM(r.totalSize) FROM DownloadUserRollup r " +
+           "WHERE r.userId = :userId AND r.granularity = :granularity AND r.downloadStatus = :status")
+    List<Object[]> sumByUser(@Param("userId") Long userId,
+                             @Param("granularity") Granularity granularity,
+                             @Param("status") Integer status);
+}
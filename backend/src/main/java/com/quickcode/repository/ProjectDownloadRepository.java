@@ -3,12 +3,14 @@ package com.quickcode.repository;
 import com.quickcode.entity.ProjectDownload;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +54,12 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
      */
     Optional<ProjectDownload> findFirstByUserIdAndProjectIdOrderByDownloadTimeDesc(Long userId, Long projectId);
 
+    /**
+     * 查找用户对指定文件最近一次可续传的下载记录
+     */
+    Optional<ProjectDownload> findFirstByUserIdAndFileIdAndDownloadStatusInAndDownloadTimeAfterOrderByDownloadTimeDesc(
+            Long userId, Long fileId, Collection<Integer> downloadStatuses, LocalDateTime after);
+
     /**
      * 根据下载状态查找记录
      */
@@ -201,6 +209,13 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
     @Query("SELECT COUNT(pd) > 0 FROM ProjectDownload pd WHERE pd.userId = :userId AND pd.projectId = :projectId AND pd.downloadStatus = 1")
     boolean hasUserDownloadedProject(@Param("userId") Long userId, @Param("projectId") Long projectId);
 
+    /**
+     * 批量查询已成功下载过的(用户ID, 项目ID)组合
+     */
+    @Query("SELECT DISTINCT pd.userId, pd.projectId FROM ProjectDownload pd WHERE pd.userId IN :userIds AND pd.projectId IN :projectIds AND pd.downloadStatus = 1")
+    List<Object[]> findDownloadedUserProjectPairs(@Param("userIds") Collection<Long> userIds,
+                                                  @Param("projectIds") Collection<Long> projectIds);
+
     /**
      * 更新下载状态
      */
@@ -258,6 +273,7 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
     /**
      * 查找用户最近下载的项目
      */
+    @EntityGraph(attributePaths = {"project", "projectFile"})
     @Query("SELECT pd FROM ProjectDownload pd WHERE pd.userId = :userId AND pd.downloadStatus = 1 ORDER BY pd.downloadTime DESC")
     Page<ProjectDownload> findUserRecentDownloads(@Param("userId") Long userId, Pageable pageable);
 
@@ -317,6 +333,7 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
     /**
      * 根据用户ID和筛选条件查找下载记录
      */
+    @EntityGraph(attributePaths = {"project", "projectFile"})
     @Query("SELECT pd FROM ProjectDownload pd LEFT JOIN pd.project p WHERE pd.userId = :userId " +
            "AND (:keyword IS NULL OR :keyword = '' OR " +
            "     p.title LIKE %:keyword% OR " +
@@ -333,14 +350,21 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
     /**
      * 根据用户ID查找下载记录，按项目下载次数排序（降序）
      */
-    @Query("SELECT pd, p.downloadCount FROM ProjectDownload pd " +
-           "LEFT JOIN pd.project p WHERE pd.userId = :userId " +
+    @Query(value = "SELECT pd, p.downloadCount FROM ProjectDownload pd " +
+           "LEFT JOIN FETCH pd.project p WHERE pd.userId = :userId " +
            "AND (:keyword IS NULL OR :keyword = '' OR " +
            "     p.title LIKE %:keyword% OR " +
            "     p.description LIKE %:keyword%) " +
            "AND (:startDate IS NULL OR pd.downloadTime >= :startDate) " +
            "AND (:endDate IS NULL OR pd.downloadTime <= :endDate) " +
-           "ORDER BY p.downloadCount DESC, pd.downloadTime DESC")
+           "ORDER BY p.downloadCount DESC, pd.downloadTime DESC",
+           countQuery = "SELECT COUNT(pd) FROM ProjectDownload pd " +
+           "LEFT JOIN pd.project p WHERE pd.userId = :userId " +
+           "AND (:keyword IS NULL OR :keyword = '' OR " +
+           "     p.title LIKE %:keyword% OR " +
+           "     p.description LIKE %:keyword%) " +
+           "AND (:startDate IS NULL OR pd.downloadTime >= :startDate) " +
+           "AND (:endDate IS NULL OR pd.downloadTime <= :endDate)")
     Page<Object[]> findUserDownloadHistoryOrderByProjectDownloadCountDesc(@Param("userId") Long userId,
                                                                          @Param("keyword") String keyword,
                                                                          @Param("startDate") LocalDateTime startDate,
@@ -350,14 +374,21 @@ public interface ProjectDownloadRepository extends BaseRepository<ProjectDownloa
     /**
      * 根据用户ID查找下载记录，按项目下载次数排序（升序）
      */
-    @Query("SELECT pd, p.downloadCount FROM ProjectDownload pd " +
-           "LEFT JOIN pd.project p WHERE pd.userId = :userId " +
+    @Query(value = "SELECT pd, p.downloadCount FROM ProjectDownload pd " +
+           "LEFT JOIN FETCH pd.project p WHERE pd.userId = :userId " +
            "AND (:keyword IS NULL OR :keyword = '' OR " +
            "     p.title LIKE %:keyword% OR " +
            "     p.description LIKE %:keyword%) " +
            "AND (:startDate IS NULL OR pd.downloadTime >= :startDate) " +
            "AND (:endDate IS NULL OR pd.downloadTime <= :endDate) " +
-           "ORDER BY p.downloadCount ASC, pd.downloadTime DESC")
+           "ORDER BY p.downloadCount ASC, pd.downloadTime DESC",
+           countQuery = "SELECT COUNT(pd) FROM ProjectDownload pd " +
+           "LEFT JOIN pd.project p WHERE pd.userId = :userId " +
+           "AND (:keyword IS NULL OR :keyword = '' OR " +
+           "     p.title LIKE %:keyword% OR " +
+           "     p.description LIKE %:keyword%) " +
+           "AND (:startDate IS NULL OR pd.downloadTime >= :startDate) " +
+           "AND (:endDate IS NULL OR pd.downloadTime <= :endDate)")
     Page<Object[]> findUserDownloadHistoryOrderByProjectDownloadCountAsc(@Param("userId") Long userId,
                                                                         @Param("keyword") String keyword,
                                                                         @Param("startDate") LocalDateTime startDate,
@@ -2,12 +2,15 @@ package com.quickcode.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -43,16 +46,19 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 根据用户ID分页查找项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     Page<Project> findByUserId(Long userId, Pageable pageable);
 
     /**
      * 根据分类ID查找项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     List<Project> findByCategoryId(Long categoryId);
 
     /**
      * 根据分类ID分页查找项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     Page<Project> findByCategoryId(Long categoryId, Pageable pageable);
 
     /**
@@ -74,6 +80,7 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 分页查找已发布的项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.status = 1")
     Page<Project> findPublishedProjects(Pageable pageable);
 
@@ -86,6 +93,7 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 分页查找精选项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.isFeatured = true AND p.status = 1")
     Page<Project> findFeaturedProjects(Pageable pageable);
 
@@ -128,6 +136,7 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 全文搜索项目（分页）
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE (p.title LIKE %:keyword% OR p.description LIKE %:keyword%) AND p.status = 1")
     Page<Project> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
@@ -146,6 +155,7 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 复合条件搜索项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE " +
            "(:keyword IS NULL OR p.title LIKE %:keyword% OR p.description LIKE %:keyword%) AND " +
            "(:categoryId IS NULL OR p.categoryId = :categoryId) AND " +
@@ -160,21 +170,58 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
                                  @Param("minRating") BigDecimal minRating,
                                  Pageable pageable);
 
+    /**
+     * 复合条件搜索项目（切片，多取一条判断是否有下一页，不执行COUNT）
+     */
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT p FROM Project p WHERE " +
+           "(:keyword IS NULL OR p.title LIKE %:keyword% OR p.description LIKE %:keyword%) AND " +
+           "(:categoryId IS NULL OR p.categoryId = :categoryId) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+           "(:minRating IS NULL OR p.rating >= :minRating) AND " +
+           "p.status = 1")
+    Slice<Project> searchProjectsSlice(@Param("keyword") String keyword,
+                                       @Param("categoryId") Long categoryId,
+                                       @Param("minPrice") BigDecimal minPrice,
+                                       @Param("maxPrice") BigDecimal maxPrice,
+                                       @Param("minRating") BigDecimal minRating,
+                                       Pageable pageable);
+
+    /**
+     * 统计复合条件搜索的项目数量
+     */
+    @Query("SELECT COUNT(p) FROM Project p WHERE " +
+           "(:keyword IS NULL OR p.title LIKE %:keyword% OR p.description LIKE %:keyword%) AND " +
+           "(:categoryId IS NULL OR p.categoryId = :categoryId) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+           "(:minRating IS NULL OR p.rating >= :minRating) AND " +
+           "p.status = 1")
+    long countSearchProjects(@Param("keyword") String keyword,
+                             @Param("categoryId") Long categoryId,
+                             @Param("minPrice") BigDecimal minPrice,
+                             @Param("maxPrice") BigDecimal maxPrice,
+                             @Param("minRating") BigDecimal minRating);
+
     /**
      * 查找热门项目（按下载量排序）
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.status = 1 ORDER BY p.downloadCount DESC")
     List<Project> findPopularProjects(Pageable pageable);
 
     /**
      * 查找最新项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.status = 1 ORDER BY p.publishedTime DESC")
     List<Project> findLatestProjects(Pageable pageable);
 
     /**
      * 查找高评分项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.status = 1 AND p.rating >= :minRating ORDER BY p.rating DESC")
     List<Project> findHighRatedProjects(@Param("minRating") BigDecimal minRating, Pageable pageable);
 
@@ -249,6 +296,7 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
     /**
      * 分页查找需要审核的项目
      */
+    @EntityGraph(attributePaths = {"user", "category"})
     @Query("SELECT p FROM Project p WHERE p.status = 0 ORDER BY p.createdTime ASC")
     Page<Project> findPendingReviewProjects(Pageable pageable);
 
@@ -314,4 +362,11 @@ public interface ProjectRepository extends BaseRepository<Project, Long> {
      * 根据用户ID和状态查找项目列表
      */
     List<Project> findByUserIdAndStatus(Long userId, Integer status);
+
+    /**
+     * 根据ID批量查询项目，同时加载作者和分类（列表卡片一次查询完成）
+     */
+    @EntityGraph(attributePaths = {"user", "category"})
+    @Query("SELECT p FROM Project p WHERE p.id IN :ids")
+    List<Project> findWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,103 @@
+package com.quickcode.repository;
+
+import com.quickcode.dto.project.ProjectCursor;
+import com.quickcode.entity.Project;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * 项目动态查询条件
+ * 供游标分页等需要组合条件的查询使用
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public final class ProjectSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProjectSpecifications() {
+    }
+
+    /**
+     * 已发布的项目
+     */
+    public static Specification<Project> published() {
+        return (root, query, cb) -> cb.equal(root.get("status"), Project.Status.PUBLISHED.getCode());
+    }
+
+    /**
+     * 指定分类（categoryId为null时不限制）
+     */
+    public static Specification<Project> inCategory(Long categoryId) {
+        return categoryId == null ? null : (root, query, cb) -> cb.equal(root.get("categoryId"), categoryId);
+    }
+
+    /**
+     * 标题或描述包含关键词（keyword为null时不限制）
+     */
+    public static Specification<Project> keywordLike(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String pattern = containsPattern(keyword);
+        return (root, query, cb) -> cb.or(cb.like(root.get("title"), pattern, LIKE_ESCAPE),
+                cb.like(root.get("description"), pattern, LIKE_ESCAPE));
+    }
+
+    /**
+     * 标题包含关键词（keyword为null时不限制）
+     */
+    public static Specification<Project> titleLike(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String pattern = containsPattern(keyword);
+        return (root, query, cb) -> cb.like(root.get("title"), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * 包含关键词的LIKE模式，关键词中的转义符、%和_按普通字符匹配
+     */
+    static String containsPattern(String keyword) {
+        String escaped = keyword.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * 位于游标之后的记录
+     * 排序规则与MySQL一致：升序时NULL在前，降序时NULL在后；同值按ID倒序
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Project> after(ProjectCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Comparable> path = root.get(cursor.getSortKey().getProperty());
+            Comparable value = cursor.getValue();
+            Predicate sameValueTail = cb.lessThan(root.get("id"), cursor.getId());
+
+            if (value == null) {
+                return cursor.isAscending()
+                        ? cb.or(cb.and(cb.isNull(path), sameValueTail), cb.isNotNull(path))
+                        : cb.and(cb.isNull(path), sameValueTail);
+            }
+
+            Predicate beyond = cursor.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            Predicate sameValue = cb.and(cb.equal(path, value), sameValueTail);
+            return cursor.isAscending()
+                    ? cb.or(beyond, sameValue)
+                    : cb.or(beyond, sameValue, cb.isNull(path));
+        };
+    }
+
+    /**
+     * 游标分页的排序：排序字段 + ID倒序
+     */
+    public static Sort cursorSort(ProjectCursor.SortKey sortKey, boolean ascending) {
+        return Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortKey.getProperty())
+                .and(Sort.by(Sort.Direction.DESC, "id"));
+    }
+}
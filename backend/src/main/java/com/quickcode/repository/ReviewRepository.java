@@ -287,6 +287,12 @@ public interface ReviewRepository extends BaseRepository<Review, Long> {
     @Query("DELETE FROM Review r WHERE r.projectId = :projectId")
     void deleteByProjectId(@Param("projectId") Long projectId);
 
+    /**
+     * 查找用户评价过的项目ID
+     */
+    @Query("SELECT DISTINCT r.projectId FROM Review r WHERE r.userId = :userId")
+    List<Long> findProjectIdsByUserId(@Param("userId") Long userId);
+
     /**
      * 根据用户ID删除所有评价
      */
@@ -3,6 +3,7 @@ package com.quickcode.repository;
 import com.quickcode.entity.UserFavorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -48,6 +49,7 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, Long
      * @param pageable 分页参数
      * @return 收藏列表
      */
+    @EntityGraph(attributePaths = {"project", "project.user", "project.category"})
     Page<UserFavorite> findByUserIdOrderByCreatedTimeDesc(Long userId, Pageable pageable);
 
     /**
@@ -102,6 +104,7 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, Long
      * @param limit 限制数量
      * @return 最近收藏的项目列表
      */
+    @EntityGraph(attributePaths = {"project", "project.user", "project.category"})
     @Query("SELECT uf FROM UserFavorite uf WHERE uf.userId = :userId ORDER BY uf.createdTime DESC")
     List<UserFavorite> findRecentFavoritesByUserId(@Param("userId") Long userId, Pageable pageable);
 
@@ -36,6 +36,7 @@ public class UserPrincipal implements UserDetails {
     private Boolean emailVerified;
     private Boolean twoFactorEnabled;
     private LocalDateTime lockedUntil;
+    private boolean vip;
     private Collection<? extends GrantedAuthority> authorities;
 
     /**
@@ -60,6 +61,7 @@ public class UserPrincipal implements UserDetails {
                 user.getEmailVerified(),
                 user.getTwoFactorEnabled(),
                 user.getLockedUntil(),
+                user.isVipUser(),
                 authorities
         );
     }
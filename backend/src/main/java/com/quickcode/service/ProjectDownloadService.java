@@ -1,7 +1,9 @@
 package com.quickcode.service;
 
 import com.quickcode.dto.ProjectDownloadHistoryResponse;
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
 import com.quickcode.entity.ProjectDownload;
+import com.quickcode.entity.ProjectFile;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,12 +30,19 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
         private final String message;
         private final Resource resource;
         private final ProjectDownload downloadRecord;
+        private final ProjectFile projectFile;
 
         public DownloadResult(boolean success, String message, Resource resource, ProjectDownload downloadRecord) {
+            this(success, message, resource, downloadRecord, null);
+        }
+
+        public DownloadResult(boolean success, String message, Resource resource, ProjectDownload downloadRecord,
+                              ProjectFile projectFile) {
             this.success = success;
             this.message = message;
             this.resource = resource;
             this.downloadRecord = downloadRecord;
+            this.projectFile = projectFile;
         }
 
         // Getters
@@ -41,6 +50,7 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
         public String getMessage() { return message; }
         public Resource getResource() { return resource; }
         public ProjectDownload getDownloadRecord() { return downloadRecord; }
+        public ProjectFile getProjectFile() { return projectFile; }
     }
 
     /**
@@ -220,6 +230,16 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
      */
     boolean recordDownloadFailed(Long downloadId, String reason);
 
+    /**
+     * 记录下载失败
+     * 尚未持久化的记录连同失败状态一次写入（异步批量），已持久化的记录按ID更新
+     *
+     * @param downloadRecord 下载记录
+     * @param reason 失败原因
+     * @return 是否记录成功
+     */
+    boolean recordDownloadFailed(ProjectDownload downloadRecord, String reason);
+
     /**
      * 记录下载取消
      * 
@@ -263,6 +283,16 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
      */
     List<Map<String, Object>> getDownloadTrends(Long projectId, int days);
 
+    /**
+     * 按指定粒度获取下载趋势数据
+     * 
+     * @param projectId 项目ID（可选）
+     * @param periods 统计周期数（含当前周期）
+     * @param granularity 统计粒度（小时或天）
+     * @return 趋势数据
+     */
+    List<Map<String, Object>> getDownloadTrends(Long projectId, int periods, Granularity granularity);
+
     /**
      * 清理过期的下载记录
      * 
@@ -283,6 +313,7 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
 
     /**
      * 限制下载频率
+     * 放行时即计入频率窗口，每次下载只应调用一次
      * 
      * @param userId 用户ID
      * @param clientIp 客户端IP
@@ -311,7 +342,9 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
     boolean validateDownloadToken(String token, Long projectId, Long userId);
 
     /**
-     * 获取下载进度
+     * 获取已写入数据库的下载记录的进度
+     * 按记录中的断点位置计算，已完成为100；进行中的传输在结束后才写入记录，
+     * 实时进度请按下载响应头中的传输ID查询
      * 
      * @param downloadId 下载记录ID
      * @return 下载进度（0-100）
@@ -320,13 +353,64 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
 
     /**
      * 更新下载进度
+     * 进度由服务端按实际写出的字节统计，不接受外部上报的值
      * 
      * @param downloadId 下载记录ID
      * @param progress 进度（0-100）
-     * @return 是否更新成功
+     * @return 下载记录是否存在
      */
     boolean updateDownloadProgress(Long downloadId, int progress);
 
+    /**
+     * 记录一次传输的结果
+     * 推进断点位置，传输到文件末尾时标记下载完成，中途结束时标记为暂停以便续传
+     *
+     * @param downloadId 下载记录ID
+     * @param rangeStart 本次传输的起始位置
+     * @param transferredEnd 本次传输结束的位置（不含），为负数时不推进断点
+     * @param fileSize 文件大小
+     * @param duration 本次传输耗时（毫秒）
+     * @return 是否记录成功
+     */
+    boolean recordDownloadTransfer(Long downloadId, long rangeStart, long transferredEnd, long fileSize, long duration);
+
+    /**
+     * 记录一次传输的结果
+     * 新下载的记录尚未持久化，传输结束后连同最终状态一次写入（异步批量）；已持久化的续传记录按ID更新
+     *
+     * @param downloadRecord 下载记录
+     * @param rangeStart 本次传输的起始位置
+     * @param transferredEnd 本次传输结束的位置（不含），为负数时不推进断点
+     * @param fileSize 文件大小
+     * @param duration 本次传输耗时（毫秒）
+     * @return 是否记录成功
+     */
+    boolean recordDownloadTransfer(ProjectDownload downloadRecord, long rangeStart, long transferredEnd,
+                                   long fileSize, long duration);
+
+    /**
+     * 放弃一次没有输出内容的传输（如区间无法满足）
+     * 尚未持久化、也没有其他传输共用的新记录不写入，已持久化的记录不变
+     *
+     * @param downloadRecord 下载记录
+     */
+    void discardDownloadTransfer(ProjectDownload downloadRecord);
+
+    /**
+     * 记录客户端中途断开的传输
+     * 推进断点位置并标记为取消，备注已发送的字节数；取消的下载仍可续传
+     *
+     * @param downloadRecord 下载记录
+     * @param rangeStart 本次传输的起始位置
+     * @param transferredEnd 本次传输结束的位置（不含），为负数时不推进断点
+     * @param fileSize 文件大小
+     * @param bytesWritten 本次实际写出的字节数
+     * @param duration 本次传输耗时（毫秒）
+     * @return 是否记录成功
+     */
+    boolean recordDownloadAborted(ProjectDownload downloadRecord, long rangeStart, long transferredEnd,
+                                  long fileSize, long bytesWritten, long duration);
+
     /**
      * 暂停下载
      * 
@@ -353,15 +437,21 @@ public interface ProjectDownloadService extends BaseService<ProjectDownload, Lon
 
     /**
      * 支持断点续传的下载
+     * 从非零位置开始的Range请求复用用户最近一次未完成的下载记录，不重复计入下载次数和频率限制；
+     * 找不到可续传的记录时按新下载处理
      *
      * @param projectId 项目ID
+     * @param fileId 文件ID，为null时下载项目主文件
      * @param userId 用户ID
-     * @param rangeStart 开始位置
-     * @param rangeEnd 结束位置
+     * @param downloadSource 下载来源
+     * @param userAgent 用户代理
+     * @param clientIp 客户端IP
+     * @param rangeStart Range请求的起始位置
      * @return 下载结果
      * @throws IOException 下载失败时抛出
      */
-    DownloadResult downloadWithRange(Long projectId, Long userId, long rangeStart, long rangeEnd) throws IOException;
+    DownloadResult downloadWithRange(Long projectId, Long fileId, Long userId, String downloadSource,
+                                     String userAgent, String clientIp, long rangeStart) throws IOException;
 
     /**
      * 下载权限信息
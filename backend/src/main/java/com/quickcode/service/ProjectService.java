@@ -3,10 +3,14 @@ package com.quickcode.service;
 import com.quickcode.dto.project.ProjectCreateRequest;
 import com.quickcode.dto.project.ProjectDTO;
 import com.quickcode.dto.project.ProjectDetailDTO;
+import com.quickcode.dto.project.ProjectFacetsDTO;
 import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.dto.project.ProjectSuggestionDTO;
 import com.quickcode.dto.project.ProjectUpdateRequest;
 import com.quickcode.dto.project.UserProjectStats;
 import com.quickcode.dto.common.PageResponse;
+import com.quickcode.common.response.CursorPageResponse;
+import com.quickcode.common.response.SliceResponse;
 import com.quickcode.entity.Project;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +18,7 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -55,11 +60,30 @@ public interface ProjectService extends BaseService<Project, Long> {
      */
     PageResponse<ProjectDTO> searchProjects(ProjectSearchRequest request);
 
+    /**
+     * 切片搜索项目（不执行COUNT查询，总数为定期刷新的近似值）
+     */
+    SliceResponse<ProjectDTO> searchProjectsSlice(ProjectSearchRequest request);
+
     /**
      * 获取已发布的项目列表
      */
     PageResponse<ProjectDTO> getPublishedProjects(Pageable pageable);
 
+    /**
+     * 游标分页获取已发布的项目列表（不执行COUNT查询）
+     *
+     * @param categoryId 分类ID（可为空）
+     * @param keyword 搜索关键词（可为空）
+     * @param sortBy 排序字段：published_time、download_count、rating、price
+     * @param sortDirection 排序方向：asc、desc
+     * @param cursor 上一页返回的游标（首页为空）
+     * @param size 每页大小
+     * @return 游标分页结果
+     */
+    CursorPageResponse<ProjectDTO> getPublishedProjectsByCursor(Long categoryId, String keyword, String sortBy,
+                                                                String sortDirection, String cursor, int size);
+
     /**
      * 获取精选项目列表
      */
@@ -70,6 +94,13 @@ public interface ProjectService extends BaseService<Project, Long> {
      */
     List<ProjectDTO> getPopularProjects(int limit);
 
+    /**
+     * 获取热门项目列表（按时间衰减的热度排序）
+     *
+     * @param categoryId 分类ID，为null时返回全站热门
+     */
+    List<ProjectDTO> getPopularProjects(Long categoryId, int limit);
+
     /**
      * 获取最新项目列表
      */
@@ -105,6 +136,19 @@ public interface ProjectService extends BaseService<Project, Long> {
      */
     List<ProjectDTO> getProjectsByTag(String tag, int limit);
 
+    /**
+     * 获取搜索分面统计（各技术栈、标签在当前筛选结果中的项目数量）
+     *
+     * @param request 搜索条件
+     * @param limit 每个分面最多返回的值数量
+     */
+    ProjectFacetsDTO getSearchFacets(ProjectSearchRequest request, int limit);
+
+    /**
+     * 搜索框输入联想（项目标题、标签、技术栈、分类）
+     */
+    List<ProjectSuggestionDTO> suggest(String keyword, int limit);
+
     /**
      * 获取相关项目推荐
      */
@@ -165,6 +209,13 @@ public interface ProjectService extends BaseService<Project, Long> {
      */
     boolean isLikedByUser(Long projectId, Long userId);
 
+    /**
+     * 批量查询用户对一组项目的点赞状态（列表页一次查询）
+     *
+     * @return 项目ID -> 是否已点赞
+     */
+    Map<Long, Boolean> getLikedStatus(Long userId, List<Long> projectIds);
+
     /**
      * 检查用户是否可以编辑项目
      */
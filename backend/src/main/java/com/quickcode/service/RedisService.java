@@ -1,12 +1,27 @@
 package com.quickcode.service;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,24 +45,372 @@ public class RedisService {
     private static final String PROJECT_VIEW_COUNT_PREFIX = "quickcode:project:view:";
     private static final String PROJECT_VIEW_BATCH_PREFIX = "quickcode:project:view:batch:";
 
+    /**
+     * 项目计数键前缀，完整键为 前缀 + 计数名称 + ":" + 项目ID（浏览计数即为quickcode:project:view:{id}）；
+     * 同一计数名称下的 dirty 集合保存有未同步增量的项目ID，dirty-since 为其中最早一次增量的时间（毫秒）
+     */
+    private static final String PROJECT_COUNTER_PREFIX = "quickcode:project:";
+    private static final String VIEW_COUNTER = "view";
+
+    /**
+     * 项目计数过期时间，确保数据不会永久占用内存
+     */
+    private static final long PROJECT_COUNTER_TTL_SECONDS = Duration.ofHours(24).toSeconds();
+
+    /**
+     * 单次脚本调用最多累加的项目数量
+     */
+    private static final int MAX_COUNTS_PER_CALL = 500;
+
+    /**
+     * 批量累加计数、续期并登记到脏集合，一次往返完成
+     * KEYS: 脏集合、最早增量时间；ARGV: 计数键前缀、过期秒数、当前毫秒、项目ID1、增量1、项目ID2、增量2...
+     */
+    private static final DefaultRedisScript<Long> ADD_COUNTS_SCRIPT = new DefaultRedisScript<>(
+            "for i = 4, #ARGV, 2 do "
+                    + "  local key = ARGV[1] .. ARGV[i] "
+                    + "  redis.call('INCRBY', key, ARGV[i + 1]) "
+                    + "  redis.call('EXPIRE', key, ARGV[2]) "
+                    + "  redis.call('SADD', KEYS[1], ARGV[i]) "
+                    + "end "
+                    + "redis.call('SET', KEYS[2], ARGV[3], 'NX') "
+                    + "return (#ARGV - 3) / 2",
+            Long.class);
+
+    /**
+     * 项目每日独立访客键前缀，完整键为 前缀 + 项目ID + ":" + yyyyMMdd，值为HyperLogLog
+     * 无论访问量多大，每个项目每天最多占用约12KB
+     */
+    private static final String PROJECT_VISITOR_PREFIX = "quickcode:project:uv:";
+    private static final DateTimeFormatter VISITOR_DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * 卖家每日独立访客键前缀，完整键为 前缀 + 卖家ID + ":" + yyyyMMdd，合并卖家名下所有项目的访客
+     * 卖家统计只读取窗口内的每日键，与项目数量无关
+     */
+    private static final String SELLER_VISITOR_PREFIX = "quickcode:seller:uv:";
+
+    /**
+     * 把访客写入当天的各个访客键，并在首次创建时设置过期时间，一次往返完成
+     * KEYS: 项目当天的访客键、卖家当天的访客键（可选）；ARGV: 过期秒数、访客标识
+     */
+    private static final DefaultRedisScript<Long> ADD_VISITOR_SCRIPT = new DefaultRedisScript<>(
+            "local added = 0 "
+                    + "for _, key in ipairs(KEYS) do "
+                    + "added = added + redis.call('PFADD', key, ARGV[2]) "
+                    + "if redis.call('TTL', key) < 0 then redis.call('EXPIRE', key, ARGV[1]) end "
+                    + "end "
+                    + "return added",
+            Long.class);
+
+    /**
+     * 热度榜相关键：全站榜和分类榜为有序集合，项目分类表记录参与排名的项目及其分类，
+     * 基准时间表记录每个榜单前向衰减的起点（秒），各榜单可以分别前移基准时间
+     */
+    private static final String TRENDING_GLOBAL_KEY = "quickcode:trending:global";
+    private static final String TRENDING_CATEGORY_PREFIX = "quickcode:trending:category:";
+    private static final String TRENDING_PROJECT_CATEGORY_KEY = "quickcode:trending:project-category";
+    private static final String TRENDING_LANDMARKS_KEY = "quickcode:trending:landmarks";
+
+    /**
+     * 旧版本所有榜单共用的基准时间，榜单第一次前移基准时间前仍以它为起点
+     */
+    private static final String TRENDING_LEGACY_LANDMARK_KEY = "quickcode:trending:landmark";
+
+    /**
+     * 读取榜单的基准时间，没有时沿用旧版共用基准时间或默认值并记录下来
+     * 使用它的脚本约定 KEYS[1] 为基准时间表、KEYS[2] 为旧版共用基准时间
+     */
+    private static final String TRENDING_LANDMARK_FUNCTION =
+            "local function landmark(board, default) "
+                    + "  local value = tonumber(redis.call('HGET', KEYS[1], board)) "
+                    + "  if not value then "
+                    + "    value = tonumber(redis.call('GET', KEYS[2])) or default "
+                    + "    redis.call('HSET', KEYS[1], board, value) "
+                    + "  end "
+                    + "  return value "
+                    + "end ";
+
+    /**
+     * 前向衰减累加热度：增量乘以 e^(λ·(now - 榜单基准时间)) 后累加，越新的行为权重越大，
+     * 已有分数无需随时间改写；只累加项目分类表中登记的（已发布）项目
+     * KEYS: 基准时间表、旧版基准时间、项目分类表、全站榜；ARGV: 分类榜前缀、当前秒、λ、项目ID1、权重1、项目ID2、权重2...
+     */
+    private static final DefaultRedisScript<Long> ADD_TRENDING_SCRIPT = new DefaultRedisScript<>(
+            TRENDING_LANDMARK_FUNCTION
+                    + "local now = tonumber(ARGV[2]) "
+                    + "local lambda = tonumber(ARGV[3]) "
+                    + "local factors = {} "
+                    + "local function factor(board) "
+                    + "  if not factors[board] then "
+                    + "    factors[board] = math.exp(lambda * (now - landmark(board, now))) "
+                    + "  end "
+                    + "  return factors[board] "
+                    + "end "
+                    + "local added = 0 "
+                    + "for i = 4, #ARGV, 2 do "
+                    + "  local category = redis.call('HGET', KEYS[3], ARGV[i]) "
+                    + "  if category then "
+                    + "    local weight = tonumber(ARGV[i + 1]) "
+                    + "    redis.call('ZINCRBY', KEYS[4], weight * factor(KEYS[4]), ARGV[i]) "
+                    + "    if category ~= '' then "
+                    + "      local board = ARGV[1] .. category "
+                    + "      redis.call('ZINCRBY', board, weight * factor(board), ARGV[i]) "
+                    + "    end "
+                    + "    added = added + 1 "
+                    + "  end "
+                    + "end "
+                    + "return added",
+            Long.class);
+
+    /**
+     * 登记参与排名的项目；分类变化时把已有热度从旧分类榜移到新分类榜，
+     * 分数按两个榜单基准时间的差换算：score · e^(λ·(全站榜基准 - 分类榜基准))
+     * KEYS: 基准时间表、旧版基准时间、项目分类表、全站榜；ARGV: 分类榜前缀、项目ID、分类ID（无分类为空串）、当前秒、λ
+     */
+    private static final DefaultRedisScript<Long> TRACK_TRENDING_SCRIPT = new DefaultRedisScript<>(
+            TRENDING_LANDMARK_FUNCTION
+                    + "local old = redis.call('HGET', KEYS[3], ARGV[2]) "
+                    + "if old == ARGV[3] then return 0 end "
+                    + "if old and old ~= '' then redis.call('ZREM', ARGV[1] .. old, ARGV[2]) end "
+                    + "local score = redis.call('ZSCORE', KEYS[4], ARGV[2]) "
+                    + "if score and ARGV[3] ~= '' then "
+                    + "  local board = ARGV[1] .. ARGV[3] "
+                    + "  local globalLandmark = landmark(KEYS[4], tonumber(ARGV[4])) "
+                    + "  local boardLandmark = landmark(board, globalLandmark) "
+                    + "  local factor = math.exp(tonumber(ARGV[5]) * (globalLandmark - boardLandmark)) "
+                    + "  redis.call('ZADD', board, tonumber(score) * factor, ARGV[2]) "
+                    + "end "
+                    + "redis.call('HSET', KEYS[3], ARGV[2], ARGV[3]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 取消项目排名（下架、删除）
+     * KEYS: 项目分类表、全站榜；ARGV: 分类榜前缀、项目ID
+     */
+    private static final DefaultRedisScript<Long> UNTRACK_TRENDING_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('HGET', KEYS[1], ARGV[2]) "
+                    + "if old and old ~= '' then redis.call('ZREM', ARGV[1] .. old, ARGV[2]) end "
+                    + "redis.call('ZREM', KEYS[2], ARGV[2]) "
+                    + "return redis.call('HDEL', KEYS[1], ARGV[2])",
+            Long.class);
+
+    /**
+     * 把一个榜单的基准时间前移到当前时间：分数乘以 e^(-λ·(now - 基准时间))，避免分数随时间指数增长而溢出。
+     * 先用ZREMRANGEBYSCORE删除折算后低于阈值的冷门项目，只改写剩下的项目；
+     * 每个榜单单独调用，单次脚本只处理一个榜单，不会长时间阻塞Redis
+     * KEYS: 基准时间表、旧版基准时间、榜单；ARGV: 当前秒、λ、最低分数
+     */
+    private static final DefaultRedisScript<Long> RESCALE_TRENDING_SCRIPT = new DefaultRedisScript<>(
+            "local landmark = tonumber(redis.call('HGET', KEYS[1], KEYS[3])) or tonumber(redis.call('GET', KEYS[2])) "
+                    + "if not landmark then return 0 end "
+                    + "local factor = math.exp(-tonumber(ARGV[2]) * (tonumber(ARGV[1]) - landmark)) "
+                    + "local removed = redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', "
+                    + "  '(' .. string.format('%.17g', tonumber(ARGV[3]) / factor)) "
+                    + "if factor ~= 1 then "
+                    + "  local entries = redis.call('ZRANGE', KEYS[3], 0, -1, 'WITHSCORES') "
+                    + "  local batch = {} "
+                    + "  for i = 1, #entries, 2 do "
+                    + "    batch[#batch + 1] = tonumber(entries[i + 1]) * factor "
+                    + "    batch[#batch + 1] = entries[i] "
+                    + "    if #batch >= 1000 then "
+                    + "      redis.call('ZADD', KEYS[3], unpack(batch)) "
+                    + "      batch = {} "
+                    + "    end "
+                    + "  end "
+                    + "  if #batch > 0 then redis.call('ZADD', KEYS[3], unpack(batch)) end "
+                    + "end "
+                    + "redis.call('HSET', KEYS[1], KEYS[3], ARGV[1]) "
+                    + "return removed",
+            Long.class);
+
+    /**
+     * 项目点赞键：每个项目一个位图，以用户ID为偏移；每个用户一个集合，保存其点赞的项目ID
+     */
+    private static final String PROJECT_LIKE_PREFIX = "quickcode:like:project:";
+    private static final String USER_LIKE_PREFIX = "quickcode:like:user:";
+
+    /**
+     * 设置点赞状态并返回原状态，位图和用户集合在同一脚本中更新
+     * KEYS: 项目位图、用户集合；ARGV: 用户ID、项目ID、新状态(1/0)
+     */
+    private static final DefaultRedisScript<Long> SET_LIKE_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('SETBIT', KEYS[1], ARGV[1], ARGV[3]) "
+                    + "if ARGV[3] == '1' then redis.call('SADD', KEYS[2], ARGV[2]) "
+                    + "else redis.call('SREM', KEYS[2], ARGV[2]) end "
+                    + "return old",
+            Long.class);
+
+    /**
+     * 滑动窗口限流：先检查所有键在各窗口内的请求数，全部未超限时才为每个键记录本次请求。
+     * 每个键是一个以请求时间（毫秒）为分数的有序集合，时间取Redis服务器时间，多个节点共用同一时钟
+     * KEYS: 各主体的限流键；ARGV: 窗口数n, n个窗口长度（毫秒，最后一个最长）, 每个键的n个上限, 请求ID
+     * 返回 -1 表示放行，否则返回被拒绝的 键序号 * n + 窗口序号（从0开始）
+     */
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') "
+                    + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+                    + "local n = tonumber(ARGV[1]) "
+                    + "local longest = tonumber(ARGV[n + 1]) "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "  redis.call('ZREMRANGEBYSCORE', key, '-inf', now - longest) "
+                    + "  for j = 1, n do "
+                    + "    local limit = tonumber(ARGV[n + 1 + (i - 1) * n + j]) "
+                    + "    local count = redis.call('ZCOUNT', key, '(' .. (now - tonumber(ARGV[j + 1])), '+inf') "
+                    + "    if count >= limit then return (i - 1) * n + (j - 1) end "
+                    + "  end "
+                    + "end "
+                    + "for _, key in ipairs(KEYS) do "
+                    + "  redis.call('ZADD', key, now, ARGV[#ARGV]) "
+                    + "  redis.call('PEXPIRE', key, longest) "
+                    + "end "
+                    + "return -1",
+            Long.class);
+
+    /**
+     * 从脏集合中原子弹出一批项目并取走其计数
+     * KEYS: 脏集合、最早增量时间；ARGV: 计数键前缀、批量大小
+     * 返回 [剩余数量, 最早增量时间, 项目ID1, 计数1, 项目ID2, 计数2, ...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> DRAIN_COUNTS_SCRIPT = new DefaultRedisScript<>(
+            "local since = redis.call('GET', KEYS[2]) or '' "
+                    + "local ids = redis.call('SPOP', KEYS[1], ARGV[2]) "
+                    + "local result = {0, since} "
+                    + "for _, id in ipairs(ids) do "
+                    + "  local count = redis.call('GETDEL', ARGV[1] .. id) "
+                    + "  if count then "
+                    + "    table.insert(result, id) "
+                    + "    table.insert(result, count) "
+                    + "  end "
+                    + "end "
+                    + "local remaining = redis.call('SCARD', KEYS[1]) "
+                    + "if remaining == 0 then redis.call('DEL', KEYS[2]) end "
+                    + "result[1] = remaining "
+                    + "return result",
+            List.class);
+
     /**
      * 增加项目浏览次数（异步计数）
      * 使用Redis计数器，定期批量同步到数据库
      */
     public void incrementProjectViewCount(Long projectId) {
         try {
-            String key = PROJECT_VIEW_COUNT_PREFIX + projectId;
-            stringRedisTemplate.opsForValue().increment(key);
-            
-            // 设置过期时间为24小时，确保数据不会永久占用内存
-            stringRedisTemplate.expire(key, Duration.ofHours(24));
-            
+            addProjectCounts(VIEW_COUNTER, Map.of(projectId, 1L));
             log.debug("项目浏览次数Redis计数增加: projectId={}", projectId);
         } catch (Exception e) {
             log.warn("Redis增加项目浏览次数失败: projectId={}", projectId, e);
         }
     }
 
+    /**
+     * 批量累加项目计数并登记到待同步集合
+     * 每500个项目一次脚本调用，增量可以为负数
+     *
+     * @param counter 计数名称（view、download、like、favorite）
+     * @param deltas  项目ID -> 增量
+     */
+    public void addProjectCounts(String counter, Map<Long, Long> deltas) {
+        List<String> keys = List.of(counterDirtyKey(counter), counterDirtySinceKey(counter));
+        List<String> args = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            if (args.isEmpty()) {
+                args.add(counterKeyPrefix(counter));
+                args.add(String.valueOf(PROJECT_COUNTER_TTL_SECONDS));
+                args.add(String.valueOf(System.currentTimeMillis()));
+            }
+            args.add(String.valueOf(entry.getKey()));
+            args.add(String.valueOf(entry.getValue()));
+            if (args.size() >= 3 + MAX_COUNTS_PER_CALL * 2) {
+                stringRedisTemplate.execute(ADD_COUNTS_SCRIPT, keys, args.toArray());
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            stringRedisTemplate.execute(ADD_COUNTS_SCRIPT, keys, args.toArray());
+        }
+    }
+
+    /**
+     * 原子取走一批待同步的项目计数
+     * 多个实例可以同时调用，每个项目的计数只会被其中一个取走
+     */
+    public CounterDrain drainProjectCounts(String counter, int batchSize) {
+        List<?> result = stringRedisTemplate.execute(DRAIN_COUNTS_SCRIPT,
+                List.of(counterDirtyKey(counter), counterDirtySinceKey(counter)),
+                counterKeyPrefix(counter), String.valueOf(batchSize));
+        if (result == null || result.size() < 2) {
+            return new CounterDrain(Map.of(), 0, null);
+        }
+
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (int i = 2; i + 1 < result.size(); i += 2) {
+            String projectId = String.valueOf(result.get(i));
+            String count = String.valueOf(result.get(i + 1));
+            try {
+                counts.merge(Long.parseLong(projectId), Long.parseLong(count), Long::sum);
+            } catch (NumberFormatException e) {
+                log.warn("无效的项目计数数据: counter={}, projectId={}, count={}", counter, projectId, count);
+            }
+        }
+        String since = String.valueOf(result.get(1));
+        return new CounterDrain(counts, Long.parseLong(String.valueOf(result.get(0))),
+                since.isEmpty() ? null : Long.valueOf(since));
+    }
+
+    /**
+     * 有待同步计数的项目数量
+     */
+    public long getPendingProjectCount(String counter) {
+        Long size = stringRedisTemplate.opsForSet().size(counterDirtyKey(counter));
+        return size != null ? size : 0L;
+    }
+
+    /**
+     * 把旧版本遗留的浏览计数键登记到待同步集合
+     * 使用SCAN分批遍历，不会像KEYS一样阻塞Redis
+     *
+     * @return 登记的键数量
+     */
+    public int registerLegacyProjectViewCounts() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(PROJECT_VIEW_COUNT_PREFIX + "*")
+                .count(1000)
+                .build();
+        int registered = 0;
+        List<String> projectIds = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String suffix = cursor.next().substring(PROJECT_VIEW_COUNT_PREFIX.length());
+                // 只处理“前缀+项目ID”形式的计数键，跳过脏集合等其他键
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    projectIds.add(suffix);
+                }
+                if (projectIds.size() >= 1000 || (!cursor.hasNext() && !projectIds.isEmpty())) {
+                    stringRedisTemplate.opsForSet().add(counterDirtyKey(VIEW_COUNTER), projectIds.toArray(new String[0]));
+                    stringRedisTemplate.opsForValue().setIfAbsent(counterDirtySinceKey(VIEW_COUNTER),
+                            String.valueOf(System.currentTimeMillis()));
+                    registered += projectIds.size();
+                    projectIds.clear();
+                }
+            }
+        }
+        return registered;
+    }
+
+    private static String counterKeyPrefix(String counter) {
+        return PROJECT_COUNTER_PREFIX + counter + ":";
+    }
+
+    private static String counterDirtyKey(String counter) {
+        return counterKeyPrefix(counter) + "dirty";
+    }
+
+    private static String counterDirtySinceKey(String counter) {
+        return counterKeyPrefix(counter) + "dirty-since";
+    }
+
     /**
      * 获取项目在Redis中的浏览次数
      */
@@ -77,6 +440,238 @@ public class RedisService {
         }
     }
 
+    /**
+     * 记录项目某天的一个访客，同时计入项目所属卖家当天的访客
+     *
+     * @param sellerId  项目所属卖家ID，未知时为null，只记录项目访客
+     * @param visitor   访客标识（用户ID或IP摘要）
+     * @param retention 访客数据保留时间
+     */
+    public void addProjectVisitor(Long projectId, Long sellerId, LocalDate day, String visitor, Duration retention) {
+        List<String> keys = sellerId != null
+                ? List.of(projectVisitorKey(projectId, day), sellerVisitorKey(sellerId, day))
+                : List.of(projectVisitorKey(projectId, day));
+        stringRedisTemplate.execute(ADD_VISITOR_SCRIPT, keys, String.valueOf(retention.toSeconds()), visitor);
+    }
+
+    /**
+     * 估算一组项目在日期区间内（含首尾）的独立访客数
+     * 多个项目、多天的访客在PFCOUNT中合并去重，同一访客只计一次，误差约0.81%
+     */
+    public long countProjectVisitors(Collection<Long> projectIds, LocalDate from, LocalDate to) {
+        if (projectIds.isEmpty() || from.isAfter(to)) {
+            return 0L;
+        }
+        List<String> keys = new ArrayList<>();
+        for (Long projectId : projectIds) {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                keys.add(projectVisitorKey(projectId, day));
+            }
+        }
+        Long count = stringRedisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 估算卖家名下所有项目在日期区间内（含首尾）的独立访客数，最多读取区间天数个键
+     */
+    public long countSellerVisitors(Long sellerId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return 0L;
+        }
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            keys.add(sellerVisitorKey(sellerId, day));
+        }
+        Long count = stringRedisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return count != null ? count : 0L;
+    }
+
+    private static String sellerVisitorKey(Long sellerId, LocalDate day) {
+        return SELLER_VISITOR_PREFIX + sellerId + ":" + day.format(VISITOR_DAY_FORMAT);
+    }
+
+    private static String projectVisitorKey(Long projectId, LocalDate day) {
+        return PROJECT_VISITOR_PREFIX + projectId + ":" + day.format(VISITOR_DAY_FORMAT);
+    }
+
+    /**
+     * 设置用户对项目的点赞状态
+     *
+     * @return 状态是否发生变化（重复点赞、重复取消时为false）
+     */
+    public boolean setProjectLiked(Long projectId, Long userId, boolean liked) {
+        String state = liked ? "1" : "0";
+        Long old = stringRedisTemplate.execute(SET_LIKE_SCRIPT,
+                List.of(PROJECT_LIKE_PREFIX + projectId, USER_LIKE_PREFIX + userId),
+                String.valueOf(userId), String.valueOf(projectId), state);
+        return old != null && old != (liked ? 1L : 0L);
+    }
+
+    /**
+     * 用户是否点赞了项目（GETBIT，O(1)）
+     */
+    public boolean isProjectLiked(Long projectId, Long userId) {
+        Boolean bit = stringRedisTemplate.opsForValue().getBit(PROJECT_LIKE_PREFIX + projectId, userId);
+        return Boolean.TRUE.equals(bit);
+    }
+
+    /**
+     * 批量查询用户对一组项目的点赞状态，一次SMISMEMBER完成
+     *
+     * @return 项目ID -> 是否已点赞，顺序与projectIds一致
+     */
+    public Map<Long, Boolean> getProjectLikedStatus(Long userId, List<Long> projectIds) {
+        Map<Long, Boolean> status = new LinkedHashMap<>();
+        if (projectIds.isEmpty()) {
+            return status;
+        }
+        Object[] members = projectIds.stream().map(String::valueOf).toArray();
+        Map<Object, Boolean> result = stringRedisTemplate.opsForSet().isMember(USER_LIKE_PREFIX + userId, members);
+        for (Long projectId : projectIds) {
+            status.put(projectId, result != null && Boolean.TRUE.equals(result.get(String.valueOf(projectId))));
+        }
+        return status;
+    }
+
+    /**
+     * 多主体滑动窗口限流，检查和记录在一次往返内原子完成
+     *
+     * @param keys    各主体的限流键
+     * @param windows 窗口长度，按从短到长排列
+     * @param limits  limits[i][j] 为第i个键在第j个窗口内允许的请求数
+     * @return 放行时返回-1；拒绝时返回 i * windows.length + j
+     */
+    public int acquireSlidingWindow(List<String> keys, Duration[] windows, int[][] limits) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(windows.length));
+        for (Duration window : windows) {
+            args.add(String.valueOf(window.toMillis()));
+        }
+        for (int[] keyLimits : limits) {
+            for (int limit : keyLimits) {
+                args.add(String.valueOf(limit));
+            }
+        }
+        args.add(UUID.randomUUID().toString());
+        Long result = stringRedisTemplate.execute(SLIDING_WINDOW_SCRIPT, keys, args.toArray());
+        if (result == null) {
+            throw new IllegalStateException("限流脚本未返回结果");
+        }
+        return result.intValue();
+    }
+
+    /**
+     * 批量累加项目热度，一次往返完成
+     *
+     * @param weights 项目ID -> 本次行为权重之和
+     * @param lambda  衰减系数（每秒）
+     * @return 实际累加的项目数量（未登记的项目被忽略）
+     */
+    public long addTrendingScores(Map<Long, Double> weights, double lambda) {
+        if (weights.isEmpty()) {
+            return 0L;
+        }
+        List<String> args = new ArrayList<>(weights.size() * 2 + 3);
+        args.add(TRENDING_CATEGORY_PREFIX);
+        args.add(String.valueOf(System.currentTimeMillis() / 1000));
+        args.add(String.valueOf(lambda));
+        weights.forEach((projectId, weight) -> {
+            args.add(String.valueOf(projectId));
+            args.add(String.valueOf(weight));
+        });
+        Long added = stringRedisTemplate.execute(ADD_TRENDING_SCRIPT,
+                List.of(TRENDING_LANDMARKS_KEY, TRENDING_LEGACY_LANDMARK_KEY, TRENDING_PROJECT_CATEGORY_KEY,
+                        TRENDING_GLOBAL_KEY),
+                args.toArray());
+        return added != null ? added : 0L;
+    }
+
+    /**
+     * 登记项目参与热度排名
+     *
+     * @param categoryId 分类ID，为null时只参与全站榜
+     * @param lambda     衰减系数（每秒），用于在基准时间不同的榜单之间换算分数
+     */
+    public void trackTrendingProject(Long projectId, Long categoryId, double lambda) {
+        stringRedisTemplate.execute(TRACK_TRENDING_SCRIPT,
+                List.of(TRENDING_LANDMARKS_KEY, TRENDING_LEGACY_LANDMARK_KEY, TRENDING_PROJECT_CATEGORY_KEY,
+                        TRENDING_GLOBAL_KEY),
+                TRENDING_CATEGORY_PREFIX, String.valueOf(projectId),
+                categoryId != null ? String.valueOf(categoryId) : "",
+                String.valueOf(System.currentTimeMillis() / 1000), String.valueOf(lambda));
+    }
+
+    /**
+     * 取消项目热度排名并移除其分数
+     */
+    public void untrackTrendingProject(Long projectId) {
+        stringRedisTemplate.execute(UNTRACK_TRENDING_SCRIPT,
+                List.of(TRENDING_PROJECT_CATEGORY_KEY, TRENDING_GLOBAL_KEY),
+                TRENDING_CATEGORY_PREFIX, String.valueOf(projectId));
+    }
+
+    /**
+     * 当前参与热度排名的项目ID
+     */
+    public Set<Long> getTrendingProjectIds() {
+        Set<Long> projectIds = new HashSet<>();
+        for (Object field : stringRedisTemplate.opsForHash().keys(TRENDING_PROJECT_CATEGORY_KEY)) {
+            projectIds.add(Long.parseLong(field.toString()));
+        }
+        return projectIds;
+    }
+
+    /**
+     * 热度最高的项目ID（ZREVRANGE，O(log N + k)）
+     *
+     * @param categoryId 分类ID，为null时查询全站榜
+     */
+    public List<Long> getTopTrendingProjectIds(Long categoryId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        String key = categoryId != null ? TRENDING_CATEGORY_PREFIX + categoryId : TRENDING_GLOBAL_KEY;
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(key, 0, limit - 1);
+        if (members == null) {
+            return List.of();
+        }
+        List<Long> projectIds = new ArrayList<>(members.size());
+        for (String member : members) {
+            projectIds.add(Long.parseLong(member));
+        }
+        return projectIds;
+    }
+
+    /**
+     * 把热度分数换算到以当前时间为基准，并删除低于minScore的项目
+     * 逐个榜单执行脚本，每个榜单的换算和基准时间更新是原子的
+     *
+     * @return 删除的条目数量
+     */
+    public long rescaleTrendingScores(double lambda, double minScore) {
+        List<String> boards = new ArrayList<>();
+        boards.add(TRENDING_GLOBAL_KEY);
+        Set<String> categories = new HashSet<>();
+        for (Object category : stringRedisTemplate.opsForHash().values(TRENDING_PROJECT_CATEGORY_KEY)) {
+            if (!category.toString().isEmpty() && categories.add(category.toString())) {
+                boards.add(TRENDING_CATEGORY_PREFIX + category);
+            }
+        }
+
+        String now = String.valueOf(System.currentTimeMillis() / 1000);
+        long removed = 0;
+        for (String board : boards) {
+            Long boardRemoved = stringRedisTemplate.execute(RESCALE_TRENDING_SCRIPT,
+                    List.of(TRENDING_LANDMARKS_KEY, TRENDING_LEGACY_LANDMARK_KEY, board),
+                    now, String.valueOf(lambda), String.valueOf(minScore));
+            removed += boardRemoved != null ? boardRemoved : 0L;
+        }
+        // 所有榜单都有了自己的基准时间，旧版共用基准时间不再需要
+        stringRedisTemplate.delete(TRENDING_LEGACY_LANDMARK_KEY);
+        return removed;
+    }
+
     /**
      * 设置字符串值
      */
@@ -153,4 +748,27 @@ public class RedisService {
     public Long decrement(String key, long delta) {
         return stringRedisTemplate.opsForValue().decrement(key, delta);
     }
+
+    /**
+     * 一次取走的项目计数
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CounterDrain {
+
+        /**
+         * 项目ID -> 计数增量
+         */
+        private final Map<Long, Long> counts;
+
+        /**
+         * 取走后仍待同步的项目数量
+         */
+        private final long remaining;
+
+        /**
+         * 本次取走前最早一次未同步增量的时间（毫秒），没有待同步增量时为null
+         */
+        private final Long oldestPendingTime;
+    }
 }
@@ -0,0 +1,144 @@
+package com.quickcode.service.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 合并回源的本地缓存
+ * 未命中时同一key只有一个线程回源，其余线程等待结果；
+ * 过期后的陈旧窗口内先返回旧值，同时在后台刷新（stale-while-revalidate）。
+ * 通过{@link CoalescingCacheFactory}创建，命中情况注册为监控指标
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public class CoalescingCache<K, V> {
+
+    private final String name;
+
+    private final NearCache<K, V> store;
+
+    private final SingleFlight<K, V> flights;
+
+    /**
+     * 失效次数，加载期间发生过失效的结果不回填
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CoalescingCache(String name, NearCache<K, V> store, SingleFlight<K, V> flights) {
+        this.name = name;
+        this.store = store;
+        this.flights = flights;
+    }
+
+    /**
+     * 获取缓存值，未命中时通过loader加载（loader返回null时不缓存）
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = store.get(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        V stale = store.getStale(key);
+        if (stale != null) {
+            staleHits.increment();
+            flights.refreshAsync(key, () -> loadAndStore(key, loader));
+            return stale;
+        }
+
+        misses.increment();
+        return flights.execute(key, () -> {
+            // 排队期间可能已被上一轮加载回填
+            V loaded = store.get(key);
+            return loaded != null ? loaded : loadAndStore(key, loader);
+        });
+    }
+
+    /**
+     * 移除指定key
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        store.invalidate(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        store.clear();
+    }
+
+    /**
+     * 当前事务提交后移除指定key（无事务时立即移除），避免提交前的并发读取把旧数据写回
+     */
+    public void invalidateAfterCommit(K key) {
+        afterCommit(() -> invalidate(key));
+    }
+
+    /**
+     * 当前事务提交后清空缓存（无事务时立即清空）
+     */
+    public void clearAfterCommit() {
+        afterCommit(this::clear);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long coalescedCount() {
+        return flights.coalescedCount();
+    }
+
+    private V loadAndStore(K key, Function<K, V> loader) {
+        long current = generation.get();
+        V value = loader.apply(key);
+        if (value != null && current == generation.get()) {
+            store.put(key, value);
+        }
+        return value;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 提交前先执行一次，提交后再执行一次，覆盖事务期间被回填的旧值
+            action.run();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
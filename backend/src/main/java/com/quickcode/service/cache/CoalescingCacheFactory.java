@@ -0,0 +1,108 @@
+package com.quickcode.service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 合并回源缓存工厂
+ * 统一持有后台刷新线程池（任务在只读事务中执行，懒加载关联可用），
+ * 并为创建的缓存和单飞实例注册命中、合并次数等监控指标
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class CoalescingCacheFactory {
+
+    private static final String METRIC_NAME = "quickcode.cache.requests";
+
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.cache.refresh.threads:2}")
+    private int refreshThreads;
+
+    @Value("${app.cache.refresh.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor refreshPool;
+
+    private Executor refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列满时拒绝，调用方继续使用旧值，等下一次请求再触发刷新
+        refreshPool = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        refreshPool.allowCoreThreadTimeOut(true);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        refreshExecutor = task -> refreshPool.execute(() -> readOnly.executeWithoutResult(status -> task.run()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshPool.shutdownNow();
+    }
+
+    /**
+     * 创建合并回源缓存
+     *
+     * @param name        缓存名称（指标标签）
+     * @param maxSize     最大条目数
+     * @param ttlMillis   新鲜期
+     * @param staleMillis 过期后仍可返回旧值并后台刷新的窗口，0表示不使用旧值
+     */
+    public <K, V> CoalescingCache<K, V> create(String name, int maxSize, long ttlMillis, long staleMillis) {
+        CoalescingCache<K, V> cache = new CoalescingCache<>(name,
+                new NearCache<>(maxSize, ttlMillis, staleMillis), new SingleFlight<>(refreshExecutor));
+
+        registerCounter(name, "hit", cache, CoalescingCache::hitCount);
+        registerCounter(name, "stale", cache, CoalescingCache::staleHitCount);
+        registerCounter(name, "miss", cache, CoalescingCache::missCount);
+        registerCounter(name, "coalesced", cache, CoalescingCache::coalescedCount);
+        Gauge.builder(METRIC_NAME + ".size", cache, CoalescingCache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * 创建单飞实例，供自行管理存储的缓存使用
+     */
+    public <K, V> SingleFlight<K, V> singleFlight(String name) {
+        SingleFlight<K, V> flights = new SingleFlight<>(refreshExecutor);
+        registerCounter(name, "coalesced", flights, SingleFlight::coalescedCount);
+        return flights;
+    }
+
+    private <T> void registerCounter(String name, String result, T target,
+                                     ToDoubleFunction<T> count) {
+        FunctionCounter.builder(METRIC_NAME, target, count)
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
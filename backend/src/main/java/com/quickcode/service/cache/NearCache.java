@@ -0,0 +1,121 @@
+package com.quickcode.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内近端缓存
+ * 按条目数量（LRU淘汰）和写入后存活时间双重限制，作为Redis缓存前的一级缓存。
+ * 可配置过期后的陈旧窗口：窗口内get返回null但getStale仍可取到旧值，供后台刷新期间继续使用
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public class NearCache<K, V> {
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final long staleMillis;
+
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public NearCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, 0);
+    }
+
+    public NearCache(int maxSize, long ttlMillis, long staleMillis) {
+        this(maxSize, ttlMillis, staleMillis, System::currentTimeMillis);
+    }
+
+    NearCache(int maxSize, long ttlMillis, long staleMillis, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("缓存存活时间必须大于0");
+        }
+        if (staleMillis < 0) {
+            throw new IllegalArgumentException("陈旧窗口不能为负数");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > NearCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = liveEntry(key);
+        return entry != null && entry.expiresAt > clock.getAsLong() ? entry.value : null;
+    }
+
+    /**
+     * 获取缓存值，已过期但仍在陈旧窗口内的值也会返回
+     */
+    public synchronized V getStale(K key) {
+        Entry<V> entry = liveEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 写入缓存
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    }
+
+    /**
+     * 移除缓存
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 当前条目数（包含尚未被访问清理的过期条目）
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry<V> liveEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt + staleMillis <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
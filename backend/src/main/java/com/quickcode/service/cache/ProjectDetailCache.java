@@ -0,0 +1,300 @@
+package com.quickcode.service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.common.event.ProjectStatsChangedEvent;
+import com.quickcode.dto.project.ProjectDetailDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 项目详情两级缓存
+ * 一级为进程内近端缓存（容量和存活时间受限），二级为Redis缓存；
+ * 项目变更提交后删除两级缓存，并通过Redis发布订阅通知其他节点清理本地副本。
+ * 同一项目的并发未命中只回源一次（可选Redis锁扩展到多节点），本地过期后的陈旧窗口内先返回旧值并后台刷新。
+ * 返回的DTO在多个请求间共享，调用方不应修改。
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectDetailCache {
+
+    private static final String KEY_PREFIX = "quickcode:cache:project:detail:";
+    private static final String INVALIDATION_CHANNEL = "quickcode:cache:project:detail:invalidate";
+    private static final String METRIC_NAME = "quickcode.cache.project.detail";
+    private static final long LOCK_TTL_MILLIS = 5000;
+    private static final long LOCK_POLL_INTERVAL_MILLIS = 20;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final CoalescingCacheFactory coalescingCacheFactory;
+    private final RedisLoadLock redisLoadLock;
+
+    @Value("${app.cache.project-detail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.project-detail.local-max-size:1000}")
+    private int localMaxSize;
+
+    @Value("${app.cache.project-detail.local-ttl:30000}")
+    private long localTtlMillis;
+
+    @Value("${app.cache.project-detail.redis-ttl:600000}")
+    private long redisTtlMillis;
+
+    @Value("${app.cache.project-detail.stale-ttl:30000}")
+    private long staleTtlMillis;
+
+    @Value("${app.cache.project-detail.distributed-lock:false}")
+    private boolean distributedLock;
+
+    @Value("${app.cache.project-detail.lock-wait:300}")
+    private long lockWaitMillis;
+
+    /**
+     * 本节点标识，用于忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 失效次数，加载期间发生过失效的结果不回填缓存，避免把旧数据写回
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Redis缓存使用ISO时间格式，不受接口日期格式配置影响
+     */
+    private final ObjectMapper cacheMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private NearCache<Long, ProjectDetailDTO> localCache;
+
+    private SingleFlight<Long, ProjectDetailDTO> flights;
+
+    private Counter localHits;
+    private Counter staleHits;
+    private Counter redisHits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        localCache = new NearCache<>(localMaxSize, localTtlMillis, staleTtlMillis);
+        flights = coalescingCacheFactory.singleFlight("project-detail");
+        localHits = Counter.builder(METRIC_NAME).tag("result", "hit").tag("tier", "local")
+                .description("项目详情缓存命中次数").register(meterRegistry);
+        staleHits = Counter.builder(METRIC_NAME).tag("result", "stale").tag("tier", "local")
+                .description("项目详情缓存返回旧值次数").register(meterRegistry);
+        redisHits = Counter.builder(METRIC_NAME).tag("result", "hit").tag("tier", "redis")
+                .description("项目详情缓存命中次数").register(meterRegistry);
+        misses = Counter.builder(METRIC_NAME).tag("result", "miss").tag("tier", "none")
+                .description("项目详情缓存未命中次数").register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".local.size", localCache, NearCache::size)
+                .description("项目详情本地缓存条目数").register(meterRegistry);
+
+        if (enabled) {
+            redisMessageListenerContainer.addMessageListener(
+                    (message, pattern) -> onInvalidationMessage(message), new ChannelTopic(INVALIDATION_CHANNEL));
+        }
+    }
+
+    /**
+     * 获取项目详情，依次查询本地缓存、Redis，都未命中时调用loader加载并回填
+     *
+     * @param projectId 项目ID
+     * @param loader    数据库加载函数，返回null表示项目不存在（不缓存）
+     */
+    public ProjectDetailDTO get(Long projectId, Function<Long, ProjectDetailDTO> loader) {
+        if (!enabled || projectId == null) {
+            return loader.apply(projectId);
+        }
+
+        ProjectDetailDTO cached = localCache.get(projectId);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+
+        ProjectDetailDTO stale = localCache.getStale(projectId);
+        if (stale != null) {
+            staleHits.increment();
+            flights.refreshAsync(projectId, () -> loadThrough(projectId, loader));
+            return stale;
+        }
+
+        return flights.execute(projectId, () -> {
+            ProjectDetailDTO loaded = localCache.get(projectId);
+            return loaded != null ? loaded : loadThrough(projectId, loader);
+        });
+    }
+
+    /**
+     * 依次读取Redis、回源数据库，并回填两级缓存
+     */
+    private ProjectDetailDTO loadThrough(Long projectId, Function<Long, ProjectDetailDTO> loader) {
+        long generation = invalidations.get();
+        ProjectDetailDTO cached = readRedis(projectId);
+        if (cached != null) {
+            redisHits.increment();
+            if (generation == invalidations.get()) {
+                localCache.put(projectId, cached);
+            }
+            return cached;
+        }
+
+        String lockName = "project:detail:" + projectId;
+        String lockToken = null;
+        if (distributedLock) {
+            Optional<String> token = redisLoadLock.tryLock(lockName, Duration.ofMillis(LOCK_TTL_MILLIS));
+            if (token.isEmpty()) {
+                cached = awaitOtherNode(projectId);
+                if (cached != null) {
+                    redisHits.increment();
+                    if (generation == invalidations.get()) {
+                        localCache.put(projectId, cached);
+                    }
+                    return cached;
+                }
+                // 等待超时，持锁节点可能已失败，自行回源
+            } else {
+                lockToken = token.get();
+            }
+        }
+
+        try {
+            misses.increment();
+            ProjectDetailDTO loaded = loader.apply(projectId);
+            if (loaded != null && generation == invalidations.get()) {
+                localCache.put(projectId, loaded);
+                writeRedis(projectId, loaded);
+            }
+            return loaded;
+        } finally {
+            if (lockToken != null) {
+                redisLoadLock.unlock(lockName, lockToken);
+            }
+        }
+    }
+
+    /**
+     * 锁被其他节点持有时轮询Redis，等待其回填结果
+     */
+    private ProjectDetailDTO awaitOtherNode(Long projectId) {
+        long deadline = System.currentTimeMillis() + lockWaitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ProjectDetailDTO cached = readRedis(projectId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 删除项目详情缓存并通知其他节点
+     */
+    public void evict(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        localCache.invalidate(projectId);
+        if (!enabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(KEY_PREFIX + projectId);
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + projectId);
+        } catch (Exception e) {
+            log.warn("删除项目详情缓存失败: projectId={}", projectId, e);
+        }
+    }
+
+    /**
+     * 项目变更提交后清理缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        evict(event.getProjectId());
+    }
+
+    /**
+     * 评分重算后清理缓存，其余计数类变化容忍短暂滞后
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectStatsChanged(ProjectStatsChangedEvent event) {
+        if (event.getStatType() == ProjectStatsChangedEvent.StatType.RATING) {
+            event.getProjectIds().forEach(this::evict);
+        }
+    }
+
+    /**
+     * 处理其他节点发来的失效消息
+     */
+    void onInvalidationMessage(Message message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        try {
+            Long projectId = Long.valueOf(body.substring(separator + 1));
+            invalidations.incrementAndGet();
+            localCache.invalidate(projectId);
+            log.debug("收到项目详情缓存失效通知: projectId={}", projectId);
+        } catch (NumberFormatException e) {
+            log.warn("无效的缓存失效消息: {}", body);
+        }
+    }
+
+    private ProjectDetailDTO readRedis(Long projectId) {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(KEY_PREFIX + projectId);
+            return json != null ? cacheMapper.readValue(json, ProjectDetailDTO.class) : null;
+        } catch (Exception e) {
+            log.warn("读取项目详情缓存失败: projectId={}", projectId, e);
+            return null;
+        }
+    }
+
+    private void writeRedis(Long projectId, ProjectDetailDTO detail) {
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + projectId,
+                    cacheMapper.writeValueAsString(detail), Duration.ofMillis(redisTtlMillis));
+        } catch (Exception e) {
+            log.warn("写入项目详情缓存失败: projectId={}", projectId, e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.quickcode.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 单飞请求合并
+ * 同一个key同一时刻在本节点只执行一次加载，并发到达的其他调用等待并共享这次加载的结果（或异常），
+ * 用于缓存失效瞬间大量请求同时回源的场景
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Executor refreshExecutor;
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param refreshExecutor 后台刷新使用的线程池，为null时refreshAsync不执行
+     */
+    public SingleFlight(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 执行加载；已有相同key的加载在进行时等待其结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return await(existing);
+            } catch (CancellationException e) {
+                // 后台刷新提交失败被取消，重新发起加载
+                return execute(key, loader);
+            }
+        }
+        return run(key, flight, loader);
+    }
+
+    /**
+     * 在后台线程执行加载，相同key已在加载或线程池已满时直接返回false
+     */
+    public boolean refreshAsync(K key, Supplier<V> loader) {
+        if (refreshExecutor == null) {
+            return false;
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return false;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    run(key, flight, loader);
+                } catch (RuntimeException e) {
+                    log.warn("后台刷新失败: key={}", key, e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+            return false;
+        }
+    }
+
+    /**
+     * 当前正在加载的key数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 累计被合并（未自行加载）的调用次数
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private V run(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.quickcode.service.counter;
+
+import com.quickcode.common.event.ProjectStatsChangedEvent.StatType;
+import lombok.Getter;
+
+/**
+ * 项目计数类型
+ * 对应Redis中的计数名称、projects表中的计数列以及同步后发布的统计变更类型
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Getter
+public enum CounterType {
+
+    VIEW("view", "view_count", StatType.VIEW_COUNT),
+    DOWNLOAD("download", "download_count", StatType.DOWNLOAD_COUNT),
+    LIKE("like", "like_count", StatType.LIKE_COUNT),
+    FAVORITE("favorite", "favorite_count", StatType.FAVORITE_COUNT);
+
+    /**
+     * Redis计数名称
+     */
+    private final String key;
+
+    /**
+     * projects表中的列名
+     */
+    private final String column;
+
+    /**
+     * 同步到数据库后发布的统计变更类型
+     */
+    private final StatType statType;
+
+    CounterType(String key, String column, StatType statType) {
+        this.key = key;
+        this.column = column;
+        this.statType = statType;
+    }
+}
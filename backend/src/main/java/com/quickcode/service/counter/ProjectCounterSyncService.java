@@ -0,0 +1,260 @@
+package com.quickcode.service.counter;
+
+import com.quickcode.common.event.ProjectStatsChangedEvent;
+import com.quickcode.service.RedisService;
+import com.quickcode.service.RedisService.CounterDrain;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 项目计数同步服务
+ * 定期将Redis中的浏览、下载、点赞、收藏计数同步到数据库
+ * 计数时项目ID登记到Redis脏集合，同步时用Lua脚本原子地弹出一批项目并取走计数，
+ * 再用一条CASE语句批量更新；一批处理完仍有剩余时继续下一批，直到取空或达到单次轮数上限。
+ * 取走计数是原子的，多个实例可以同时同步而不会重复累加
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectCounterSyncService {
+
+    private final RedisService redisService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * 单条UPDATE语句最多更新的项目数量，控制语句长度和参数个数
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String METRIC_PREFIX = "quickcode.counter.sync";
+
+    /**
+     * 每种计数单次同步最多处理的批次数，超出部分留到下一次同步
+     */
+    @Value("${app.counter.sync-max-rounds:50}")
+    private int maxRounds;
+
+    private final AtomicBoolean syncing = new AtomicBoolean(false);
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<CounterType, Timer> flushLag = new EnumMap<>(CounterType.class);
+    private final Map<CounterType, DistributionSummary> flushSize = new EnumMap<>(CounterType.class);
+    private final Map<CounterType, Counter> flushedCounts = new EnumMap<>(CounterType.class);
+    private Timer flushDuration;
+    private Counter flushFailures;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (CounterType type : CounterType.values()) {
+            flushLag.put(type, Timer.builder(METRIC_PREFIX + ".lag")
+                    .description("同步时最早一次未同步增量的等待时间")
+                    .tag("type", type.getKey())
+                    .register(meterRegistry));
+            flushSize.put(type, DistributionSummary.builder(METRIC_PREFIX + ".size")
+                    .description("每批同步的项目数量")
+                    .tag("type", type.getKey())
+                    .register(meterRegistry));
+            flushedCounts.put(type, Counter.builder(METRIC_PREFIX + ".projects")
+                    .description("已同步到数据库的项目计数条数")
+                    .tag("type", type.getKey())
+                    .register(meterRegistry));
+            Gauge.builder(METRIC_PREFIX + ".pending", redisService, service -> pendingProjects(service, type))
+                    .description("Redis中待同步计数的项目数量")
+                    .tag("type", type.getKey())
+                    .register(meterRegistry);
+        }
+        flushDuration = Timer.builder(METRIC_PREFIX + ".duration")
+                .description("单次同步耗时")
+                .register(meterRegistry);
+        flushFailures = Counter.builder(METRIC_PREFIX + ".failures")
+                .description("写入数据库失败并退回Redis的批次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动时把旧版本按KEYS扫描同步的浏览计数键登记到脏集合，避免升级后这些计数丢失
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerLegacyViewCounts() {
+        try {
+            int registered = redisService.registerLegacyProjectViewCounts();
+            if (registered > 0) {
+                log.info("登记待同步的项目浏览计数: {}", registered);
+            }
+        } catch (Exception e) {
+            log.warn("登记待同步的项目浏览计数失败", e);
+        }
+    }
+
+    /**
+     * 定时同步Redis中的计数到数据库
+     * 默认每1分钟执行一次
+     */
+    @Scheduled(fixedRateString = "${app.counter.sync-interval:60000}")
+    @Async
+    public void syncCountsToDatabase() {
+        // 同一实例内不重叠执行；多实例之间由原子取走保证不重复
+        if (!syncing.compareAndSet(false, true)) {
+            log.debug("同步任务正在执行，跳过本次执行");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            for (CounterType type : CounterType.values()) {
+                try {
+                    syncCounter(type);
+                } catch (Exception e) {
+                    log.error("同步项目计数到数据库失败: type={}", type, e);
+                }
+            }
+        } finally {
+            flushDuration.record(Duration.ofNanos(System.nanoTime() - startTime));
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * 手动触发同步（用于测试或紧急情况）
+     */
+    @Async
+    public void manualSync() {
+        log.info("手动触发项目计数同步...");
+        syncCountsToDatabase();
+    }
+
+    /**
+     * 直接把增量写入数据库，不经过Redis
+     * 供计数缓冲在关闭时Redis不可用的情况下兜底使用
+     */
+    public void applyToDatabase(CounterType type, Map<Long, Long> deltas) {
+        transactionTemplate.executeWithoutResult(status -> batchIncrement(type, deltas));
+        flushedCounts.get(type).increment(deltas.size());
+    }
+
+    private void syncCounter(CounterType type) {
+        int syncCount = 0;
+        int rounds = 0;
+        CounterDrain drain;
+        do {
+            drain = redisService.drainProjectCounts(type.getKey(), MAX_BATCH_SIZE);
+            if (rounds == 0 && drain.getOldestPendingTime() != null) {
+                flushLag.get(type).record(Duration.ofMillis(
+                        Math.max(0, System.currentTimeMillis() - drain.getOldestPendingTime())));
+            }
+            if (!drain.getCounts().isEmpty()) {
+                syncCount += flush(type, drain.getCounts());
+            }
+            rounds++;
+        } while (drain.getRemaining() > 0 && rounds < maxRounds);
+
+        if (syncCount > 0) {
+            log.info("项目计数同步完成: type={}, projects={}, batches={}", type, syncCount, rounds);
+        }
+        if (drain.getRemaining() > 0) {
+            log.warn("项目计数未同步完，剩余 {} 个项目留到下一次同步: type={}", drain.getRemaining(), type);
+        }
+    }
+
+    /**
+     * 把一批计数写入数据库，失败时退回Redis等待下次同步
+     *
+     * @return 同步的项目数量
+     */
+    private int flush(CounterType type, Map<Long, Long> counts) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchIncrement(type, counts));
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            restore(type, counts);
+            throw e;
+        }
+
+        flushSize.get(type).record(counts.size());
+        flushedCounts.get(type).increment(counts.size());
+        eventPublisher.publishEvent(ProjectStatsChangedEvent.of(type.getStatType(), new ArrayList<>(counts.keySet())));
+        return counts.size();
+    }
+
+    /**
+     * 用 UPDATE ... SET col = GREATEST(col + CASE id WHEN ? THEN ? ... END, 0) WHERE id IN (...)
+     * 一条语句更新多个项目，替代逐个项目执行UPDATE；点赞、收藏的负增量不会把计数减到0以下
+     */
+    private void batchIncrement(CounterType type, Map<Long, Long> counts) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(counts.entrySet());
+        for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<Long, Long>> chunk = entries.subList(from,
+                    Math.min(from + MAX_ROWS_PER_STATEMENT, entries.size()));
+
+            String column = type.getColumn();
+            StringBuilder sql = new StringBuilder("UPDATE projects SET ")
+                    .append(column).append(" = GREATEST(").append(column).append(" + CASE id");
+            List<Object> args = new ArrayList<>(chunk.size() * 3);
+            for (Map.Entry<Long, Long> entry : chunk) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(entry.getKey());
+                args.add(entry.getValue());
+            }
+            sql.append(" ELSE 0 END, 0) WHERE id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args.add(chunk.get(i).getKey());
+            }
+            sql.append(')');
+
+            int updatedRows = jdbcTemplate.update(sql.toString(), args.toArray());
+            if (updatedRows < chunk.size()) {
+                log.warn("部分项目计数未更新，项目可能不存在: type={}, expected={}, updated={}",
+                        type, chunk.size(), updatedRows);
+            }
+        }
+    }
+
+    private void restore(CounterType type, Map<Long, Long> counts) {
+        try {
+            redisService.addProjectCounts(type.getKey(), counts);
+        } catch (Exception e) {
+            log.error("退回项目计数失败，计数丢失: type={}, counts={}", type, counts, e);
+        }
+    }
+
+    private double pendingProjects(RedisService service, CounterType type) {
+        try {
+            return service.getPendingProjectCount(type.getKey());
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+}
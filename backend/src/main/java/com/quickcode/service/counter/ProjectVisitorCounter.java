@@ -0,0 +1,135 @@
+package com.quickcode.service.counter;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.crypto.digest.HmacAlgorithm;
+import com.quickcode.dto.project.UniqueVisitorStats;
+import com.quickcode.service.RedisService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 项目独立访客计数
+ * 浏览次数每次请求都会累加，刷新和爬虫都会计入；独立访客按天记录到Redis HyperLogLog中，
+ * 登录用户按用户ID、匿名访客按IP摘要去重，周、月窗口在查询时合并每日数据得到。
+ * 访客同时写入项目所属卖家当天的HyperLogLog，卖家看板只合并最多30个每日键，与名下项目数量无关。
+ * 每个项目、每个卖家每天最多占用约12KB，与访问量无关
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectVisitorCounter {
+
+    private final RedisService redisService;
+
+    /**
+     * 是否记录独立访客
+     */
+    @Value("${app.counter.unique-visitor.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每日访客数据保留天数，需覆盖最长的统计窗口
+     */
+    @Value("${app.counter.unique-visitor.retention-days:35}")
+    private int retentionDays;
+
+    /**
+     * 计算IP摘要的密钥，未单独配置时使用JWT密钥
+     */
+    @Value("${app.counter.unique-visitor.ip-salt:${app.jwt.secret}}")
+    private String ipSecret;
+
+    /**
+     * 计算IP摘要时附加的盐值，由密钥派生，避免从摘要反推IP
+     */
+    private String ipSalt;
+
+    @PostConstruct
+    public void init() {
+        if (ipSecret == null || ipSecret.isBlank()) {
+            throw new IllegalStateException("未配置匿名访客IP摘要的密钥: app.counter.unique-visitor.ip-salt");
+        }
+        // 从配置的密钥派生盐值，与JWT签名不共用同一个值
+        ipSalt = DigestUtil.hmac(HmacAlgorithm.HmacSHA256, ipSecret.getBytes(StandardCharsets.UTF_8))
+                .digestHex("quickcode-visitor-ip");
+    }
+
+    /**
+     * 记录一次访问
+     * 访问统计失败不影响业务，只记录日志
+     *
+     * @param sellerId 项目所属卖家ID
+     * @param userId   登录用户ID，匿名访问为null
+     * @param clientIp 客户端IP，userId为null时用于去重
+     */
+    public void recordVisit(Long projectId, Long sellerId, Long userId, String clientIp) {
+        if (!enabled || projectId == null) {
+            return;
+        }
+        String visitor = visitorId(userId, clientIp);
+        if (visitor == null) {
+            return;
+        }
+        try {
+            redisService.addProjectVisitor(projectId, sellerId, LocalDate.now(), visitor, Duration.ofDays(retentionDays));
+        } catch (Exception e) {
+            log.warn("记录项目独立访客失败: projectId={}", projectId, e);
+        }
+    }
+
+    /**
+     * 单个项目的独立访客统计
+     */
+    public UniqueVisitorStats getStats(Long projectId) {
+        List<Long> projectIds = List.of(projectId);
+        try {
+            LocalDate today = LocalDate.now();
+            return UniqueVisitorStats.builder()
+                    .today(redisService.countProjectVisitors(projectIds, today, today))
+                    .last7Days(redisService.countProjectVisitors(projectIds, today.minusDays(6), today))
+                    .last30Days(redisService.countProjectVisitors(projectIds, today.minusDays(29), today))
+                    .build();
+        } catch (Exception e) {
+            log.warn("获取项目独立访客统计失败: projectId={}", projectId, e);
+            return UniqueVisitorStats.empty();
+        }
+    }
+
+    /**
+     * 卖家名下所有项目合计的独立访客统计，同一访客访问多个项目只计一次
+     */
+    public UniqueVisitorStats getSellerStats(Long sellerId) {
+        try {
+            LocalDate today = LocalDate.now();
+            return UniqueVisitorStats.builder()
+                    .today(redisService.countSellerVisitors(sellerId, today, today))
+                    .last7Days(redisService.countSellerVisitors(sellerId, today.minusDays(6), today))
+                    .last30Days(redisService.countSellerVisitors(sellerId, today.minusDays(29), today))
+                    .build();
+        } catch (Exception e) {
+            log.warn("获取卖家独立访客统计失败: sellerId={}", sellerId, e);
+            return UniqueVisitorStats.empty();
+        }
+    }
+
+    private String visitorId(Long userId, String clientIp) {
+        if (userId != null) {
+            return "u:" + userId;
+        }
+        if (clientIp == null || clientIp.isEmpty()) {
+            return null;
+        }
+        return "ip:" + DigestUtil.sha256Hex(ipSalt + clientIp).substring(0, 16);
+    }
+}
@@ -0,0 +1,133 @@
+package com.quickcode.service.download;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单个下载连接的带宽配额
+ * 令牌桶按分配的速率补充令牌，写出前扣除对应字节数，令牌不足时在输出线程上等待。
+ * 速率由调度器在连接加入或退出时重新分配，输出线程每次扣除时读取最新值
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public class BandwidthLease implements AutoCloseable {
+
+    /**
+     * 不限速的配额
+     */
+    public static final BandwidthLease UNLIMITED = new BandwidthLease(null, null, null, null, 0, false) {
+        @Override
+        public void acquire(long bytes) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * 单次等待的最长时间，之后重新读取速率
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final DownloadBandwidthShaper shaper;
+    private final String id;
+    private final DownloadBandwidthShaper.Tier tier;
+    private final String userKey;
+    private final long burstMillis;
+    private final boolean limited;
+    private final long openedAt = System.currentTimeMillis();
+
+    /**
+     * 分配的速率（字节/秒），0表示不限制
+     */
+    private volatile long rate;
+
+    // 只由输出线程访问
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    // 只由输出线程写入，监控端点读取
+    private volatile long transferred;
+    private volatile long waitedNanos;
+
+    BandwidthLease(DownloadBandwidthShaper shaper, String id, DownloadBandwidthShaper.Tier tier, String userKey,
+                   long burstMillis, boolean limited) {
+        this.shaper = shaper;
+        this.id = id;
+        this.tier = tier;
+        this.userKey = userKey;
+        this.burstMillis = burstMillis;
+        this.limited = limited;
+    }
+
+    /**
+     * 扣除要写出的字节数，令牌不足时等待补足
+     * 允许单次扣除超过桶容量，欠下的令牌按当前速率补齐；等待期间分段检查，速率重新分配后立即按新速率计算
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        transferred += bytes;
+        refill();
+        tokens -= bytes;
+        while (tokens < 0) {
+            long currentRate = rate;
+            if (currentRate <= 0) {
+                tokens = 0;
+                return;
+            }
+            long start = System.nanoTime();
+            LockSupport.parkNanos(this, Math.min((long) Math.ceil(-tokens * 1e9 / currentRate), MAX_PARK_NANOS));
+            waitedNanos += System.nanoTime() - start;
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("下载限速等待被中断");
+            }
+            refill();
+        }
+    }
+
+    /**
+     * 按当前速率补充令牌，最多积攒burstMillis的量
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        long currentRate = rate;
+        if (currentRate > 0) {
+            double capacity = Math.max(currentRate * burstMillis / 1000.0, 1);
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * currentRate / 1e9);
+        }
+        lastRefillNanos = now;
+    }
+
+    /**
+     * 是否需要限速
+     * 需要限速时不能交给sendfile发送，否则绕过了令牌桶
+     */
+    public boolean isLimited() {
+        return limited;
+    }
+
+    /**
+     * 释放配额，剩余带宽重新分配给其他连接
+     */
+    @Override
+    public void close() {
+        shaper.release(this);
+    }
+
+    void setRate(long rate) {
+        this.rate = rate;
+    }
+
+    public String getId() { return id; }
+    public DownloadBandwidthShaper.Tier getTier() { return tier; }
+    public String getUserKey() { return userKey; }
+    public long getRate() { return rate; }
+    public long getOpenedAt() { return openedAt; }
+    public long getTransferred() { return transferred; }
+
+    public long getWaitedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+    }
+}
@@ -0,0 +1,98 @@
+package com.quickcode.service.download;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch
+ * 用固定大小的二维计数表估计元素出现次数，估计值只会偏大不会偏小，
+ * 误差上限约为 总次数 * e / width，概率 1 - e^-depth
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[][] table;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("depth和width必须大于0");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new int[depth][width];
+    }
+
+    /**
+     * 累加一次并返回累加后的估计次数
+     * 采用保守更新：只增加当前等于最小值的计数，减小哈希冲突带来的高估
+     */
+    public synchronized int add(String item) {
+        int[] indexes = indexes(item);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row][indexes[row]]);
+        }
+        int updated = min + 1;
+        for (int row = 0; row < depth; row++) {
+            if (table[row][indexes[row]] < updated) {
+                table[row][indexes[row]] = updated;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 估计元素出现次数
+     */
+    public synchronized int estimate(String item) {
+        int[] indexes = indexes(item);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row][indexes[row]]);
+        }
+        return min;
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public synchronized void clear() {
+        for (int[] row : table) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    /**
+     * 由两个64位哈希组合出每一行的下标（Kirsch-Mitzenmacher）
+     */
+    private int[] indexes(String item) {
+        byte[] bytes = item.getBytes(StandardCharsets.UTF_8);
+        long h1 = hash(bytes, 0x9E3779B97F4A7C15L);
+        long h2 = hash(bytes, 0xC2B2AE3D27D4EB4FL);
+        int[] indexes = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            long combined = h1 + row * h2;
+            indexes[row] = (int) Long.remainderUnsigned(combined, width);
+        }
+        return indexes;
+    }
+
+    private static long hash(byte[] bytes, long seed) {
+        long h = seed;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001B3L;
+        }
+        // splitmix64终混
+        h ^= h >>> 30;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 27;
+        h *= 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return h;
+    }
+}
@@ -0,0 +1,411 @@
+package com.quickcode.service.download;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 异常下载实时检测
+ * 每次下载在内存中更新用户、IP两类行为主体的分钟级滑动窗口计数，
+ * 以及(IP, 用户, 项目)三元组的Count-Min Sketch，当场识别以下模式：
+ * 短时间突发下载、同一IP下大量账号下载、一小时内下载大量不同项目（抓取）、
+ * 同一来源反复下载同一项目。命中的主体在一段时间内保持标记，查询时无需访问数据库。
+ * 检测状态只在本节点内存中，多节点部署时各节点分别检测自己处理的请求
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadAnomalyDetector {
+
+    /**
+     * 滑动窗口的最大长度（分钟），也是查询时允许的最大时间窗口
+     */
+    static final int WINDOW_MINUTES = 60;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 4096;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.download.anomaly.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 突发检测窗口（分钟）和窗口内的下载次数上限
+     */
+    @Value("${app.download.anomaly.burst-window-minutes:5}")
+    private int burstWindowMinutes = 5;
+
+    @Value("${app.download.anomaly.burst-threshold:20}")
+    private int burstThreshold = 20;
+
+    /**
+     * 一小时内同一IP下载的不同账号数上限
+     */
+    @Value("${app.download.anomaly.accounts-per-ip-threshold:5}")
+    private int accountsPerIpThreshold = 5;
+
+    /**
+     * 一小时内同一主体下载的不同项目数上限
+     */
+    @Value("${app.download.anomaly.distinct-projects-threshold:30}")
+    private int distinctProjectsThreshold = 30;
+
+    /**
+     * 同一(IP, 用户, 项目)在重复计数周期内的下载次数上限
+     */
+    @Value("${app.download.anomaly.repeat-threshold:10}")
+    private int repeatThreshold = 10;
+
+    /**
+     * 重复计数周期（分钟），Sketch按周期轮换，估计值覆盖最近一到两个周期
+     */
+    @Value("${app.download.anomaly.repeat-window-minutes:10}")
+    private int repeatWindowMinutes = 10;
+
+    /**
+     * 标记保留时间（分钟）
+     */
+    @Value("${app.download.anomaly.flag-ttl-minutes:60}")
+    private int flagTtlMinutes = 60;
+
+    /**
+     * 最多跟踪的主体数，超过后不再跟踪新主体，防止伪造IP的请求耗尽内存
+     */
+    @Value("${app.download.anomaly.max-actors:100000}")
+    private int maxActors = 100000;
+
+    private final Map<String, ActorWindow> actors = new ConcurrentHashMap<>();
+    private final Map<String, AnomalyFlag> flags = new ConcurrentHashMap<>();
+
+    private volatile CountMinSketch currentSketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    private volatile CountMinSketch previousSketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    private volatile long sketchRotatedMinute = currentMinute(System.currentTimeMillis());
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("quickcode.download.anomaly.flagged", List.of(), flags);
+        meterRegistry.gaugeMapSize("quickcode.download.anomaly.actors", List.of(), actors);
+    }
+
+    /**
+     * 记录一次下载
+     *
+     * @param userId    下载用户ID，匿名下载为null
+     * @param clientIp  客户端IP
+     * @param projectId 项目ID
+     */
+    public void record(Long userId, String clientIp, Long projectId) {
+        if (enabled) {
+            record(userId, clientIp, projectId, System.currentTimeMillis());
+        }
+    }
+
+    void record(Long userId, String clientIp, Long projectId, long now) {
+        long minute = currentMinute(now);
+        String userActor = userId != null ? userActor(userId) : null;
+        String ipActor = clientIp != null && !clientIp.isBlank() ? ipActor(clientIp) : null;
+
+        if (userActor != null) {
+            ActorWindow window = track(userActor);
+            if (window != null) {
+                checkActor(userActor, window.record(minute, projectId, null, burstWindowMinutes), now);
+            }
+        }
+        if (ipActor != null) {
+            ActorWindow window = track(ipActor);
+            if (window != null) {
+                ActorSnapshot snapshot = window.record(minute, projectId, userId, burstWindowMinutes);
+                checkActor(ipActor, snapshot, now);
+                if (snapshot.distinctUsers > accountsPerIpThreshold) {
+                    flag(ipActor, AnomalyType.SHARED_IP, snapshot.distinctUsers, now);
+                }
+            }
+        }
+
+        String triple = userId + "|" + clientIp + "|" + projectId;
+        int repeats = currentSketch.add(triple) + previousSketch.estimate(triple);
+        if (repeats > repeatThreshold) {
+            flag(userActor != null ? userActor : ipActor, AnomalyType.REPEATED_DOWNLOAD, repeats, now);
+        }
+    }
+
+    /**
+     * 判断用户或IP是否存在异常下载行为
+     * 已被标记，或在指定时间窗口内下载次数超过上限时返回true
+     *
+     * @param timeWindowMinutes 时间窗口（分钟），最大为60
+     * @param maxDownloads      时间窗口内允许的下载次数
+     */
+    public boolean isAbnormal(Long userId, String clientIp, int timeWindowMinutes, int maxDownloads) {
+        long now = System.currentTimeMillis();
+        int minutes = Math.max(1, Math.min(timeWindowMinutes, WINDOW_MINUTES));
+        for (String actor : actorsOf(userId, clientIp)) {
+            if (getFlag(actor, now) != null) {
+                return true;
+            }
+            ActorWindow window = actors.get(actor);
+            if (window != null && window.count(currentMinute(now), minutes) > maxDownloads) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取用户、IP当前的标记
+     */
+    public List<AnomalyFlag> getFlags(Long userId, String clientIp) {
+        long now = System.currentTimeMillis();
+        List<AnomalyFlag> result = new ArrayList<>();
+        for (String actor : actorsOf(userId, clientIp)) {
+            AnomalyFlag flag = getFlag(actor, now);
+            if (flag != null) {
+                result.add(flag);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取当前所有被标记的主体，最近标记的在前
+     */
+    public List<AnomalyFlag> getFlaggedActors(int limit) {
+        long now = System.currentTimeMillis();
+        return flags.values().stream()
+                .filter(flag -> flag.getExpiresAtMillis() > now)
+                .sorted(Comparator.comparingLong(AnomalyFlag::getFlaggedAtMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 每分钟轮换Sketch并清理过期的主体和标记
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void maintain() {
+        maintain(System.currentTimeMillis());
+    }
+
+    void maintain(long now) {
+        long minute = currentMinute(now);
+        if (minute - sketchRotatedMinute >= repeatWindowMinutes) {
+            CountMinSketch recycled = previousSketch;
+            recycled.clear();
+            previousSketch = currentSketch;
+            currentSketch = recycled;
+            sketchRotatedMinute = minute;
+        }
+        actors.values().removeIf(window -> window.isIdle(minute));
+        flags.values().removeIf(flag -> flag.getExpiresAtMillis() <= now);
+    }
+
+    private ActorWindow track(String actor) {
+        ActorWindow window = actors.get(actor);
+        if (window != null) {
+            return window;
+        }
+        if (actors.size() >= maxActors) {
+            log.debug("异常下载检测主体数已达上限，跳过: actor={}", actor);
+            return null;
+        }
+        return actors.computeIfAbsent(actor, key -> new ActorWindow(accountsPerIpThreshold * 2,
+                distinctProjectsThreshold * 2));
+    }
+
+    private void checkActor(String actor, ActorSnapshot snapshot, long now) {
+        if (snapshot.burstCount > burstThreshold) {
+            flag(actor, AnomalyType.BURST, snapshot.burstCount, now);
+        }
+        if (snapshot.distinctProjects > distinctProjectsThreshold) {
+            flag(actor, AnomalyType.SCRAPING, snapshot.distinctProjects, now);
+        }
+    }
+
+    private void flag(String actor, AnomalyType type, long observed, long now) {
+        if (actor == null) {
+            return;
+        }
+        long expiresAt = now + flagTtlMinutes * 60_000L;
+        AnomalyFlag previous = flags.put(actor, new AnomalyFlag(actor, type, observed, now, expiresAt));
+        if (previous == null || previous.getType() != type || previous.getExpiresAtMillis() <= now) {
+            meterRegistry.counter("quickcode.download.anomaly.detected", "type", type.name()).increment();
+            log.warn("检测到异常下载行为: actor={}, type={}, observed={}", actor, type, observed);
+        }
+    }
+
+    private AnomalyFlag getFlag(String actor, long now) {
+        AnomalyFlag flag = flags.get(actor);
+        return flag != null && flag.getExpiresAtMillis() > now ? flag : null;
+    }
+
+    private static List<String> actorsOf(Long userId, String clientIp) {
+        List<String> result = new ArrayList<>(2);
+        if (userId != null) {
+            result.add(userActor(userId));
+        }
+        if (clientIp != null && !clientIp.isBlank()) {
+            result.add(ipActor(clientIp));
+        }
+        return result;
+    }
+
+    private static String userActor(Long userId) {
+        return "user:" + userId;
+    }
+
+    private static String ipActor(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    private static long currentMinute(long now) {
+        return now / 60_000L;
+    }
+
+    /**
+     * 单个主体的滑动窗口状态
+     * 下载次数按分钟分桶保存在环形数组中；不同项目、不同账号各保留最近的有限条目，
+     * 条目数上限为对应阈值的两倍，足以判断是否超限
+     */
+    static class ActorWindow {
+        private final long[] counts = new long[WINDOW_MINUTES];
+        private final long[] bucketMinutes = new long[WINDOW_MINUTES];
+        private final LinkedHashMap<Long, Long> projects;
+        private final LinkedHashMap<Long, Long> users;
+        private long lastSeenMinute;
+
+        ActorWindow(int maxUsers, int maxProjects) {
+            this.users = boundedLru(maxUsers);
+            this.projects = boundedLru(maxProjects);
+        }
+
+        synchronized ActorSnapshot record(long minute, Long projectId, Long userId, int burstMinutes) {
+            int bucket = (int) (minute % WINDOW_MINUTES);
+            if (bucketMinutes[bucket] != minute) {
+                bucketMinutes[bucket] = minute;
+                counts[bucket] = 0;
+            }
+            counts[bucket]++;
+            lastSeenMinute = minute;
+            if (projectId != null) {
+                projects.put(projectId, minute);
+            }
+            if (userId != null) {
+                users.put(userId, minute);
+            }
+            return new ActorSnapshot(count(minute, Math.min(burstMinutes, WINDOW_MINUTES)),
+                    distinctSince(projects, minute), distinctSince(users, minute));
+        }
+
+        synchronized long count(long minute, int minutes) {
+            long total = 0;
+            for (int i = 0; i < minutes; i++) {
+                total += countAt(minute - i);
+            }
+            return total;
+        }
+
+        synchronized boolean isIdle(long minute) {
+            return minute - lastSeenMinute >= WINDOW_MINUTES;
+        }
+
+        private long countAt(long minute) {
+            int bucket = (int) (minute % WINDOW_MINUTES);
+            return bucketMinutes[bucket] == minute ? counts[bucket] : 0;
+        }
+
+        private static int distinctSince(LinkedHashMap<Long, Long> entries, long minute) {
+            int count = 0;
+            for (long lastMinute : entries.values()) {
+                if (minute - lastMinute < WINDOW_MINUTES) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private static LinkedHashMap<Long, Long> boundedLru(int maxEntries) {
+            return new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    /**
+     * 记录一次下载后的主体状态
+     */
+    static class ActorSnapshot {
+        private final long burstCount;
+        private final int distinctProjects;
+        private final int distinctUsers;
+
+        ActorSnapshot(long burstCount, int distinctProjects, int distinctUsers) {
+            this.burstCount = burstCount;
+            this.distinctProjects = distinctProjects;
+            this.distinctUsers = distinctUsers;
+        }
+    }
+
+    /**
+     * 异常类型
+     */
+    public enum AnomalyType {
+        BURST("短时间内下载过于频繁"),
+        SHARED_IP("同一IP下载的账号过多"),
+        SCRAPING("短时间内下载大量不同项目"),
+        REPEATED_DOWNLOAD("反复下载同一项目");
+
+        private final String description;
+
+        AnomalyType(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * 异常标记
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class AnomalyFlag {
+        private final String actor;
+        private final AnomalyType type;
+        private final long observed;
+        private final long flaggedAtMillis;
+        private final long expiresAtMillis;
+
+        public String getDescription() {
+            return type.getDescription();
+        }
+
+        public LocalDateTime getFlaggedAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(flaggedAtMillis), ZoneId.systemDefault());
+        }
+    }
+}
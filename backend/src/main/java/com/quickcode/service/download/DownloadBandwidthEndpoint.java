@@ -0,0 +1,31 @@
+package com.quickcode.service.download;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 下载带宽分配监控端点
+ * GET /actuator/downloadbandwidth 返回全站上限、各等级的连接数和已分配带宽，以及速率最高的连接
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Component
+@Endpoint(id = "downloadbandwidth")
+@RequiredArgsConstructor
+public class DownloadBandwidthEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final DownloadBandwidthShaper downloadBandwidthShaper;
+
+    @ReadOperation
+    public Map<String, Object> allocations(@Nullable Integer limit) {
+        return downloadBandwidthShaper.snapshot(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,217 @@
+package com.quickcode.service.download;
+
+import com.quickcode.config.DownloadBandwidthProperties;
+import com.quickcode.config.DownloadBandwidthProperties.TierLimit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 下载带宽调度器
+ * 按用户等级（匿名、普通、VIP）限制单连接和单用户的速率，并在全站出口带宽不足时按权重做max-min公平分配：
+ * 需求低于公平份额的连接拿到各自上限，剩余带宽再按权重分给其他连接。
+ * 连接加入或退出时重新计算所有连接的速率，每个连接用自己的令牌桶按分配的速率写出
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadBandwidthShaper {
+
+    private static final String METRIC_PREFIX = "quickcode.download.bandwidth";
+
+    private final DownloadBandwidthProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, BandwidthLease> leases = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder(METRIC_PREFIX + ".connections", leases, Map::size)
+                .description("受带宽调度的下载连接数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".allocated", this, DownloadBandwidthShaper::allocatedRate)
+                .description("已分配给下载连接的带宽（字节/秒）")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 按当前用户解析等级
+     */
+    public static Tier resolveTier(Long userId, boolean vip) {
+        if (userId == null) {
+            return Tier.ANONYMOUS;
+        }
+        return vip ? Tier.VIP : Tier.REGULAR;
+    }
+
+    /**
+     * 为一个下载连接申请带宽配额，传输结束后必须关闭
+     *
+     * @param userId 用户ID，匿名下载为null
+     * @param clientIp 客户端IP，匿名下载按IP合计用户速率
+     */
+    public BandwidthLease open(Tier tier, Long userId, String clientIp) {
+        if (!properties.isEnabled()) {
+            return BandwidthLease.UNLIMITED;
+        }
+        TierLimit limit = limitOf(tier);
+        boolean limited = properties.getGlobalLimit() > 0 || limit.getConnectionLimit() > 0
+                || limit.getUserLimit() > 0;
+        String userKey = userId != null ? "user:" + userId : "ip:" + clientIp;
+        BandwidthLease lease = new BandwidthLease(this, UUID.randomUUID().toString(), tier, userKey,
+                properties.getBurstMillis(), limited);
+        leases.put(lease.getId(), lease);
+        reallocate();
+        return lease;
+    }
+
+    void release(BandwidthLease lease) {
+        if (leases.remove(lease.getId()) != null) {
+            reallocate();
+        }
+    }
+
+    /**
+     * 重新计算所有连接的速率
+     * 先按单连接和单用户上限得出每个连接的需求，再按需求/权重从小到大依次分配：
+     * 每个连接拿到剩余带宽中按权重计算的份额与自身需求的较小值
+     */
+    synchronized void reallocate() {
+        List<BandwidthLease> active = new ArrayList<>(leases.values());
+        Map<String, Integer> connectionsPerUser = new HashMap<>();
+        for (BandwidthLease lease : active) {
+            connectionsPerUser.merge(lease.getUserKey(), 1, Integer::sum);
+        }
+
+        Map<BandwidthLease, Long> demands = new HashMap<>();
+        for (BandwidthLease lease : active) {
+            TierLimit limit = limitOf(lease.getTier());
+            long demand = Long.MAX_VALUE;
+            if (limit.getConnectionLimit() > 0) {
+                demand = limit.getConnectionLimit();
+            }
+            if (limit.getUserLimit() > 0) {
+                demand = Math.min(demand, limit.getUserLimit() / connectionsPerUser.get(lease.getUserKey()));
+            }
+            demands.put(lease, Math.max(demand, 1));
+        }
+
+        long globalLimit = properties.getGlobalLimit();
+        if (globalLimit <= 0) {
+            for (BandwidthLease lease : active) {
+                long demand = demands.get(lease);
+                lease.setRate(demand == Long.MAX_VALUE ? 0 : demand);
+            }
+            return;
+        }
+
+        active.sort(Comparator.comparingDouble(lease -> (double) demands.get(lease) / weightOf(lease)));
+        long remaining = globalLimit;
+        long remainingWeight = active.stream().mapToLong(this::weightOf).sum();
+        for (BandwidthLease lease : active) {
+            int weight = weightOf(lease);
+            long share = (long) ((double) remaining * weight / remainingWeight);
+            long rate = Math.max(Math.min(demands.get(lease), share), 1);
+            lease.setRate(rate);
+            remaining = Math.max(remaining - rate, 0);
+            remainingWeight -= weight;
+        }
+    }
+
+    /**
+     * 已分配的带宽合计（字节/秒），不限速的连接不计入
+     */
+    public long allocatedRate() {
+        return leases.values().stream().mapToLong(BandwidthLease::getRate).sum();
+    }
+
+    /**
+     * 当前分配情况
+     *
+     * @param limit 最多返回的连接数，按速率降序
+     */
+    public Map<String, Object> snapshot(int limit) {
+        List<BandwidthLease> active = new ArrayList<>(leases.values());
+
+        Map<Tier, Map<String, Object>> tiers = new EnumMap<>(Tier.class);
+        for (Tier tier : Tier.values()) {
+            TierLimit tierLimit = limitOf(tier);
+            List<BandwidthLease> tierLeases = active.stream().filter(lease -> lease.getTier() == tier).toList();
+            Map<String, Object> tierInfo = new LinkedHashMap<>();
+            tierInfo.put("connectionLimit", tierLimit.getConnectionLimit());
+            tierInfo.put("userLimit", tierLimit.getUserLimit());
+            tierInfo.put("weight", tierLimit.getWeight());
+            tierInfo.put("connections", tierLeases.size());
+            tierInfo.put("allocated", tierLeases.stream().mapToLong(BandwidthLease::getRate).sum());
+            tiers.put(tier, tierInfo);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> connections = active.stream()
+                .sorted(Comparator.comparingLong(BandwidthLease::getRate).reversed())
+                .limit(limit)
+                .map(lease -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("id", lease.getId());
+                    item.put("tier", lease.getTier());
+                    item.put("user", lease.getUserKey());
+                    item.put("rate", lease.getRate());
+                    item.put("transferred", lease.getTransferred());
+                    item.put("waitedMillis", lease.getWaitedMillis());
+                    item.put("ageMillis", now - lease.getOpenedAt());
+                    return item;
+                })
+                .toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("globalLimit", properties.getGlobalLimit());
+        result.put("allocated", active.stream().mapToLong(BandwidthLease::getRate).sum());
+        result.put("connections", active.size());
+        result.put("tiers", tiers);
+        result.put("topConnections", connections);
+        return result;
+    }
+
+    private int weightOf(BandwidthLease lease) {
+        return Math.max(limitOf(lease.getTier()).getWeight(), 1);
+    }
+
+    private TierLimit limitOf(Tier tier) {
+        return switch (tier) {
+            case ANONYMOUS -> properties.getAnonymous();
+            case REGULAR -> properties.getRegular();
+            case VIP -> properties.getVip();
+        };
+    }
+
+    /**
+     * 用户等级
+     */
+    public enum Tier {
+        ANONYMOUS,
+        REGULAR,
+        VIP
+    }
+}
@@ -0,0 +1,143 @@
+package com.quickcode.service.download;
+
+/**
+ * 单次文件传输的实时进度
+ * 字节数由输出线程在每次写出socket后累加，其他线程只读；只有一个写线程，volatile即可保证可见性
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public class DownloadProgress {
+
+    private final String transferId;
+    private final Long projectId;
+    private final Long userId;
+    private final boolean recorded;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.PENDING;
+    private volatile long offset;
+    private volatile long total = -1;
+    private volatile long transferred;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile long finishedAt;
+
+    DownloadProgress(String transferId, Long projectId, Long userId, boolean recorded) {
+        this.transferId = transferId;
+        this.projectId = projectId;
+        this.userId = userId;
+        this.recorded = recorded;
+    }
+
+    /**
+     * 不登记到注册表的进度，供不需要查询进度的调用方使用
+     */
+    static DownloadProgress untracked() {
+        return new DownloadProgress(null, null, null, false);
+    }
+
+    /**
+     * 开始输出文件内容
+     *
+     * @param offset 本次传输开始前已下载的字节数（续传时为断点位置）
+     * @param total 传输完成时应达到的字节数
+     */
+    void begin(long offset, long total) {
+        this.offset = offset;
+        this.total = total;
+        this.startNanos = System.nanoTime();
+        this.state = State.TRANSFERRING;
+    }
+
+    /**
+     * 累加已写出的字节数，只能由输出线程调用
+     */
+    void add(long bytes) {
+        transferred += bytes;
+    }
+
+    /**
+     * 结束传输
+     */
+    void finish(State finalState) {
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+        finishNanos = System.nanoTime();
+        finishedAt = System.currentTimeMillis();
+        state = finalState;
+    }
+
+    public String getTransferId() { return transferId; }
+    public Long getProjectId() { return projectId; }
+    public Long getUserId() { return userId; }
+    /** 传输结果是否写入下载记录，新建的记录写入数据库前没有ID */
+    public boolean isRecorded() { return recorded; }
+    public long getCreatedAt() { return createdAt; }
+    public State getState() { return state; }
+    public long getTransferred() { return transferred; }
+    public long getTotal() { return total; }
+    /** 传输结束的时间戳（毫秒），未结束时为0 */
+    public long getFinishedAt() { return finishedAt; }
+
+    public boolean isFinished() {
+        return state.isTerminal();
+    }
+
+    /**
+     * 当前位置，续传时包含之前已下载的部分
+     */
+    public long getPosition() {
+        return offset + transferred;
+    }
+
+    /**
+     * 下载进度（0-100）
+     */
+    public int getPercent() {
+        if (state == State.COMPLETED) {
+            return 100;
+        }
+        long expected = total;
+        if (expected <= 0) {
+            return 0;
+        }
+        return (int) Math.min(100, getPosition() * 100 / expected);
+    }
+
+    /**
+     * 从开始输出到结束（或当前）的耗时（毫秒）
+     */
+    public long getElapsedMillis() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        return (end - start) / 1_000_000;
+    }
+
+    /**
+     * 平均传输速率（字节/秒）
+     */
+    public long getBytesPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed > 0 ? transferred * 1000 / elapsed : 0;
+    }
+
+    /**
+     * 传输状态
+     */
+    public enum State {
+        PENDING,
+        TRANSFERRING,
+        COMPLETED,
+        ABORTED,
+        FAILED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == ABORTED || this == FAILED;
+        }
+    }
+}
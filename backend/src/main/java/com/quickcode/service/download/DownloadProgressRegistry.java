@@ -0,0 +1,112 @@
+package com.quickcode.service.download;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 下载进度注册表
+ * 每次传输登记一个进度对象，输出线程按实际写出socket的字节数更新，查询进度只读内存，不访问数据库。
+ * 传输结束后保留一段时间供客户端读取最终状态，之后定期清理。
+ * 只能按响应头中的传输ID查询：新建的下载记录在传输结束后才异步写入数据库，传输期间没有下载记录ID
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadProgressRegistry {
+
+    /**
+     * 返回传输ID的响应头
+     */
+    public static final String TRANSFER_ID_HEADER = "X-Download-Transfer-Id";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, DownloadProgress> transfers = new ConcurrentHashMap<>();
+
+    /**
+     * 传输结束后保留进度的时间（毫秒）
+     */
+    @Value("${app.download.progress.retention:300000}")
+    private long retentionMillis = 300_000L;
+
+    /**
+     * 最多登记的传输数，超出时不再登记新传输（仍正常下载，只是无法查询进度）
+     */
+    @Value("${app.download.progress.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("quickcode.download.transfers.active", this, DownloadProgressRegistry::activeTransfers)
+                .description("正在输出文件内容的下载数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登记一次传输
+     *
+     * @param recorded 传输结果是否写入下载记录
+     */
+    public DownloadProgress start(Long projectId, Long userId, boolean recorded) {
+        DownloadProgress progress = new DownloadProgress(UUID.randomUUID().toString(), projectId, userId, recorded);
+        if (transfers.size() >= maxEntries) {
+            log.warn("下载进度登记已满，本次传输不记录进度: size={}", transfers.size());
+            return progress;
+        }
+        transfers.put(progress.getTransferId(), progress);
+        return progress;
+    }
+
+    /**
+     * 按传输ID查询进度
+     */
+    public Optional<DownloadProgress> get(String transferId) {
+        return transferId != null ? Optional.ofNullable(transfers.get(transferId)) : Optional.empty();
+    }
+
+    /**
+     * 正在输出文件内容的传输数
+     */
+    public long activeTransfers() {
+        return transfers.values().stream().filter(p -> p.getState() == DownloadProgress.State.TRANSFERRING).count();
+    }
+
+    /**
+     * 清理过期的进度
+     * 已结束的保留retention，一直未结束的（如请求线程异常退出）保留到创建后一天
+     */
+    @Scheduled(fixedDelayString = "${app.download.progress.cleanup-interval:60000}")
+    public void evictExpired() {
+        evictExpired(System.currentTimeMillis());
+    }
+
+    void evictExpired(long now) {
+        int before = transfers.size();
+        transfers.values().removeIf(progress -> isExpired(progress, now));
+        int evicted = before - transfers.size();
+        if (evicted > 0) {
+            log.debug("清理下载进度: evicted={}, remaining={}", evicted, transfers.size());
+        }
+    }
+
+    private boolean isExpired(DownloadProgress progress, long now) {
+        if (progress.isFinished()) {
+            return now - progress.getFinishedAt() > retentionMillis;
+        }
+        return now - progress.getCreatedAt() > 24 * 3600_000L;
+    }
+}
@@ -0,0 +1,730 @@
+package com.quickcode.service.download;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.quickcode.entity.ProjectDownload;
+import com.quickcode.repository.ProjectDownloadRepository;
+import com.quickcode.service.download.DownloadRollupService.Contribution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 下载记录异步批量写入
+ * 下载传输结束后，带最终状态、时长和断点位置的记录放入有界队列，由后台定时批量INSERT，
+ * 每次下载不再在请求线程上执行INSERT和UPDATE。是否重复下载也在写入时按批查询确定，
+ * 下载汇总在同一事务中累加。
+ * 可选的磁盘日志：入队的记录同时追加到日志分段，写入数据库后删除对应分段，
+ * 进程崩溃后启动时重放未删除的分段（可能产生少量重复记录）。
+ * 队列满或关闭后直接同步写入，不丢弃记录。
+ * 登记过的记录在写入数据库前按 用户:项目:文件 索引，传输中或排队中的记录可被续传请求重新打开，
+ * 写入前到达的续传和并行分段请求沿用同一条记录，不会被当作新的下载
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadRecordWriter {
+
+    private static final String METRIC_PREFIX = "quickcode.download.record_writer";
+
+    /**
+     * 单条INSERT语句最多写入的记录数，控制语句长度和参数个数
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT_PREFIX = "INSERT INTO project_downloads (project_id, user_id, file_id, "
+            + "download_time, download_status, download_ip, user_agent, download_source, file_size, "
+            + "download_duration, is_repeat, resume_offset, remark, created_time, updated_time, version, deleted) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    /**
+     * 一直没有提交的登记记录（如请求异常退出）保留的时长，与断点续传窗口一致
+     */
+    private static final Duration OPEN_RECORD_TTL = Duration.ofHours(24);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ProjectDownloadRepository projectDownloadRepository;
+    private final DownloadRollupService downloadRollupService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.download.record-writer.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * 队列容量，同时也是等待重试的记录数上限
+     */
+    @Value("${app.download.record-writer.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${app.download.record-writer.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${app.download.record-writer.journal.dir:./data/download-journal}")
+    private String journalDir;
+
+    private final ObjectMapper journalMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private BlockingQueue<Entry> queue;
+
+    /**
+     * 已从队列取出但尚未写入数据库的批次，按取出顺序重试
+     */
+    private final ConcurrentLinkedDeque<Batch> pendingBatches = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 尚未写入数据库的登记记录，按 用户:项目:文件 只保留最近一条，由journalLock保护
+     */
+    private final Map<String, OpenRecord> openRecords = new HashMap<>();
+
+    /**
+     * 入队与日志分段轮换互斥，保证每个分段恰好包含一个批次的记录
+     */
+    private final Object journalLock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private BufferedWriter journal;
+    private Path journalSegment;
+    private long journalSequence;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter writtenRecords;
+    private Counter directWrites;
+    private Counter flushFailures;
+    private Counter droppedRecords;
+    private DistributionSummary batchSize;
+
+    private boolean shutdown = false;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder(METRIC_PREFIX + ".pending", this, DownloadRecordWriter::pendingRecords)
+                .description("尚未写入数据库的下载记录数")
+                .register(meterRegistry);
+        writtenRecords = Counter.builder(METRIC_PREFIX + ".written")
+                .description("已批量写入数据库的下载记录数")
+                .register(meterRegistry);
+        directWrites = Counter.builder(METRIC_PREFIX + ".direct")
+                .description("队列已满或已关闭时同步写入的下载记录数")
+                .register(meterRegistry);
+        flushFailures = Counter.builder(METRIC_PREFIX + ".flush.failures")
+                .description("批量写入失败等待重试的次数")
+                .register(meterRegistry);
+        droppedRecords = Counter.builder(METRIC_PREFIX + ".dropped")
+                .description("无法写入而丢弃的下载记录数")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("每批写入的下载记录数")
+                .register(meterRegistry);
+
+        if (enabled && journalEnabled) {
+            try {
+                Path dir = Paths.get(journalDir);
+                Files.createDirectories(dir);
+                replayJournal(dir);
+                openJournalSegment();
+            } catch (IOException e) {
+                log.error("下载记录日志目录不可用，关闭日志: dir={}", journalDir, e);
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * 登记一条开始传输的下载记录，写入数据库前可通过{@link #reopen}找回
+     * 匿名下载不能续传，不登记
+     */
+    public void open(ProjectDownload downloadRecord) {
+        if (!enabled || downloadRecord.getId() != null || downloadRecord.getUserId() == null) {
+            return;
+        }
+        synchronized (journalLock) {
+            openRecords.put(key(downloadRecord.getUserId(), downloadRecord.getProjectId(), downloadRecord.getFileId()),
+                    new OpenRecord(downloadRecord));
+        }
+    }
+
+    /**
+     * 重新打开用户对该文件最近一条尚未写入数据库、可以续传的下载记录
+     * 传输中的记录直接共用；已提交的记录从队列或待重试批次中取回，由本次传输结束后重新提交。
+     * 记录所在批次正在写入时返回空，调用方改查数据库
+     *
+     * @return 重新打开的记录，传输结束后必须通过{@link #submit}提交
+     */
+    public Optional<ProjectDownload> reopen(Long userId, Long projectId, Long fileId) {
+        synchronized (journalLock) {
+            OpenRecord open = openRecords.get(key(userId, projectId, fileId));
+            if (open == null || !open.record.isResumable()) {
+                return Optional.empty();
+            }
+            if (open.entry != null) {
+                if (!withdraw(open.entry)) {
+                    return Optional.empty();
+                }
+                open.entry = null;
+            }
+            open.transfers++;
+            return Optional.of(open.record);
+        }
+    }
+
+    /**
+     * 提交一条已结束传输的下载记录
+     * 记录必须尚未持久化（没有ID），写入数据库后不会回填ID。
+     * 登记过的记录还有并行的传输时只减少计数，由最后结束的传输提交最终状态
+     */
+    public void submit(ProjectDownload downloadRecord) {
+        Entry entry;
+        boolean queued = false;
+        synchronized (journalLock) {
+            OpenRecord open = downloadRecord.getUserId() != null
+                    ? openRecords.get(key(downloadRecord.getUserId(), downloadRecord.getProjectId(),
+                            downloadRecord.getFileId()))
+                    : null;
+            boolean registered = open != null && open.record == downloadRecord;
+            if (registered && --open.transfers > 0) {
+                return;
+            }
+            entry = Entry.of(downloadRecord);
+            if (registered) {
+                open.entry = entry;
+                open.submitted = true;
+            }
+            if (enabled) {
+                queued = !shutdown && queue.offer(entry);
+                if (queued) {
+                    appendJournal(entry);
+                }
+            }
+        }
+        if (!queued) {
+            writeDirectly(entry);
+        }
+    }
+
+    /**
+     * 放弃一次没有输出内容的传输（如区间无法满足或续传被拒绝）
+     * 记录还有其他传输共用、或曾经提交过时照常提交，从未提交过的新记录直接丢弃
+     */
+    public void abandon(ProjectDownload downloadRecord) {
+        if (downloadRecord.getUserId() == null) {
+            return;
+        }
+        synchronized (journalLock) {
+            String key = key(downloadRecord.getUserId(), downloadRecord.getProjectId(), downloadRecord.getFileId());
+            OpenRecord open = openRecords.get(key);
+            if (open == null || open.record != downloadRecord) {
+                return;
+            }
+            if (!open.submitted && open.transfers == 1) {
+                openRecords.remove(key);
+                return;
+            }
+        }
+        submit(downloadRecord);
+    }
+
+    /**
+     * 把队列中的记录批量写入数据库
+     * 默认每1秒执行一次，失败的批次保留到下次重试
+     */
+    @Scheduled(fixedDelayString = "${app.download.record-writer.flush-interval:1000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+        evictStaleOpenRecords();
+    }
+
+    /**
+     * 应用关闭时写出全部记录，写入失败的记录留在日志中等待下次启动重放
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (journalLock) {
+            shutdown = true;
+        }
+        flushLock.lock();
+        try {
+            flushPending();
+            synchronized (journalLock) {
+                closeJournal();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        int remaining = pendingRecords();
+        if (remaining > 0) {
+            log.error("关闭时仍有下载记录未写入数据库: records={}, journal={}", remaining,
+                    journalEnabled ? "保留待重放" : "丢失");
+        } else {
+            log.info("下载记录队列已清空");
+        }
+    }
+
+    /**
+     * 尚未写入数据库的记录数
+     */
+    public int pendingRecords() {
+        int pending = queue != null ? queue.size() : 0;
+        for (Batch batch : pendingBatches) {
+            pending += batch.entries.size();
+        }
+        return pending;
+    }
+
+    private void flushPending() {
+        Batch taken = takeBatch();
+        if (taken != null) {
+            pendingBatches.addLast(taken);
+        }
+        trimPendingBatches();
+
+        Batch batch;
+        while ((batch = pendingBatches.peekFirst()) != null) {
+            if (!write(batch)) {
+                return;
+            }
+            pendingBatches.pollFirst();
+            batch.discardJournal();
+        }
+    }
+
+    /**
+     * 取出队列中的全部记录，并切换到新的日志分段
+     */
+    private Batch takeBatch() {
+        synchronized (journalLock) {
+            List<Entry> entries = new ArrayList<>(queue.size());
+            queue.drainTo(entries);
+            if (entries.isEmpty()) {
+                return null;
+            }
+            Path segment = journalSegment;
+            if (journal != null) {
+                closeJournal();
+                openJournalSegment();
+            }
+            return new Batch(entries, segment);
+        }
+    }
+
+    /**
+     * 数据库长时间不可用时限制内存中待重试的记录数，超出时放弃最早的批次（日志分段仍保留在磁盘上）
+     */
+    private void trimPendingBatches() {
+        while (pendingBatches.size() > 1 && pendingRecords() > queueCapacity) {
+            Batch dropped = pendingBatches.pollFirst();
+            release(dropped.entries);
+            droppedRecords.increment(dropped.entries.size());
+            log.error("待写入的下载记录过多，放弃最早的批次: records={}, journal={}",
+                    dropped.entries.size(), dropped.segment);
+        }
+    }
+
+    /**
+     * 写入一个批次
+     * 个别记录违反约束时改为逐条写入并跳过这些记录，其他错误保留剩余记录等待重试
+     *
+     * @return 批次是否已处理完
+     */
+    private boolean write(Batch batch) {
+        if (batch.entries.isEmpty()) {
+            // 记录已全部被续传请求取回
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch.entries));
+            release(batch.entries);
+            writtenRecords.increment(batch.entries.size());
+            batchSize.record(batch.entries.size());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("下载记录批量写入违反约束，改为逐条写入: records={}", batch.entries.size(), e);
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("下载记录批量写入失败，等待下次重试: records={}", batch.entries.size(), e);
+            return false;
+        }
+
+        Iterator<Entry> iterator = batch.entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+                writtenRecords.increment();
+            } catch (DataIntegrityViolationException e) {
+                droppedRecords.increment();
+                log.error("下载记录无法写入，已丢弃: record={}", entry, e);
+            } catch (Exception e) {
+                flushFailures.increment();
+                log.warn("下载记录逐条写入失败，等待下次重试: remaining={}", batch.entries.size(), e);
+                return false;
+            }
+            release(List.of(entry));
+            iterator.remove();
+        }
+        return true;
+    }
+
+    private void writeDirectly(Entry entry) {
+        directWrites.increment();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+        } catch (Exception e) {
+            droppedRecords.increment();
+            log.error("下载记录同步写入失败，已丢弃: record={}", entry, e);
+        }
+        release(List.of(entry));
+    }
+
+    /**
+     * 从队列或待重试批次中取回已提交的记录
+     * 日志分段中已写入的行不删除，崩溃重放时可能多出一条记录
+     */
+    private boolean withdraw(Entry entry) {
+        if (queue.removeIf(queued -> queued == entry)) {
+            return true;
+        }
+        // 批次正在写入时不等待，避免请求线程阻塞在数据库上
+        if (!flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            for (Batch batch : pendingBatches) {
+                if (batch.entries.removeIf(pending -> pending == entry)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 记录写入数据库或被丢弃后不再可重新打开
+     */
+    private void release(List<Entry> entries) {
+        synchronized (journalLock) {
+            if (openRecords.isEmpty()) {
+                return;
+            }
+            for (Entry entry : entries) {
+                if (entry.userId() == null) {
+                    continue;
+                }
+                String key = key(entry.userId(), entry.projectId(), entry.fileId());
+                OpenRecord open = openRecords.get(key);
+                if (open != null && open.entry == entry) {
+                    openRecords.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 清理长时间没有提交的登记记录
+     */
+    private void evictStaleOpenRecords() {
+        LocalDateTime expireBefore = LocalDateTime.now().minus(OPEN_RECORD_TTL);
+        synchronized (journalLock) {
+            openRecords.values().removeIf(open -> open.entry == null
+                    && open.record.getDownloadTime() != null && open.record.getDownloadTime().isBefore(expireBefore));
+        }
+    }
+
+    private static String key(Long userId, Long projectId, Long fileId) {
+        return userId + ":" + projectId + ":" + fileId;
+    }
+
+    /**
+     * 用多行 INSERT ... VALUES (...), (...) 一条语句写入多条记录，并在同一事务中累加下载汇总
+     */
+    private void insert(List<Entry> entries) {
+        boolean[] repeats = resolveRepeats(entries);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+            int to = Math.min(from + MAX_ROWS_PER_STATEMENT, entries.size());
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+            List<Object> args = new ArrayList<>((to - from) * 15);
+            for (int i = from; i < to; i++) {
+                Entry entry = entries.get(i);
+                if (i > from) {
+                    sql.append(", ");
+                }
+                sql.append(ROW_PLACEHOLDERS);
+                args.add(entry.projectId());
+                args.add(entry.userId());
+                args.add(entry.fileId());
+                args.add(entry.downloadTime() != null ? Timestamp.valueOf(entry.downloadTime()) : null);
+                args.add(entry.downloadStatus());
+                args.add(entry.downloadIp());
+                args.add(entry.userAgent());
+                args.add(entry.downloadSource());
+                args.add(entry.fileSize());
+                args.add(entry.downloadDuration());
+                args.add(repeats[i]);
+                args.add(entry.resumeOffset() != null ? entry.resumeOffset() : 0L);
+                args.add(entry.remark());
+                args.add(now);
+                args.add(now);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        downloadRollupService.add(entries.stream().map(Entry::toContribution).toList());
+    }
+
+    /**
+     * 判断每条记录是否为重复下载：数据库中已有成功下载，或同一批次中更早的记录已成功下载
+     */
+    private boolean[] resolveRepeats(List<Entry> entries) {
+        boolean[] repeats = new boolean[entries.size()];
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> projectIds = new HashSet<>();
+        for (Entry entry : entries) {
+            if (entry.userId() != null && entry.projectId() != null) {
+                userIds.add(entry.userId());
+                projectIds.add(entry.projectId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return repeats;
+        }
+
+        Set<String> downloaded = new HashSet<>();
+        for (Object[] pair : projectDownloadRepository.findDownloadedUserProjectPairs(userIds, projectIds)) {
+            downloaded.add(pair[0] + ":" + pair[1]);
+        }
+
+        List<Integer> order = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> entries.get(i).downloadTime(),
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        Integer completed = ProjectDownload.DownloadStatus.COMPLETED.getCode();
+        for (int i : order) {
+            Entry entry = entries.get(i);
+            if (entry.userId() == null) {
+                continue;
+            }
+            String key = entry.userId() + ":" + entry.projectId();
+            repeats[i] = downloaded.contains(key);
+            if (completed.equals(entry.downloadStatus())) {
+                downloaded.add(key);
+            }
+        }
+        return repeats;
+    }
+
+    private void appendJournal(Entry entry) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write(journalMapper.writeValueAsString(entry));
+            journal.newLine();
+            // 写入页缓存即可在进程崩溃后保留，不逐条fsync
+            journal.flush();
+        } catch (IOException e) {
+            log.warn("下载记录写入日志失败: segment={}", journalSegment, e);
+        }
+    }
+
+    private void openJournalSegment() {
+        Path dir = Paths.get(journalDir);
+        while (true) {
+            Path segment = dir.resolve(String.format("downloads-%d-%06d%s",
+                    System.currentTimeMillis(), journalSequence++, JOURNAL_SUFFIX));
+            try {
+                journal = Files.newBufferedWriter(segment, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                journalSegment = segment;
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // 同一毫秒内重启过，换下一个序号
+            } catch (IOException e) {
+                log.error("创建下载记录日志分段失败，后续记录不写日志: segment={}", segment, e);
+                journal = null;
+                journalSegment = null;
+                return;
+            }
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("关闭下载记录日志分段失败: segment={}", journalSegment, e);
+        }
+        journal = null;
+    }
+
+    /**
+     * 启动时把上次未写入数据库的日志分段加入待写入批次
+     */
+    private void replayJournal(Path dir) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(file -> file.getFileName().toString().endsWith(JOURNAL_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        int replayed = 0;
+        for (Path segment : segments) {
+            List<Entry> entries = new ArrayList<>();
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(journalMapper.readValue(line, Entry.class));
+                } catch (IOException e) {
+                    // 崩溃时写了一半的最后一行
+                    log.warn("跳过无法解析的下载记录日志行: segment={}", segment);
+                }
+            }
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(segment);
+            } else {
+                pendingBatches.addLast(new Batch(entries, segment));
+                replayed += entries.size();
+            }
+        }
+        if (replayed > 0) {
+            log.info("重放下载记录日志: segments={}, records={}", segments.size(), replayed);
+        }
+    }
+
+    /**
+     * 待写入的下载记录
+     */
+    record Entry(Long projectId, Long userId, Long fileId, LocalDateTime downloadTime, Integer downloadStatus,
+                 String downloadIp, String userAgent, String downloadSource, Long fileSize,
+                 Long downloadDuration, Long resumeOffset, String remark) {
+
+        static Entry of(ProjectDownload download) {
+            return new Entry(download.getProjectId(), download.getUserId(), download.getFileId(),
+                    download.getDownloadTime(), download.getDownloadStatus(), download.getDownloadIp(),
+                    download.getUserAgent(), download.getDownloadSource(), download.getFileSize(),
+                    download.getDownloadDuration(), download.getResumeOffset(), download.getRemark());
+        }
+
+        Contribution toContribution() {
+            return new Contribution(projectId, userId, downloadSource, downloadStatus, downloadTime,
+                    fileSize != null ? fileSize : 0L, downloadDuration != null ? downloadDuration : 0L);
+        }
+    }
+
+    /**
+     * 尚未写入数据库的登记记录
+     */
+    private static class OpenRecord {
+        private final ProjectDownload record;
+
+        /**
+         * 共用该记录、尚未结束的传输数
+         */
+        private int transfers = 1;
+
+        /**
+         * 已提交的快照，传输中时为null
+         */
+        private Entry entry;
+
+        /**
+         * 是否提交过，取回续传后仍为true
+         */
+        private boolean submitted;
+
+        OpenRecord(ProjectDownload record) {
+            this.record = record;
+        }
+    }
+
+    /**
+     * 一次从队列取出的记录及其日志分段
+     */
+    private static class Batch {
+        private final List<Entry> entries;
+        private final Path segment;
+
+        Batch(List<Entry> entries, Path segment) {
+            this.entries = entries;
+            this.segment = segment;
+        }
+
+        void discardJournal() {
+            if (segment == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("删除下载记录日志分段失败，重启时可能重复写入: segment={}", segment, e);
+            }
+        }
+    }
+}
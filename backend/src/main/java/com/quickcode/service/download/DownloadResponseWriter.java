@@ -0,0 +1,409 @@
+package com.quickcode.service.download;
+
+import com.quickcode.entity.ProjectFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 下载响应输出
+ * 按RFC 7233处理Range/If-Range请求：单区间返回206，多区间返回multipart/byteranges，
+ * 无法满足的区间返回416，If-Range与当前文件不一致时忽略Range返回完整文件。
+ * 强ETag由文件哈希生成，文件内容变化后续传请求会自动改为重新下载。
+ * 本地文件优先交给Tomcat sendfile零拷贝发送，不支持时用固定大小的缓冲从FileChannel按位置读取写出，
+ * 每次写出socket后更新传输进度；需要限速的连接写出前先从带宽配额扣除令牌，且不走sendfile。
+ * sendfile在请求结束后才由容器发送，应用层拿不到实际字节数和中途断开，关联了下载记录的传输也不走sendfile
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class DownloadResponseWriter {
+
+    private static final String CRLF = "\r\n";
+
+    // Tomcat sendfile请求属性（org.apache.catalina.Globals）
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 是否在容器支持时使用sendfile
+     */
+    @Value("${app.download.sendfile.enabled:true}")
+    private boolean sendfileEnabled = true;
+
+    /**
+     * 使用sendfile的最小字节数，更小的响应直接写出更省事
+     */
+    @Value("${app.download.sendfile.min-size:49152}")
+    private long sendfileMinSize = 48 * 1024;
+
+    /**
+     * 不使用sendfile时每个连接的读缓冲大小（字节）
+     * 通道transferTo到servlet输出流时JDK只能用8KB中转缓冲，实测不如较大的缓冲顺序读
+     */
+    @Value("${app.download.buffer-size:65536}")
+    private int bufferSize = 64 * 1024;
+
+    /**
+     * 输出文件内容
+     *
+     * @param file 项目文件，用于生成ETag和下载文件名
+     * @param resource 文件资源
+     * @return 传输结果，客户端中途断开时也会返回已发送的位置
+     */
+    public TransferResult write(HttpServletRequest request, HttpServletResponse response,
+                                ProjectFile file, Resource resource) throws IOException {
+        return write(request, response, file, resource, DownloadProgress.untracked());
+    }
+
+    /**
+     * 输出文件内容并实时更新传输进度
+     *
+     * @param file 项目文件，用于生成ETag和下载文件名
+     * @param resource 文件资源
+     * @param progress 传输进度，按实际写出的字节数累加，返回前标记为结束
+     * @return 传输结果，客户端中途断开时也会返回已发送的位置
+     */
+    public TransferResult write(HttpServletRequest request, HttpServletResponse response,
+                                ProjectFile file, Resource resource, DownloadProgress progress) throws IOException {
+        return write(request, response, file, resource, progress, BandwidthLease.UNLIMITED);
+    }
+
+    /**
+     * 按带宽配额限速输出文件内容并实时更新传输进度
+     *
+     * @param file 项目文件，用于生成ETag和下载文件名
+     * @param resource 文件资源
+     * @param progress 传输进度，按实际写出的字节数累加，返回前标记为结束
+     * @param lease 带宽配额，由调用方在传输结束后关闭
+     * @return 传输结果，客户端中途断开时也会返回已发送的位置
+     */
+    public TransferResult write(HttpServletRequest request, HttpServletResponse response, ProjectFile file,
+                                Resource resource, DownloadProgress progress, BandwidthLease lease) throws IOException {
+        try {
+            TransferResult result = doWrite(request, response, file, resource, progress, lease);
+            progress.finish(result.getStatus() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()
+                    ? DownloadProgress.State.FAILED
+                    : result.isAborted() ? DownloadProgress.State.ABORTED : DownloadProgress.State.COMPLETED);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            progress.finish(DownloadProgress.State.FAILED);
+            throw e;
+        }
+    }
+
+    private TransferResult doWrite(HttpServletRequest request, HttpServletResponse response, ProjectFile file,
+                                   Resource resource, DownloadProgress progress,
+                                   BandwidthLease lease) throws IOException {
+        long length = resource.contentLength();
+        String etag = buildETag(file);
+        long lastModified = lastModified(resource);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (lastModified > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + resolveFilename(file, resource) + "\"");
+
+        List<ByteRange> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && isIfRangeSatisfied(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            ranges = ByteRange.parse(rangeHeader, length);
+        }
+
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return new TransferResult(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value(), 0, 0, -1, length, false);
+        }
+
+        if (ranges == null) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(length);
+            return copySingle(request, response, resource, new ByteRange(0, length - 1), HttpStatus.OK.value(), length,
+                    progress, lease);
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            response.setContentLengthLong(range.length());
+            return copySingle(request, response, resource, range, HttpStatus.PARTIAL_CONTENT.value(), length,
+                    progress, lease);
+        }
+        return copyMultipart(response, resource, ranges, length, progress, lease);
+    }
+
+    /**
+     * 根据文件哈希生成强ETag
+     */
+    public static String buildETag(ProjectFile file) {
+        if (file == null || !StringUtils.hasText(file.getFileHash())) {
+            return null;
+        }
+        return "\"" + file.getFileHash() + "\"";
+    }
+
+    /**
+     * 判断If-Range条件是否成立
+     * 只接受强校验：弱ETag永不匹配，日期必须与文件修改时间（精确到秒）完全一致
+     */
+    static boolean isIfRangeSatisfied(String ifRange, String etag, long lastModified) {
+        if (!StringUtils.hasText(ifRange)) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        if (lastModified <= 0) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().getEpochSecond();
+            return since == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private TransferResult copySingle(HttpServletRequest request, HttpServletResponse response, Resource resource,
+                                      ByteRange range, int status, long length,
+                                      DownloadProgress progress, BandwidthLease lease) throws IOException {
+        // 进度按整个文件计算，续传时从断点位置开始
+        progress.begin(range.getStart(), range.getEnd() + 1);
+        Path path = resolvePath(resource);
+        if (path != null && !lease.isLimited() && !progress.isRecorded() && trySendfile(request, path, range)) {
+            // 由容器在请求结束后直接从文件发送到socket，应用层无法得知进度和中途断开，只用于不落库的传输
+            progress.add(range.length());
+            return new TransferResult(status, range.length(), range.getStart(), range.getEnd() + 1, length, false);
+        }
+
+        boolean aborted = false;
+        try {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[bufferSize];
+            if (path != null) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    copyRange(channel, out, range, buffer, progress, lease);
+                }
+            } else {
+                try (InputStream in = resource.getInputStream()) {
+                    in.skipNBytes(range.getStart());
+                    copyRange(in, out, range.length(), buffer, progress, lease);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            aborted = true;
+            log.debug("下载传输中断: range={}, written={}, error={}", range, progress.getTransferred(), e.getMessage());
+        }
+        long written = progress.getTransferred();
+        return new TransferResult(status, written, range.getStart(), range.getStart() + written, length, aborted);
+    }
+
+    private TransferResult copyMultipart(HttpServletResponse response, Resource resource, List<ByteRange> ranges,
+                                         long length, DownloadProgress progress,
+                                         BandwidthLease lease) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        // 多区间不连续，进度按请求的区间总长计算
+        progress.begin(0, ranges.stream().mapToLong(ByteRange::length).sum());
+
+        Path path = resolvePath(resource);
+        boolean aborted = false;
+        try (FileChannel channel = path != null ? FileChannel.open(path, StandardOpenOption.READ) : null) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[bufferSize];
+            for (ByteRange range : ranges) {
+                String partHeader = CRLF + "--" + boundary + CRLF
+                        + HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_OCTET_STREAM_VALUE + CRLF
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + CRLF + CRLF;
+                out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                if (channel != null) {
+                    copyRange(channel, out, range, buffer, progress, lease);
+                } else {
+                    try (InputStream in = resource.getInputStream()) {
+                        in.skipNBytes(range.getStart());
+                        copyRange(in, out, range.length(), buffer, progress, lease);
+                    }
+                }
+            }
+            out.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        } catch (IOException e) {
+            aborted = true;
+            log.debug("多区间下载传输中断: ranges={}, error={}", ranges, e.getMessage());
+        }
+        // 多区间请求通常来自分段下载器，不代表连续的断点位置
+        return new TransferResult(HttpStatus.PARTIAL_CONTENT.value(), progress.getTransferred(), 0, -1, length, aborted);
+    }
+
+    /**
+     * 交给Tomcat sendfile发送
+     * 仅在连接器支持（NIO/NIO2且非TLS）、未启用响应压缩且区间足够大时使用，
+     * 数据由内核直接从页缓存写入socket，不经过JVM堆
+     */
+    private boolean trySendfile(HttpServletRequest request, Path path, ByteRange range) {
+        if (!sendfileEnabled || range.length() < sendfileMinSize
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            return false;
+        }
+        try {
+            // Tomcat要求规范化的绝对路径
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, range.getStart());
+            request.setAttribute(SENDFILE_END_ATTR, range.getEnd() + 1);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            request.removeAttribute(SENDFILE_FILENAME_ATTR);
+            log.debug("sendfile不可用，改为通道传输: path={}, error={}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按位置从文件通道读取区间并写出
+     * 单连接只占用一个固定大小的缓冲，进度随写出实时累加，传输中断时仍能得到已发送的字节数
+     */
+    private void copyRange(FileChannel channel, OutputStream out, ByteRange range, byte[] buffer,
+                           DownloadProgress progress, BandwidthLease lease) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long position = range.getStart();
+        long remaining = range.length();
+        while (remaining > 0) {
+            byteBuffer.clear().limit((int) Math.min(buffer.length, remaining));
+            int read = channel.read(byteBuffer, position);
+            if (read <= 0) {
+                // 文件被截断
+                break;
+            }
+            lease.acquire(read);
+            out.write(buffer, 0, read);
+            position += read;
+            remaining -= read;
+            progress.add(read);
+        }
+    }
+
+    /**
+     * 从输入流复制指定字节数，用于非本地文件的资源
+     */
+    private void copyRange(InputStream in, OutputStream out, long count, byte[] buffer,
+                           DownloadProgress progress, BandwidthLease lease) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            lease.acquire(read);
+            out.write(buffer, 0, read);
+            progress.add(read);
+            remaining -= read;
+        }
+    }
+
+    private static Path resolvePath(Resource resource) {
+        if (!resource.isFile()) {
+            return null;
+        }
+        try {
+            return resource.getFile().toPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String contentRange(ByteRange range, long length) {
+        return "bytes " + range.getStart() + "-" + range.getEnd() + "/" + length;
+    }
+
+    private static String resolveFilename(ProjectFile file, Resource resource) {
+        if (resource.getFilename() != null) {
+            return resource.getFilename();
+        }
+        return file != null ? file.getFileName() : "download";
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 传输结果
+     */
+    public static class TransferResult {
+        private final int status;
+        private final long bytesWritten;
+        private final long rangeStart;
+        private final long transferredEnd;
+        private final long contentLength;
+        private final boolean aborted;
+
+        public TransferResult(int status, long bytesWritten, long rangeStart, long transferredEnd,
+                              long contentLength, boolean aborted) {
+            this.status = status;
+            this.bytesWritten = bytesWritten;
+            this.rangeStart = rangeStart;
+            this.transferredEnd = transferredEnd;
+            this.contentLength = contentLength;
+            this.aborted = aborted;
+        }
+
+        // Getters
+        public int getStatus() { return status; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getRangeStart() { return rangeStart; }
+        /** 本次连续传输结束的位置（不含），多区间或未传输时为-1 */
+        public long getTransferredEnd() { return transferredEnd; }
+        public long getContentLength() { return contentLength; }
+        public boolean isAborted() { return aborted; }
+
+        /**
+         * 是否已把文件传输到末尾
+         */
+        public boolean isCompleted() {
+            return !aborted && transferredEnd >= contentLength;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.quickcode.service.download;
+
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
+import com.quickcode.entity.ProjectDownload;
+import com.quickcode.repository.DownloadProjectRollupRepository;
+import com.quickcode.repository.DownloadUserProjectRepository;
+import com.quickcode.repository.DownloadUserRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 下载汇总服务
+ * 下载记录写入或状态变化时，在同一事务中按(粒度, 周期, 项目, 来源, 状态)和(粒度, 周期, 用户, 状态)
+ * 增量累加汇总行，并登记成功下载过的(用户, 项目)组合；统计接口只读取这些汇总。
+ * 每天凌晨用下载明细重算最近几天的汇总，修正未经过本服务写入的记录，并清理过期的小时汇总
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DownloadRollupService {
+
+    /**
+     * 单条语句最多写入的汇总行数
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String UNKNOWN_SOURCE = "UNKNOWN";
+
+    private static final Integer COMPLETED = ProjectDownload.DownloadStatus.COMPLETED.getCode();
+
+    private static final String PROJECT_UPSERT = "INSERT INTO download_project_rollups (granularity, period_start, "
+            + "project_id, download_source, download_status, download_count, total_size, total_duration, "
+            + "created_time, updated_time) VALUES ";
+    private static final String PROJECT_UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PROJECT_UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "download_count = download_count + VALUES(download_count), "
+            + "total_size = total_size + VALUES(total_size), "
+            + "total_duration = total_duration + VALUES(total_duration), "
+            + "updated_time = VALUES(updated_time)";
+
+    private static final String USER_UPSERT = "INSERT INTO download_user_rollups (granularity, period_start, "
+            + "user_id, download_status, download_count, total_size, created_time, updated_time) VALUES ";
+    private static final String USER_UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String USER_UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "download_count = download_count + VALUES(download_count), "
+            + "total_size = total_size + VALUES(total_size), "
+            + "updated_time = VALUES(updated_time)";
+
+    private static final String USER_PROJECT_UPSERT = "INSERT INTO download_user_projects (user_id, project_id, "
+            + "first_download_time, last_download_time, created_time, updated_time) VALUES ";
+    private static final String USER_PROJECT_UPSERT_ROW = "(?, ?, ?, ?, ?, ?)";
+    private static final String USER_PROJECT_UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "first_download_time = LEAST(first_download_time, VALUES(first_download_time)), "
+            + "last_download_time = GREATEST(last_download_time, VALUES(last_download_time)), "
+            + "updated_time = VALUES(updated_time)";
+
+    /**
+     * 重算时覆盖而不是累加，其他实例同时重算也不会重复计入
+     */
+    private static final String PROJECT_REBUILD_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "download_count = VALUES(download_count), total_size = VALUES(total_size), "
+            + "total_duration = VALUES(total_duration), updated_time = VALUES(updated_time)";
+    private static final String USER_REBUILD_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "download_count = VALUES(download_count), total_size = VALUES(total_size), "
+            + "updated_time = VALUES(updated_time)";
+
+    /**
+     * 各粒度在SQL中截断下载时间的表达式
+     */
+    private static final Map<Granularity, String> PERIOD_EXPRESSIONS = Map.of(
+            Granularity.HOUR, "DATE_FORMAT(download_time, '%Y-%m-%d %H:00:00')",
+            Granularity.DAY, "DATE(download_time)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final DownloadProjectRollupRepository projectRollupRepository;
+    private final DownloadUserRollupRepository userRollupRepository;
+    private final DownloadUserProjectRepository userProjectRepository;
+
+    /**
+     * 每天重算的天数（不含当天）
+     */
+    @Value("${app.download.rollup.reconcile-days:2}")
+    private int reconcileDays = 2;
+
+    /**
+     * 小时汇总保留天数
+     */
+    @Value("${app.download.rollup.hourly-retention-days:14}")
+    private int hourlyRetentionDays = 14;
+
+    // ==================== 增量维护 ====================
+
+    /**
+     * 计入新写入的下载记录
+     * 应在写入下载记录的同一事务中调用
+     */
+    public void add(Collection<Contribution> contributions) {
+        apply(contributions, List.of());
+    }
+
+    /**
+     * 下载记录状态、大小或耗时变化后，撤销旧值并计入新值
+     * 应在更新下载记录的同一事务中调用
+     */
+    public void replace(Contribution before, Contribution after) {
+        if (before.equals(after)) {
+            return;
+        }
+        apply(List.of(after), List.of(before));
+    }
+
+    private void apply(Collection<Contribution> added, Collection<Contribution> removed) {
+        // TreeMap按键排序，多个事务按相同顺序加锁，避免死锁
+        Map<String, Object[]> projectRows = new TreeMap<>();
+        Map<String, Object[]> userRows = new TreeMap<>();
+        Map<String, Object[]> userProjectRows = new TreeMap<>();
+
+        for (Contribution contribution : removed) {
+            accumulate(contribution, -1, projectRows, userRows, userProjectRows);
+        }
+        for (Contribution contribution : added) {
+            accumulate(contribution, 1, projectRows, userRows, userProjectRows);
+        }
+        projectRows.values().removeIf(row -> (long) row[5] == 0 && (long) row[6] == 0 && (long) row[7] == 0);
+        userRows.values().removeIf(row -> (long) row[4] == 0 && (long) row[5] == 0);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        upsert(PROJECT_UPSERT, PROJECT_UPSERT_ROW, PROJECT_UPSERT_SUFFIX, projectRows.values(), now);
+        upsert(USER_UPSERT, USER_UPSERT_ROW, USER_UPSERT_SUFFIX, userRows.values(), now);
+        upsert(USER_PROJECT_UPSERT, USER_PROJECT_UPSERT_ROW, USER_PROJECT_UPSERT_SUFFIX, userProjectRows.values(), now);
+    }
+
+    private static void accumulate(Contribution contribution, int sign, Map<String, Object[]> projectRows,
+                                   Map<String, Object[]> userRows, Map<String, Object[]> userProjectRows) {
+        if (contribution.projectId() == null || contribution.downloadTime() == null
+                || contribution.downloadStatus() == null) {
+            return;
+        }
+        String source = contribution.downloadSource() != null ? contribution.downloadSource() : UNKNOWN_SOURCE;
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime periodStart = granularity.truncate(contribution.downloadTime());
+
+            String projectKey = granularity + "|" + periodStart + "|" + contribution.projectId() + "|"
+                    + source + "|" + contribution.downloadStatus();
+            Object[] projectRow = projectRows.computeIfAbsent(projectKey, key -> new Object[]{
+                    granularity.name(), Timestamp.valueOf(periodStart), contribution.projectId(), source,
+                    contribution.downloadStatus(), 0L, 0L, 0L});
+            projectRow[5] = (long) projectRow[5] + sign;
+            projectRow[6] = (long) projectRow[6] + sign * contribution.fileSize();
+            projectRow[7] = (long) projectRow[7] + sign * contribution.duration();
+
+            if (contribution.userId() != null) {
+                String userKey = granularity + "|" + periodStart + "|" + contribution.userId() + "|"
+                        + contribution.downloadStatus();
+                Object[] userRow = userRows.computeIfAbsent(userKey, key -> new Object[]{
+                        granularity.name(), Timestamp.valueOf(periodStart), contribution.userId(),
+                        contribution.downloadStatus(), 0L, 0L});
+                userRow[4] = (long) userRow[4] + sign;
+                userRow[5] = (long) userRow[5] + sign * contribution.fileSize();
+            }
+        }
+
+        // 只登记成功下载过的组合，撤销时不删除
+        if (sign > 0 && contribution.userId() != null && COMPLETED.equals(contribution.downloadStatus())) {
+            Timestamp downloadTime = Timestamp.valueOf(contribution.downloadTime());
+            Object[] pairRow = userProjectRows.computeIfAbsent(contribution.userId() + "|" + contribution.projectId(),
+                    key -> new Object[]{contribution.userId(), contribution.projectId(), downloadTime, downloadTime});
+            if (downloadTime.before((Timestamp) pairRow[2])) {
+                pairRow[2] = downloadTime;
+            }
+            if (downloadTime.after((Timestamp) pairRow[3])) {
+                pairRow[3] = downloadTime;
+            }
+        }
+    }
+
+    /**
+     * 用多行 INSERT ... ON DUPLICATE KEY UPDATE 一条语句累加多个汇总行
+     */
+    private void upsert(String prefix, String rowPlaceholders, String suffix, Collection<Object[]> rows,
+                        Timestamp now) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> rowList = new ArrayList<>(rows);
+        for (int from = 0; from < rowList.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Object[]> chunk = rowList.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rowList.size()));
+            StringBuilder sql = new StringBuilder(prefix);
+            List<Object> args = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(rowPlaceholders);
+                for (Object value : chunk.get(i)) {
+                    args.add(value);
+                }
+                args.add(now);
+                args.add(now);
+            }
+            sql.append(suffix);
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    // ==================== 定期校正 ====================
+
+    /**
+     * 用下载明细重算最近几天（不含当天）的汇总，并清理过期的小时汇总
+     * 默认每天凌晨3:30执行；重算是幂等的，多个实例同时执行结果相同
+     */
+    @Scheduled(cron = "${app.download.rollup.reconcile-cron:0 30 3 * * ?}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        for (int i = reconcileDays; i >= 1; i--) {
+            LocalDate day = today.minusDays(i);
+            try {
+                rebuild(day);
+            } catch (Exception e) {
+                log.error("重算下载汇总失败: day={}", day, e);
+            }
+        }
+        try {
+            purgeHourly(today.minusDays(hourlyRetentionDays).atStartOfDay());
+        } catch (Exception e) {
+            log.error("清理小时下载汇总失败", e);
+        }
+    }
+
+    /**
+     * 用下载明细重算某一天的小时和天汇总
+     * 明细已被清理的日期不要重算，否则汇总会被清空
+     */
+    public void rebuild(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM download_project_rollups WHERE period_start >= ? AND period_start < ?",
+                    start, end);
+            jdbcTemplate.update("DELETE FROM download_user_rollups WHERE period_start >= ? AND period_start < ?",
+                    start, end);
+            for (Granularity granularity : Granularity.values()) {
+                String period = PERIOD_EXPRESSIONS.get(granularity);
+                jdbcTemplate.update(PROJECT_UPSERT.replace(" VALUES ", " ")
+                                + "SELECT ?, " + period + ", project_id, COALESCE(download_source, '" + UNKNOWN_SOURCE
+                                + "'), download_status, COUNT(*), COALESCE(SUM(file_size), 0), "
+                                + "COALESCE(SUM(download_duration), 0), NOW(), NOW() FROM project_downloads "
+                                + "WHERE download_time >= ? AND download_time < ? AND deleted = 0 "
+                                + "GROUP BY " + period + ", project_id, COALESCE(download_source, '" + UNKNOWN_SOURCE
+                                + "'), download_status" + PROJECT_REBUILD_SUFFIX,
+                        granularity.name(), start, end);
+                jdbcTemplate.update(USER_UPSERT.replace(" VALUES ", " ")
+                                + "SELECT ?, " + period + ", user_id, download_status, COUNT(*), "
+                                + "COALESCE(SUM(file_size), 0), NOW(), NOW() FROM project_downloads "
+                                + "WHERE download_time >= ? AND download_time < ? AND deleted = 0 AND user_id IS NOT NULL "
+                                + "GROUP BY " + period + ", user_id, download_status" + USER_REBUILD_SUFFIX,
+                        granularity.name(), start, end);
+            }
+            jdbcTemplate.update(USER_PROJECT_UPSERT.replace(" VALUES ", " ")
+                            + "SELECT user_id, project_id, MIN(download_time), MAX(download_time), NOW(), NOW() "
+                            + "FROM project_downloads WHERE download_time >= ? AND download_time < ? AND deleted = 0 "
+                            + "AND user_id IS NOT NULL AND download_status = ? GROUP BY user_id, project_id"
+                            + USER_PROJECT_UPSERT_SUFFIX,
+                    start, end, COMPLETED);
+        });
+        log.info("下载汇总重算完成: day={}", day);
+    }
+
+    /**
+     * 删除指定时间之前的小时汇总
+     */
+    public int purgeHourly(LocalDateTime before) {
+        Timestamp threshold = Timestamp.valueOf(before);
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM download_project_rollups WHERE granularity = ? AND period_start < ?",
+                Granularity.HOUR.name(), threshold);
+        deleted += jdbcTemplate.update(
+                "DELETE FROM download_user_rollups WHERE granularity = ? AND period_start < ?",
+                Granularity.HOUR.name(), threshold);
+        if (deleted > 0) {
+            log.info("清理小时下载汇总: before={}, rows={}", before, deleted);
+        }
+        return deleted;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 最近若干天（含当天）成功下载次数最多的项目
+     *
+     * @return [项目ID, 下载次数]，按下载次数降序
+     */
+    public List<Object[]> findTopProjects(int days, int limit) {
+        return projectRollupRepository.findTopProjects(Granularity.DAY, dayStart(days), COMPLETED,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * 最近若干天（含当天）成功下载次数最多的用户
+     *
+     * @return [用户ID, 下载次数]，按下载次数降序
+     */
+    public List<Object[]> findTopUsers(int days, int limit) {
+        return userRollupRepository.findTopUsers(Granularity.DAY, dayStart(days), COMPLETED,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * 最近若干天（含当天）按下载来源统计的成功下载次数
+     *
+     * @return [下载来源, 下载次数]，按下载次数降序
+     */
+    public List<Object[]> sumBySource(int days) {
+        return projectRollupRepository.sumBySource(Granularity.DAY, dayStart(days), COMPLETED);
+    }
+
+    /**
+     * 成功下载趋势
+     *
+     * @param projectId   项目ID，为null时统计全站
+     * @param periods     周期数（含当前周期）
+     * @param granularity 汇总粒度
+     * @return [周期开始时间, 下载次数]，按时间升序，没有下载的周期不返回
+     */
+    public List<Object[]> findTrend(Long projectId, int periods, Granularity granularity) {
+        LocalDateTime start = granularity == Granularity.HOUR
+                ? Granularity.HOUR.truncate(LocalDateTime.now()).minusHours(Math.max(periods, 1) - 1L)
+                : dayStart(periods);
+        return projectId != null
+                ? projectRollupRepository.findProjectTrend(projectId, granularity, start, COMPLETED)
+                : projectRollupRepository.findTrend(granularity, start, COMPLETED);
+    }
+
+    /**
+     * 项目累计成功下载的次数、字节数、耗时和去重下载用户数
+     */
+    public ProjectTotals getProjectTotals(Long projectId) {
+        Object[] row = firstRow(projectRollupRepository.sumByProject(projectId, Granularity.DAY, COMPLETED));
+        return new ProjectTotals(toLong(row[0]), toLong(row[1]), toLong(row[2]),
+                userProjectRepository.countByProjectId(projectId));
+    }
+
+    /**
+     * 用户累计成功下载的次数、字节数和去重项目数
+     */
+    public UserTotals getUserTotals(Long userId) {
+        Object[] row = firstRow(userRollupRepository.sumByUser(userId, Granularity.DAY, COMPLETED));
+        return new UserTotals(toLong(row[0]), toLong(row[1]), userProjectRepository.countByUserId(userId));
+    }
+
+    private static LocalDateTime dayStart(int days) {
+        return LocalDate.now().minusDays(Math.max(days, 1) - 1L).atStartOfDay();
+    }
+
+    private static Object[] firstRow(List<Object[]> rows) {
+        return rows.isEmpty() || rows.get(0) == null ? new Object[3] : rows.get(0);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    /**
+     * 一条下载记录对汇总的贡献
+     */
+    public record Contribution(Long projectId, Long userId, String downloadSource, Integer downloadStatus,
+                               LocalDateTime downloadTime, long fileSize, long duration) {
+
+        public static Contribution of(ProjectDownload download) {
+            return new Contribution(download.getProjectId(), download.getUserId(), download.getDownloadSource(),
+                    download.getDownloadStatus(), download.getDownloadTime(),
+                    download.getFileSize() != null ? download.getFileSize() : 0L,
+                    download.getDownloadDuration() != null ? download.getDownloadDuration() : 0L);
+        }
+    }
+
+    /**
+     * 项目累计下载数据
+     */
+    public record ProjectTotals(long downloads, long totalSize, long totalDuration, long uniqueDownloaders) {
+
+        public double getAverageDuration() {
+            return downloads > 0 ? (double) totalDuration / downloads : 0.0;
+        }
+    }
+
+    /**
+     * 用户累计下载数据
+     */
+    public record UserTotals(long downloads, long totalSize, long uniqueProjects) {
+    }
+}
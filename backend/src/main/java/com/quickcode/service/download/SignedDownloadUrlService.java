@@ -0,0 +1,358 @@
+package com.quickcode.service.download;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 无状态签名下载链接
+ * 链接中携带项目ID、用户ID、文件ID、过期时间、随机数和签发时的撤销版本号，用HMAC-SHA256签名后按base64url编码，
+ * 校验只需本地计算一次HMAC，不解析JWT，也不访问Redis。
+ * 撤销按用户或项目递增版本号，签发时的版本号低于当前版本的链接全部失效；
+ * 版本号保存在Redis哈希中，本节点保留一份副本，撤销时通过Redis发布订阅通知其他节点，并定期全量同步兜底。
+ * 启动后至少成功同步一次版本号之前，本地副本不完整，不签发也不接受签名链接；之后同步失败时沿用已有副本
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignedDownloadUrlService {
+
+    /**
+     * 签名链接的下载路径前缀
+     */
+    public static final String PATH_PREFIX = "/api/downloads/signed/";
+
+    private static final String EPOCH_KEY = "quickcode:download:url-epoch";
+    private static final String EPOCH_CHANNEL = "quickcode:download:url-epoch:changed";
+    private static final String USER_FIELD_PREFIX = "u:";
+    private static final String PROJECT_FIELD_PREFIX = "p:";
+    private static final String METRIC_NAME = "quickcode.download.signed_url.verify";
+
+    /**
+     * 尚未同步成功时，请求触发重新同步的最小间隔
+     */
+    private static final long RELOAD_INTERVAL_MILLIS = 5000;
+
+    private static final byte VERSION = 1;
+    /**
+     * 版本(1) + 项目ID(8) + 用户ID(8) + 文件ID(8) + 过期时间秒(4) + 用户版本号(4) + 项目版本号(4) + 随机数(8)
+     */
+    private static final int PAYLOAD_LENGTH = 45;
+    /**
+     * 截取HMAC-SHA256的前16字节作为签名
+     */
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final int TOKEN_LENGTH = ((PAYLOAD_LENGTH + SIGNATURE_LENGTH) * 8 + 5) / 6;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.download.signed-url.secret:${app.jwt.secret}}")
+    private String secret;
+
+    @Value("${app.download.signed-url.max-expiration-minutes:1440}")
+    private int maxExpirationMinutes = 1440;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<Long, Integer> userEpochs = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> projectEpochs = new ConcurrentHashMap<>();
+
+    private SecretKeySpec signingKey;
+
+    /**
+     * 是否至少成功同步过一次版本号
+     */
+    private volatile boolean epochsLoaded = false;
+    private volatile long lastRefreshAttempt;
+
+    /**
+     * Mac实例不是线程安全的，每个线程初始化一次后复用
+     */
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    private Counter accepted;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        // 从配置的密钥派生独立的签名密钥，签名链接与登录JWT不共用同一把密钥
+        signingKey = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                "quickcode-download-url".getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+
+        accepted = Counter.builder(METRIC_NAME).tag("result", "accepted")
+                .description("签名下载链接校验次数").register(meterRegistry);
+        rejected = Counter.builder(METRIC_NAME).tag("result", "rejected")
+                .description("签名下载链接校验次数").register(meterRegistry);
+
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onEpochMessage(message), new ChannelTopic(EPOCH_CHANNEL));
+        refreshEpochs();
+    }
+
+    /**
+     * 签发下载链接
+     *
+     * @param fileId 文件ID，下载项目主文件时为null
+     * @param expirationMinutes 有效期（分钟），超过上限时按上限签发
+     * @return 签名令牌，拼接在PATH_PREFIX之后即为下载地址
+     */
+    public SignedDownload sign(Long projectId, Long userId, Long fileId, int expirationMinutes) {
+        long minutes = Math.max(1, Math.min(expirationMinutes, maxExpirationMinutes));
+        return signUntil(projectId, userId, fileId, System.currentTimeMillis() / 1000 + minutes * 60);
+    }
+
+    SignedDownload signUntil(Long projectId, Long userId, Long fileId, long expiresAt) {
+        if (!isAvailable()) {
+            // 按不完整的版本号签发的链接可能在同步后立即失效
+            throw new IllegalStateException("下载链接撤销版本尚未同步，暂不能签发");
+        }
+        byte[] nonce = new byte[8];
+        random.nextBytes(nonce);
+
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + SIGNATURE_LENGTH);
+        buffer.put(VERSION)
+                .putLong(projectId)
+                .putLong(userId)
+                .putLong(fileId != null ? fileId : 0L)
+                .putInt((int) expiresAt)
+                .putInt(userEpochs.getOrDefault(userId, 0))
+                .putInt(projectEpochs.getOrDefault(projectId, 0))
+                .put(nonce);
+        byte[] bytes = buffer.array();
+        System.arraycopy(mac(bytes), 0, bytes, PAYLOAD_LENGTH, SIGNATURE_LENGTH);
+
+        return new SignedDownload(ENCODER.encodeToString(bytes), projectId, userId, fileId, expiresAt);
+    }
+
+    /**
+     * 校验下载链接，只读本地状态
+     */
+    public Verification verify(String token) {
+        return verify(token, System.currentTimeMillis() / 1000);
+    }
+
+    Verification verify(String token, long nowSeconds) {
+        Verification verification = doVerify(token, nowSeconds);
+        (verification.valid() ? accepted : rejected).increment();
+        return verification;
+    }
+
+    /**
+     * 签名链接是否可用
+     * 撤销版本尚未同步成功时不可用，并按间隔重试同步
+     */
+    public boolean isAvailable() {
+        if (!epochsLoaded && System.currentTimeMillis() - lastRefreshAttempt >= RELOAD_INTERVAL_MILLIS) {
+            refreshEpochs();
+        }
+        return epochsLoaded;
+    }
+
+    private Verification doVerify(String token, long nowSeconds) {
+        if (!isAvailable()) {
+            // 不知道哪些链接已被撤销，拒绝全部链接
+            return Verification.rejected("撤销版本尚未同步");
+        }
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return Verification.rejected("链接格式无效");
+        }
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            return Verification.rejected("链接格式无效");
+        }
+        if (bytes.length != PAYLOAD_LENGTH + SIGNATURE_LENGTH || bytes[0] != VERSION) {
+            return Verification.rejected("链接格式无效");
+        }
+
+        byte[] expected = Arrays.copyOf(mac(bytes), SIGNATURE_LENGTH);
+        byte[] actual = Arrays.copyOfRange(bytes, PAYLOAD_LENGTH, bytes.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Verification.rejected("链接签名无效");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, PAYLOAD_LENGTH - 1);
+        long projectId = buffer.getLong();
+        long userId = buffer.getLong();
+        long fileId = buffer.getLong();
+        long expiresAt = Integer.toUnsignedLong(buffer.getInt());
+        int userEpoch = buffer.getInt();
+        int projectEpoch = buffer.getInt();
+
+        SignedDownload download = new SignedDownload(token, projectId, userId, fileId != 0 ? fileId : null, expiresAt);
+        if (nowSeconds >= expiresAt) {
+            return new Verification(false, "链接已过期", download);
+        }
+        if (userEpoch < userEpochs.getOrDefault(userId, 0) || projectEpoch < projectEpochs.getOrDefault(projectId, 0)) {
+            return new Verification(false, "链接已被撤销", download);
+        }
+        return new Verification(true, "链接有效", download);
+    }
+
+    /**
+     * 撤销用户已签发的所有下载链接
+     *
+     * @return 新的版本号
+     */
+    public int revokeUser(Long userId) {
+        return bumpEpoch(USER_FIELD_PREFIX, userId, userEpochs);
+    }
+
+    /**
+     * 撤销项目已签发的所有下载链接
+     *
+     * @return 新的版本号
+     */
+    public int revokeProject(Long projectId) {
+        return bumpEpoch(PROJECT_FIELD_PREFIX, projectId, projectEpochs);
+    }
+
+    /**
+     * 递增Redis中的版本号后更新本地副本并通知其他节点
+     * Redis数据丢失后递增结果可能不超过本地副本，此时补足差值，保证撤销生效
+     */
+    private int bumpEpoch(String fieldPrefix, Long id, Map<Long, Integer> epochs) {
+        String field = fieldPrefix + id;
+        long epoch = stringRedisTemplate.opsForHash().increment(EPOCH_KEY, field, 1);
+        int local = epochs.getOrDefault(id, 0);
+        if (epoch <= local) {
+            epoch = stringRedisTemplate.opsForHash().increment(EPOCH_KEY, field, local + 1 - epoch);
+        }
+        int newEpoch = (int) epoch;
+        epochs.merge(id, newEpoch, Math::max);
+        try {
+            stringRedisTemplate.convertAndSend(EPOCH_CHANNEL, field + ":" + newEpoch);
+        } catch (Exception e) {
+            // 其他节点在下次全量同步时获取
+            log.warn("发布下载链接撤销消息失败: field={}", field, e);
+        }
+        log.info("撤销签名下载链接: field={}, epoch={}", field, newEpoch);
+        return newEpoch;
+    }
+
+    /**
+     * 从Redis全量同步版本号，兜底丢失的撤销消息
+     * 只取较大值，Redis数据丢失时不会让已撤销的链接重新生效；同步失败时保留本地副本
+     */
+    @Scheduled(fixedDelayString = "${app.download.signed-url.epoch-refresh-interval:60000}")
+    public void refreshEpochs() {
+        lastRefreshAttempt = System.currentTimeMillis();
+        Map<Object, Object> entries;
+        try {
+            entries = stringRedisTemplate.opsForHash().entries(EPOCH_KEY);
+        } catch (Exception e) {
+            if (epochsLoaded) {
+                log.warn("同步下载链接撤销版本失败，继续使用本地副本: {}", e.getMessage());
+            } else {
+                log.error("同步下载链接撤销版本失败，签名下载链接暂不可用: {}", e.getMessage());
+            }
+            return;
+        }
+        entries.forEach((field, value) -> applyEpoch(field.toString(), value.toString()));
+        if (!epochsLoaded) {
+            epochsLoaded = true;
+            log.info("下载链接撤销版本已同步: entries={}", entries.size());
+        }
+    }
+
+    void onEpochMessage(Message message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator > 0) {
+            applyEpoch(body.substring(0, separator), body.substring(separator + 1));
+        }
+    }
+
+    private void applyEpoch(String field, String value) {
+        try {
+            int epoch = Integer.parseInt(value);
+            if (field.startsWith(USER_FIELD_PREFIX)) {
+                userEpochs.merge(Long.parseLong(field.substring(USER_FIELD_PREFIX.length())), epoch, Math::max);
+            } else if (field.startsWith(PROJECT_FIELD_PREFIX)) {
+                projectEpochs.merge(Long.parseLong(field.substring(PROJECT_FIELD_PREFIX.length())), epoch, Math::max);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("忽略无效的下载链接撤销版本: field={}, value={}", field, value);
+        }
+    }
+
+    private byte[] mac(byte[] bytes) {
+        Mac mac = macs.get();
+        mac.update(bytes, 0, PAYLOAD_LENGTH);
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化下载链接签名失败", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化下载链接签名失败", e);
+        }
+    }
+
+    /**
+     * 签名链接携带的下载信息
+     *
+     * @param token 签名令牌
+     * @param fileId 文件ID，项目主文件为null
+     * @param expiresAt 过期时间（秒级时间戳）
+     */
+    public record SignedDownload(String token, Long projectId, Long userId, Long fileId, long expiresAt) {
+
+        public String getPath() {
+            return PATH_PREFIX + token;
+        }
+    }
+
+    /**
+     * 校验结果，签名无效时不返回链接内容
+     */
+    public record Verification(boolean valid, String reason, SignedDownload download) {
+
+        static Verification rejected(String reason) {
+            return new Verification(false, reason, null);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.quickcode.service.feed;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.common.event.ProjectStatsChangedEvent;
+import com.quickcode.dto.project.ProjectDTO;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 首页榜单物化服务
+ * 将精选、热门、最新、高评分四个榜单预先查询并转换为卡片列表常驻内存，首页请求直接读取。
+ * 项目变更、统计数据变更只把相关榜单标记为脏，由定时任务合并刷新，另有周期性全量刷新兜底
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HomepageFeedService {
+
+    private final ProjectRepository projectRepository;
+
+    @Value("${app.feed.homepage.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.feed.homepage.size:50}")
+    private int feedSize;
+
+    /**
+     * 已物化的榜单（不可变列表，整体替换）
+     */
+    private final Map<FeedType, List<ProjectDTO>> feeds = new ConcurrentHashMap<>();
+
+    /**
+     * 待刷新的榜单
+     */
+    private final Set<FeedType> dirtyFeeds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 应用启动完成后构建全部榜单
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshAll();
+    }
+
+    /**
+     * 定期全量刷新，兜底未发布事件的数据变化
+     */
+    @Scheduled(fixedDelayString = "${app.feed.homepage.refresh-interval:300000}",
+            initialDelayString = "${app.feed.homepage.refresh-interval:300000}")
+    public void scheduledRefresh() {
+        refreshAll();
+    }
+
+    /**
+     * 刷新被标记为脏的榜单，短时间内的多次变更合并为一次查询
+     */
+    @Scheduled(fixedDelayString = "${app.feed.homepage.dirty-check-interval:5000}")
+    public void refreshDirtyFeeds() {
+        if (!enabled || dirtyFeeds.isEmpty()) {
+            return;
+        }
+        for (FeedType type : FeedType.values()) {
+            // 先移除标记再查询，查询期间到达的变更会重新标记
+            if (dirtyFeeds.remove(type)) {
+                refresh(type);
+            }
+        }
+    }
+
+    /**
+     * 项目发布、下架、精选切换、编辑后刷新全部榜单
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        markDirty(EnumSet.allOf(FeedType.class));
+    }
+
+    /**
+     * 统计数据变化后只刷新受影响的榜单
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectStatsChanged(ProjectStatsChangedEvent event) {
+        switch (event.getStatType()) {
+            // 浏览数批量同步后卡片上的计数整体更新
+            case VIEW_COUNT -> markDirty(EnumSet.allOf(FeedType.class));
+            case DOWNLOAD_COUNT -> markDirty(EnumSet.of(FeedType.POPULAR));
+            case RATING -> markDirty(EnumSet.of(FeedType.HIGH_RATED));
+            default -> {
+                // 点赞数、收藏数不参与排序，等待周期刷新
+            }
+        }
+    }
+
+    /**
+     * 获取榜单前limit个项目
+     *
+     * @return 榜单未就绪或limit超过物化长度时返回empty，调用方应回退到数据库查询
+     */
+    public Optional<List<ProjectDTO>> getFeed(FeedType type, int limit) {
+        List<ProjectDTO> feed = feeds.get(type);
+        if (!enabled || feed == null || limit > feedSize) {
+            return Optional.empty();
+        }
+        return Optional.of(feed.subList(0, Math.min(limit, feed.size())));
+    }
+
+    /**
+     * 获取评分不低于minRating的高评分项目
+     * 物化列表按评分倒序，满足条件的项目是列表前缀，limit不超过物化长度时前缀即为完整结果
+     */
+    public Optional<List<ProjectDTO>> getHighRated(BigDecimal minRating, int limit) {
+        List<ProjectDTO> feed = feeds.get(FeedType.HIGH_RATED);
+        if (!enabled || feed == null || limit > feedSize) {
+            return Optional.empty();
+        }
+        int end = 0;
+        while (end < feed.size() && end < limit && meetsRating(feed.get(end), minRating)) {
+            end++;
+        }
+        return Optional.of(feed.subList(0, end));
+    }
+
+    /**
+     * 刷新全部榜单
+     */
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        for (FeedType type : FeedType.values()) {
+            dirtyFeeds.remove(type);
+            refresh(type);
+        }
+    }
+
+    /**
+     * 重新查询并替换指定榜单
+     */
+    public synchronized void refresh(FeedType type) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<ProjectDTO> feed = load(type).stream()
+                    .map(ProjectDTO::fromProject)
+                    .toList();
+            feeds.put(type, feed);
+            log.debug("首页榜单刷新完成: type={}, size={}, 耗时{}ms",
+                    type, feed.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 刷新失败时保留旧榜单，下次事件或定时任务重试
+            dirtyFeeds.add(type);
+            log.error("首页榜单刷新失败: type={}", type, e);
+        }
+    }
+
+    /**
+     * 榜单是否已构建
+     */
+    public boolean isReady(FeedType type) {
+        return feeds.containsKey(type);
+    }
+
+    private void markDirty(Set<FeedType> types) {
+        if (enabled) {
+            dirtyFeeds.addAll(types);
+        }
+    }
+
+    private List<Project> load(FeedType type) {
+        Pageable pageable = PageRequest.of(0, feedSize);
+        return switch (type) {
+            case FEATURED -> projectRepository.findFeaturedProjects(pageable).getContent();
+            case POPULAR -> projectRepository.findPopularProjects(pageable);
+            case LATEST -> projectRepository.findLatestProjects(pageable);
+            case HIGH_RATED -> projectRepository.findHighRatedProjects(BigDecimal.ZERO, pageable);
+        };
+    }
+
+    private static boolean meetsRating(ProjectDTO project, BigDecimal minRating) {
+        if (minRating == null) {
+            return true;
+        }
+        return project.getRating() != null && project.getRating().compareTo(minRating) >= 0;
+    }
+
+    /**
+     * 首页榜单类型
+     */
+    public enum FeedType {
+        FEATURED,
+        POPULAR,
+        LATEST,
+        HIGH_RATED
+    }
+}
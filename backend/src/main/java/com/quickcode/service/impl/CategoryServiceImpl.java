@@ -8,8 +8,12 @@ import com.quickcode.entity.Category;
 import com.quickcode.repository.CategoryRepository;
 import com.quickcode.repository.ProjectRepository;
 import com.quickcode.service.CategoryService;
+import com.quickcode.service.cache.CoalescingCache;
+import com.quickcode.service.cache.CoalescingCacheFactory;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -33,6 +37,24 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProjectRepository projectRepository;
+    private final CoalescingCacheFactory coalescingCacheFactory;
+
+    @Value("${app.cache.category-tree.ttl:300000}")
+    private long categoryTreeTtlMillis;
+
+    @Value("${app.cache.category-tree.stale-ttl:60000}")
+    private long categoryTreeStaleTtlMillis;
+
+    /**
+     * 分类树缓存，key为是否只包含激活分类
+     */
+    private CoalescingCache<Boolean, List<CategoryDTO>> categoryTreeCache;
+
+    @PostConstruct
+    public void initCategoryTreeCache() {
+        categoryTreeCache = coalescingCacheFactory.create("category-tree", 2,
+                categoryTreeTtlMillis, categoryTreeStaleTtlMillis);
+    }
 
     @Override
     public CategoryDTO createCategory(CategoryCreateRequest request) {
@@ -88,6 +110,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         // 保存分类
         category = categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类创建成功: id={}, name={}, code={}", category.getId(), category.getName(), category.getCode());
         return CategoryDTO.fromCategory(category);
@@ -138,6 +161,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         // 保存更新
         category = categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类更新成功: id={}, name={}, code={}", category.getId(), category.getName(), category.getCode());
         return CategoryDTO.fromCategory(category);
@@ -239,8 +263,7 @@ public class CategoryServiceImpl implements CategoryService {
     public List<CategoryDTO> getCategoryTree() {
         log.debug("获取分类树形结构");
 
-        List<Category> rootCategories = categoryRepository.findRootCategories();
-        return buildCategoryTree(rootCategories);
+        return categoryTreeCache.get(false, key -> buildCategoryTree(categoryRepository.findRootCategories()));
     }
 
     @Override
@@ -248,8 +271,8 @@ public class CategoryServiceImpl implements CategoryService {
     public List<CategoryDTO> getActiveCategoryTree() {
         log.debug("获取激活分类的树形结构");
 
-        List<Category> rootCategories = categoryRepository.findActiveRootCategories();
-        return buildActiveCategoryTree(rootCategories);
+        return categoryTreeCache.get(true,
+                key -> buildActiveCategoryTree(categoryRepository.findActiveRootCategories()));
     }
 
     /**
@@ -352,32 +375,38 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Category save(Category entity) {
+        categoryTreeCache.clearAfterCommit();
         return categoryRepository.save(entity);
     }
 
     @Override
     public List<Category> saveAll(List<Category> entities) {
+        categoryTreeCache.clearAfterCommit();
         return categoryRepository.saveAll(entities);
     }
 
     @Override
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        categoryTreeCache.clearAfterCommit();
     }
 
     @Override
     public void delete(Category entity) {
         categoryRepository.delete(entity);
+        categoryTreeCache.clearAfterCommit();
     }
 
     @Override
     public void deleteAll(List<Category> entities) {
         categoryRepository.deleteAll(entities);
+        categoryTreeCache.clearAfterCommit();
     }
 
     @Override
     public void deleteAll() {
         categoryRepository.deleteAll();
+        categoryTreeCache.clearAfterCommit();
     }
 
     @Override
@@ -439,6 +468,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = getById(categoryId);
         category.enable();
         categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类启用成功: categoryId={}", categoryId);
     }
@@ -461,6 +491,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.disable();
         categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类禁用成功: categoryId={}", categoryId);
     }
@@ -484,6 +515,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.setParentId(newParentId);
         categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类移动成功: categoryId={}, newParentId={}", categoryId, newParentId);
     }
@@ -495,6 +527,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = getById(categoryId);
         category.setSortOrder(sortOrder);
         categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
 
         log.info("分类排序调整成功: categoryId={}, sortOrder={}", categoryId, sortOrder);
     }
@@ -635,6 +668,7 @@ public class CategoryServiceImpl implements CategoryService {
             try {
                 if (canDeleteCategory(categoryId)) {
                     categoryRepository.deleteById(categoryId);
+                    categoryTreeCache.clearAfterCommit();
                 } else {
                     log.warn("分类无法删除（有子分类或项目）: categoryId={}", categoryId);
                 }
@@ -691,13 +725,14 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         categoryRepository.save(category);
+        categoryTreeCache.clearAfterCommit();
         log.debug("创建默认分类: name={}, code={}", name, code);
     }
 
     @Override
     public void rebuildCategoryTreeCache() {
         log.debug("重建分类树缓存");
-        // TODO: 实现分类树缓存重建逻辑
+        categoryTreeCache.clear();
         log.info("分类树缓存重建完成");
     }
 
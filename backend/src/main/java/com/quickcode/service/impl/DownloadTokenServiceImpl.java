@@ -7,7 +7,12 @@ import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
@@ -20,7 +25,9 @@ import java.util.stream.Collectors;
 
 /**
  * 下载令牌服务实现类
- * 使用JWT和Redis实现下载令牌的生成、验证和缓存管理
+ * 使用JWT和Redis实现下载令牌的生成、验证和缓存管理。
+ * 生成令牌的写入合并为一次管道提交，按用户或项目撤销、查询活跃令牌各用一个Lua脚本完成，
+ * 每次调用只有一次网络往返，与令牌数量无关
  * 
  * @author QuickCode Team
  * @since 1.0.0
@@ -30,6 +37,34 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DownloadTokenServiceImpl implements DownloadTokenService {
 
+    /**
+     * 撤销集合中的全部令牌并删除集合，返回实际删除的令牌数
+     * 集合成员按JSON序列化存储，需先解码出令牌ID
+     * KEYS: 用户或项目令牌集合；ARGV: 令牌键前缀
+     */
+    private static final DefaultRedisScript<Long> REVOKE_TOKENS_SCRIPT = new DefaultRedisScript<>(
+            "local revoked = 0 "
+                    + "for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do "
+                    + "  revoked = revoked + redis.call('DEL', ARGV[1] .. cjson.decode(member)) "
+                    + "end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "return revoked",
+            Long.class);
+
+    /**
+     * 读取集合中仍存在的令牌数据，每个令牌返回一组HGETALL结果 [字段1, 值1, 字段2, 值2, ...]
+     * KEYS: 用户或项目令牌集合；ARGV: 令牌键前缀
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LIST_TOKENS_SCRIPT = new DefaultRedisScript<>(
+            "local result = {} "
+                    + "for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do "
+                    + "  local data = redis.call('HGETALL', ARGV[1] .. cjson.decode(member)) "
+                    + "  if #data > 0 then table.insert(result, data) end "
+                    + "end "
+                    + "return result",
+            List.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Value("${app.jwt.secret}")
@@ -90,7 +125,6 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
                     .compact();
 
             // 存储到Redis
-            String tokenKey = tokenPrefix + tokenId;
             Map<String, Object> tokenData = new HashMap<>();
             tokenData.put("token", token);
             tokenData.put("projectId", projectId);
@@ -100,18 +134,7 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
             tokenData.put("createdAt", LocalDateTime.now().toString());
             tokenData.put("active", true);
 
-            redisTemplate.opsForHash().putAll(tokenKey, tokenData);
-            redisTemplate.expire(tokenKey, expirationMinutes, TimeUnit.MINUTES);
-
-            // 添加到用户令牌集合
-            String userTokenKey = userTokenPrefix + userId;
-            redisTemplate.opsForSet().add(userTokenKey, tokenId);
-            redisTemplate.expire(userTokenKey, expirationMinutes, TimeUnit.MINUTES);
-
-            // 添加到项目令牌集合
-            String projectTokenKey = projectTokenPrefix + projectId;
-            redisTemplate.opsForSet().add(projectTokenKey, tokenId);
-            redisTemplate.expire(projectTokenKey, expirationMinutes, TimeUnit.MINUTES);
+            storeToken(tokenId, projectId, userId, expirationMinutes, tokenData);
 
             log.info("下载令牌生成成功: tokenId={}, projectId={}, userId={}", tokenId, projectId, userId);
 
@@ -123,6 +146,35 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         }
     }
 
+    /**
+     * 写入令牌数据并登记到用户、项目令牌集合，六条命令通过管道一次提交
+     */
+    void storeToken(String tokenId, Long projectId, Long userId, int expirationMinutes,
+                    Map<String, Object> tokenData) {
+        String tokenKey = tokenPrefix + tokenId;
+        String userTokenKey = userTokenPrefix + userId;
+        String projectTokenKey = projectTokenPrefix + projectId;
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForHash().putAll(tokenKey, tokenData);
+                ops.expire(tokenKey, expirationMinutes, TimeUnit.MINUTES);
+
+                // 添加到用户令牌集合
+                ops.opsForSet().add(userTokenKey, tokenId);
+                ops.expire(userTokenKey, expirationMinutes, TimeUnit.MINUTES);
+
+                // 添加到项目令牌集合
+                ops.opsForSet().add(projectTokenKey, tokenId);
+                ops.expire(projectTokenKey, expirationMinutes, TimeUnit.MINUTES);
+                return null;
+            }
+        });
+    }
+
     @Override
     public TokenValidationResult validateDownloadToken(String token) {
         return validateDownloadToken(token, null);
@@ -167,16 +219,16 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
                                                convertClaimsToMap(claims));
             }
 
-            // 检查Redis中的令牌状态
+            // 检查Redis中的令牌状态，令牌键不存在时读不到active字段
             String tokenKey = tokenPrefix + tokenId;
-            if (!redisTemplate.hasKey(tokenKey)) {
+            Boolean active = (Boolean) redisTemplate.opsForHash().get(tokenKey, "active");
+            if (active == null) {
                 return new TokenValidationResult(false, "令牌已过期或被撤销", tokenProjectId, tokenUserId, 
                                                convertClaimsToMap(claims));
             }
 
             // 检查令牌是否活跃
-            Boolean active = (Boolean) redisTemplate.opsForHash().get(tokenKey, "active");
-            if (active == null || !active) {
+            if (!active) {
                 return new TokenValidationResult(false, "令牌已被禁用", tokenProjectId, tokenUserId, 
                                                convertClaimsToMap(claims));
             }
@@ -260,26 +312,7 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         log.debug("撤销用户所有下载令牌: userId={}", userId);
 
         try {
-            String userTokenKey = userTokenPrefix + userId;
-            Set<Object> tokenIds = redisTemplate.opsForSet().members(userTokenKey);
-            
-            if (tokenIds == null || tokenIds.isEmpty()) {
-                return 0;
-            }
-
-            int revokedCount = 0;
-            for (Object tokenIdObj : tokenIds) {
-                String tokenId = (String) tokenIdObj;
-                String tokenKey = tokenPrefix + tokenId;
-                
-                if (redisTemplate.hasKey(tokenKey)) {
-                    redisTemplate.delete(tokenKey);
-                    revokedCount++;
-                }
-            }
-
-            // 清空用户令牌集合
-            redisTemplate.delete(userTokenKey);
+            int revokedCount = revokeTokens(userTokenPrefix + userId);
 
             log.info("用户下载令牌撤销完成: userId={}, count={}", userId, revokedCount);
             return revokedCount;
@@ -295,26 +328,7 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         log.debug("撤销项目所有下载令牌: projectId={}", projectId);
 
         try {
-            String projectTokenKey = projectTokenPrefix + projectId;
-            Set<Object> tokenIds = redisTemplate.opsForSet().members(projectTokenKey);
-            
-            if (tokenIds == null || tokenIds.isEmpty()) {
-                return 0;
-            }
-
-            int revokedCount = 0;
-            for (Object tokenIdObj : tokenIds) {
-                String tokenId = (String) tokenIdObj;
-                String tokenKey = tokenPrefix + tokenId;
-                
-                if (redisTemplate.hasKey(tokenKey)) {
-                    redisTemplate.delete(tokenKey);
-                    revokedCount++;
-                }
-            }
-
-            // 清空项目令牌集合
-            redisTemplate.delete(projectTokenKey);
+            int revokedCount = revokeTokens(projectTokenPrefix + projectId);
 
             log.info("项目下载令牌撤销完成: projectId={}, count={}", projectId, revokedCount);
             return revokedCount;
@@ -330,31 +344,7 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         log.debug("获取用户活跃下载令牌: userId={}", userId);
 
         try {
-            String userTokenKey = userTokenPrefix + userId;
-            Set<Object> tokenIds = redisTemplate.opsForSet().members(userTokenKey);
-
-            if (tokenIds == null || tokenIds.isEmpty()) {
-                return new ArrayList<>();
-            }
-
-            List<DownloadTokenInfo> activeTokens = new ArrayList<>();
-            for (Object tokenIdObj : tokenIds) {
-                String tokenId = (String) tokenIdObj;
-                String tokenKey = tokenPrefix + tokenId;
-
-                Map<Object, Object> tokenData = redisTemplate.opsForHash().entries(tokenKey);
-                if (!tokenData.isEmpty()) {
-                    Boolean active = (Boolean) tokenData.get("active");
-                    if (active != null && active) {
-                        DownloadTokenInfo tokenInfo = buildTokenInfoFromData(tokenData);
-                        if (tokenInfo != null) {
-                            activeTokens.add(tokenInfo);
-                        }
-                    }
-                }
-            }
-
-            return activeTokens;
+            return loadActiveTokens(userTokenPrefix + userId);
 
         } catch (Exception e) {
             log.error("获取用户活跃下载令牌失败: userId={}", userId, e);
@@ -367,31 +357,7 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         log.debug("获取项目活跃下载令牌: projectId={}", projectId);
 
         try {
-            String projectTokenKey = projectTokenPrefix + projectId;
-            Set<Object> tokenIds = redisTemplate.opsForSet().members(projectTokenKey);
-
-            if (tokenIds == null || tokenIds.isEmpty()) {
-                return new ArrayList<>();
-            }
-
-            List<DownloadTokenInfo> activeTokens = new ArrayList<>();
-            for (Object tokenIdObj : tokenIds) {
-                String tokenId = (String) tokenIdObj;
-                String tokenKey = tokenPrefix + tokenId;
-
-                Map<Object, Object> tokenData = redisTemplate.opsForHash().entries(tokenKey);
-                if (!tokenData.isEmpty()) {
-                    Boolean active = (Boolean) tokenData.get("active");
-                    if (active != null && active) {
-                        DownloadTokenInfo tokenInfo = buildTokenInfoFromData(tokenData);
-                        if (tokenInfo != null) {
-                            activeTokens.add(tokenInfo);
-                        }
-                    }
-                }
-            }
-
-            return activeTokens;
+            return loadActiveTokens(projectTokenPrefix + projectId);
 
         } catch (Exception e) {
             log.error("获取项目活跃下载令牌失败: projectId={}", projectId, e);
@@ -538,6 +504,50 @@ public class DownloadTokenServiceImpl implements DownloadTokenService {
         }
     }
 
+    /**
+     * 撤销令牌集合中的全部令牌，一次往返
+     * 脚本参数按原始字符串传入，不经过模板的JSON序列化
+     */
+    private int revokeTokens(String setKey) {
+        Long revoked = redisTemplate.execute(REVOKE_TOKENS_SCRIPT, RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class), List.of(setKey), tokenPrefix);
+        return revoked != null ? revoked.intValue() : 0;
+    }
+
+    /**
+     * 读取令牌集合中的活跃令牌，一次往返
+     * 脚本返回原始字节，字段名和字段值分别按模板的哈希键、哈希值序列化方式还原
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<DownloadTokenInfo> loadActiveTokens(String setKey) {
+        List<Object> tokens = redisTemplate.execute(LIST_TOKENS_SCRIPT, RedisSerializer.string(),
+                (RedisSerializer) RedisSerializer.byteArray(), List.of(setKey), tokenPrefix);
+        if (tokens == null || tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        RedisSerializer<?> hashKeySerializer = redisTemplate.getHashKeySerializer();
+        RedisSerializer<?> hashValueSerializer = redisTemplate.getHashValueSerializer();
+        List<DownloadTokenInfo> activeTokens = new ArrayList<>();
+        for (Object token : tokens) {
+            List<byte[]> fields = (List<byte[]>) token;
+            Map<Object, Object> tokenData = new HashMap<>();
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                tokenData.put(hashKeySerializer.deserialize(fields.get(i)),
+                        hashValueSerializer.deserialize(fields.get(i + 1)));
+            }
+
+            Boolean active = (Boolean) tokenData.get("active");
+            if (active != null && active) {
+                DownloadTokenInfo tokenInfo = buildTokenInfoFromData(tokenData);
+                if (tokenInfo != null) {
+                    activeTokens.add(tokenInfo);
+                }
+            }
+        }
+        return activeTokens;
+    }
+
     /**
      * 从Redis数据构建DownloadTokenInfo
      */
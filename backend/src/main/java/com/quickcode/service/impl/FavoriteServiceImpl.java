@@ -7,6 +7,8 @@ import com.quickcode.entity.UserFavorite;
 import com.quickcode.repository.ProjectRepository;
 import com.quickcode.repository.UserFavoriteRepository;
 import com.quickcode.service.FavoriteService;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -32,6 +34,7 @@ public class FavoriteServiceImpl implements FavoriteService {
 
     private final UserFavoriteRepository userFavoriteRepository;
     private final ProjectRepository projectRepository;
+    private final ProjectCounterBuffer counterBuffer;
 
     @Override
     @Transactional
@@ -56,8 +59,8 @@ public class FavoriteServiceImpl implements FavoriteService {
         UserFavorite favorite = UserFavorite.create(userId, projectId);
         UserFavorite savedFavorite = userFavoriteRepository.save(favorite);
 
-        // 更新项目收藏数量
-        updateProjectFavoriteCount(projectId);
+        // 收藏数量增量经计数缓冲批量写入，避免热门项目的行锁竞争
+        counterBuffer.add(projectId, CounterType.FAVORITE, 1);
 
         log.info("用户收藏项目成功: userId={}, projectId={}, favoriteId={}", 
                 userId, projectId, savedFavorite.getId());
@@ -77,8 +80,8 @@ public class FavoriteServiceImpl implements FavoriteService {
         // 删除收藏记录
         userFavoriteRepository.delete(favorite);
 
-        // 更新项目收藏数量
-        updateProjectFavoriteCount(projectId);
+        // 收藏数量增量经计数缓冲批量写入，避免热门项目的行锁竞争
+        counterBuffer.add(projectId, CounterType.FAVORITE, -1);
 
         log.info("用户取消收藏项目成功: userId={}, projectId={}", userId, projectId);
     }
@@ -177,18 +180,26 @@ public class FavoriteServiceImpl implements FavoriteService {
         Pageable pageable = PageRequest.of(0, limit);
         List<Object[]> popularProjects = userFavoriteRepository.findPopularFavoriteProjects(pageable);
 
+        if (popularProjects.isEmpty()) {
+            return List.of();
+        }
+
+        // 批量加载项目（含作者和分类），避免逐条查询
+        List<Long> projectIds = popularProjects.stream()
+                .map(result -> (Long) result[0])
+                .collect(Collectors.toList());
+        Map<Long, Project> projectMap = projectRepository.findWithOwnerByIdIn(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, project -> project));
+
         return popularProjects.stream()
                 .map(result -> {
-                    Long projectId = (Long) result[0];
-                    Long favoriteCount = (Long) result[1];
-
-                    return projectRepository.findById(projectId)
-                            .map(project -> {
-                                ProjectDTO dto = ProjectDTO.fromProject(project);
-                                dto.setFavoriteCount(favoriteCount.intValue());
-                                return dto;
-                            })
-                            .orElse(null);
+                    Project project = projectMap.get((Long) result[0]);
+                    if (project == null) {
+                        return null;
+                    }
+                    ProjectDTO dto = ProjectDTO.fromProject(project);
+                    dto.setFavoriteCount(((Long) result[1]).intValue());
+                    return dto;
                 })
                 .filter(dto -> dto != null)
                 .collect(Collectors.toList());
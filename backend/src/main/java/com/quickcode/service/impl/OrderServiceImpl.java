@@ -17,6 +17,7 @@ import com.quickcode.repository.ProjectRepository;
 import com.quickcode.repository.UserRepository;
 import com.quickcode.service.OrderService;
 import com.quickcode.service.PointService;
+import com.quickcode.service.trending.ProjectTrendingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -49,6 +50,7 @@ public class OrderServiceImpl implements OrderService {
     private final UserRepository userRepository;
     private final PointAccountRepository pointAccountRepository;
     private final PointService pointService;
+    private final ProjectTrendingService trendingService;
 
     @Override
     @Transactional
@@ -135,6 +137,7 @@ public class OrderServiceImpl implements OrderService {
             // 更新订单状态
             order.markAsPaid(request.getPaymentMethod());
             orderRepository.save(order);
+            trendingService.recordOrder(order.getProjectId());
 
             log.info("订单支付成功: orderNo={}, amount={}", orderNo, order.getAmount());
 
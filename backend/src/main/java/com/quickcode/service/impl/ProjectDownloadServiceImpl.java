@@ -1,6 +1,7 @@
 package com.quickcode.service.impl;
 
 import com.quickcode.dto.ProjectDownloadHistoryResponse;
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
 import com.quickcode.entity.Project;
 import com.quickcode.entity.ProjectDownload;
 import com.quickcode.entity.ProjectFile;
@@ -12,6 +13,13 @@ import com.quickcode.service.FileStorageService;
 import com.quickcode.service.OrderService;
 import com.quickcode.service.ProjectDownloadService;
 import com.quickcode.service.ProjectFileService;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
+import com.quickcode.service.download.DownloadAnomalyDetector;
+import com.quickcode.service.download.DownloadRecordWriter;
+import com.quickcode.service.download.DownloadRollupService;
+import com.quickcode.service.download.DownloadRollupService.Contribution;
+import com.quickcode.service.ratelimit.DownloadRateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
@@ -45,10 +53,22 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     private final OrderService orderService;
     private final DownloadTokenService downloadTokenService;
     private final ProjectFileService projectFileService;
-
-    // 下载频率限制配置
-    private static final int MAX_DOWNLOADS_PER_HOUR = 10;
-    private static final int MAX_DOWNLOADS_PER_DAY = 50;
+    private final ProjectCounterBuffer counterBuffer;
+    private final DownloadRateLimiter downloadRateLimiter;
+    private final DownloadAnomalyDetector downloadAnomalyDetector;
+    private final DownloadRecordWriter downloadRecordWriter;
+    private final DownloadRollupService downloadRollupService;
+
+    // 异常检测：时间窗口内最大下载次数
+    private static final int MAX_DOWNLOADS_IN_WINDOW = 20;
+
+    // 断点续传配置：只复用该时间窗口内未完成的下载记录
+    private static final long RESUME_WINDOW_HOURS = 24;
+    private static final List<Integer> RESUMABLE_STATUSES = List.of(
+            ProjectDownload.DownloadStatus.DOWNLOADING.getCode(),
+            ProjectDownload.DownloadStatus.PAUSED.getCode(),
+            ProjectDownload.DownloadStatus.FAILED.getCode(),
+            ProjectDownload.DownloadStatus.CANCELLED.getCode());
 
     @Override
     public DownloadResult downloadProject(Long projectId, Long userId, String downloadSource, 
@@ -82,31 +102,25 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
 
             ProjectFile primaryFile = primaryFileOpt.get();
 
-            // 记录下载开始
-            ProjectDownload downloadRecord = recordDownloadStart(projectId, userId, primaryFile.getId(), 
+            // 创建下载记录，传输结束后连同最终状态一次写入
+            ProjectDownload downloadRecord = newDownloadRecord(projectId, userId, primaryFile.getId(),
                                                                downloadSource, userAgent, clientIp);
 
-            long startTime = System.currentTimeMillis();
-
             try {
-                // 加载文件资源
+                // 加载文件资源，传输完成后由调用方通过recordDownloadTransfer记录结果
                 Resource resource = fileStorageService.loadAsResource(primaryFile.getFilePath());
 
-                // 记录下载完成
-                long duration = System.currentTimeMillis() - startTime;
-                recordDownloadComplete(downloadRecord.getId(), primaryFile.getFileSize(), duration);
-
                 // 更新项目下载次数
                 updateProjectDownloadCount(projectId);
 
-                log.info("项目下载成功: projectId={}, userId={}, fileSize={}, duration={}ms", 
-                        projectId, userId, primaryFile.getFileSize(), duration);
+                log.info("项目下载开始: projectId={}, userId={}, fileSize={}", 
+                        projectId, userId, primaryFile.getFileSize());
 
-                return new DownloadResult(true, "下载成功", resource, downloadRecord);
+                return new DownloadResult(true, "下载成功", resource, downloadRecord, primaryFile);
 
             } catch (IOException e) {
                 // 记录下载失败
-                recordDownloadFailed(downloadRecord.getId(), e.getMessage());
+                recordDownloadFailed(downloadRecord, e.getMessage());
                 throw e;
             }
 
@@ -151,28 +165,22 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         }
 
         try {
-            // 记录下载开始
-            ProjectDownload downloadRecord = recordDownloadStart(projectId, userId, fileId, 
+            // 创建下载记录，传输结束后连同最终状态一次写入
+            ProjectDownload downloadRecord = newDownloadRecord(projectId, userId, fileId,
                                                                downloadSource, userAgent, clientIp);
 
-            long startTime = System.currentTimeMillis();
-
             try {
-                // 加载文件资源
+                // 加载文件资源，传输完成后由调用方通过recordDownloadTransfer记录结果
                 Resource resource = fileStorageService.loadAsResource(projectFile.getFilePath());
 
-                // 记录下载完成
-                long duration = System.currentTimeMillis() - startTime;
-                recordDownloadComplete(downloadRecord.getId(), projectFile.getFileSize(), duration);
-
-                log.info("项目文件下载成功: fileId={}, userId={}, fileSize={}, duration={}ms", 
-                        fileId, userId, projectFile.getFileSize(), duration);
+                log.info("项目文件下载开始: fileId={}, userId={}, fileSize={}", 
+                        fileId, userId, projectFile.getFileSize());
 
-                return new DownloadResult(true, "下载成功", resource, downloadRecord);
+                return new DownloadResult(true, "下载成功", resource, downloadRecord, projectFile);
 
             } catch (IOException e) {
                 // 记录下载失败
-                recordDownloadFailed(downloadRecord.getId(), e.getMessage());
+                recordDownloadFailed(downloadRecord, e.getMessage());
                 throw e;
             }
 
@@ -389,6 +397,8 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
                 .build();
 
         downloadRecord = projectDownloadRepository.save(downloadRecord);
+        downloadRollupService.add(List.of(Contribution.of(downloadRecord)));
+        downloadAnomalyDetector.record(userId, clientIp, projectId);
         
         log.info("下载记录创建成功: downloadId={}, projectId={}, userId={}", 
                 downloadRecord.getId(), projectId, userId);
@@ -396,6 +406,28 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         return downloadRecord;
     }
 
+    /**
+     * 创建尚未持久化的下载记录
+     * 是否重复下载在写入时批量判断
+     */
+    private ProjectDownload newDownloadRecord(Long projectId, Long userId, Long fileId,
+                                              String downloadSource, String userAgent, String clientIp) {
+        ProjectDownload downloadRecord = ProjectDownload.builder()
+                .projectId(projectId)
+                .userId(userId)
+                .fileId(fileId)
+                .downloadTime(LocalDateTime.now())
+                .downloadStatus(ProjectDownload.DownloadStatus.DOWNLOADING.getCode())
+                .downloadIp(clientIp)
+                .userAgent(userAgent)
+                .downloadSource(downloadSource)
+                .isRepeat(false)
+                .build();
+        downloadAnomalyDetector.record(userId, clientIp, projectId);
+        downloadRecordWriter.open(downloadRecord);
+        return downloadRecord;
+    }
+
     @Override
     public boolean recordDownloadComplete(Long downloadId, Long fileSize, Long duration) {
         try {
@@ -406,10 +438,11 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
             }
 
             ProjectDownload download = downloadOpt.get();
+            Contribution before = Contribution.of(download);
             download.completeDownload(duration);
             download.setFileSize(fileSize);
             
-            projectDownloadRepository.save(download);
+            saveWithRollup(download, before);
             
             log.info("下载完成记录更新成功: downloadId={}, fileSize={}, duration={}ms", 
                     downloadId, fileSize, duration);
@@ -430,10 +463,11 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
             }
 
             ProjectDownload download = downloadOpt.get();
+            Contribution before = Contribution.of(download);
             download.failDownload();
             download.setRemark(reason);
             
-            projectDownloadRepository.save(download);
+            saveWithRollup(download, before);
             
             log.info("下载失败记录更新成功: downloadId={}, reason={}", downloadId, reason);
             return true;
@@ -443,6 +477,23 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         }
     }
 
+    @Override
+    public boolean recordDownloadFailed(ProjectDownload downloadRecord, String reason) {
+        if (downloadRecord.getId() != null) {
+            return recordDownloadFailed(downloadRecord.getId(), reason);
+        }
+        synchronized (downloadRecord) {
+            if (!downloadRecord.isCompleted()) {
+                downloadRecord.failDownload();
+                downloadRecord.setRemark(reason);
+            }
+            downloadRecordWriter.submit(downloadRecord);
+        }
+        log.info("下载失败记录已提交: projectId={}, userId={}, reason={}",
+                downloadRecord.getProjectId(), downloadRecord.getUserId(), reason);
+        return true;
+    }
+
     @Override
     public boolean recordDownloadCancelled(Long downloadId) {
         try {
@@ -453,9 +504,10 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
             }
 
             ProjectDownload download = downloadOpt.get();
+            Contribution before = Contribution.of(download);
             download.cancelDownload();
             
-            projectDownloadRepository.save(download);
+            saveWithRollup(download, before);
             
             log.info("下载取消记录更新成功: downloadId={}", downloadId);
             return true;
@@ -468,9 +520,9 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     @Override
     public boolean updateProjectDownloadCount(Long projectId) {
         try {
-            // 这里应该调用ProjectRepository的方法来增加下载次数
-            // 暂时简化处理
-            log.info("更新项目下载次数: projectId={}", projectId);
+            // 增量经计数缓冲批量刷入Redis，再定期同步到数据库
+            counterBuffer.increment(projectId, CounterType.DOWNLOAD);
+            log.debug("更新项目下载次数: projectId={}", projectId);
             return true;
         } catch (Exception e) {
             log.error("更新项目下载次数失败: projectId={}", projectId, e);
@@ -479,29 +531,30 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getPopularDownloads(int limit, int days) {
         log.info("获取热门下载项目: limit={}, days={}", limit, days);
 
         try {
-            LocalDateTime startTime = LocalDateTime.now().minusDays(days);
-            Pageable pageable = PageRequest.of(0, limit);
+            List<Object[]> results = downloadRollupService.findTopProjects(days, limit);
 
-            Page<Object[]> results = projectDownloadRepository.findMostDownloadedProjects(pageable);
+            // 一次查询取回全部项目信息，避免逐个查询
+            List<Long> projectIds = results.stream().map(result -> (Long) result[0]).toList();
+            Map<Long, Project> projects = projectRepository.findAllById(projectIds).stream()
+                    .collect(Collectors.toMap(Project::getId, project -> project));
 
             List<Map<String, Object>> popularDownloads = new ArrayList<>();
-            for (Object[] result : results.getContent()) {
+            for (Object[] result : results) {
                 Long projectId = (Long) result[0];
-                Long downloadCount = (Long) result[1];
+                Long downloadCount = ((Number) result[1]).longValue();
 
                 Map<String, Object> item = new HashMap<>();
                 item.put("projectId", projectId);
                 item.put("downloadCount", downloadCount);
                 item.put("period", days + "天");
 
-                // 获取项目基本信息
-                Optional<Project> projectOpt = projectRepository.findById(projectId);
-                if (projectOpt.isPresent()) {
-                    Project project = projectOpt.get();
+                Project project = projects.get(projectId);
+                if (project != null) {
                     item.put("projectName", project.getTitle());
                     item.put("projectDescription", project.getDescription());
                     item.put("authorId", project.getUserId());
@@ -520,19 +573,17 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getTopDownloaders(int limit, int days) {
         log.info("获取下载排行用户: limit={}, days={}", limit, days);
 
         try {
-            LocalDateTime startTime = LocalDateTime.now().minusDays(days);
-            Pageable pageable = PageRequest.of(0, limit);
-
-            Page<Object[]> results = projectDownloadRepository.findTopDownloaders(startTime, pageable);
+            List<Object[]> results = downloadRollupService.findTopUsers(days, limit);
 
             List<Map<String, Object>> topDownloaders = new ArrayList<>();
-            for (Object[] result : results.getContent()) {
+            for (Object[] result : results) {
                 Long userId = (Long) result[0];
-                Long downloadCount = (Long) result[1];
+                Long downloadCount = ((Number) result[1]).longValue();
 
                 Map<String, Object> item = new HashMap<>();
                 item.put("userId", userId);
@@ -552,24 +603,20 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getDownloadTrends(Long projectId, int days) {
-        LocalDateTime startTime = LocalDateTime.now().minusDays(days);
-        LocalDateTime endTime = LocalDateTime.now();
-
-        List<Object[]> trendData;
-        if (projectId != null) {
-            // 获取特定项目的下载趋势
-            trendData = projectDownloadRepository.countDownloadsByDate(startTime, endTime);
-        } else {
-            // 获取全站下载趋势
-            trendData = projectDownloadRepository.countDownloadsByDate(startTime, endTime);
-        }
+        return getDownloadTrends(projectId, days, Granularity.DAY);
+    }
 
-        return trendData.stream()
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getDownloadTrends(Long projectId, int periods, Granularity granularity) {
+        return downloadRollupService.findTrend(projectId, periods, granularity).stream()
                 .map(data -> {
+                    LocalDateTime periodStart = (LocalDateTime) data[0];
                     Map<String, Object> trend = new HashMap<>();
-                    trend.put("date", data[0]);
-                    trend.put("count", data[1]);
+                    trend.put("date", granularity == Granularity.DAY ? periodStart.toLocalDate() : periodStart);
+                    trend.put("count", ((Number) data[1]).longValue());
                     return trend;
                 })
                 .collect(Collectors.toList());
@@ -591,51 +638,14 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
 
     @Override
     public boolean detectAbnormalDownloadBehavior(Long userId, String clientIp, int timeWindowMinutes) {
-        LocalDateTime startTime = LocalDateTime.now().minusMinutes(timeWindowMinutes);
-        LocalDateTime endTime = LocalDateTime.now();
-
-        // 检查时间窗口内的下载次数
-        List<ProjectDownload> recentDownloads = projectDownloadRepository
-                .findByDownloadTimeBetween(startTime, endTime).stream()
-                .filter(d -> (userId != null && userId.equals(d.getUserId())) ||
-                           (clientIp != null && clientIp.equals(d.getDownloadIp())))
-                .collect(Collectors.toList());
-
-        // 简单的异常检测逻辑
-        int maxDownloadsInWindow = 20; // 时间窗口内最大下载次数
-        return recentDownloads.size() > maxDownloadsInWindow;
+        // 基于内存中的实时滑动窗口和异常标记判断，不查询数据库
+        return downloadAnomalyDetector.isAbnormal(userId, clientIp, timeWindowMinutes, MAX_DOWNLOADS_IN_WINDOW);
     }
 
     @Override
     public boolean checkDownloadRateLimit(Long userId, String clientIp) {
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-
-        // 检查1小时内的下载次数
-        List<ProjectDownload> hourlyDownloads = projectDownloadRepository
-                .findByDownloadTimeBetween(oneHourAgo, LocalDateTime.now()).stream()
-                .filter(d -> (userId != null && userId.equals(d.getUserId())) ||
-                           (clientIp != null && clientIp.equals(d.getDownloadIp())))
-                .collect(Collectors.toList());
-
-        if (hourlyDownloads.size() >= MAX_DOWNLOADS_PER_HOUR) {
-            log.warn("用户下载频率超限(小时): userId={}, ip={}, count={}", userId, clientIp, hourlyDownloads.size());
-            return false;
-        }
-
-        // 检查24小时内的下载次数
-        List<ProjectDownload> dailyDownloads = projectDownloadRepository
-                .findByDownloadTimeBetween(oneDayAgo, LocalDateTime.now()).stream()
-                .filter(d -> (userId != null && userId.equals(d.getUserId())) ||
-                           (clientIp != null && clientIp.equals(d.getDownloadIp())))
-                .collect(Collectors.toList());
-
-        if (dailyDownloads.size() >= MAX_DOWNLOADS_PER_DAY) {
-            log.warn("用户下载频率超限(日): userId={}, ip={}, count={}", userId, clientIp, dailyDownloads.size());
-            return false;
-        }
-
-        return true;
+        // 按用户和IP的滑动窗口限流，放行时即占用一次配额
+        return downloadRateLimiter.tryAcquire(userId, clientIp);
     }
 
     @Override
@@ -692,48 +702,288 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public int getDownloadProgress(Long downloadId) {
-        // 获取下载进度
-        // 实际项目中应该从缓存或数据库中获取实时进度
-        return 0;
+        return projectDownloadRepository.findById(downloadId)
+                .map(download -> {
+                    if (download.isCompleted()) {
+                        return 100;
+                    }
+                    long fileSize = download.getFileSize() != null ? download.getFileSize() : 0L;
+                    long offset = download.getResumeOffset() != null ? download.getResumeOffset() : 0L;
+                    return fileSize > 0 ? (int) Math.min(100, offset * 100 / fileSize) : 0;
+                })
+                .orElse(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean updateDownloadProgress(Long downloadId, int progress) {
-        // 更新下载进度
-        // 实际项目中应该更新到缓存或数据库中
-        log.debug("更新下载进度: downloadId={}, progress={}%", downloadId, progress);
+        // 进度由输出线程按实际写出的字节数更新，忽略外部上报的值
+        log.debug("忽略上报的下载进度: downloadId={}, progress={}%", downloadId, progress);
+        return projectDownloadRepository.existsById(downloadId);
+    }
+
+    @Override
+    public boolean recordDownloadTransfer(Long downloadId, long rangeStart, long transferredEnd,
+                                          long fileSize, long duration) {
+        try {
+            Optional<ProjectDownload> downloadOpt = projectDownloadRepository.findById(downloadId);
+            if (downloadOpt.isEmpty()) {
+                log.warn("下载记录不存在: downloadId={}", downloadId);
+                return false;
+            }
+
+            ProjectDownload download = downloadOpt.get();
+            if (download.isCompleted()) {
+                // 已完成的下载再次请求区间（如校验分片）不改变记录
+                return true;
+            }
+            Contribution before = Contribution.of(download);
+            applyTransfer(download, rangeStart, transferredEnd, fileSize, duration);
+            saveWithRollup(download, before);
+
+            log.debug("下载传输记录更新: downloadId={}, resumeOffset={}, fileSize={}",
+                    downloadId, download.getResumeOffset(), fileSize);
+            return true;
+        } catch (Exception e) {
+            log.error("记录下载传输失败: downloadId={}", downloadId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean recordDownloadTransfer(ProjectDownload downloadRecord, long rangeStart, long transferredEnd,
+                                          long fileSize, long duration) {
+        if (downloadRecord.getId() != null) {
+            return recordDownloadTransfer(downloadRecord.getId(), rangeStart, transferredEnd, fileSize, duration);
+        }
+        // 尚未写入的记录可能被并行的分段请求共用，由最后结束的传输提交
+        synchronized (downloadRecord) {
+            if (!downloadRecord.isCompleted()) {
+                applyTransfer(downloadRecord, rangeStart, transferredEnd, fileSize, duration);
+            }
+            downloadRecordWriter.submit(downloadRecord);
+        }
         return true;
     }
 
+    @Override
+    public void discardDownloadTransfer(ProjectDownload downloadRecord) {
+        if (downloadRecord.getId() == null) {
+            downloadRecordWriter.abandon(downloadRecord);
+        }
+    }
+
+    @Override
+    public boolean recordDownloadAborted(ProjectDownload downloadRecord, long rangeStart, long transferredEnd,
+                                         long fileSize, long bytesWritten, long duration) {
+        String remark = "客户端中断，已发送" + bytesWritten + "字节";
+        if (downloadRecord.getId() == null) {
+            synchronized (downloadRecord) {
+                if (!downloadRecord.isCompleted()) {
+                    applyAbort(downloadRecord, rangeStart, transferredEnd, fileSize, duration, remark);
+                }
+                downloadRecordWriter.submit(downloadRecord);
+            }
+            return true;
+        }
+
+        try {
+            Optional<ProjectDownload> downloadOpt = projectDownloadRepository.findById(downloadRecord.getId());
+            if (downloadOpt.isEmpty()) {
+                log.warn("下载记录不存在: downloadId={}", downloadRecord.getId());
+                return false;
+            }
+
+            ProjectDownload download = downloadOpt.get();
+            if (download.isCompleted()) {
+                return true;
+            }
+            Contribution before = Contribution.of(download);
+            applyAbort(download, rangeStart, transferredEnd, fileSize, duration, remark);
+            saveWithRollup(download, before);
+
+            log.debug("下载中断记录更新: downloadId={}, resumeOffset={}, bytesWritten={}",
+                    download.getId(), download.getResumeOffset(), bytesWritten);
+            return true;
+        } catch (Exception e) {
+            log.error("记录下载中断失败: downloadId={}", downloadRecord.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 推进断点位置并标记为取消
+     */
+    private void applyAbort(ProjectDownload download, long rangeStart, long transferredEnd, long fileSize,
+                            long duration, String remark) {
+        if (transferredEnd >= 0) {
+            download.advanceResumeOffset(rangeStart, transferredEnd);
+        }
+        download.setFileSize(fileSize);
+        download.setDownloadDuration(duration);
+        download.setRemark(remark);
+        download.cancelDownload();
+    }
+
+    /**
+     * 推进断点位置，传输到文件末尾时标记完成，否则标记为暂停
+     */
+    private void applyTransfer(ProjectDownload download, long rangeStart, long transferredEnd,
+                               long fileSize, long duration) {
+        if (transferredEnd >= 0) {
+            download.advanceResumeOffset(rangeStart, transferredEnd);
+        }
+        download.setFileSize(fileSize);
+
+        if (download.getResumeOffset() >= fileSize) {
+            download.completeDownload(duration);
+        } else {
+            download.pauseDownload();
+        }
+    }
+
+    /**
+     * 保存已有下载记录的修改，并在同一事务中用新旧值的差额更新下载汇总
+     */
+    private void saveWithRollup(ProjectDownload download, Contribution before) {
+        projectDownloadRepository.save(download);
+        downloadRollupService.replace(before, Contribution.of(download));
+    }
+
     @Override
     public boolean pauseDownload(Long downloadId) {
-        // 暂停下载
-        log.info("暂停下载: downloadId={}", downloadId);
+        Optional<ProjectDownload> downloadOpt = projectDownloadRepository.findById(downloadId);
+        if (downloadOpt.isEmpty() || !downloadOpt.get().isResumable()) {
+            return false;
+        }
+
+        ProjectDownload download = downloadOpt.get();
+        Contribution before = Contribution.of(download);
+        download.pauseDownload();
+        saveWithRollup(download, before);
+
+        log.info("暂停下载: downloadId={}, resumeOffset={}", downloadId, download.getResumeOffset());
         return true;
     }
 
     @Override
     public boolean resumeDownload(Long downloadId) {
-        // 恢复下载
-        log.info("恢复下载: downloadId={}", downloadId);
+        Optional<ProjectDownload> downloadOpt = projectDownloadRepository.findById(downloadId);
+        if (downloadOpt.isEmpty() || !downloadOpt.get().isResumable()) {
+            return false;
+        }
+
+        ProjectDownload download = downloadOpt.get();
+        Contribution before = Contribution.of(download);
+        download.resumeDownload();
+        saveWithRollup(download, before);
+
+        log.info("恢复下载: downloadId={}, resumeOffset={}", downloadId, download.getResumeOffset());
         return true;
     }
 
     @Override
     public long getResumePosition(Long downloadId) {
-        // 获取断点续传位置
-        return 0;
+        return projectDownloadRepository.findById(downloadId)
+                .filter(ProjectDownload::isResumable)
+                .map(ProjectDownload::getResumeOffset)
+                .orElse(0L);
     }
 
     @Override
-    public DownloadResult downloadWithRange(Long projectId, Long userId, long rangeStart, long rangeEnd) throws IOException {
-        // 支持断点续传的下载
-        log.info("断点续传下载: projectId={}, userId={}, range={}-{}", projectId, userId, rangeStart, rangeEnd);
+    public DownloadResult downloadWithRange(Long projectId, Long fileId, Long userId, String downloadSource,
+                                            String userAgent, String clientIp, long rangeStart) throws IOException {
+        Optional<ProjectDownload> resumable = rangeStart > 0
+                ? findResumableDownload(projectId, fileId, userId)
+                : Optional.empty();
+        if (resumable.isEmpty()) {
+            return fileId == null
+                    ? downloadProject(projectId, userId, downloadSource, userAgent, clientIp)
+                    : downloadProjectFile(projectId, fileId, userId, downloadSource, userAgent, clientIp);
+        }
+
+        ProjectDownload downloadRecord = resumable.get();
+        log.info("断点续传下载: projectId={}, userId={}, downloadId={}, rangeStart={}",
+                projectId, userId, downloadRecord.getId(), rangeStart);
+
+        if (downloadRecord.getId() != null) {
+            return resume(downloadRecord, projectId, fileId, userId);
+        }
+
+        // 从写入队列取回的记录不再续传时原样交还
+        DownloadResult result;
+        try {
+            result = resume(downloadRecord, projectId, fileId, userId);
+        } catch (IOException | RuntimeException e) {
+            downloadRecordWriter.abandon(downloadRecord);
+            throw e;
+        }
+        if (!result.isSuccess()) {
+            downloadRecordWriter.abandon(downloadRecord);
+        }
+        return result;
+    }
+
+    /**
+     * 继续已有的下载记录
+     * 续传时重新校验权限（购买可能已退款），但不再计入下载次数和频率限制
+     */
+    private DownloadResult resume(ProjectDownload downloadRecord, Long projectId, Long fileId,
+                                  Long userId) throws IOException {
+        if (!hasDownloadPermission(projectId, userId)) {
+            return new DownloadResult(false, "没有下载权限", null, null);
+        }
+        Optional<ProjectFile> fileOpt = projectFileRepository.findById(downloadRecord.getFileId());
+        if (fileOpt.isEmpty()) {
+            return new DownloadResult(false, "文件不存在", null, null);
+        }
+        if (fileId != null && !projectFileService.hasFileAccess(fileId, userId)) {
+            return new DownloadResult(false, "没有文件访问权限", null, null);
+        }
 
-        // 这里应该实现Range请求的处理逻辑
-        // 暂时调用普通下载方法
-        return downloadProject(projectId, userId, "WEB", null, null);
+        ProjectFile projectFile = fileOpt.get();
+        Resource resource = fileStorageService.loadAsResource(projectFile.getFilePath());
+        if (downloadRecord.getId() == null) {
+            // 尚未写入的记录只在内存中恢复状态，随传输结束一起提交
+            synchronized (downloadRecord) {
+                downloadRecord.resumeDownload();
+            }
+        } else {
+            Contribution before = Contribution.of(downloadRecord);
+            downloadRecord.resumeDownload();
+            saveWithRollup(downloadRecord, before);
+        }
+
+        return new DownloadResult(true, "继续下载", resource, downloadRecord, projectFile);
+    }
+
+    /**
+     * 查找用户对该文件最近一次未完成的下载记录
+     * 先找本节点尚未写入数据库的记录（传输中或排队中），再查数据库
+     */
+    private Optional<ProjectDownload> findResumableDownload(Long projectId, Long fileId, Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Long targetFileId = fileId;
+        if (targetFileId == null) {
+            Optional<ProjectFile> primaryFile = projectFileRepository
+                    .findByProjectIdAndFileTypeAndIsPrimaryTrue(projectId, "SOURCE");
+            if (primaryFile.isEmpty()) {
+                return Optional.empty();
+            }
+            targetFileId = primaryFile.get().getId();
+        }
+        Optional<ProjectDownload> unflushed = downloadRecordWriter.reopen(userId, projectId, targetFileId);
+        if (unflushed.isPresent()) {
+            return unflushed;
+        }
+        return projectDownloadRepository
+                .findFirstByUserIdAndFileIdAndDownloadStatusInAndDownloadTimeAfterOrderByDownloadTimeDesc(
+                        userId, targetFileId, RESUMABLE_STATUSES, LocalDateTime.now().minusHours(RESUME_WINDOW_HOURS))
+                .filter(download -> projectId.equals(download.getProjectId()));
     }
 
     // 基础CRUD方法实现
@@ -807,18 +1057,12 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         log.debug("获取用户下载统计: userId={}", userId);
 
         try {
-            Object[] stats = projectDownloadRepository.getUserDownloadStatistics(userId);
+            DownloadRollupService.UserTotals totals = downloadRollupService.getUserTotals(userId);
 
             Map<String, Object> result = new HashMap<>();
-            if (stats != null) {
-                result.put("uniqueProjects", stats[0] != null ? stats[0] : 0L);
-                result.put("totalDownloads", stats[1] != null ? stats[1] : 0L);
-                result.put("totalSize", stats[2] != null ? stats[2] : 0L);
-            } else {
-                result.put("uniqueProjects", 0L);
-                result.put("totalDownloads", 0L);
-                result.put("totalSize", 0L);
-            }
+            result.put("uniqueProjects", totals.uniqueProjects());
+            result.put("totalDownloads", totals.downloads());
+            result.put("totalSize", totals.totalSize());
 
             // 获取最近下载记录
             Pageable recentPageable = PageRequest.of(0, 5);
@@ -840,24 +1084,16 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         log.debug("获取项目下载统计: projectId={}", projectId);
 
         try {
-            Object[] stats = projectDownloadRepository.getProjectDownloadStatistics(projectId);
+            DownloadRollupService.ProjectTotals totals = downloadRollupService.getProjectTotals(projectId);
 
             Map<String, Object> result = new HashMap<>();
-            if (stats != null) {
-                result.put("uniqueDownloaders", stats[0] != null ? stats[0] : 0L);
-                result.put("totalDownloads", stats[1] != null ? stats[1] : 0L);
-                result.put("totalSize", stats[2] != null ? stats[2] : 0L);
-                result.put("avgDuration", stats[3] != null ? stats[3] : 0.0);
-            } else {
-                result.put("uniqueDownloaders", 0L);
-                result.put("totalDownloads", 0L);
-                result.put("totalSize", 0L);
-                result.put("avgDuration", 0.0);
-            }
+            result.put("uniqueDownloaders", totals.uniqueDownloaders());
+            result.put("totalDownloads", totals.downloads());
+            result.put("totalSize", totals.totalSize());
+            result.put("avgDuration", totals.getAverageDuration());
 
-            // 获取下载趋势
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            List<Object[]> trends = projectDownloadRepository.findProjectDownloadTrends(projectId, thirtyDaysAgo);
+            // 获取最近30天的下载趋势
+            List<Map<String, Object>> trends = getDownloadTrends(projectId, 30, Granularity.DAY);
             result.put("downloadTrends", trends);
 
             return result;
@@ -875,8 +1111,7 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         log.debug("获取下载来源统计: days={}", days);
 
         try {
-            LocalDateTime startTime = LocalDateTime.now().minusDays(days);
-            List<Object[]> sourceStats = projectDownloadRepository.findDownloadsBySourceInPeriod(startTime);
+            List<Object[]> sourceStats = downloadRollupService.sumBySource(days);
 
             Map<String, Object> result = new HashMap<>();
             List<Map<String, Object>> sources = new ArrayList<>();
@@ -884,7 +1119,7 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
 
             for (Object[] stat : sourceStats) {
                 String source = (String) stat[0];
-                Long count = (Long) stat[1];
+                Long count = ((Number) stat[1]).longValue();
 
                 Map<String, Object> sourceData = new HashMap<>();
                 sourceData.put("source", source != null ? source : "unknown");
@@ -1,30 +1,57 @@
 package com.quickcode.service.impl;
 
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.common.exception.ResourceNotFoundException;
+import com.quickcode.common.response.CursorPageResponse;
+import com.quickcode.common.response.SliceResponse;
 import com.quickcode.dto.project.ProjectCreateRequest;
+import com.quickcode.dto.project.ProjectCursor;
 import com.quickcode.dto.project.ProjectDTO;
 import com.quickcode.dto.project.ProjectDetailDTO;
+import com.quickcode.dto.project.ProjectFacetsDTO;
 import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.dto.project.ProjectSuggestionDTO;
 import com.quickcode.dto.project.ProjectUpdateRequest;
+import com.quickcode.dto.project.UniqueVisitorStats;
 import com.quickcode.dto.project.UserProjectStats;
 import com.quickcode.dto.common.PageResponse;
 import com.quickcode.entity.*;
 import com.quickcode.repository.ProjectRepository;
+import com.quickcode.repository.ProjectSpecifications;
 import com.quickcode.repository.UserRepository;
 import com.quickcode.repository.CategoryRepository;
 import com.quickcode.repository.ProjectReviewRepository;
 import com.quickcode.service.ProjectService;
-import com.quickcode.service.RedisService;
 import com.quickcode.service.FavoriteService;
 import com.quickcode.service.OrderService;
+import com.quickcode.service.cache.CoalescingCache;
+import com.quickcode.service.cache.CoalescingCacheFactory;
+import com.quickcode.service.cache.ProjectDetailCache;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
+import com.quickcode.service.counter.ProjectVisitorCounter;
+import com.quickcode.service.feed.HomepageFeedService;
+import com.quickcode.service.like.ProjectLikeService;
+import com.quickcode.service.feed.HomepageFeedService.FeedType;
+import com.quickcode.service.recommend.RelatedProjectRecommender;
+import com.quickcode.service.search.ProjectSearchIndex;
+import com.quickcode.service.search.ProjectSuggestIndex;
+import com.quickcode.service.trending.ProjectTrendingService;
 import com.quickcode.dto.order.OrderDTO;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,9 +76,52 @@ public class ProjectServiceImpl implements ProjectService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final ProjectReviewRepository projectReviewRepository;
-    private final RedisService redisService;
     private final FavoriteService favoriteService;
     private final OrderService orderService;
+    private final ProjectSearchIndex projectSearchIndex;
+    private final ProjectSuggestIndex projectSuggestIndex;
+    private final RelatedProjectRecommender relatedProjectRecommender;
+    private final ProjectDetailCache projectDetailCache;
+    private final HomepageFeedService homepageFeedService;
+    private final CoalescingCacheFactory coalescingCacheFactory;
+    private final ProjectCounterBuffer counterBuffer;
+    private final ProjectVisitorCounter projectVisitorCounter;
+    private final ProjectTrendingService projectTrendingService;
+    private final ProjectLikeService projectLikeService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.search.approximate-count.ttl:60000}")
+    private long searchCountTtlMillis;
+
+    @Value("${app.search.approximate-count.stale-ttl:600000}")
+    private long searchCountStaleTtlMillis;
+
+    /**
+     * 切片搜索的近似总数缓存，key为筛选条件
+     */
+    private CoalescingCache<String, Long> searchCountCache;
+
+    @Value("${app.trending.cache-ttl:5000}")
+    private long trendingCacheTtlMillis;
+
+    /**
+     * 每个分类缓存的热门项目数量，也是单次请求的数量上限
+     */
+    @Value("${app.trending.cache-size:50}")
+    private int trendingCacheSize;
+
+    /**
+     * 热门项目卡片的短期缓存，key为分类ID（全站为all），值为前trendingCacheSize个项目，按请求数量截取
+     */
+    private CoalescingCache<String, List<ProjectDTO>> trendingCache;
+
+    @PostConstruct
+    public void initSearchCountCache() {
+        searchCountCache = coalescingCacheFactory.create("project-search-count", 1000,
+                searchCountTtlMillis, searchCountStaleTtlMillis);
+        trendingCache = coalescingCacheFactory.create("project-trending", 500,
+                trendingCacheTtlMillis, trendingCacheTtlMillis * 6);
+    }
 
     @Override
     public ProjectDTO createProject(ProjectCreateRequest request, Long userId) {
@@ -93,6 +163,8 @@ public class ProjectServiceImpl implements ProjectService {
         // 保存项目
         project = projectRepository.save(project);
 
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.CREATED));
+
         log.info("项目创建成功: id={}, title={}, userId={}", project.getId(), project.getTitle(), userId);
         return ProjectDTO.fromProject(project);
     }
@@ -146,6 +218,8 @@ public class ProjectServiceImpl implements ProjectService {
         // 保存更新
         project = projectRepository.save(project);
 
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.UPDATED));
+
         log.info("项目更新成功: id={}, title={}, userId={}", project.getId(), project.getTitle(), userId);
         return ProjectDTO.fromProject(project);
     }
@@ -155,12 +229,13 @@ public class ProjectServiceImpl implements ProjectService {
     public ProjectDetailDTO getProjectDetail(Long projectId) {
         log.debug("获取项目详情: projectId={}", projectId);
 
-        Project project = getById(projectId);
-        
+        ProjectDetailDTO detailDTO = projectDetailCache.get(projectId, this::loadProjectDetail);
+        if (detailDTO == null) {
+            throw new RuntimeException("项目不存在: " + projectId);
+        }
+
         // 增加浏览次数（异步处理，避免影响查询性能）
         incrementViewCountAsync(projectId);
-
-        ProjectDetailDTO detailDTO = ProjectDetailDTO.fromProject(project);
         
         // TODO: 加载评价信息
         // TODO: 加载相关项目推荐
@@ -190,6 +265,14 @@ public class ProjectServiceImpl implements ProjectService {
         request.normalize();
         request.validate();
 
+        // 有关键词或技术栈/标签筛选时优先使用内存索引，只从数据库加载当前页
+        if (request.getKeyword() != null || request.hasTagFilter()) {
+            Optional<ProjectSearchIndex.SearchHits> hits = projectSearchIndex.search(request);
+            if (hits.isPresent()) {
+                return toSearchPageResponse(hits.get(), request);
+            }
+        }
+
         // 构建分页参数
         Pageable pageable = request.toPageable();
 
@@ -223,6 +306,197 @@ public class ProjectServiceImpl implements ProjectService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<ProjectDTO> searchProjectsSlice(ProjectSearchRequest request) {
+        log.debug("切片搜索项目: keyword={}, categoryId={}, sortBy={}", request.getKeyword(), request.getCategoryId(), request.getSortBy());
+
+        request.setDefaults();
+        request.normalize();
+        request.validate();
+
+        int page = request.getPage();
+        int size = request.getSize();
+
+        // 内存索引本身就有精确总数，无需COUNT
+        if (request.getKeyword() != null || request.hasTagFilter()) {
+            Optional<ProjectSearchIndex.SearchHits> hits = projectSearchIndex.search(request);
+            if (hits.isPresent()) {
+                List<ProjectDTO> projectDTOs = findAllByIdInOrder(hits.get().getProjectIds()).stream()
+                        .map(ProjectDTO::fromProject)
+                        .toList();
+                boolean hasNext = (long) (page + 1) * size < hits.get().getTotal();
+                return buildSliceResponse(projectDTOs, page, size, hasNext, hits.get().getTotal(), true);
+            }
+        }
+
+        // Slice查询多取一条判断是否有下一页，不再附带COUNT
+        Slice<Project> projectSlice = projectRepository.searchProjectsSlice(
+                request.getKeyword(),
+                request.getCategoryId(),
+                request.getMinPrice(),
+                request.getMaxPrice(),
+                request.getMinRating(),
+                request.toPageable()
+        );
+        List<ProjectDTO> projectDTOs = projectSlice.getContent().stream()
+                .map(ProjectDTO::fromProject)
+                .toList();
+
+        long seen = (long) page * size + projectDTOs.size();
+        // 已到最后一页时可直接得到精确总数（越界的空页除外）
+        if (!projectSlice.hasNext() && (!projectDTOs.isEmpty() || page == 0)) {
+            return buildSliceResponse(projectDTOs, page, size, false, seen, true);
+        }
+        long approximate = approximateSearchCount(request);
+        long total = projectSlice.hasNext() ? Math.max(approximate, seen + 1) : approximate;
+        return buildSliceResponse(projectDTOs, page, size, projectSlice.hasNext(), total, false);
+    }
+
+    /**
+     * 查询搜索条件的近似总数（缓存过期后先返回旧值并在后台重新统计）
+     */
+    private long approximateSearchCount(ProjectSearchRequest request) {
+        String key = request.getKeyword() + "|" + request.getCategoryId() + "|" + request.getMinPrice()
+                + "|" + request.getMaxPrice() + "|" + request.getMinRating();
+        Long count = searchCountCache.get(key, ignored -> projectRepository.countSearchProjects(
+                request.getKeyword(),
+                request.getCategoryId(),
+                request.getMinPrice(),
+                request.getMaxPrice(),
+                request.getMinRating()));
+        return count != null ? count : 0;
+    }
+
+    private SliceResponse<ProjectDTO> buildSliceResponse(List<ProjectDTO> content, int page, int size,
+                                                         boolean hasNext, long total, boolean totalExact) {
+        return SliceResponse.<ProjectDTO>builder()
+                .content(content)
+                .page(page + 1) // 前端页码从1开始
+                .size(size)
+                .hasNext(hasNext)
+                .first(page == 0)
+                .last(!hasNext)
+                .total(total)
+                .totalExact(totalExact)
+                .build();
+    }
+
+    /**
+     * 将索引命中结果按ID顺序从数据库加载并组装分页响应
+     */
+    private PageResponse<ProjectDTO> toSearchPageResponse(ProjectSearchIndex.SearchHits hits,
+                                                          ProjectSearchRequest request) {
+        List<ProjectDTO> projectDTOs = findAllByIdInOrder(hits.getProjectIds()).stream()
+                .map(ProjectDTO::fromProject)
+                .toList();
+
+        int page = request.getPage();
+        int size = request.getSize();
+        int totalPages = (int) ((hits.getTotal() + size - 1) / size);
+
+        return PageResponse.<ProjectDTO>builder()
+                .content(projectDTOs)
+                .page(page)
+                .size(size)
+                .totalPages(totalPages)
+                .totalElements(hits.getTotal())
+                .first(page == 0)
+                .last(page >= totalPages - 1)
+                .hasPrevious(page > 0)
+                .hasNext(page < totalPages - 1)
+                .numberOfElements(projectDTOs.size())
+                .empty(projectDTOs.isEmpty())
+                .build();
+    }
+
+    /**
+     * 按给定ID顺序批量加载项目（连同作者和分类一次查询），已不存在的项目会被跳过
+     */
+    private List<Project> findAllByIdInOrder(List<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Project> projectMap = projectRepository.findWithOwnerByIdIn(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, project -> project));
+
+        return projectIds.stream()
+                .map(projectMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProjectDTO> getPublishedProjectsByCursor(Long categoryId, String keyword, String sortBy,
+                                                                       String sortDirection, String cursor, int size) {
+        log.debug("游标分页获取项目列表: categoryId={}, keyword={}, sortBy={}, cursor={}", categoryId, keyword, sortBy, cursor);
+
+        ProjectCursor.SortKey sortKey = ProjectCursor.SortKey.fromParam(sortBy);
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        String normalizedKeyword = keyword != null && !keyword.trim().isEmpty() ? keyword.trim() : null;
+
+        ProjectCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = ProjectCursor.decode(cursor);
+            if (after.getSortKey() != sortKey || after.isAscending() != ascending) {
+                throw new IllegalArgumentException("分页游标与排序方式不匹配");
+            }
+        }
+
+        // 有关键词时优先在倒排索引中定位游标之后的记录
+        if (normalizedKeyword != null) {
+            ProjectSearchRequest indexRequest = ProjectSearchRequest.builder()
+                    .keyword(normalizedKeyword)
+                    .categoryId(categoryId)
+                    .sortBy(sortKey.getProperty())
+                    .sortDirection(ascending ? "asc" : "desc")
+                    .build();
+            Optional<List<ProjectCursor>> hits = projectSearchIndex.searchAfter(indexRequest, after, pageSize + 1);
+            if (hits.isPresent()) {
+                List<ProjectCursor> pageHits = hits.get();
+                boolean hasNext = pageHits.size() > pageSize;
+                if (hasNext) {
+                    pageHits = pageHits.subList(0, pageSize);
+                }
+                List<Project> projects = findAllByIdInOrder(pageHits.stream().map(ProjectCursor::getId).toList());
+                return toCursorPageResponse(projects, pageSize, hasNext ? pageHits.get(pageSize - 1) : null);
+            }
+        }
+
+        Specification<Project> spec = ProjectSpecifications.published()
+                .and(ProjectSpecifications.inCategory(categoryId))
+                .and(ProjectSpecifications.keywordLike(normalizedKeyword))
+                .and(after != null ? ProjectSpecifications.after(after) : null);
+
+        List<Project> projects = projectRepository.findBy(spec, query -> query
+                .sortBy(ProjectSpecifications.cursorSort(sortKey, ascending))
+                .project("user", "category")
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasNext = projects.size() > pageSize;
+        if (hasNext) {
+            projects = projects.subList(0, pageSize);
+        }
+        ProjectCursor nextCursor = hasNext ? ProjectCursor.of(sortKey, ascending, projects.get(pageSize - 1)) : null;
+        return toCursorPageResponse(projects, pageSize, nextCursor);
+    }
+
+    /**
+     * 组装游标分页响应
+     */
+    private CursorPageResponse<ProjectDTO> toCursorPageResponse(List<Project> projects, int pageSize,
+                                                                ProjectCursor nextCursor) {
+        return CursorPageResponse.<ProjectDTO>builder()
+                .content(projects.stream().map(ProjectDTO::fromProject).toList())
+                .size(pageSize)
+                .nextCursor(nextCursor != null ? nextCursor.encode() : null)
+                .hasNext(nextCursor != null)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<ProjectDTO> getPublishedProjects(Pageable pageable) {
@@ -237,6 +511,11 @@ public class ProjectServiceImpl implements ProjectService {
     public List<ProjectDTO> getFeaturedProjects(int limit) {
         log.debug("获取精选项目列表: limit={}", limit);
 
+        Optional<List<ProjectDTO>> feed = homepageFeedService.getFeed(FeedType.FEATURED, limit);
+        if (feed.isPresent()) {
+            return feed.get();
+        }
+
         Pageable pageable = org.springframework.data.domain.PageRequest.of(0, limit);
         Page<Project> projectPage = projectRepository.findFeaturedProjects(pageable);
 
@@ -248,12 +527,71 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @Transactional(readOnly = true)
     public List<ProjectDTO> getPopularProjects(int limit) {
-        log.debug("获取热门项目列表: limit={}", limit);
+        return getPopularProjects(null, limit);
+    }
 
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(0, limit);
-        List<Project> projects = projectRepository.findPopularProjects(pageable);
-        
-        return projects.stream()
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProjectDTO> getPopularProjects(Long categoryId, int limit) {
+        log.debug("获取热门项目列表: categoryId={}, limit={}", categoryId, limit);
+
+        int size = Math.min(Math.max(limit, 1), trendingCacheSize);
+        List<ProjectDTO> top = trendingCache.get(categoryId != null ? categoryId.toString() : "all",
+                key -> loadPopularProjects(categoryId, trendingCacheSize));
+        return top.size() > size ? top.subList(0, size) : top;
+    }
+
+    /**
+     * 按热度榜加载热门项目，榜单不足limit个时（冷启动、冷门分类）用累计下载量排序补齐
+     */
+    private List<ProjectDTO> loadPopularProjects(Long categoryId, int limit) {
+        List<ProjectDTO> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        projectTrendingService.getTopProjectIds(categoryId, limit).ifPresent(projectIds ->
+                findAllByIdInOrder(projectIds).stream()
+                        .filter(project -> project.isPublished() && project.isAvailable())
+                        .forEach(project -> {
+                            seen.add(project.getId());
+                            result.add(ProjectDTO.fromProject(project));
+                        }));
+        if (result.size() >= limit) {
+            return List.copyOf(result);
+        }
+
+        for (ProjectDTO project : loadLifetimePopularProjects(categoryId, limit)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (seen.add(project.getId())) {
+                result.add(project);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * 按累计下载量排序的热门项目
+     */
+    private List<ProjectDTO> loadLifetimePopularProjects(Long categoryId, int limit) {
+        if (categoryId == null) {
+            Optional<List<ProjectDTO>> feed = homepageFeedService.getFeed(FeedType.POPULAR, limit);
+            if (feed.isPresent()) {
+                return feed.get();
+            }
+            Pageable pageable = org.springframework.data.domain.PageRequest.of(0, limit);
+            return projectRepository.findPopularProjects(pageable).stream()
+                    .map(ProjectDTO::fromProject)
+                    .toList();
+        }
+
+        Specification<Project> spec = ProjectSpecifications.published()
+                .and(ProjectSpecifications.inCategory(categoryId));
+        return projectRepository.findBy(spec, query -> query
+                        .sortBy(Sort.by(Sort.Direction.DESC, "downloadCount"))
+                        .project("user", "category")
+                        .limit(limit)
+                        .all())
+                .stream()
                 .map(ProjectDTO::fromProject)
                 .toList();
     }
@@ -263,6 +601,11 @@ public class ProjectServiceImpl implements ProjectService {
     public List<ProjectDTO> getLatestProjects(int limit) {
         log.debug("获取最新项目列表: limit={}", limit);
 
+        Optional<List<ProjectDTO>> feed = homepageFeedService.getFeed(FeedType.LATEST, limit);
+        if (feed.isPresent()) {
+            return feed.get();
+        }
+
         Pageable pageable = org.springframework.data.domain.PageRequest.of(0, limit);
         List<Project> projects = projectRepository.findLatestProjects(pageable);
         
@@ -276,6 +619,11 @@ public class ProjectServiceImpl implements ProjectService {
     public List<ProjectDTO> getHighRatedProjects(BigDecimal minRating, int limit) {
         log.debug("获取高评分项目列表: minRating={}, limit={}", minRating, limit);
 
+        Optional<List<ProjectDTO>> feed = homepageFeedService.getHighRated(minRating, limit);
+        if (feed.isPresent()) {
+            return feed.get();
+        }
+
         Pageable pageable = org.springframework.data.domain.PageRequest.of(0, limit);
         List<Project> projects = projectRepository.findHighRatedProjects(minRating, pageable);
         
@@ -286,11 +634,11 @@ public class ProjectServiceImpl implements ProjectService {
 
     /**
      * 异步增加浏览次数
-     * 使用Redis计数器实现，避免在只读事务中进行数据库写操作
+     * 先累加到本节点计数缓冲，再批量刷入Redis和数据库，避免在只读事务中进行数据库写操作
      */
     private void incrementViewCountAsync(Long projectId) {
         try {
-            redisService.incrementProjectViewCount(projectId);
+            counterBuffer.increment(projectId, CounterType.VIEW);
             log.debug("异步增加浏览次数成功: projectId={}", projectId);
         } catch (Exception e) {
             log.warn("异步增加浏览次数失败: projectId={}", projectId, e);
@@ -335,16 +683,19 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     public void deleteById(Long id) {
         projectRepository.deleteById(id);
+        eventPublisher.publishEvent(ProjectChangedEvent.deleted(id));
     }
 
     @Override
     public void delete(Project entity) {
         projectRepository.delete(entity);
+        eventPublisher.publishEvent(ProjectChangedEvent.deleted(entity.getId()));
     }
 
     @Override
     public void deleteAll(List<Project> entities) {
         projectRepository.deleteAll(entities);
+        entities.forEach(entity -> eventPublisher.publishEvent(ProjectChangedEvent.deleted(entity.getId())));
     }
 
     @Override
@@ -397,6 +748,12 @@ public class ProjectServiceImpl implements ProjectService {
     public List<ProjectDTO> getProjectsByTechStack(String techStack, int limit) {
         log.debug("根据技术栈搜索项目: techStack={}, limit={}", techStack, limit);
 
+        Optional<List<ProjectDTO>> indexed = findByTagFilterFromIndex(
+                ProjectSearchRequest.builder().techStack(List.of(techStack)).size(limit).build());
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
         List<Project> projects = projectRepository.findByTechStack(techStack);
         return projects.stream()
                 .limit(limit)
@@ -409,6 +766,12 @@ public class ProjectServiceImpl implements ProjectService {
     public List<ProjectDTO> getProjectsByTag(String tag, int limit) {
         log.debug("根据标签搜索项目: tag={}, limit={}", tag, limit);
 
+        Optional<List<ProjectDTO>> indexed = findByTagFilterFromIndex(
+                ProjectSearchRequest.builder().tags(List.of(tag)).size(limit).build());
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
         List<Project> projects = projectRepository.findByTag(tag);
         return projects.stream()
                 .limit(limit)
@@ -416,19 +779,92 @@ public class ProjectServiceImpl implements ProjectService {
                 .toList();
     }
 
+    /**
+     * 通过位图索引按技术栈/标签取前N个项目，索引不可用时返回空
+     */
+    private Optional<List<ProjectDTO>> findByTagFilterFromIndex(ProjectSearchRequest request) {
+        request.setDefaults();
+        request.normalize();
+        return projectSearchIndex.search(request)
+                .map(hits -> findAllByIdInOrder(hits.getProjectIds()).stream()
+                        .map(ProjectDTO::fromProject)
+                        .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProjectFacetsDTO getSearchFacets(ProjectSearchRequest request, int limit) {
+        log.debug("获取搜索分面统计: keyword={}, techStack={}, tags={}",
+                request.getKeyword(), request.getTechStack(), request.getTags());
+
+        request.setDefaults();
+        request.normalize();
+        request.validate();
+
+        return projectSearchIndex.facets(request, Math.min(Math.max(limit, 1), 100))
+                .orElseGet(() -> {
+                    log.warn("搜索索引不可用，返回空的分面统计");
+                    return ProjectFacetsDTO.empty();
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProjectSuggestionDTO> suggest(String keyword, int limit) {
+        String trimmed = keyword != null ? keyword.trim() : "";
+        if (trimmed.isEmpty()) {
+            return List.of();
+        }
+
+        // 优先读取内存前缀树（含分词起始位置、拼音匹配）
+        Optional<List<ProjectSuggestionDTO>> suggestions = projectSuggestIndex.suggest(trimmed, limit);
+        if (suggestions.isPresent()) {
+            return suggestions.get();
+        }
+
+        // 索引未就绪时退化为按标题模糊匹配下载量最高的已发布项目
+        log.debug("输入联想索引不可用，回退到数据库查询: keyword={}", trimmed);
+        List<Project> projects = projectRepository.findBy(
+                ProjectSpecifications.published().and(ProjectSpecifications.titleLike(trimmed)), query -> query
+                        .sortBy(Sort.by(Sort.Direction.DESC, "downloadCount").and(Sort.by(Sort.Direction.DESC, "id")))
+                        .limit(limit)
+                        .all());
+        return projects.stream()
+                .map(project -> ProjectSuggestionDTO.builder()
+                        .type(ProjectSuggestionDTO.SuggestionType.PROJECT)
+                        .text(project.getTitle())
+                        .projectId(project.getId())
+                        .categoryId(project.getCategoryId())
+                        .build())
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ProjectDTO> getRelatedProjects(Long projectId, int limit) {
         log.debug("获取相关项目推荐: projectId={}, limit={}", projectId, limit);
 
-        Project project = getById(projectId);
+        // 优先读取预计算的相关项目（按标签、技术栈、分类路径的相似度排序）
+        Optional<List<Long>> relatedIds = relatedProjectRecommender.getRelated(projectId, limit);
+        if (relatedIds.isPresent()) {
+            return findAllByIdInOrder(relatedIds.get()).stream()
+                    .filter(Project::isPublished)
+                    .map(ProjectDTO::fromProject)
+                    .toList();
+        }
 
-        // 基于分类和技术栈推荐相关项目
-        List<Project> relatedProjects = projectRepository.findByCategoryId(project.getCategoryId());
+        // 推荐未就绪时退化为同分类下载量最高的已发布项目
+        Project project = getById(projectId);
+        Specification<Project> spec = ProjectSpecifications.published()
+                .and(ProjectSpecifications.inCategory(project.getCategoryId()));
+        List<Project> relatedProjects = projectRepository.findBy(spec, query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "downloadCount").and(Sort.by(Sort.Direction.DESC, "id")))
+                .project("user", "category")
+                .limit(limit + 1)
+                .all());
 
         return relatedProjects.stream()
                 .filter(p -> !p.getId().equals(projectId)) // 排除自己
-                .filter(p -> p.getStatus().equals(1)) // 只包含已发布的项目
                 .limit(limit)
                 .map(ProjectDTO::fromProject)
                 .toList();
@@ -452,6 +888,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.publish();
         projectRepository.save(project);
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.PUBLISHED));
 
         log.info("项目发布成功: projectId={}, userId={}", projectId, userId);
     }
@@ -475,6 +912,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.takeOffline();
         projectRepository.save(project);
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.OFFLINE));
 
         // 记录审核历史
         ProjectReview reviewRecord = ProjectReview.createReviewRecord(
@@ -512,6 +950,7 @@ public class ProjectServiceImpl implements ProjectService {
             // 审核通过，设置为已发布状态
             project.publish();
             projectRepository.save(project);
+            eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.APPROVED));
 
             // 记录审核历史
             ProjectReview reviewRecord = ProjectReview.createReviewRecord(
@@ -548,18 +987,14 @@ public class ProjectServiceImpl implements ProjectService {
         log.debug("获取已发布项目详情: projectId={}", projectId);
 
         try {
-            // 直接查询已发布状态的项目
-            Project project = projectRepository.findByIdAndStatus(projectId, 1)
-                .orElse(null);
+            // 与后台详情共用缓存，命中后再按状态过滤
+            ProjectDetailDTO dto = projectDetailCache.get(projectId, this::loadProjectDetail);
 
-            if (project == null) {
+            if (dto == null || !Integer.valueOf(1).equals(dto.getStatus())) {
                 log.debug("项目不存在或未发布: projectId={}", projectId);
                 return null;
             }
 
-            // 转换为DTO
-            ProjectDetailDTO dto = ProjectDetailDTO.fromProject(project);
-
             // 异步增加浏览次数（不影响查询性能）
             incrementViewCountAsync(projectId);
 
@@ -570,6 +1005,17 @@ public class ProjectServiceImpl implements ProjectService {
         }
     }
 
+    /**
+     * 从数据库加载项目详情（缓存未命中时调用）
+     * 作者和分类随项目一次查出，后台刷新线程中转换DTO不依赖懒加载
+     */
+    private ProjectDetailDTO loadProjectDetail(Long projectId) {
+        return projectRepository.findWithOwnerByIdIn(List.of(projectId)).stream()
+                .findFirst()
+                .map(ProjectDetailDTO::fromProject)
+                .orElse(null);
+    }
+
     @Override
     @Transactional
     public void rejectProject(Long projectId, Long adminUserId, String reason) {
@@ -599,6 +1045,7 @@ public class ProjectServiceImpl implements ProjectService {
             // 审核拒绝
             project.reject();
             projectRepository.save(project);
+            eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.REJECTED));
 
             // 记录审核历史
             ProjectReview reviewRecord = ProjectReview.createReviewRecord(
@@ -631,6 +1078,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.setAsFeatured();
         projectRepository.save(project);
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.UPDATED));
 
         // 记录审核历史
         ProjectReview reviewRecord = ProjectReview.createReviewRecord(
@@ -654,6 +1102,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.unsetFeatured();
         projectRepository.save(project);
+        eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.UPDATED));
 
         // 记录审核历史
         ProjectReview reviewRecord = ProjectReview.createReviewRecord(
@@ -670,7 +1119,7 @@ public class ProjectServiceImpl implements ProjectService {
         log.debug("增加项目浏览次数: projectId={}", projectId);
 
         try {
-            projectRepository.incrementViewCount(projectId);
+            counterBuffer.increment(projectId, CounterType.VIEW);
         } catch (Exception e) {
             log.warn("增加浏览次数失败: projectId={}", projectId, e);
         }
@@ -681,7 +1130,7 @@ public class ProjectServiceImpl implements ProjectService {
         log.debug("增加项目下载次数: projectId={}", projectId);
 
         try {
-            projectRepository.incrementDownloadCount(projectId);
+            counterBuffer.increment(projectId, CounterType.DOWNLOAD);
         } catch (Exception e) {
             log.warn("增加下载次数失败: projectId={}", projectId, e);
         }
@@ -691,18 +1140,21 @@ public class ProjectServiceImpl implements ProjectService {
     public void incrementLikeCount(Long projectId, Long userId) {
         log.debug("增加项目点赞次数: projectId={}, userId={}", projectId, userId);
 
-        // TODO: 检查用户是否已经点赞过
-        if (isLikedByUser(projectId, userId)) {
-            throw new RuntimeException("用户已经点赞过此项目");
+        ProjectDetailDTO project = projectDetailCache.get(projectId, this::loadProjectDetail);
+        if (project == null || !Integer.valueOf(1).equals(project.getStatus())) {
+            throw ResourceNotFoundException.project(projectId);
         }
 
+        boolean liked;
         try {
-            projectRepository.incrementLikeCount(projectId);
-            // TODO: 记录用户点赞记录
+            liked = projectLikeService.like(projectId, userId);
         } catch (Exception e) {
             log.warn("增加点赞次数失败: projectId={}, userId={}", projectId, userId, e);
             throw new RuntimeException("点赞失败");
         }
+        if (!liked) {
+            throw new RuntimeException("用户已经点赞过此项目");
+        }
 
         log.info("项目点赞成功: projectId={}, userId={}", projectId, userId);
     }
@@ -711,28 +1163,33 @@ public class ProjectServiceImpl implements ProjectService {
     public void decrementLikeCount(Long projectId, Long userId) {
         log.debug("减少项目点赞次数: projectId={}, userId={}", projectId, userId);
 
-        // TODO: 检查用户是否已经点赞过
-        if (!isLikedByUser(projectId, userId)) {
-            throw new RuntimeException("用户尚未点赞此项目");
+        // 已下架的项目仍允许取消点赞，只拦截不存在的项目
+        if (projectDetailCache.get(projectId, this::loadProjectDetail) == null) {
+            throw ResourceNotFoundException.project(projectId);
         }
 
+        boolean unliked;
         try {
-            projectRepository.decrementLikeCount(projectId);
-            // TODO: 删除用户点赞记录
+            unliked = projectLikeService.unlike(projectId, userId);
         } catch (Exception e) {
             log.warn("减少点赞次数失败: projectId={}, userId={}", projectId, userId, e);
             throw new RuntimeException("取消点赞失败");
         }
+        if (!unliked) {
+            throw new RuntimeException("用户尚未点赞此项目");
+        }
 
         log.info("取消项目点赞成功: projectId={}, userId={}", projectId, userId);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean isLikedByUser(Long projectId, Long userId) {
-        // TODO: 实现用户点赞状态检查
-        // 需要创建用户点赞记录表或使用Redis缓存
-        return false;
+        return projectLikeService.isLiked(projectId, userId);
+    }
+
+    @Override
+    public Map<Long, Boolean> getLikedStatus(Long userId, List<Long> projectIds) {
+        return projectLikeService.likedStatus(userId, projectIds);
     }
 
     @Override
@@ -889,6 +1346,7 @@ public class ProjectServiceImpl implements ProjectService {
                 Project project = getById(projectId);
                 project.setStatus(status);
                 projectRepository.save(project);
+                eventPublisher.publishEvent(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.STATUS_CHANGED));
             } catch (Exception e) {
                 log.warn("更新项目状态失败: projectId={}", projectId, e);
             }
@@ -907,6 +1365,7 @@ public class ProjectServiceImpl implements ProjectService {
             try {
                 if (canDeleteProject(projectId, adminUserId)) {
                     projectRepository.deleteById(projectId);
+                    eventPublisher.publishEvent(ProjectChangedEvent.deleted(projectId));
                 }
             } catch (Exception e) {
                 log.warn("删除项目失败: projectId={}", projectId, e);
@@ -1058,28 +1517,33 @@ public class ProjectServiceImpl implements ProjectService {
                 log.warn("获取用户总收益失败: userId={}", userId, e);
             }
 
+            List<Project> userProjects = projectRepository.findByUserId(userId);
+
             // 统计项目总下载次数
-            long totalDownloads = projectRepository.findByUserId(userId).stream()
+            long totalDownloads = userProjects.stream()
                     .mapToLong(project -> project.getDownloadCount() != null ? project.getDownloadCount() : 0)
                     .sum();
 
             // 统计项目总浏览次数
-            long totalViews = projectRepository.findByUserId(userId).stream()
+            long totalViews = userProjects.stream()
                     .mapToLong(project -> project.getViewCount() != null ? project.getViewCount() : 0)
                     .sum();
 
             // 统计项目总点赞次数
-            long totalLikes = projectRepository.findByUserId(userId).stream()
+            long totalLikes = userProjects.stream()
                     .mapToLong(project -> project.getLikeCount() != null ? project.getLikeCount() : 0)
                     .sum();
 
             // 计算平均评分
-            BigDecimal averageRating = projectRepository.findByUserId(userId).stream()
+            BigDecimal averageRating = userProjects.stream()
                     .filter(project -> project.getRating() != null)
                     .map(Project::getRating)
                     .reduce(BigDecimal.ZERO, BigDecimal::add)
                     .divide(BigDecimal.valueOf(Math.max(1, publishedCount)), 2, BigDecimal.ROUND_HALF_UP);
 
+            // 统计所有项目合计的独立访客（同一访客访问多个项目只计一次）
+            UniqueVisitorStats uniqueVisitors = projectVisitorCounter.getSellerStats(userId);
+
             UserProjectStats stats = UserProjectStats.builder()
                     .uploadedCount(uploadedCount)
                     .purchasedCount(purchasedCount)
@@ -1091,6 +1555,7 @@ public class ProjectServiceImpl implements ProjectService {
                     .totalViews(totalViews)
                     .totalLikes(totalLikes)
                     .averageRating(averageRating)
+                    .uniqueVisitors(uniqueVisitors)
                     .build();
 
             log.info("获取用户项目统计成功: userId={}, stats={}", userId, stats);
@@ -1134,8 +1599,8 @@ public class ProjectServiceImpl implements ProjectService {
                 .distinct()
                 .collect(Collectors.toList());
             
-            // 批量查询项目信息，避免N+1查询问题
-            List<Project> projects = projectRepository.findAllById(projectIds);
+            // 批量查询项目信息（含作者和分类），避免N+1查询问题
+            List<Project> projects = projectRepository.findWithOwnerByIdIn(projectIds);
             Map<Long, Project> projectMap = projects.stream()
                 .collect(Collectors.toMap(Project::getId, project -> project));
             
@@ -1,5 +1,6 @@
 package com.quickcode.service.impl;
 
+import com.quickcode.common.event.ProjectStatsChangedEvent;
 import com.quickcode.dto.review.ReviewCreateRequest;
 import com.quickcode.dto.review.ReviewDTO;
 import com.quickcode.dto.review.ReviewSummaryDTO;
@@ -11,8 +12,13 @@ import com.quickcode.repository.ReviewRepository;
 import com.quickcode.repository.ProjectRepository;
 import com.quickcode.repository.UserRepository;
 import com.quickcode.service.ReviewService;
+import com.quickcode.service.cache.CoalescingCache;
+import com.quickcode.service.cache.CoalescingCacheFactory;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -39,6 +45,28 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoalescingCacheFactory coalescingCacheFactory;
+
+    @Value("${app.cache.review-summary.max-size:1000}")
+    private int reviewSummaryMaxSize;
+
+    @Value("${app.cache.review-summary.ttl:60000}")
+    private long reviewSummaryTtlMillis;
+
+    @Value("${app.cache.review-summary.stale-ttl:30000}")
+    private long reviewSummaryStaleTtlMillis;
+
+    /**
+     * 项目评价摘要缓存，key为项目ID
+     */
+    private CoalescingCache<Long, ReviewSummaryDTO> reviewSummaryCache;
+
+    @PostConstruct
+    public void initReviewSummaryCache() {
+        reviewSummaryCache = coalescingCacheFactory.create("review-summary", reviewSummaryMaxSize,
+                reviewSummaryTtlMillis, reviewSummaryStaleTtlMillis);
+    }
 
     @Override
     public ReviewDTO createReview(ReviewCreateRequest request, Long userId) {
@@ -244,6 +272,7 @@ public class ReviewServiceImpl implements ReviewService {
      * 更新项目评分
      */
     private void updateProjectRating(Long projectId) {
+        reviewSummaryCache.invalidateAfterCommit(projectId);
         try {
             BigDecimal averageRating = reviewRepository.calculateAverageRatingByProjectId(projectId);
             Long reviewCount = reviewRepository.countByProjectId(projectId);
@@ -253,6 +282,8 @@ public class ReviewServiceImpl implements ReviewService {
                 project.setRating(averageRating != null ? averageRating : BigDecimal.ZERO);
                 project.setRatingCount(reviewCount != null ? reviewCount.intValue() : 0);
                 projectRepository.save(project);
+                eventPublisher.publishEvent(ProjectStatsChangedEvent.of(
+                        ProjectStatsChangedEvent.StatType.RATING, projectId));
             }
         } catch (Exception e) {
             log.warn("更新项目评分失败: projectId={}", projectId, e);
@@ -549,6 +580,13 @@ public class ReviewServiceImpl implements ReviewService {
     public ReviewSummaryDTO getProjectReviewSummary(Long projectId) {
         log.debug("获取项目评价摘要: projectId={}", projectId);
 
+        return reviewSummaryCache.get(projectId, this::loadProjectReviewSummary);
+    }
+
+    /**
+     * 从数据库统计项目评价摘要（缓存未命中时调用）
+     */
+    private ReviewSummaryDTO loadProjectReviewSummary(Long projectId) {
         Long totalReviews = reviewRepository.countByProjectId(projectId);
         BigDecimal averageRating = reviewRepository.calculateAverageRatingByProjectId(projectId);
         List<Object[]> ratingDistribution = reviewRepository.getRatingDistributionByProjectId(projectId);
@@ -729,6 +767,7 @@ public class ReviewServiceImpl implements ReviewService {
 
         try {
             reviewRepository.deleteByProjectId(projectId);
+            reviewSummaryCache.invalidateAfterCommit(projectId);
             log.info("项目评价删除成功: projectId={}", projectId);
         } catch (Exception e) {
             log.warn("删除项目评价失败: projectId={}", projectId, e);
@@ -741,8 +780,10 @@ public class ReviewServiceImpl implements ReviewService {
         log.debug("根据用户ID删除所有评价: userId={}", userId);
 
         try {
+            List<Long> projectIds = reviewRepository.findProjectIdsByUserId(userId);
             reviewRepository.deleteByUserId(userId);
-            log.info("用户评价删除成功: userId={}", userId);
+            projectIds.forEach(reviewSummaryCache::invalidateAfterCommit);
+            log.info("用户评价删除成功: userId={}, projects={}", userId, projectIds.size());
         } catch (Exception e) {
             log.warn("删除用户评价失败: userId={}", userId, e);
             throw new RuntimeException("删除用户评价失败");
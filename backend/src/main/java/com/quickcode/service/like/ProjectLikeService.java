@@ -0,0 +1,94 @@
+package com.quickcode.service.like;
+
+import com.quickcode.service.RedisService;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 项目点赞服务
+ * 点赞状态保存在Redis中：每个项目一个以用户ID为偏移的位图，每个用户一个已点赞项目集合。
+ * 点赞、取消点赞都是一次脚本调用，状态真正变化时才调整点赞计数；
+ * 列表页通过用户集合一次查询整页项目的点赞状态
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectLikeService {
+
+    /**
+     * 单次批量查询的最大项目数量
+     */
+    public static final int MAX_BATCH_SIZE = 200;
+
+    private final RedisService redisService;
+    private final ProjectCounterBuffer counterBuffer;
+
+    /**
+     * 点赞项目
+     *
+     * @return 是否为新的点赞，已点赞过时返回false且不改变计数
+     */
+    public boolean like(Long projectId, Long userId) {
+        boolean changed = redisService.setProjectLiked(projectId, userId, true);
+        if (changed) {
+            counterBuffer.increment(projectId, CounterType.LIKE);
+        }
+        return changed;
+    }
+
+    /**
+     * 取消点赞
+     *
+     * @return 是否取消了已有的点赞，未点赞时返回false且不改变计数
+     */
+    public boolean unlike(Long projectId, Long userId) {
+        boolean changed = redisService.setProjectLiked(projectId, userId, false);
+        if (changed) {
+            counterBuffer.add(projectId, CounterType.LIKE, -1);
+        }
+        return changed;
+    }
+
+    /**
+     * 用户是否点赞了项目
+     */
+    public boolean isLiked(Long projectId, Long userId) {
+        if (projectId == null || userId == null) {
+            return false;
+        }
+        return redisService.isProjectLiked(projectId, userId);
+    }
+
+    /**
+     * 批量查询点赞状态
+     * 未登录或Redis不可用时全部返回未点赞，不影响列表展示
+     *
+     * @return 项目ID -> 是否已点赞，顺序与projectIds一致
+     */
+    public Map<Long, Boolean> likedStatus(Long userId, List<Long> projectIds) {
+        if (projectIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_BATCH_SIZE + "个项目");
+        }
+        List<Long> distinctIds = projectIds.stream().distinct().toList();
+        if (userId != null) {
+            try {
+                return redisService.getProjectLikedStatus(userId, distinctIds);
+            } catch (Exception e) {
+                log.warn("批量查询点赞状态失败: userId={}, projects={}", userId, distinctIds.size(), e);
+            }
+        }
+        Map<Long, Boolean> status = new LinkedHashMap<>();
+        distinctIds.forEach(projectId -> status.put(projectId, false));
+        return status;
+    }
+}
@@ -0,0 +1,181 @@
+package com.quickcode.service.ratelimit;
+
+import com.quickcode.entity.User;
+import com.quickcode.repository.UserRepository;
+import com.quickcode.service.RedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 下载频率限制
+ * 按用户和IP分别在1小时、24小时两个滑动窗口内计数，检查与记录在Redis Lua脚本中原子完成，
+ * 不再每次下载都扫描全站近24小时的下载记录。
+ * 登录用户按用户ID限制（VIP使用更高的上限），同一IP另有一组较宽的上限以兼顾NAT出口；
+ * 匿名（令牌）下载只能按IP限制，使用普通用户的上限。
+ * Redis不可用时退化为本节点内存中的滑动窗口，多节点部署时上限按节点计算
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadRateLimiter {
+
+    private static final String KEY_PREFIX = "quickcode:ratelimit:download:";
+    private static final String METRIC_PREFIX = "quickcode.download.rate_limit";
+    private static final Duration[] WINDOWS = {Duration.ofHours(1), Duration.ofDays(1)};
+    private static final String[] WINDOW_NAMES = {"hour", "day"};
+
+    private final RedisService redisService;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.download.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.download.rate-limit.user-per-hour:10}")
+    private int userPerHour;
+
+    @Value("${app.download.rate-limit.user-per-day:50}")
+    private int userPerDay;
+
+    @Value("${app.download.rate-limit.vip-per-hour:50}")
+    private int vipPerHour;
+
+    @Value("${app.download.rate-limit.vip-per-day:500}")
+    private int vipPerDay;
+
+    @Value("${app.download.rate-limit.ip-per-hour:30}")
+    private int ipPerHour;
+
+    @Value("${app.download.rate-limit.ip-per-day:200}")
+    private int ipPerDay;
+
+    /**
+     * Redis不可用时使用的本地滑动窗口：限流键 -> 按时间升序的请求时间戳
+     */
+    private final Map<String, Deque<Long>> localWindows = new ConcurrentHashMap<>();
+
+    private Counter rejected;
+    private Counter fallbacks;
+
+    @PostConstruct
+    public void init() {
+        rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("因频率限制被拒绝的下载次数")
+                .register(meterRegistry);
+        fallbacks = Counter.builder(METRIC_PREFIX + ".fallback")
+                .description("Redis不可用时使用本地限流的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 尝试占用一次下载配额，放行时即计入窗口
+     *
+     * @param userId   登录用户ID，匿名下载为null
+     * @param clientIp 客户端IP
+     * @return 是否允许下载
+     */
+    public boolean tryAcquire(Long userId, String clientIp) {
+        if (!enabled) {
+            return true;
+        }
+        List<String> keys = new ArrayList<>(2);
+        List<int[]> limits = new ArrayList<>(2);
+        if (userId != null) {
+            keys.add(KEY_PREFIX + "user:" + userId);
+            limits.add(isVip(userId) ? new int[]{vipPerHour, vipPerDay} : new int[]{userPerHour, userPerDay});
+        }
+        if (clientIp != null && !clientIp.isBlank()) {
+            keys.add(KEY_PREFIX + "ip:" + clientIp);
+            limits.add(userId != null ? new int[]{ipPerHour, ipPerDay} : new int[]{userPerHour, userPerDay});
+        }
+        if (keys.isEmpty()) {
+            return true;
+        }
+
+        int[][] limitArray = limits.toArray(new int[0][]);
+        int result;
+        try {
+            result = redisService.acquireSlidingWindow(keys, WINDOWS, limitArray);
+        } catch (Exception e) {
+            log.warn("Redis下载限流不可用，使用本地限流: userId={}, ip={}, error={}", userId, clientIp, e.getMessage());
+            fallbacks.increment();
+            result = acquireLocally(keys, limitArray, System.currentTimeMillis());
+        }
+
+        if (result < 0) {
+            return true;
+        }
+        rejected.increment();
+        log.warn("下载频率超限: key={}, window={}, userId={}, ip={}",
+                keys.get(result / WINDOWS.length), WINDOW_NAMES[result % WINDOWS.length], userId, clientIp);
+        return false;
+    }
+
+    /**
+     * 本地滑动窗口，语义与Redis脚本一致
+     */
+    synchronized int acquireLocally(List<String> keys, int[][] limits, long now) {
+        long longest = WINDOWS[WINDOWS.length - 1].toMillis();
+        for (int i = 0; i < keys.size(); i++) {
+            Deque<Long> timestamps = localWindows.computeIfAbsent(keys.get(i), key -> new ArrayDeque<>());
+            while (!timestamps.isEmpty() && timestamps.peekFirst() <= now - longest) {
+                timestamps.pollFirst();
+            }
+            for (int j = 0; j < WINDOWS.length; j++) {
+                if (countSince(timestamps, now - WINDOWS[j].toMillis()) >= limits[i][j]) {
+                    return i * WINDOWS.length + j;
+                }
+            }
+        }
+        for (String key : keys) {
+            localWindows.get(key).addLast(now);
+        }
+        return -1;
+    }
+
+    /**
+     * 清理本地窗口中已全部过期的键
+     */
+    @Scheduled(fixedDelayString = "${app.download.rate-limit.local-cleanup-interval:600000}")
+    public synchronized void cleanupLocalWindows() {
+        long expiredBefore = System.currentTimeMillis() - WINDOWS[WINDOWS.length - 1].toMillis();
+        localWindows.values().removeIf(timestamps ->
+                timestamps.isEmpty() || timestamps.peekLast() <= expiredBefore);
+    }
+
+    private static int countSince(Deque<Long> timestamps, long threshold) {
+        int count = 0;
+        Iterator<Long> iterator = timestamps.descendingIterator();
+        while (iterator.hasNext() && iterator.next() > threshold) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean isVip(Long userId) {
+        try {
+            return userRepository.findById(userId).map(User::isVipUser).orElse(false);
+        } catch (Exception e) {
+            log.warn("查询用户VIP状态失败，按普通用户限流: userId={}", userId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,657 @@
+package com.quickcode.service.recommend;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.entity.Category;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.CategoryRepository;
+import com.quickcode.repository.ProjectRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 相关项目推荐
+ * 以标签、技术栈和分类路径作为项目的特征集合，用MinHash + LSH分桶找出候选项目，
+ * 再按精确的Jaccard相似度排序，为每个已发布项目预先保存前N个相关项目。
+ * 查询时直接读取结果，项目发布、编辑、下架时增量更新：变更涉及的相关列表在读锁下计算，
+ * 写锁只在替换结果时短暂持有
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RelatedProjectRecommender {
+
+    /**
+     * MinHash签名长度 = LSH分段数 × 每段行数
+     */
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS_PER_BAND;
+
+    /**
+     * 单个项目最多评估的LSH候选数量，避免大量相同特征的项目导致计算量膨胀
+     */
+    private static final int MAX_CANDIDATES = 1000;
+
+    /**
+     * 候选不足时，最多从同分类项目中补充评估的数量（按下载量从高到低）
+     */
+    private static final int CATEGORY_FILL_SCAN_LIMIT = 200;
+
+    /**
+     * 全量重建时每批加载的项目数量
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final long[] HASH_SEEDS = createHashSeeds();
+
+    private final ProjectRepository projectRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${app.recommend.related.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recommend.related.top-n:20}")
+    private int topN;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * 串行化增量更新和模型替换，读请求不受其影响
+     */
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * 当前生效的推荐模型（受lock保护）
+     */
+    private Model model = new Model(Map.of());
+
+    /**
+     * 重建期间收到的增量变更，值为null表示移除（受lock保护）
+     */
+    private Map<Long, Project> pendingChanges;
+
+    private volatile boolean ready = false;
+
+    /**
+     * 应用启动后异步计算
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期全量重算，同步分类结构变化和增量更新累积的偏差
+     * 默认每小时执行一次
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.related.rebuild-interval:3600000}",
+               initialDelayString = "${app.recommend.related.rebuild-interval:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 项目变更后增量更新（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (event.isDeleted()) {
+                remove(event.getProjectId());
+            } else {
+                update(event.getProject());
+            }
+        } catch (Exception e) {
+            log.warn("增量更新相关项目失败: projectId={}", event.getProjectId(), e);
+        }
+    }
+
+    /**
+     * 全量重算所有已发布项目的相关项目
+     */
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Map<Long, Long> categoryParents = new HashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                if (category.getParentId() != null) {
+                    categoryParents.put(category.getId(), category.getParentId());
+                }
+            }
+
+            Model fresh = new Model(categoryParents);
+            int pageNumber = 0;
+            Page<Project> batch;
+            do {
+                batch = projectRepository.findByStatus(Project.Status.PUBLISHED.getCode(),
+                        PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+                batch.forEach(project -> fresh.addDoc(fresh.toDoc(project)));
+            } while (batch.hasNext());
+            fresh.docs.values().forEach(doc ->
+                    fresh.setNeighbours(doc.getId(), fresh.computeNeighbours(doc, topN, null)));
+
+            updateLock.lock();
+            try {
+                // 持有updateLock期间不会再产生新的增量变更，重放时无需阻塞读请求
+                pendingChanges.forEach((projectId, project) -> fresh.commit(fresh.plan(projectId, project, topN)));
+                lock.writeLock().lock();
+                try {
+                    model = fresh;
+                    ready = true;
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                updateLock.unlock();
+            }
+
+            log.info("相关项目计算完成: projects={}, cost={}ms",
+                    fresh.docs.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("相关项目计算失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 写入或更新单个项目，未发布的项目会被移除
+     */
+    public void update(Project project) {
+        if (project == null || project.getId() == null) {
+            return;
+        }
+        Project published = project.isPublished() && project.isAvailable() ? project : null;
+        applyChange(project.getId(), published);
+    }
+
+    /**
+     * 移除项目
+     */
+    public void remove(Long projectId) {
+        applyChange(projectId, null);
+    }
+
+    /**
+     * 在读锁下计算变更涉及的相关列表，再持写锁替换（project为null表示移除）
+     */
+    private void applyChange(Long projectId, Project project) {
+        updateLock.lock();
+        try {
+            Model.Update update;
+            lock.readLock().lock();
+            try {
+                update = model.plan(projectId, project, topN);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (pendingChanges != null) {
+                    pendingChanges.put(projectId, project);
+                }
+                model.commit(update);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * 获取相关项目ID（按相似度倒序）
+     * 推荐尚未计算完成或项目未发布时返回空，由调用方回退到数据库查询
+     */
+    public Optional<List<Long>> getRelated(Long projectId, int limit) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            List<Neighbour> neighbours = model.neighbours.get(projectId);
+            if (neighbours == null) {
+                return Optional.empty();
+            }
+            return Optional.of(neighbours.stream()
+                    .limit(Math.max(limit, 0))
+                    .map(Neighbour::getProjectId)
+                    .toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 推荐是否可用
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * 计算两个特征集合（升序的特征ID数组）的Jaccard相似度
+     */
+    static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0;
+        }
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return (double) intersection / (a.length + b.length - intersection);
+    }
+
+    /**
+     * 计算特征集合的MinHash签名
+     */
+    static int[] minHash(int[] features) {
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int feature : features) {
+            long base = feature;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int hash = (int) (mix64(base ^ HASH_SEEDS[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long mix64(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static long[] createHashSeeds() {
+        long[] seeds = new long[SIGNATURE_LENGTH];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed = mix64(seed + i);
+            seeds[i] = seed;
+        }
+        return seeds;
+    }
+
+    /**
+     * 推荐模型：项目特征、LSH分桶和预计算的相关项目
+     */
+    private static final class Model {
+
+        private final Map<Long, Long> categoryParents;
+        private final Map<String, Integer> featureIds = new HashMap<>();
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Map<Long, NavigableSet<Doc>> categoryMembers = new HashMap<>();
+        private final List<Map<Integer, Set<Long>>> bands = new ArrayList<>(BANDS);
+
+        /**
+         * 相关列表只整体替换、不原地修改，读请求持读锁即可安全遍历
+         */
+        private final Map<Long, List<Neighbour>> neighbours = new HashMap<>();
+
+        /**
+         * 反向索引：项目ID -> 相关列表中包含该项目的项目ID
+         */
+        private final Map<Long, Set<Long>> referrers = new HashMap<>();
+
+        Model(Map<Long, Long> categoryParents) {
+            this.categoryParents = categoryParents;
+            for (int i = 0; i < BANDS; i++) {
+                bands.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * 提取项目特征：标签、技术栈以及从当前分类到根分类的路径
+         */
+        Doc toDoc(Project project) {
+            Set<String> names = new HashSet<>();
+            if (project.getTags() != null) {
+                project.getTags().stream()
+                        .filter(tag -> tag != null && !tag.isBlank())
+                        .forEach(tag -> names.add("t:" + tag.trim().toLowerCase(Locale.ROOT)));
+            }
+            if (project.getTechStack() != null) {
+                project.getTechStack().stream()
+                        .filter(tech -> tech != null && !tech.isBlank())
+                        .forEach(tech -> names.add("s:" + tech.trim().toLowerCase(Locale.ROOT)));
+            }
+            Long categoryId = project.getCategoryId();
+            Set<Long> visited = new HashSet<>();
+            while (categoryId != null && visited.add(categoryId)) {
+                names.add("c:" + categoryId);
+                categoryId = categoryParents.get(categoryId);
+            }
+
+            // 特征名映射为整数ID并排序，相似度计算只做有序数组归并
+            int[] features = names.stream()
+                    .mapToInt(name -> featureIds.computeIfAbsent(name, key -> featureIds.size()))
+                    .sorted()
+                    .toArray();
+            int downloadCount = project.getDownloadCount() != null ? project.getDownloadCount() : 0;
+            return new Doc(project.getId(), project.getCategoryId(), features, minHash(features), downloadCount);
+        }
+
+        void addDoc(Doc doc) {
+            docs.put(doc.getId(), doc);
+            if (doc.getCategoryId() != null) {
+                categoryMembers.computeIfAbsent(doc.getCategoryId(), key -> new TreeSet<>(POPULARITY_ORDER)).add(doc);
+            }
+            if (doc.getFeatures().length > 0) {
+                for (int band = 0; band < BANDS; band++) {
+                    bands.get(band).computeIfAbsent(bandKey(doc.getSignature(), band), key -> new HashSet<>())
+                            .add(doc.getId());
+                }
+            }
+        }
+
+        void removeDoc(Long projectId) {
+            Doc doc = docs.remove(projectId);
+            if (doc == null) {
+                return;
+            }
+            Set<Doc> members = categoryMembers.get(doc.getCategoryId());
+            if (members != null) {
+                members.remove(doc);
+                if (members.isEmpty()) {
+                    categoryMembers.remove(doc.getCategoryId());
+                }
+            }
+            if (doc.getFeatures().length > 0) {
+                for (int band = 0; band < BANDS; band++) {
+                    int key = bandKey(doc.getSignature(), band);
+                    Set<Long> bucket = bands.get(band).get(key);
+                    if (bucket != null) {
+                        bucket.remove(projectId);
+                        if (bucket.isEmpty()) {
+                            bands.get(band).remove(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * 替换项目的相关列表并维护反向索引（list为null表示删除）
+         */
+        void setNeighbours(Long ownerId, List<Neighbour> list) {
+            List<Neighbour> previous = list != null ? neighbours.put(ownerId, list) : neighbours.remove(ownerId);
+            if (previous != null) {
+                for (Neighbour neighbour : previous) {
+                    Set<Long> owners = referrers.get(neighbour.getProjectId());
+                    if (owners != null) {
+                        owners.remove(ownerId);
+                        if (owners.isEmpty()) {
+                            referrers.remove(neighbour.getProjectId());
+                        }
+                    }
+                }
+            }
+            if (list != null) {
+                list.forEach(neighbour ->
+                        referrers.computeIfAbsent(neighbour.getProjectId(), key -> new HashSet<>()).add(ownerId));
+            }
+        }
+
+        /**
+         * 计算单个项目变更（project为null表示移除）后需要替换的相关列表，不修改模型
+         * 只涉及两类项目：相关列表中包含该项目的，排除旧版本后重新计算；
+         * 它们与新特征的LSH候选一起，再尝试插入新版本
+         */
+        Update plan(Long projectId, Project project, int topN) {
+            Map<Long, List<Neighbour>> lists = new HashMap<>();
+            for (Long ownerId : referrers.getOrDefault(projectId, Set.of())) {
+                Doc owner = docs.get(ownerId);
+                if (owner != null) {
+                    lists.put(ownerId, computeNeighbours(owner, topN, projectId));
+                }
+            }
+            if (project == null) {
+                return new Update(projectId, null, null, lists);
+            }
+
+            Doc doc = toDoc(project);
+            Set<Long> targets = candidates(doc);
+            targets.addAll(lists.keySet());
+            for (Long targetId : targets) {
+                Doc target = docs.get(targetId);
+                List<Neighbour> list = lists.containsKey(targetId) ? lists.get(targetId) : neighbours.get(targetId);
+                if (target == null || list == null) {
+                    continue;
+                }
+                double score = jaccard(target.getFeatures(), doc.getFeatures());
+                Neighbour neighbour = new Neighbour(projectId, score, doc.getDownloadCount());
+                if (score > 0 && (list.size() < topN
+                        || NEIGHBOUR_ORDER.compare(neighbour, list.get(list.size() - 1)) < 0)) {
+                    List<Neighbour> updated = new ArrayList<>(list);
+                    updated.add(neighbour);
+                    updated.sort(NEIGHBOUR_ORDER);
+                    if (updated.size() > topN) {
+                        updated.remove(updated.size() - 1);
+                    }
+                    lists.put(targetId, updated);
+                }
+            }
+            return new Update(projectId, doc, computeNeighbours(doc, topN, projectId), lists);
+        }
+
+        /**
+         * 应用plan的计算结果，只做分桶和列表替换
+         */
+        void commit(Update update) {
+            removeDoc(update.projectId());
+            setNeighbours(update.projectId(), null);
+            if (update.doc() != null) {
+                addDoc(update.doc());
+                setNeighbours(update.projectId(), update.own());
+            }
+            update.lists().forEach(this::setNeighbours);
+        }
+
+        /**
+         * 计算单个项目的前N个相关项目
+         * 先评估LSH候选，数量不足时再从同分类下载量最高的项目中补充
+         *
+         * @param excluded 不参与计算的项目ID（增量更新时的旧版本），可为null
+         */
+        List<Neighbour> computeNeighbours(Doc doc, int topN, Long excluded) {
+            // 小顶堆只保留当前最好的topN个，避免对全部候选排序
+            PriorityQueue<Neighbour> best = new PriorityQueue<>(topN + 1, NEIGHBOUR_ORDER.reversed());
+            Set<Long> scored = new HashSet<>();
+            Set<Long> candidates = candidates(doc);
+            for (Long candidateId : candidates) {
+                score(doc, candidateId, excluded, scored, best, topN);
+            }
+            if (scored.size() < topN && doc.getCategoryId() != null) {
+                int scanned = 0;
+                for (Doc member : categoryMembers.getOrDefault(doc.getCategoryId(), Collections.emptyNavigableSet())) {
+                    if (scanned++ >= CATEGORY_FILL_SCAN_LIMIT) {
+                        break;
+                    }
+                    if (!candidates.contains(member.getId())) {
+                        score(doc, member.getId(), excluded, scored, best, topN);
+                    }
+                }
+            }
+
+            List<Neighbour> result = new ArrayList<>(best);
+            result.sort(NEIGHBOUR_ORDER);
+            return result;
+        }
+
+        private void score(Doc doc, Long candidateId, Long excluded, Set<Long> scored,
+                           PriorityQueue<Neighbour> best, int topN) {
+            if (candidateId.equals(doc.getId()) || candidateId.equals(excluded)) {
+                return;
+            }
+            Doc candidate = docs.get(candidateId);
+            if (candidate == null) {
+                return;
+            }
+            double score = jaccard(doc.getFeatures(), candidate.getFeatures());
+            if (score <= 0) {
+                return;
+            }
+            scored.add(candidateId);
+            Neighbour neighbour = new Neighbour(candidateId, score, candidate.getDownloadCount());
+            if (best.size() < topN) {
+                best.add(neighbour);
+            } else if (NEIGHBOUR_ORDER.compare(neighbour, best.peek()) < 0) {
+                best.poll();
+                best.add(neighbour);
+            }
+        }
+
+        /**
+         * 与项目在任意一个LSH分段上签名相同的项目
+         */
+        private Set<Long> candidates(Doc doc) {
+            Set<Long> candidates = new LinkedHashSet<>();
+            if (doc.getFeatures().length == 0) {
+                return candidates;
+            }
+            for (int band = 0; band < BANDS && candidates.size() < MAX_CANDIDATES; band++) {
+                Set<Long> bucket = bands.get(band).get(bandKey(doc.getSignature(), band));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Long projectId : bucket) {
+                    if (!projectId.equals(doc.getId())) {
+                        candidates.add(projectId);
+                        if (candidates.size() >= MAX_CANDIDATES) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        private static int bandKey(int[] signature, int band) {
+            int hash = band;
+            for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+                hash = 31 * hash + signature[row];
+            }
+            return hash;
+        }
+
+        /**
+         * 单个项目变更需要替换的内容
+         */
+        private record Update(Long projectId, Doc doc, List<Neighbour> own, Map<Long, List<Neighbour>> lists) {
+        }
+    }
+
+    /**
+     * 相关项目排序：相似度倒序，相同时下载量多的在前，再按ID倒序
+     */
+    private static final Comparator<Neighbour> NEIGHBOUR_ORDER = (a, b) -> {
+        int result = Double.compare(b.getScore(), a.getScore());
+        if (result == 0) {
+            result = Integer.compare(b.getDownloadCount(), a.getDownloadCount());
+        }
+        return result != 0 ? result : Long.compare(b.getProjectId(), a.getProjectId());
+    };
+
+    /**
+     * 同分类补充候选的顺序：下载量倒序，再按ID倒序
+     */
+    private static final Comparator<Doc> POPULARITY_ORDER = Comparator.comparingInt(Doc::getDownloadCount).reversed()
+            .thenComparing(Doc::getId, Comparator.reverseOrder());
+
+    /**
+     * 项目特征快照
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class Doc {
+        private final Long id;
+        private final Long categoryId;
+        private final int[] features;
+        private final int[] signature;
+        private final int downloadCount;
+    }
+
+    /**
+     * 相关项目及相似度
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class Neighbour {
+        private final Long projectId;
+        private final double score;
+        private final int downloadCount;
+    }
+}
@@ -0,0 +1,89 @@
+package com.quickcode.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 汉字拼音表
+ * 从类路径加载CJK统一表意文字基本区的不带声调拼音，多音字只取最常用读音。
+ * 首次使用时加载，每个汉字只占一个short下标，约40KB内存
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+final class PinyinTable {
+
+    static final String RESOURCE = "data/pinyin.txt";
+
+    private static final char FIRST = '\u4e00';
+    private static final char LAST = '\u9fff';
+
+    private PinyinTable() {
+    }
+
+    /**
+     * 拼音表是否加载成功
+     */
+    static boolean isLoaded() {
+        return Holder.SYLLABLES.length > 0;
+    }
+
+    /**
+     * 获取汉字的拼音（小写、不带声调），不在表中时返回null
+     */
+    static String toPinyin(char c) {
+        if (c < FIRST || c > LAST) {
+            return null;
+        }
+        short index = Holder.INDEXES[c - FIRST];
+        return index > 0 ? Holder.SYLLABLES[index - 1] : null;
+    }
+
+    /**
+     * 延迟加载，未使用拼音时不读取资源文件
+     */
+    private static final class Holder {
+
+        private static final String[] SYLLABLES;
+
+        /**
+         * 汉字 -> 拼音下标 + 1，0表示不在表中
+         */
+        private static final short[] INDEXES = new short[LAST - FIRST + 1];
+
+        static {
+            List<String> syllables = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf(' ');
+                    if (line.startsWith("#") || separator <= 0) {
+                        continue;
+                    }
+                    syllables.add(line.substring(0, separator));
+                    short index = (short) syllables.size();
+                    for (int i = separator + 1; i < line.length(); i++) {
+                        char c = line.charAt(i);
+                        if (c >= FIRST && c <= LAST) {
+                            INDEXES[c - FIRST] = index;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("加载拼音表失败，输入联想不生成拼音检索键: resource={}", RESOURCE, e);
+                syllables.clear();
+                Arrays.fill(INDEXES, (short) 0);
+            }
+            SYLLABLES = syllables.toArray(new String[0]);
+        }
+    }
+}
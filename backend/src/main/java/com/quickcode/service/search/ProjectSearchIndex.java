@@ -0,0 +1,721 @@
+package com.quickcode.service.search;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.dto.project.ProjectCursor;
+import com.quickcode.dto.project.ProjectFacetsDTO;
+import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 项目搜索倒排索引
+ * 在内存中维护已发布项目的标题、描述、标签、技术栈倒排表，
+ * 关键词搜索先在索引中完成匹配、过滤、排序和分页，只把当前页的项目ID交给数据库加载。
+ * 另外为每个技术栈、标签值维护一份压缩位图，支持AND/OR组合筛选和分面计数
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectSearchIndex {
+
+    /**
+     * 全量重建时每批加载的项目数量
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProjectRepository projectRepository;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * 当前生效的索引段（受lock保护）
+     */
+    private Segment segment = new Segment();
+
+    /**
+     * 重建期间收到的增量变更，值为null表示移除（受lock保护）
+     */
+    private Map<Long, IndexedProject> pendingChanges;
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    private volatile boolean ready = false;
+
+    /**
+     * 应用启动后异步构建索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期全量重建，修正计数类排序字段的漂移
+     * 默认每30分钟执行一次
+     */
+    @Scheduled(fixedDelayString = "${app.search.index.rebuild-interval:1800000}",
+               initialDelayString = "${app.search.index.rebuild-interval:1800000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 项目变更后增量更新索引（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (event.isDeleted()) {
+                remove(event.getProjectId());
+            } else {
+                index(event.getProject());
+            }
+        } catch (Exception e) {
+            log.warn("增量更新搜索索引失败: projectId={}", event.getProjectId(), e);
+        }
+    }
+
+    /**
+     * 全量重建索引
+     * 新索引段构建完成后整体替换，构建期间的增量变更在替换时重放
+     */
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Segment fresh = new Segment();
+            int pageNumber = 0;
+            Page<Project> batch;
+            do {
+                batch = projectRepository.findByStatus(Project.Status.PUBLISHED.getCode(),
+                        PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+                batch.forEach(project -> fresh.add(IndexedProject.fromProject(project)));
+            } while (batch.hasNext());
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach((projectId, doc) -> {
+                    fresh.remove(projectId);
+                    if (doc != null) {
+                        fresh.add(doc);
+                    }
+                });
+                segment = fresh;
+                ready = true;
+            } finally {
+                pendingChanges = null;
+                lock.writeLock().unlock();
+            }
+
+            log.info("项目搜索索引重建完成: projects={}, terms={}, cost={}ms",
+                    fresh.docs.size(), fresh.postings.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("项目搜索索引重建失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 写入或更新单个项目，未发布的项目会从索引中移除
+     */
+    public void index(Project project) {
+        if (project == null || project.getId() == null) {
+            return;
+        }
+        IndexedProject doc = project.isPublished() && project.isAvailable()
+                ? IndexedProject.fromProject(project) : null;
+
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(project.getId(), doc);
+            }
+            segment.remove(project.getId());
+            if (doc != null) {
+                segment.add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除项目
+     */
+    public void remove(Long projectId) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(projectId, null);
+            }
+            segment.remove(projectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引是否可用于查询
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * 当前索引的项目数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按关键词和技术栈/标签搜索已发布项目
+     * 返回当前页的项目ID（已排序）和命中总数；索引不可用或关键词无有效词项时返回空，由调用方回退到数据库查询
+     */
+    public Optional<SearchHits> search(ProjectSearchRequest request) {
+        Optional<List<IndexedProject>> matches = collectMatches(request);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        List<IndexedProject> matched = matches.get();
+
+        int size = request.getSize();
+        long offset = (long) request.getPage() * size;
+        List<Long> pageIds = offset >= matched.size()
+                ? List.of()
+                : matched.subList((int) offset, (int) Math.min(offset + size, matched.size())).stream()
+                        .map(IndexedProject::getId)
+                        .toList();
+
+        return Optional.of(new SearchHits(pageIds, matched.size()));
+    }
+
+    /**
+     * 按关键词做游标分页搜索
+     * 返回游标位置之后最多limit条命中记录的游标（携带索引快照中的排序值），索引不可用时返回空
+     */
+    public Optional<List<ProjectCursor>> searchAfter(ProjectSearchRequest request, ProjectCursor cursor, int limit) {
+        Optional<List<IndexedProject>> matches = collectMatches(request);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        List<IndexedProject> matched = matches.get();
+
+        ProjectCursor.SortKey sortKey = ProjectCursor.SortKey.fromParam(request.getSortBy());
+        int start = 0;
+        if (cursor != null) {
+            int position = Collections.binarySearch(matched, IndexedProject.probe(cursor),
+                    comparatorFor(request.getSortBy(), request.isAscending()));
+            start = position >= 0 ? position + 1 : -(position + 1);
+        }
+
+        return Optional.of(matched.subList(start, Math.min(start + limit, matched.size())).stream()
+                .map(doc -> new ProjectCursor(sortKey, request.isAscending(), doc.sortValue(sortKey), doc.getId()))
+                .toList());
+    }
+
+    /**
+     * 统计当前筛选结果中各技术栈、标签的项目数量
+     * 统计范围与search一致（关键词、技术栈/标签、分类、价格、评分），索引不可用时返回空
+     *
+     * @param request 搜索条件（关键词可为空）
+     * @param limit 每个分面最多返回的值数量
+     */
+    public Optional<ProjectFacetsDTO> facets(ProjectSearchRequest request, int limit) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        List<SearchTokenizer.QueryToken> tokens = List.of();
+        if (request.getKeyword() != null) {
+            tokens = SearchTokenizer.tokenizeQuery(request.getKeyword());
+            if (tokens.isEmpty()) {
+                return Optional.empty();
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            CompressedBitmap base = new CompressedBitmap();
+            matchDocs(request, tokens).forEach(doc -> base.add(doc.getId()));
+            return Optional.of(ProjectFacetsDTO.builder()
+                    .total((long) base.cardinality())
+                    .techStack(segment.techStacks.count(base, limit))
+                    .tags(segment.tags.count(base, limit))
+                    .build());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 匹配关键词、技术栈/标签并按请求的条件过滤、排序
+     */
+    private Optional<List<IndexedProject>> collectMatches(ProjectSearchRequest request) {
+        if (!isReady() || (request.getKeyword() == null && !request.hasTagFilter())) {
+            return Optional.empty();
+        }
+
+        List<SearchTokenizer.QueryToken> tokens = List.of();
+        if (request.getKeyword() != null) {
+            tokens = SearchTokenizer.tokenizeQuery(request.getKeyword());
+            if (tokens.isEmpty()) {
+                return Optional.empty();
+            }
+        }
+
+        List<IndexedProject> matched;
+        lock.readLock().lock();
+        try {
+            matched = matchDocs(request, tokens);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matched.sort(comparatorFor(request.getSortBy(), request.isAscending()));
+        return Optional.of(matched);
+    }
+
+    /**
+     * 在当前索引段中匹配文档（调用方需持有读锁）
+     * 关键词词项取倒排表交集，技术栈/标签取位图组合，两者都没有时匹配全部文档
+     */
+    private List<IndexedProject> matchDocs(ProjectSearchRequest request, List<SearchTokenizer.QueryToken> tokens) {
+        CompressedBitmap tagFilter = request.hasTagFilter() ? segment.tagFilter(request) : null;
+
+        Collection<Long> candidates;
+        if (!tokens.isEmpty()) {
+            Set<Long> keywordHits = null;
+            for (SearchTokenizer.QueryToken token : tokens) {
+                if (token.isPrefix()) {
+                    keywordHits = segment.prefixPostings(token.getTerm(), keywordHits);
+                } else {
+                    Set<Long> postings = segment.postings.getOrDefault(token.getTerm(), Collections.emptySet());
+                    if (keywordHits == null) {
+                        keywordHits = new HashSet<>(postings);
+                    } else {
+                        keywordHits.retainAll(postings);
+                    }
+                }
+                if (keywordHits.isEmpty()) {
+                    break;
+                }
+            }
+            if (tagFilter != null) {
+                keywordHits.removeIf(projectId -> !tagFilter.contains(projectId));
+            }
+            candidates = keywordHits;
+        } else if (tagFilter != null) {
+            List<Long> tagHits = new ArrayList<>(tagFilter.cardinality());
+            tagFilter.forEach(tagHits::add);
+            candidates = tagHits;
+        } else {
+            candidates = segment.docs.keySet();
+        }
+
+        List<IndexedProject> matched = new ArrayList<>();
+        for (Long projectId : candidates) {
+            IndexedProject doc = segment.docs.get(projectId);
+            if (doc != null && doc.matches(request)) {
+                matched.add(doc);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 根据排序字段构建比较器，与MySQL一致：升序时NULL在前，降序时NULL在后；相同值按ID倒序
+     */
+    private static Comparator<IndexedProject> comparatorFor(String sortBy, boolean ascending) {
+        Comparator<IndexedProject> comparator = switch (sortBy == null ? "" : sortBy) {
+            case "publishedTime" -> nullsFirst(IndexedProject::getPublishedTime);
+            case "updatedTime" -> nullsFirst(IndexedProject::getUpdatedTime);
+            case "downloadCount" -> nullsFirst(IndexedProject::getDownloadCount);
+            case "viewCount" -> nullsFirst(IndexedProject::getViewCount);
+            case "likeCount" -> nullsFirst(IndexedProject::getLikeCount);
+            case "ratingCount" -> nullsFirst(IndexedProject::getRatingCount);
+            case "rating" -> nullsFirst(IndexedProject::getRating);
+            case "price" -> nullsFirst(IndexedProject::getPrice);
+            case "title" -> nullsFirst(IndexedProject::getTitle);
+            default -> nullsFirst(IndexedProject::getCreatedTime);
+        };
+        if (!ascending) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparing(IndexedProject::getId, Comparator.reverseOrder());
+    }
+
+    private static <U extends Comparable<? super U>> Comparator<IndexedProject> nullsFirst(
+            Function<IndexedProject, U> keyExtractor) {
+        return Comparator.comparing(keyExtractor, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    /**
+     * 搜索命中结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SearchHits {
+
+        /**
+         * 当前页项目ID（已按排序字段排列）
+         */
+        private final List<Long> projectIds;
+
+        /**
+         * 命中总数
+         */
+        private final long total;
+    }
+
+    /**
+     * 技术栈/标签值的归一化键（忽略大小写和首尾空白）
+     */
+    private static String facetKey(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引段：倒排表、分面位图与文档快照
+     */
+    private static final class Segment {
+
+        private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+        private final Map<Long, IndexedProject> docs = new HashMap<>();
+        private final FacetField techStacks = new FacetField();
+        private final FacetField tags = new FacetField();
+
+        void add(IndexedProject doc) {
+            remove(doc.getId());
+            docs.put(doc.getId(), doc);
+            for (String term : doc.getTerms()) {
+                postings.computeIfAbsent(term, key -> new HashSet<>()).add(doc.getId());
+            }
+            doc.getTechStack().forEach(value -> techStacks.add(value, doc.getId()));
+            doc.getTags().forEach(value -> tags.add(value, doc.getId()));
+        }
+
+        void remove(Long projectId) {
+            IndexedProject doc = docs.remove(projectId);
+            if (doc == null) {
+                return;
+            }
+            doc.getTechStack().forEach(value -> techStacks.remove(value, projectId));
+            doc.getTags().forEach(value -> tags.remove(value, projectId));
+            for (String term : doc.getTerms()) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null) {
+                    ids.remove(projectId);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 组合技术栈/标签筛选位图
+         * all：包含全部所选值；any：技术栈、标签各自命中任意一个，两组之间仍为AND
+         */
+        CompressedBitmap tagFilter(ProjectSearchRequest request) {
+            boolean any = request.isMatchAnyTag();
+            CompressedBitmap techFilter = techStacks.filter(request.getTechStack(), any);
+            CompressedBitmap tagFilter = tags.filter(request.getTags(), any);
+            if (techFilter == null) {
+                return tagFilter;
+            }
+            return tagFilter == null ? techFilter : techFilter.and(tagFilter);
+        }
+
+        /**
+         * 合并前缀范围内全部词项的倒排表，不截断展开数量
+         * within不为空时只保留其中的项目（即与之前词项求交集），结果大小不超过within；
+         * 否则结果不超过文档总数，覆盖全部文档后提前结束
+         */
+        Set<Long> prefixPostings(String prefix, Set<Long> within) {
+            Collection<Set<Long>> range =
+                    postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            Set<Long> result = new HashSet<>();
+            if (within != null) {
+                for (Set<Long> ids : range) {
+                    for (Long projectId : ids) {
+                        if (within.contains(projectId)) {
+                            result.add(projectId);
+                        }
+                    }
+                    if (result.size() == within.size()) {
+                        break;
+                    }
+                }
+                return result;
+            }
+            for (Set<Long> ids : range) {
+                result.addAll(ids);
+                if (result.size() == docs.size()) {
+                    break;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 单个分面字段：每个值对应一份项目ID位图
+     */
+    private static final class FacetField {
+
+        private final Map<String, CompressedBitmap> bitmaps = new HashMap<>();
+
+        /**
+         * 展示用的原始值（取首次出现的写法）
+         */
+        private final Map<String, String> labels = new HashMap<>();
+
+        void add(String value, Long projectId) {
+            String key = facetKey(value);
+            bitmaps.computeIfAbsent(key, k -> new CompressedBitmap()).add(projectId);
+            labels.putIfAbsent(key, value.trim());
+        }
+
+        void remove(String value, Long projectId) {
+            String key = facetKey(value);
+            CompressedBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(projectId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                    labels.remove(key);
+                }
+            }
+        }
+
+        /**
+         * 按所选值组合位图，未选择时返回null表示不限制
+         * 返回的位图可能与索引共享，调用方只读使用
+         */
+        CompressedBitmap filter(List<String> values, boolean any) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            CompressedBitmap result = null;
+            for (String value : values) {
+                CompressedBitmap bitmap = bitmaps.get(facetKey(value));
+                if (bitmap == null) {
+                    if (!any) {
+                        return new CompressedBitmap();
+                    }
+                    continue;
+                }
+                if (result == null) {
+                    result = bitmap;
+                } else {
+                    result = any ? result.or(bitmap) : result.and(bitmap);
+                }
+            }
+            return result != null ? result : new CompressedBitmap();
+        }
+
+        /**
+         * 统计各值在base中的项目数量，按数量倒序取前limit个
+         */
+        List<ProjectFacetsDTO.FacetCount> count(CompressedBitmap base, int limit) {
+            if (base.isEmpty()) {
+                return List.of();
+            }
+            List<ProjectFacetsDTO.FacetCount> counts = new ArrayList<>();
+            bitmaps.forEach((key, bitmap) -> {
+                int count = bitmap.andCardinality(base);
+                if (count > 0) {
+                    counts.add(new ProjectFacetsDTO.FacetCount(labels.get(key), (long) count));
+                }
+            });
+            counts.sort(Comparator.comparing(ProjectFacetsDTO.FacetCount::getCount, Comparator.reverseOrder())
+                    .thenComparing(ProjectFacetsDTO.FacetCount::getValue));
+            return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+        }
+    }
+
+    /**
+     * 索引中的项目快照，仅保留过滤、排序所需字段
+     */
+    @Getter
+    @Builder
+    private static final class IndexedProject {
+        private final Long id;
+        private final Long categoryId;
+        private final String title;
+        private final BigDecimal price;
+        private final BigDecimal rating;
+        private final Integer ratingCount;
+        private final Integer downloadCount;
+        private final Integer viewCount;
+        private final Integer likeCount;
+        private final LocalDateTime publishedTime;
+        private final LocalDateTime createdTime;
+        private final LocalDateTime updatedTime;
+        private final Set<String> terms;
+        private final List<String> techStack;
+        private final List<String> tags;
+
+        static IndexedProject fromProject(Project project) {
+            Set<String> terms = new HashSet<>();
+            terms.addAll(SearchTokenizer.tokenizeForIndex(project.getTitle()));
+            terms.addAll(SearchTokenizer.tokenizeForIndex(project.getDescription()));
+            if (project.getTags() != null) {
+                project.getTags().forEach(tag -> terms.addAll(SearchTokenizer.tokenizeForIndex(tag)));
+            }
+            if (project.getTechStack() != null) {
+                project.getTechStack().forEach(tech -> terms.addAll(SearchTokenizer.tokenizeForIndex(tech)));
+            }
+
+            return IndexedProject.builder()
+                    .id(project.getId())
+                    .categoryId(project.getCategoryId())
+                    .title(project.getTitle())
+                    .price(project.getPrice())
+                    .rating(project.getRating())
+                    .ratingCount(project.getRatingCount())
+                    .downloadCount(project.getDownloadCount())
+                    .viewCount(project.getViewCount())
+                    .likeCount(project.getLikeCount())
+                    .publishedTime(project.getPublishedTime())
+                    .createdTime(project.getCreatedTime())
+                    .updatedTime(project.getUpdatedTime())
+                    .terms(terms)
+                    .techStack(facetValues(project.getTechStack()))
+                    .tags(facetValues(project.getTags()))
+                    .build();
+        }
+
+        /**
+         * 去除空值和重复值（忽略大小写）
+         */
+        private static List<String> facetValues(List<String> values) {
+            if (values == null || values.isEmpty()) {
+                return List.of();
+            }
+            Map<String, String> distinct = new LinkedHashMap<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    distinct.putIfAbsent(facetKey(value), value.trim());
+                }
+            }
+            return List.copyOf(distinct.values());
+        }
+
+        /**
+         * 构造仅包含游标位置信息的探针，用于在已排序结果中定位
+         */
+        static IndexedProject probe(ProjectCursor cursor) {
+            IndexedProjectBuilder builder = IndexedProject.builder().id(cursor.getId())
+                    .techStack(List.of())
+                    .tags(List.of());
+            Object value = cursor.getValue();
+            switch (cursor.getSortKey()) {
+                case PUBLISHED_TIME -> builder.publishedTime((LocalDateTime) value);
+                case DOWNLOAD_COUNT -> builder.downloadCount((Integer) value);
+                case RATING -> builder.rating((BigDecimal) value);
+                case PRICE -> builder.price((BigDecimal) value);
+                default -> throw new IllegalArgumentException("不支持的排序字段: " + cursor.getSortKey());
+            }
+            return builder.build();
+        }
+
+        /**
+         * 读取快照中的排序字段值
+         */
+        Comparable<?> sortValue(ProjectCursor.SortKey sortKey) {
+            return switch (sortKey) {
+                case PUBLISHED_TIME -> publishedTime;
+                case DOWNLOAD_COUNT -> downloadCount;
+                case RATING -> rating;
+                case PRICE -> price;
+            };
+        }
+
+        /**
+         * 与ProjectRepository.searchProjects相同的过滤条件
+         */
+        boolean matches(ProjectSearchRequest request) {
+            if (request.getCategoryId() != null && !request.getCategoryId().equals(categoryId)) {
+                return false;
+            }
+            if (request.getMinPrice() != null && (price == null || price.compareTo(request.getMinPrice()) < 0)) {
+                return false;
+            }
+            if (request.getMaxPrice() != null && (price == null || price.compareTo(request.getMaxPrice()) > 0)) {
+                return false;
+            }
+            return request.getMinRating() == null
+                    || (rating != null && rating.compareTo(request.getMinRating()) >= 0);
+        }
+    }
+}
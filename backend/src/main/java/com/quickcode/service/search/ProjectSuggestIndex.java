@@ -0,0 +1,590 @@
+package com.quickcode.service.search;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.dto.project.ProjectSuggestionDTO;
+import com.quickcode.dto.project.ProjectSuggestionDTO.SuggestionType;
+import com.quickcode.entity.Category;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.CategoryRepository;
+import com.quickcode.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 搜索框输入联想索引
+ * 以已发布项目的标题、标签、技术栈和分类名称/编码为候选，按下载量加权构建前缀树。
+ * 除整串前缀外，英文单词起始位置和每个汉字起始位置也作为检索键，
+ * 使“boot”能联想到“Spring Boot”、“后台”能联想到“管理后台”；
+ * 另外按内置拼音表生成全拼和首字母检索键。
+ * 项目变更只修改内存中的词典并标记为脏，变更平息一段时间（或距首次变更超过最大延迟）后
+ * 由定时任务重建一次前缀树并整体替换，连续的批量变更合并为一次重建，查询无锁
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectSuggestIndex {
+
+    /**
+     * 检索键最大长度，更长的查询先按前缀命中再按包含关系过滤
+     */
+    static final int MAX_KEY_LENGTH = 24;
+
+    /**
+     * 单个文本最多生成的中间起始检索键数量，避免超长标题撑大前缀树
+     */
+    private static final int MAX_INFIX_STARTS = 32;
+
+    /**
+     * 全量重建时每批加载的项目数量
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProjectRepository projectRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${app.search.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${app.search.suggest.pinyin:true}")
+    private boolean pinyin;
+
+    @Value("${app.search.suggest.quiet-period:3000}")
+    private long quietPeriodMillis;
+
+    @Value("${app.search.suggest.max-delay:30000}")
+    private long maxDelayMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    /**
+     * 已发布项目的联想词条（受lock保护）
+     */
+    private Map<Long, ProjectTerms> projects = new HashMap<>();
+
+    /**
+     * 启用的分类（受lock保护）
+     */
+    private List<CategoryTerms> categories = List.of();
+
+    /**
+     * 重建期间收到的增量变更，值为null表示移除（受lock保护）
+     */
+    private Map<Long, ProjectTerms> pendingChanges;
+
+    /**
+     * 上次重建后首次变更和最近一次变更的时间（受lock保护）
+     */
+    private long firstChangeTime;
+    private long lastChangeTime;
+
+    /**
+     * 当前生效的前缀树
+     */
+    private volatile SuggestTrie<Suggestion> trie;
+
+    /**
+     * 应用启动后异步构建
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期全量重建，同步下载量权重和分类变化
+     * 默认每30分钟执行一次
+     */
+    @Scheduled(fixedDelayString = "${app.search.suggest.rebuild-interval:1800000}",
+               initialDelayString = "${app.search.suggest.rebuild-interval:1800000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 词典有变更且已平息quiet-period，或距首次变更已超过max-delay时重建前缀树
+     * 默认每秒检查一次
+     */
+    @Scheduled(fixedDelayString = "${app.search.suggest.refresh-interval:1000}")
+    public void refreshIfDirty() {
+        if (enabled && trie != null && isRefreshDue(System.currentTimeMillis())) {
+            refreshTrie();
+        }
+    }
+
+    private boolean isRefreshDue(long now) {
+        lock.lock();
+        try {
+            return dirty.get()
+                    && (now - lastChangeTime >= quietPeriodMillis || now - firstChangeTime >= maxDelayMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 项目变更后更新词典（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Project project = event.getProject();
+        ProjectTerms terms = !event.isDeleted() && project.isPublished() && project.isAvailable()
+                ? ProjectTerms.fromProject(project) : null;
+
+        lock.lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(event.getProjectId(), terms);
+            }
+            ProjectTerms previous = terms != null
+                    ? projects.put(event.getProjectId(), terms)
+                    : projects.remove(event.getProjectId());
+            if (terms != null || previous != null) {
+                long now = System.currentTimeMillis();
+                if (!dirty.getAndSet(true)) {
+                    firstChangeTime = now;
+                }
+                lastChangeTime = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从数据库全量加载词典并重建前缀树
+     */
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        lock.lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Map<Long, ProjectTerms> freshProjects = new HashMap<>();
+            int pageNumber = 0;
+            Page<Project> batch;
+            do {
+                batch = projectRepository.findByStatus(Project.Status.PUBLISHED.getCode(),
+                        PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+                batch.forEach(project -> {
+                    if (project.isAvailable()) {
+                        freshProjects.put(project.getId(), ProjectTerms.fromProject(project));
+                    }
+                });
+            } while (batch.hasNext());
+
+            List<CategoryTerms> freshCategories = categoryRepository.findActiveCategories().stream()
+                    .map(CategoryTerms::fromCategory)
+                    .toList();
+
+            lock.lock();
+            try {
+                pendingChanges.forEach((projectId, terms) -> {
+                    if (terms != null) {
+                        freshProjects.put(projectId, terms);
+                    } else {
+                        freshProjects.remove(projectId);
+                    }
+                });
+                projects = freshProjects;
+                categories = freshCategories;
+            } finally {
+                pendingChanges = null;
+                lock.unlock();
+            }
+
+            SuggestTrie<Suggestion> built = refreshTrie();
+            log.info("输入联想索引重建完成: projects={}, suggestions={}, nodes={}, cost={}ms",
+                    freshProjects.size(), built.size(), built.nodeCount(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            lock.lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.unlock();
+            }
+            log.error("输入联想索引重建失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 索引是否可用于查询
+     */
+    public boolean isReady() {
+        return enabled && trie != null;
+    }
+
+    /**
+     * 查询输入联想，按权重倒序返回；索引不可用时返回空，由调用方回退到数据库查询
+     */
+    public Optional<List<ProjectSuggestionDTO>> suggest(String query, int limit) {
+        SuggestTrie<Suggestion> current = trie;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+        String normalized = normalize(query);
+        int size = Math.min(limit, current.getTopK());
+        if (normalized.isEmpty() || size <= 0) {
+            return Optional.of(List.of());
+        }
+
+        List<Suggestion> matches;
+        if (normalized.length() <= MAX_KEY_LENGTH) {
+            matches = current.lookup(normalized, size);
+            String compacted = compact(normalized);
+            if (matches.isEmpty() && !compacted.equals(normalized)) {
+                matches = current.lookup(truncate(compacted), size);
+            }
+        } else {
+            matches = current.lookup(normalized.substring(0, MAX_KEY_LENGTH), current.getTopK()).stream()
+                    .filter(suggestion -> suggestion.normalized.contains(normalized))
+                    .limit(size)
+                    .toList();
+        }
+        return Optional.of(matches.stream().map(Suggestion::toDTO).toList());
+    }
+
+    /**
+     * 由当前词典构建前缀树并替换
+     * 同一时刻只允许一个线程构建，避免旧词典构建的结果覆盖新结果
+     */
+    private synchronized SuggestTrie<Suggestion> refreshTrie() {
+        List<ProjectTerms> projectSnapshot;
+        List<CategoryTerms> categorySnapshot;
+        lock.lock();
+        try {
+            dirty.set(false);
+            projectSnapshot = new ArrayList<>(projects.values());
+            categorySnapshot = categories;
+        } finally {
+            lock.unlock();
+        }
+
+        SuggestTrie<Suggestion> built = buildTrie(projectSnapshot, categorySnapshot, maxResults, isPinyinAvailable());
+        trie = built;
+        return built;
+    }
+
+    private boolean isPinyinAvailable() {
+        return pinyin && PinyinTable.isLoaded();
+    }
+
+    /**
+     * 汇总项目、标签、技术栈和分类候选并构建前缀树
+     * 标签、技术栈和分类的权重为关联项目的下载量之和加项目数量
+     */
+    static SuggestTrie<Suggestion> buildTrie(Collection<ProjectTerms> projects, Collection<CategoryTerms> categories,
+                                             int topK, boolean withPinyin) {
+        List<WeightedSuggestion> candidates = new ArrayList<>();
+        Map<String, WeightedSuggestion> tags = new LinkedHashMap<>();
+        Map<String, WeightedSuggestion> techStacks = new LinkedHashMap<>();
+        Map<Long, Long> categoryWeights = new HashMap<>();
+
+        for (ProjectTerms project : projects) {
+            if (!project.title.isBlank()) {
+                candidates.add(new WeightedSuggestion(new Suggestion(SuggestionType.PROJECT, project.title,
+                        project.id, project.categoryId, null), project.downloads));
+            }
+            aggregate(tags, SuggestionType.TAG, project.tags, project.downloads);
+            aggregate(techStacks, SuggestionType.TECH_STACK, project.techStack, project.downloads);
+            if (project.categoryId != null) {
+                categoryWeights.merge(project.categoryId, project.downloads + 1, Long::sum);
+            }
+        }
+        candidates.addAll(tags.values());
+        candidates.addAll(techStacks.values());
+        for (CategoryTerms category : categories) {
+            candidates.add(new WeightedSuggestion(new Suggestion(SuggestionType.CATEGORY, category.name,
+                    null, category.id, category.code), categoryWeights.getOrDefault(category.id, 0L)));
+        }
+
+        // 权重相同时依次按类型、文本长度排列，构建器按添加顺序决定先后
+        candidates.sort(Comparator.comparingLong((WeightedSuggestion candidate) -> candidate.weight).reversed()
+                .thenComparing(candidate -> candidate.suggestion.type)
+                .thenComparingInt(candidate -> candidate.suggestion.text.length()));
+
+        SuggestTrie.Builder<Suggestion> builder = SuggestTrie.builder(topK);
+        for (WeightedSuggestion candidate : candidates) {
+            Suggestion suggestion = candidate.suggestion;
+            int entry = builder.addEntry(suggestion, candidate.weight);
+            keysFor(suggestion.text, withPinyin).forEach(key -> builder.addKey(entry, key));
+            if (suggestion.categoryCode != null) {
+                builder.addKey(entry, truncate(normalize(suggestion.categoryCode)));
+            }
+        }
+        return builder.build();
+    }
+
+    private static void aggregate(Map<String, WeightedSuggestion> target, SuggestionType type,
+                                  List<String> values, long downloads) {
+        for (String value : values) {
+            WeightedSuggestion existing = target.computeIfAbsent(normalize(value), key ->
+                    new WeightedSuggestion(new Suggestion(type, value, null, null, null), 0));
+            existing.weight += downloads + 1;
+        }
+    }
+
+    /**
+     * 生成文本的检索键：整串、去除分隔符后的整串、单词及汉字起始位置的后缀，以及可选的拼音键
+     */
+    static Set<String> keysFor(String text, boolean withPinyin) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        addKey(keys, normalized);
+        addKey(keys, compact(normalized));
+
+        boolean hasCjk = isCjk(normalized.charAt(0));
+        int starts = 0;
+        for (int i = 1; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            char previous = normalized.charAt(i - 1);
+            boolean cjk = isCjk(c);
+            hasCjk |= cjk;
+            if (starts >= MAX_INFIX_STARTS || !Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            boolean wordStart = !Character.isLetterOrDigit(previous) || isCjk(previous);
+            if (cjk || wordStart) {
+                addKey(keys, normalized.substring(i));
+                starts++;
+            }
+        }
+
+        if (withPinyin && hasCjk) {
+            addPinyinKeys(keys, normalized);
+        }
+        return keys;
+    }
+
+    /**
+     * 生成全拼和首字母检索键，并从每个汉字位置开始生成后缀键
+     */
+    private static void addPinyinKeys(Set<String> keys, String normalized) {
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        List<int[]> offsets = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (isCjk(c)) {
+                String syllable = PinyinTable.toPinyin(c);
+                if (syllable == null) {
+                    continue;
+                }
+                offsets.add(new int[] {full.length(), initials.length()});
+                full.append(syllable);
+                initials.append(syllable.charAt(0));
+            } else if (Character.isLetterOrDigit(c)) {
+                full.append(c);
+                initials.append(c);
+            }
+        }
+        addKey(keys, full.toString());
+        addKey(keys, initials.toString());
+        // 首个汉字不在开头时（如“Spring Cloud 商城”）也要生成后缀键，重复的整串键由Set去重
+        for (int i = 0; i < offsets.size() && i <= MAX_INFIX_STARTS; i++) {
+            addKey(keys, full.substring(offsets.get(i)[0]));
+            addKey(keys, initials.substring(offsets.get(i)[1]));
+        }
+    }
+
+    /**
+     * 先排除ASCII等低位字符，减少Unicode脚本表查询
+     */
+    private static boolean isCjk(char c) {
+        return c >= '\u2e80' && SearchTokenizer.isCjk(c);
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (!key.isEmpty()) {
+            keys.add(truncate(key));
+        }
+    }
+
+    /**
+     * 规范化：转小写、去除首尾空白并合并连续空白
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String trimmed = text.trim();
+        StringBuilder builder = new StringBuilder(trimmed.length());
+        boolean space = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                builder.append(' ');
+                space = false;
+            }
+            builder.append(c);
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 去除空格、点号、连字符等分隔符，使“springboot”“vuejs”也能命中
+     */
+    private static String compact(String normalized) {
+        StringBuilder builder = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * 联想候选（不可变，查询时转换为DTO）
+     */
+    static final class Suggestion {
+        private final SuggestionType type;
+        private final String text;
+        private final Long projectId;
+        private final Long categoryId;
+        private final String categoryCode;
+        private final String normalized;
+
+        Suggestion(SuggestionType type, String text, Long projectId, Long categoryId, String categoryCode) {
+            this.type = type;
+            this.text = text.trim();
+            this.projectId = projectId;
+            this.categoryId = categoryId;
+            this.categoryCode = categoryCode;
+            this.normalized = normalize(text);
+        }
+
+        ProjectSuggestionDTO toDTO() {
+            return ProjectSuggestionDTO.builder()
+                    .type(type)
+                    .text(text)
+                    .projectId(projectId)
+                    .categoryId(categoryId)
+                    .categoryCode(categoryCode)
+                    .build();
+        }
+    }
+
+    private static final class WeightedSuggestion {
+        private final Suggestion suggestion;
+        private long weight;
+
+        WeightedSuggestion(Suggestion suggestion, long weight) {
+            this.suggestion = suggestion;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 单个项目参与联想的字段快照
+     */
+    static final class ProjectTerms {
+        private final Long id;
+        private final Long categoryId;
+        private final String title;
+        private final long downloads;
+        private final List<String> tags;
+        private final List<String> techStack;
+
+        private ProjectTerms(Long id, Long categoryId, String title, long downloads,
+                             List<String> tags, List<String> techStack) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.title = title;
+            this.downloads = downloads;
+            this.tags = tags;
+            this.techStack = techStack;
+        }
+
+        static ProjectTerms fromProject(Project project) {
+            return new ProjectTerms(project.getId(), project.getCategoryId(),
+                    project.getTitle() != null ? project.getTitle() : "",
+                    project.getDownloadCount() != null ? project.getDownloadCount() : 0,
+                    nonBlank(project.getTags()), nonBlank(project.getTechStack()));
+        }
+
+        private static List<String> nonBlank(List<String> values) {
+            if (values == null) {
+                return List.of();
+            }
+            return values.stream().filter(value -> value != null && !value.isBlank()).toList();
+        }
+    }
+
+    /**
+     * 分类快照
+     */
+    static final class CategoryTerms {
+        private final Long id;
+        private final String name;
+        private final String code;
+
+        private CategoryTerms(Long id, String name, String code) {
+            this.id = id;
+            this.name = name;
+            this.code = code;
+        }
+
+        static CategoryTerms fromCategory(Category category) {
+            return new CategoryTerms(category.getId(), category.getName() != null ? category.getName() : "",
+                    category.getCode());
+        }
+    }
+}
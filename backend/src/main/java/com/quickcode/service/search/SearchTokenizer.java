@@ -0,0 +1,150 @@
+package com.quickcode.service.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 搜索分词器
+ * 英文、数字按单词切分并转为小写；中日韩文字按单字和二元组（bigram）切分，
+ * 使“项目管理”这类无空格文本也能被子串式检索命中
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 对索引文本分词
+     * 中日韩文字同时输出单字和二元组，保证单字查询也能命中
+     */
+    public static Set<String> tokenizeForIndex(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Run run : splitRuns(text)) {
+            if (run.cjk) {
+                String value = run.text;
+                for (int i = 0; i < value.length(); i++) {
+                    tokens.add(value.substring(i, i + 1));
+                    if (i + 1 < value.length()) {
+                        tokens.add(value.substring(i, i + 2));
+                    }
+                }
+            } else {
+                tokens.add(run.text);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 对查询关键词分词
+     * 中日韩文字只输出二元组（单字片段除外），英文单词按前缀匹配使用
+     */
+    public static List<QueryToken> tokenizeQuery(String keyword) {
+        Set<QueryToken> tokens = new LinkedHashSet<>();
+        for (Run run : splitRuns(keyword)) {
+            if (run.cjk) {
+                String value = run.text;
+                if (value.length() == 1) {
+                    tokens.add(new QueryToken(value, false));
+                    continue;
+                }
+                for (int i = 0; i + 1 < value.length(); i++) {
+                    tokens.add(new QueryToken(value.substring(i, i + 2), false));
+                }
+            } else {
+                tokens.add(new QueryToken(run.text, true));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 判断字符是否属于中日韩文字
+     */
+    public static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 将文本切分为连续的中日韩片段和字母数字片段，其余字符作为分隔符
+     */
+    private static List<Run> splitRuns(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            boolean cjk = isCjk(codePoint);
+            boolean wordChar = cjk || Character.isLetterOrDigit(codePoint);
+
+            if (!wordChar || (current.length() > 0 && cjk != currentCjk)) {
+                flush(runs, current, currentCjk);
+            }
+            if (wordChar) {
+                current.appendCodePoint(codePoint);
+                currentCjk = cjk;
+            }
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString(), cjk));
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * 连续片段
+     */
+    private static final class Run {
+        private final String text;
+        private final boolean cjk;
+
+        private Run(String text, boolean cjk) {
+            this.text = text;
+            this.cjk = cjk;
+        }
+    }
+
+    /**
+     * 查询词
+     */
+    @Data
+    @AllArgsConstructor
+    public static class QueryToken {
+
+        /**
+         * 词项
+         */
+        private String term;
+
+        /**
+         * 是否按前缀匹配
+         */
+        private boolean prefix;
+    }
+}
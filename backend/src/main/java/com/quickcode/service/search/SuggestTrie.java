@@ -0,0 +1,289 @@
+package com.quickcode.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 输入联想前缀树
+ * 构建时为每个节点预先计算其子树内权重最高的前K个候选，
+ * 查询只需沿前缀走到对应节点并读取结果，耗时只与前缀长度有关。
+ * 构建完成后不可变，可在多个线程间无锁共享
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+public final class SuggestTrie<T> {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final Node root;
+
+    private final List<T> entries;
+
+    private final int topK;
+
+    private final int nodeCount;
+
+    private SuggestTrie(Node root, List<T> entries, int topK, int nodeCount) {
+        this.root = root;
+        this.entries = entries;
+        this.topK = topK;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param topK 每个节点保留的候选数量，即单次查询能返回的最大条数
+     */
+    public static <T> Builder<T> builder(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK必须大于0");
+        }
+        return new Builder<>(topK);
+    }
+
+    /**
+     * 查询以prefix开头的候选，按权重倒序返回
+     * prefix需要与构建时的键使用相同的规范化方式
+     */
+    public List<T> lookup(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(limit, node.top.length);
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(entries.get(node.top[i]));
+        }
+        return result;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * 候选条目数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 树节点数量
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 前缀树构建器，非线程安全
+     */
+    public static final class Builder<T> {
+
+        private final int topK;
+
+        private final List<T> entries = new ArrayList<>();
+
+        private final List<Long> weights = new ArrayList<>();
+
+        private final BuildNode root = new BuildNode();
+
+        private int nodeCount = 1;
+
+        private Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * 添加候选条目，返回条目编号
+         * 权重相同时先添加的条目排在前面
+         */
+        public int addEntry(T entry, long weight) {
+            entries.add(entry);
+            weights.add(weight);
+            return entries.size() - 1;
+        }
+
+        /**
+         * 为条目添加一个检索键，同一条目可以有多个键（全称、拼音、首字母等）
+         */
+        public Builder<T> addKey(int entry, String key) {
+            if (entry < 0 || entry >= entries.size()) {
+                throw new IllegalArgumentException("条目编号无效: " + entry);
+            }
+            if (key == null || key.isEmpty()) {
+                return this;
+            }
+            BuildNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                BuildNode child = node.child(c);
+                if (child == null) {
+                    child = node.addChild(c);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            node.addTerminal(entry);
+            return this;
+        }
+
+        public SuggestTrie<T> build() {
+            long[] weightArray = new long[weights.size()];
+            for (int i = 0; i < weightArray.length; i++) {
+                weightArray[i] = weights.get(i);
+            }
+            Node frozen = freeze(root, weightArray, new int[entries.size()], new int[] {0});
+            return new SuggestTrie<>(frozen, List.copyOf(entries), topK, nodeCount);
+        }
+
+        /**
+         * 自底向上转换为紧凑节点，并合并子节点的候选得到本节点的前K个
+         *
+         * @param marks 去重标记数组，marks[entry] == stamp表示本轮已收集
+         * @param stamp 当前去重轮次
+         */
+        private Node freeze(BuildNode source, long[] weightArray, int[] marks, int[] stamp) {
+            char[] labels = NO_LABELS;
+            Node[] children = NO_CHILDREN;
+            if (source.childCount > 0) {
+                labels = Arrays.copyOf(source.labels, source.childCount);
+                children = new Node[labels.length];
+                for (int i = 0; i < labels.length; i++) {
+                    children[i] = freeze(source.children[i], weightArray, marks, stamp);
+                }
+            }
+
+            int round = ++stamp[0];
+            int[] candidates = new int[source.terminalCount + children.length * topK];
+            int size = 0;
+            for (int i = 0; i < source.terminalCount; i++) {
+                int entry = source.terminals[i];
+                if (marks[entry] != round) {
+                    marks[entry] = round;
+                    candidates[size++] = entry;
+                }
+            }
+            for (Node child : children) {
+                for (int entry : child.top) {
+                    if (marks[entry] != round) {
+                        marks[entry] = round;
+                        candidates[size++] = entry;
+                    }
+                }
+            }
+            return new Node(labels, children, selectTop(candidates, size, weightArray));
+        }
+
+        /**
+         * 插入法选出权重最高的前K个，K很小，比整体排序更省
+         */
+        private int[] selectTop(int[] candidates, int size, long[] weightArray) {
+            if (size == 0) {
+                return NO_ENTRIES;
+            }
+            int[] top = new int[Math.min(topK, size)];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int entry = candidates[i];
+                if (count == top.length && !ranksBefore(entry, top[count - 1], weightArray)) {
+                    continue;
+                }
+                int position = count < top.length ? count++ : count - 1;
+                while (position > 0 && ranksBefore(entry, top[position - 1], weightArray)) {
+                    top[position] = top[position - 1];
+                    position--;
+                }
+                top[position] = entry;
+            }
+            return top;
+        }
+
+        /**
+         * 权重高的在前，权重相同时先添加的在前
+         */
+        private static boolean ranksBefore(int a, int b, long[] weightArray) {
+            return weightArray[a] != weightArray[b] ? weightArray[a] > weightArray[b] : a < b;
+        }
+    }
+
+    /**
+     * 构建期节点
+     */
+    private static final class BuildNode {
+        private static final BuildNode[] NO_BUILD_CHILDREN = new BuildNode[0];
+
+        /**
+         * 子节点按字符有序排列；大部分节点只有一两个子节点，用数组比哈希表更省内存和时间
+         */
+        private char[] labels = NO_LABELS;
+        private BuildNode[] children = NO_BUILD_CHILDREN;
+        private int childCount;
+        private int[] terminals = NO_ENTRIES;
+        private int terminalCount;
+
+        BuildNode child(char c) {
+            int index = Arrays.binarySearch(labels, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        BuildNode addChild(char c) {
+            int position = -(Arrays.binarySearch(labels, 0, childCount, c) + 1);
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, position, labels, position + 1, childCount - position);
+            System.arraycopy(children, position, children, position + 1, childCount - position);
+            BuildNode child = new BuildNode();
+            labels[position] = c;
+            children[position] = child;
+            childCount++;
+            return child;
+        }
+
+        void addTerminal(int entry) {
+            // 同一条目的检索键连续添加，只需与最后一个比较即可去重，其余重复在合并时过滤
+            if (terminalCount > 0 && terminals[terminalCount - 1] == entry) {
+                return;
+            }
+            if (terminalCount == terminals.length) {
+                terminals = Arrays.copyOf(terminals, Math.max(2, terminalCount * 2));
+            }
+            terminals[terminalCount++] = entry;
+        }
+    }
+
+    /**
+     * 查询期节点：子节点按字符有序排列，二分查找
+     */
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final int[] top;
+
+        Node(char[] labels, Node[] children, int[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.quickcode.service.trending;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import com.quickcode.service.RedisService;
+import com.quickcode.service.counter.CounterType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 项目热度榜服务
+ * 浏览、点赞、收藏、下载、购买按权重累加到Redis有序集合中，分数按半衰期指数衰减，
+ * 近期活跃的项目排在前面，不再由累计下载量最高的老项目长期占据榜首。
+ * 采用前向衰减：每次增量按发生时间放大后累加，读取时直接ZREVRANGE，无需逐个重算；
+ * 定期逐个榜单把基准时间前移并整体缩小分数，防止分数溢出。
+ * 同时维护全站榜和分类榜，只有已发布的项目参与排名
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectTrendingService {
+
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    private final RedisService redisService;
+    private final ProjectRepository projectRepository;
+
+    @Value("${app.trending.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 热度半衰期（小时），一次行为的贡献每经过一个半衰期减半
+     */
+    @Value("${app.trending.half-life-hours:24}")
+    private double halfLifeHours;
+
+    /**
+     * 基准前移时删除的最低分数（按当前时间折算）
+     */
+    @Value("${app.trending.min-score:0.01}")
+    private double minScore;
+
+    @Value("${app.trending.weights.view:1}")
+    private double viewWeight;
+
+    @Value("${app.trending.weights.like:2}")
+    private double likeWeight;
+
+    @Value("${app.trending.weights.favorite:3}")
+    private double favoriteWeight;
+
+    @Value("${app.trending.weights.download:5}")
+    private double downloadWeight;
+
+    @Value("${app.trending.weights.order:10}")
+    private double orderWeight;
+
+    /**
+     * 衰减系数λ（每秒）= ln2 / 半衰期
+     */
+    private double lambda;
+
+    private final Map<CounterType, Double> counterWeights = new EnumMap<>(CounterType.class);
+
+    @PostConstruct
+    public void init() {
+        lambda = Math.log(2) / (halfLifeHours * 3600);
+        counterWeights.put(CounterType.VIEW, viewWeight);
+        counterWeights.put(CounterType.LIKE, likeWeight);
+        counterWeights.put(CounterType.FAVORITE, favoriteWeight);
+        counterWeights.put(CounterType.DOWNLOAD, downloadWeight);
+    }
+
+    /**
+     * 累加一批计数增量对应的热度
+     * 取消点赞、取消收藏等负增量不扣减热度，热度只随时间衰减
+     */
+    public void record(CounterType type, Map<Long, Long> deltas) {
+        double weight = counterWeights.getOrDefault(type, 0.0);
+        if (!enabled || weight <= 0) {
+            return;
+        }
+        Map<Long, Double> weights = new HashMap<>();
+        deltas.forEach((projectId, delta) -> {
+            if (delta > 0) {
+                weights.put(projectId, delta * weight);
+            }
+        });
+        addScores(weights);
+    }
+
+    /**
+     * 累加一次购买的热度
+     * 在事务中调用时，事务提交后才计入
+     */
+    public void recordOrder(Long projectId) {
+        if (!enabled || projectId == null || orderWeight <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addScores(Map.of(projectId, orderWeight));
+                }
+            });
+        } else {
+            addScores(Map.of(projectId, orderWeight));
+        }
+    }
+
+    /**
+     * 获取热度最高的项目ID
+     *
+     * @param categoryId 分类ID，为null时查询全站榜
+     * @return 未启用或Redis不可用时返回empty，调用方应回退到数据库查询
+     */
+    public Optional<List<Long>> getTopProjectIds(Long categoryId, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(redisService.getTopTrendingProjectIds(categoryId, limit));
+        } catch (Exception e) {
+            log.warn("获取热度榜失败: categoryId={}", categoryId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 项目发布、下架、分类变化后更新排名资格（事务提交后执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Project project = event.getProject();
+        try {
+            if (!event.isDeleted() && project.isPublished() && project.isAvailable()) {
+                redisService.trackTrendingProject(project.getId(), project.getCategoryId(), lambda);
+            } else {
+                redisService.untrackTrendingProject(event.getProjectId());
+            }
+        } catch (Exception e) {
+            // 定期同步会修正遗漏的变更
+            log.warn("更新项目热度排名资格失败: projectId={}", event.getProjectId(), e);
+        }
+    }
+
+    /**
+     * 启动后同步参与排名的项目
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        syncTrackedProjects();
+    }
+
+    /**
+     * 按数据库中的已发布项目校正排名资格，兜底未送达的项目变更事件
+     * 默认每30分钟执行一次
+     */
+    @Scheduled(fixedDelayString = "${app.trending.sync-interval:1800000}",
+               initialDelayString = "${app.trending.sync-interval:1800000}")
+    public void syncTrackedProjects() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            Set<Long> stale = redisService.getTrendingProjectIds();
+            int tracked = 0;
+            int pageNumber = 0;
+            Page<Project> batch;
+            do {
+                batch = projectRepository.findByStatus(Project.Status.PUBLISHED.getCode(),
+                        PageRequest.of(pageNumber++, SYNC_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+                for (Project project : batch) {
+                    if (project.isAvailable()) {
+                        stale.remove(project.getId());
+                        redisService.trackTrendingProject(project.getId(), project.getCategoryId(), lambda);
+                        tracked++;
+                    }
+                }
+            } while (batch.hasNext());
+
+            for (Long projectId : stale) {
+                redisService.untrackTrendingProject(projectId);
+            }
+            log.info("热度榜项目同步完成: tracked={}, removed={}, cost={}ms",
+                    tracked, stale.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("热度榜项目同步失败", e);
+        }
+    }
+
+    /**
+     * 定期把衰减基准前移到当前时间并清理冷门项目
+     * 默认每小时执行一次
+     */
+    @Scheduled(fixedDelayString = "${app.trending.rescale-interval:3600000}",
+               initialDelayString = "${app.trending.rescale-interval:3600000}")
+    public void rescale() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long removed = redisService.rescaleTrendingScores(lambda, minScore);
+            log.debug("热度分数基准前移完成: removed={}", removed);
+        } catch (Exception e) {
+            log.error("热度分数基准前移失败", e);
+        }
+    }
+
+    private void addScores(Map<Long, Double> weights) {
+        if (weights.isEmpty()) {
+            return;
+        }
+        try {
+            redisService.addTrendingScores(weights, lambda);
+        } catch (Exception e) {
+            // 热度只影响排序，失败时丢弃本批增量
+            log.warn("累加项目热度失败: projects={}", weights.size(), e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- 为下载记录表添加断点续传位置字段
+-- 用于Range请求续传时恢复已发送的字节数
+
+ALTER TABLE project_downloads
+ADD COLUMN IF NOT EXISTS resume_offset BIGINT NOT NULL DEFAULT 0 COMMENT '断点续传位置（字节）';
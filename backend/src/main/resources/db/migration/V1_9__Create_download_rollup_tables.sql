@@ -0,0 +1,88 @@
+-- 创建下载汇总表
+-- 统计接口只读取按小时、按天的汇总，不再聚合下载明细
+
+CREATE TABLE IF NOT EXISTS download_project_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    granularity VARCHAR(8) NOT NULL COMMENT '汇总粒度：HOUR/DAY',
+    period_start DATETIME NOT NULL COMMENT '汇总周期开始时间',
+    project_id BIGINT NOT NULL COMMENT '项目ID',
+    download_source VARCHAR(20) NOT NULL COMMENT '下载来源，未知来源记为UNKNOWN',
+    download_status INT NOT NULL COMMENT '下载状态',
+    download_count BIGINT NOT NULL DEFAULT 0 COMMENT '下载次数',
+    total_size BIGINT NOT NULL DEFAULT 0 COMMENT '文件大小合计（字节）',
+    total_duration BIGINT NOT NULL DEFAULT 0 COMMENT '下载耗时合计（毫秒）',
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    CONSTRAINT uk_download_project_rollup UNIQUE (granularity, period_start, project_id, download_source, download_status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目下载汇总表';
+
+CREATE INDEX idx_download_project_rollup_period ON download_project_rollups(granularity, period_start);
+CREATE INDEX idx_download_project_rollup_project ON download_project_rollups(project_id, granularity, period_start);
+
+CREATE TABLE IF NOT EXISTS download_user_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    granularity VARCHAR(8) NOT NULL COMMENT '汇总粒度：HOUR/DAY',
+    period_start DATETIME NOT NULL COMMENT '汇总周期开始时间',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    download_status INT NOT NULL COMMENT '下载状态',
+    download_count BIGINT NOT NULL DEFAULT 0 COMMENT '下载次数',
+    total_size BIGINT NOT NULL DEFAULT 0 COMMENT '文件大小合计（字节）',
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    CONSTRAINT uk_download_user_rollup UNIQUE (granularity, period_start, user_id, download_status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户下载汇总表';
+
+CREATE INDEX idx_download_user_rollup_period ON download_user_rollups(granularity, period_start);
+CREATE INDEX idx_download_user_rollup_user ON download_user_rollups(user_id, granularity, period_start);
+
+CREATE TABLE IF NOT EXISTS download_user_projects (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    project_id BIGINT NOT NULL COMMENT '项目ID',
+    first_download_time DATETIME NOT NULL COMMENT '首次成功下载时间',
+    last_download_time DATETIME NOT NULL COMMENT '最近成功下载时间',
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    CONSTRAINT uk_download_user_project UNIQUE (user_id, project_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户成功下载过的项目';
+
+CREATE INDEX idx_download_user_project_project ON download_user_projects(project_id);
+
+-- 用已有下载明细回填汇总
+INSERT INTO download_project_rollups (granularity, period_start, project_id, download_source, download_status,
+                                      download_count, total_size, total_duration)
+SELECT 'HOUR', DATE_FORMAT(download_time, '%Y-%m-%d %H:00:00'), project_id, COALESCE(download_source, 'UNKNOWN'),
+       download_status, COUNT(*), COALESCE(SUM(file_size), 0), COALESCE(SUM(download_duration), 0)
+FROM project_downloads
+WHERE deleted = 0 AND download_time >= DATE_SUB(CURDATE(), INTERVAL 14 DAY)
+GROUP BY DATE_FORMAT(download_time, '%Y-%m-%d %H:00:00'), project_id, COALESCE(download_source, 'UNKNOWN'), download_status;
+
+INSERT INTO download_project_rollups (granularity, period_start, project_id, download_source, download_status,
+                                      download_count, total_size, total_duration)
+SELECT 'DAY', DATE(download_time), project_id, COALESCE(download_source, 'UNKNOWN'),
+       download_status, COUNT(*), COALESCE(SUM(file_size), 0), COALESCE(SUM(download_duration), 0)
+FROM project_downloads
+WHERE deleted = 0
+GROUP BY DATE(download_time), project_id, COALESCE(download_source, 'UNKNOWN'), download_status;
+
+INSERT INTO download_user_rollups (granularity, period_start, user_id, download_status, download_count, total_size)
+SELECT 'HOUR', DATE_FORMAT(download_time, '%Y-%m-%d %H:00:00'), user_id, download_status,
+       COUNT(*), COALESCE(SUM(file_size), 0)
+FROM project_downloads
+WHERE deleted = 0 AND user_id IS NOT NULL AND download_time >= DATE_SUB(CURDATE(), INTERVAL 14 DAY)
+GROUP BY DATE_FORMAT(download_time, '%Y-%m-%d %H:00:00'), user_id, download_status;
+
+INSERT INTO download_user_rollups (granularity, period_start, user_id, download_status, download_count, total_size)
+SELECT 'DAY', DATE(download_time), user_id, download_status, COUNT(*), COALESCE(SUM(file_size), 0)
+FROM project_downloads
+WHERE deleted = 0 AND user_id IS NOT NULL
+GROUP BY DATE(download_time), user_id, download_status;
+
+INSERT INTO download_user_projects (user_id, project_id, first_download_time, last_download_time)
+SELECT user_id, project_id, MIN(download_time), MAX(download_time)
+FROM project_downloads
+WHERE deleted = 0 AND user_id IS NOT NULL AND download_status = 1
+GROUP BY user_id, project_id;
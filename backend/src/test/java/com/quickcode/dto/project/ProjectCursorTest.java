@@ -0,0 +1,95 @@
+package com.quickcode.dto.project;
+
+import com.quickcode.dto.project.ProjectCursor.SortKey;
+import com.quickcode.entity.Project;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 项目列表游标测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class ProjectCursorTest {
+
+    @Test
+    void testRoundTripForEverySortKey() {
+        Project project = Project.builder()
+                .publishedTime(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000))
+                .downloadCount(17)
+                .rating(new BigDecimal("4.50"))
+                .price(new BigDecimal("99.90"))
+                .build();
+        project.setId(42L);
+
+        for (SortKey sortKey : SortKey.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                ProjectCursor decoded = ProjectCursor.decode(ProjectCursor.of(sortKey, ascending, project).encode());
+
+                assertEquals(sortKey, decoded.getSortKey());
+                assertEquals(ascending, decoded.isAscending());
+                assertEquals(sortKey.valueOf(project), decoded.getValue(), sortKey.name());
+                assertEquals(42L, decoded.getId());
+            }
+        }
+    }
+
+    @Test
+    void testRoundTripWithNullValue() {
+        for (SortKey sortKey : SortKey.values()) {
+            ProjectCursor decoded = ProjectCursor.decode(new ProjectCursor(sortKey, false, null, 7L).encode());
+
+            assertEquals(sortKey, decoded.getSortKey());
+            assertNull(decoded.getValue());
+            assertEquals(7L, decoded.getId());
+        }
+    }
+
+    @Test
+    void testEncodedCursorIsUrlSafe() {
+        String token = new ProjectCursor(SortKey.PUBLISHED_TIME, true,
+                LocalDateTime.of(2024, 1, 1, 0, 0), Long.MAX_VALUE).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testMalformedTokenRejected() {
+        for (String token : List.of("", "not base64!", "%%%")) {
+            assertThrows(IllegalArgumentException.class, () -> ProjectCursor.decode(token), token);
+        }
+    }
+
+    @Test
+    void testTamperedCursorRejected() {
+        List<String> tampered = List.of(
+                "PUBLISHED_TIME|desc|2024-01-01T00:00",
+                "PUBLISHED_TIME|desc|2024-01-01T00:00|1|2",
+                "UNKNOWN|desc|1|1",
+                "downloadCount|desc|1|1",
+                "DOWNLOAD_COUNT|descending|1|1",
+                "DOWNLOAD_COUNT|desc|1.5|1",
+                "DOWNLOAD_COUNT|desc|1|abc",
+                "DOWNLOAD_COUNT|desc|1|",
+                "RATING|asc|4.5' OR '1'='1|1",
+                "PRICE|asc|NaN|1",
+                "PUBLISHED_TIME|asc|yesterday|1");
+
+        for (String raw : tampered) {
+            String token = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> ProjectCursor.decode(token), raw);
+            assertEquals("无效的分页游标", e.getMessage(), raw);
+        }
+    }
+}
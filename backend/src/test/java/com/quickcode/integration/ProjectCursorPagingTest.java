@@ -0,0 +1,111 @@
+package com.quickcode.integration;
+
+import com.quickcode.dto.project.ProjectCursor;
+import com.quickcode.dto.project.ProjectCursor.SortKey;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import com.quickcode.repository.ProjectSpecifications;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 项目游标分页测试
+ * 在排序值大量重复且包含NULL的数据上逐页翻完，验证不重复、不遗漏，且顺序与一次性排序一致
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@SpringBootTest(properties = {
+        "app.search.index.enabled=false",
+        "app.feed.homepage.enabled=false"
+})
+@ActiveProfiles("test")
+@Transactional
+class ProjectCursorPagingTest {
+
+    private static final int EXTRA_PROJECTS = 14;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Project template = projectRepository.findAll().get(0);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < EXTRA_PROJECTS; i++) {
+            projects.add(Project.builder()
+                    .title("游标分页-" + i)
+                    .categoryId(template.getCategoryId())
+                    .userId(template.getUserId())
+                    .status(Project.Status.PUBLISHED.getCode())
+                    .publishedTime(i % 4 == 0 ? null : base.plusHours(i % 3))
+                    .downloadCount(i % 3)
+                    .rating(i % 5 == 0 ? null : BigDecimal.valueOf(3 + i % 2))
+                    .price(BigDecimal.valueOf(i % 3 * 10L))
+                    .build());
+        }
+        projectRepository.saveAll(projects);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void cursorWalk_ShouldVisitEveryProjectOnceInSortOrder() {
+        for (SortKey sortKey : SortKey.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                List<Long> expected = projectRepository.findAll(ProjectSpecifications.published(),
+                        ProjectSpecifications.cursorSort(sortKey, ascending)).stream().map(Project::getId).toList();
+                assertThat(expected).hasSizeGreaterThanOrEqualTo(EXTRA_PROJECTS);
+
+                for (int pageSize = 1; pageSize <= 4; pageSize++) {
+                    List<Long> walked = walk(sortKey, ascending, pageSize, expected.size());
+
+                    String description = sortKey + (ascending ? " asc" : " desc") + ", pageSize=" + pageSize;
+                    assertThat(new HashSet<>(walked)).as(description).hasSize(walked.size());
+                    assertThat(walked).as(description).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按游标逐页查询，每页的游标都经过编码和解码，与接口的使用方式一致
+     */
+    private List<Long> walk(SortKey sortKey, boolean ascending, int pageSize, int total) {
+        List<Long> ids = new ArrayList<>();
+        ProjectCursor cursor = null;
+        do {
+            Specification<Project> spec = ProjectSpecifications.published()
+                    .and(cursor != null ? ProjectSpecifications.after(ProjectCursor.decode(cursor.encode())) : null);
+            List<Project> page = projectRepository.findBy(spec, query -> query
+                    .sortBy(ProjectSpecifications.cursorSort(sortKey, ascending))
+                    .limit(pageSize)
+                    .all());
+            page.forEach(project -> ids.add(project.getId()));
+            assertThat(ids).as("翻页没有结束").hasSizeLessThanOrEqualTo(total);
+
+            cursor = page.size() == pageSize ? ProjectCursor.of(sortKey, ascending, page.get(pageSize - 1)) : null;
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,182 @@
+package com.quickcode.integration;
+
+import com.quickcode.dto.ProjectDownloadHistoryResponse;
+import com.quickcode.dto.project.ProjectDTO;
+import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.entity.Project;
+import com.quickcode.entity.ProjectDownload;
+import com.quickcode.entity.UserFavorite;
+import com.quickcode.repository.ProjectDownloadRepository;
+import com.quickcode.repository.ProjectRepository;
+import com.quickcode.repository.UserFavoriteRepository;
+import com.quickcode.service.FavoriteService;
+import com.quickcode.service.ProjectDownloadService;
+import com.quickcode.service.ProjectService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 项目列表查询次数测试
+ * 验证列表接口组装卡片时不会逐条懒加载作者、分类等关联（N+1）
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.search.index.enabled=false",
+        "app.feed.homepage.enabled=false"
+})
+@ActiveProfiles("test")
+@Transactional
+class ProjectListQueryCountTest {
+
+    /**
+     * 分页接口最多两条语句：数据查询 + COUNT
+     */
+    private static final long PAGED_STATEMENTS = 2;
+
+    /**
+     * 列表接口只允许一条语句
+     */
+    private static final long LIST_STATEMENTS = 1;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private ProjectDownloadService projectDownloadService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    private ProjectDownloadRepository projectDownloadRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Long userId;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        List<Project> projects = projectRepository.findAll();
+        assertThat(projects).hasSizeGreaterThanOrEqualTo(3);
+
+        userId = projects.get(0).getUserId();
+        categoryId = projects.get(0).getCategoryId();
+        for (Project project : projects) {
+            project.setIsFeatured(true);
+            project.setPublishedTime(LocalDateTime.now().minusDays(project.getId()));
+            userFavoriteRepository.save(UserFavorite.create(userId, project.getId()));
+            projectDownloadRepository.save(ProjectDownload.builder()
+                    .userId(userId)
+                    .projectId(project.getId())
+                    .downloadTime(LocalDateTime.now())
+                    .downloadStatus(ProjectDownload.DownloadStatus.COMPLETED.getCode())
+                    .build());
+        }
+        projectRepository.saveAll(projects);
+
+        // 清空一级缓存，保证关联实体需要真正查询
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void searchProjects_ShouldNotLoadAssociationsPerRow() {
+        ProjectSearchRequest request = ProjectSearchRequest.builder().keyword("").build();
+        request.setDefaults();
+        request.normalize();
+
+        assertStatements(PAGED_STATEMENTS, () -> projectService.searchProjects(request).getContent());
+    }
+
+    @Test
+    void searchProjectsSlice_ShouldNotRunCountQuery() {
+        ProjectSearchRequest request = ProjectSearchRequest.builder().keyword("").page(0).size(1).build();
+
+        // 首次请求统计并缓存近似总数，之后的翻页只有一条数据查询
+        projectService.searchProjectsSlice(request);
+        assertStatements(LIST_STATEMENTS, () -> projectService.searchProjectsSlice(
+                ProjectSearchRequest.builder().keyword("").page(0).size(1).build()).getContent());
+    }
+
+    @Test
+    void featuredPopularLatest_ShouldUseSingleQuery() {
+        assertStatements(PAGED_STATEMENTS, () -> projectService.getFeaturedProjects(20));
+        assertStatements(LIST_STATEMENTS, () -> projectService.getPopularProjects(20));
+        assertStatements(LIST_STATEMENTS, () -> projectService.getLatestProjects(20));
+    }
+
+    @Test
+    void projectsByCategory_ShouldNotLoadAssociationsPerRow() {
+        assertStatements(PAGED_STATEMENTS,
+                () -> projectService.getProjectsByCategory(categoryId, PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void favorites_ShouldNotLoadProjectsPerRow() {
+        assertStatements(PAGED_STATEMENTS,
+                () -> favoriteService.getUserFavoriteProjects(userId, PageRequest.of(0, 20)).getContent());
+        assertStatements(LIST_STATEMENTS, () -> favoriteService.getUserRecentFavorites(userId, 20));
+        assertStatements(PAGED_STATEMENTS, () -> favoriteService.getPopularFavoriteProjects(20));
+    }
+
+    @Test
+    void downloadHistory_ShouldNotLoadProjectsPerRow() {
+        assertStatements(PAGED_STATEMENTS, () -> {
+            List<ProjectDownloadHistoryResponse> history = projectDownloadService
+                    .getUserDownloadHistory(userId, PageRequest.of(0, 20))
+                    .map(ProjectDownloadHistoryResponse::fromProjectDownload)
+                    .getContent();
+            assertThat(history).noneMatch(item -> item.getProjectTitle().startsWith("项目-"));
+            return history;
+        });
+    }
+
+    /**
+     * 执行并校验执行的SQL语句数（包含DTO转换过程中触发的懒加载）
+     */
+    private void assertStatements(long maxStatements, Supplier<List<?>> action) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<?> result = action.get();
+        result.forEach(item -> {
+            if (item instanceof ProjectDTO dto) {
+                assertThat(dto.getUsername()).isNotNull();
+                assertThat(dto.getCategoryName()).isNotNull();
+            }
+        });
+
+        assertThat(result).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(maxStatements);
+    }
+}
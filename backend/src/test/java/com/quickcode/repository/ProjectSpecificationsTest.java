@@ -0,0 +1,32 @@
+package com.quickcode.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 项目动态查询条件测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class ProjectSpecificationsTest {
+
+    @Test
+    void testPlainKeywordWrappedInWildcards() {
+        assertEquals("%spring boot%", ProjectSpecifications.containsPattern("spring boot"));
+    }
+
+    @Test
+    void testWildcardsInKeywordEscaped() {
+        assertEquals("%100\\%%", ProjectSpecifications.containsPattern("100%"));
+        assertEquals("%snake\\_case%", ProjectSpecifications.containsPattern("snake_case"));
+        assertEquals("%\\%\\_\\%%", ProjectSpecifications.containsPattern("%_%"));
+    }
+
+    @Test
+    void testEscapeCharacterEscapedFirst() {
+        assertEquals("%C:\\\\dir\\_1%", ProjectSpecifications.containsPattern("C:\\dir_1"));
+        assertEquals("%\\\\\\%%", ProjectSpecifications.containsPattern("\\%"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.quickcode.service;
+
+import com.quickcode.service.DownloadTokenService.DownloadTokenInfo;
+import com.quickcode.service.DownloadTokenService.TokenValidationResult;
+import com.quickcode.service.impl.DownloadTokenServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 下载令牌服务测试类
+ * 验证每次调用只产生一次Redis往返：生成走管道，撤销和查询走脚本
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DownloadTokenServiceTest {
+
+    private static final StringRedisSerializer KEY_SERIALIZER = new StringRedisSerializer();
+    private static final GenericJackson2JsonRedisSerializer VALUE_SERIALIZER = new GenericJackson2JsonRedisSerializer();
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisOperations<String, Object> pipelineOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    private DownloadTokenServiceImpl downloadTokenService;
+
+    @BeforeEach
+    void setUp() {
+        downloadTokenService = new DownloadTokenServiceImpl(redisTemplate);
+        ReflectionTestUtils.setField(downloadTokenService, "jwtSecret", "test-jwt-secret-key-at-least-32-bytes-long");
+        ReflectionTestUtils.setField(downloadTokenService, "tokenPrefix", "download_token:");
+        ReflectionTestUtils.setField(downloadTokenService, "userTokenPrefix", "user_tokens:");
+        ReflectionTestUtils.setField(downloadTokenService, "projectTokenPrefix", "project_tokens:");
+        ReflectionTestUtils.setField(downloadTokenService, "usagePrefix", "token_usage:");
+
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(pipelineOperations.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(pipelineOperations.opsForSet()).thenReturn(setOperations);
+        doReturn(KEY_SERIALIZER).when(redisTemplate).getHashKeySerializer();
+        doReturn(VALUE_SERIALIZER).when(redisTemplate).getHashValueSerializer();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGenerateWritesInSinglePipeline() {
+        DownloadTokenInfo info = downloadTokenService.generateDownloadToken(1L, 2L, 30, Map.of("source", "test"));
+
+        ArgumentCaptor<SessionCallback<Object>> captor = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(captor.capture());
+        verify(redisTemplate, never()).opsForHash();
+        verify(redisTemplate, never()).opsForSet();
+        verify(redisTemplate, never()).expire(anyString(), anyLong(), any(TimeUnit.class));
+
+        captor.getValue().execute(pipelineOperations);
+        ArgumentCaptor<String> tokenKey = ArgumentCaptor.forClass(String.class);
+        verify(hashOperations).putAll(tokenKey.capture(), anyMap());
+        assertTrue(tokenKey.getValue().startsWith("download_token:"));
+        verify(setOperations).add(eq("user_tokens:2"), any());
+        verify(setOperations).add(eq("project_tokens:1"), any());
+        verify(pipelineOperations).expire(tokenKey.getValue(), 30, TimeUnit.MINUTES);
+        verify(pipelineOperations).expire("user_tokens:2", 30, TimeUnit.MINUTES);
+        verify(pipelineOperations).expire("project_tokens:1", 30, TimeUnit.MINUTES);
+        assertNotNull(info.getToken());
+    }
+
+    @Test
+    void testValidateReadsOnlyActiveField() {
+        String token = downloadTokenService.generateDownloadToken(1L, 2L, 30, null).getToken();
+        when(hashOperations.get(startsWith("download_token:"), eq("active"))).thenReturn(true);
+
+        TokenValidationResult result = downloadTokenService.validateDownloadToken(token, 1L);
+
+        assertTrue(result.isValid());
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void testValidateRejectsMissingAndDisabledToken() {
+        String token = downloadTokenService.generateDownloadToken(1L, 2L, 30, null).getToken();
+
+        when(hashOperations.get(anyString(), eq("active"))).thenReturn(null);
+        assertEquals("令牌已过期或被撤销", downloadTokenService.validateDownloadToken(token).getReason());
+
+        when(hashOperations.get(anyString(), eq("active"))).thenReturn(false);
+        assertEquals("令牌已被禁用", downloadTokenService.validateDownloadToken(token).getReason());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRevokeUserTokensInSingleScript() {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("user_tokens:2")), eq("download_token:"))).thenReturn(3L);
+
+        assertEquals(3, downloadTokenService.revokeUserDownloadTokens(2L));
+        verify(redisTemplate, never()).opsForSet();
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRevokeProjectTokensInSingleScript() {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("project_tokens:1")), eq("download_token:"))).thenReturn(2L);
+
+        assertEquals(2, downloadTokenService.revokeProjectDownloadTokens(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testActiveTokensDecodedFromScriptResult() {
+        List<Object> scriptResult = List.of(
+                tokenFields("token-a", 1L, 2L, true),
+                tokenFields("token-b", 3L, 2L, false));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("user_tokens:2")), eq("download_token:"))).thenReturn(scriptResult);
+
+        List<DownloadTokenInfo> tokens = downloadTokenService.getUserActiveTokens(2L);
+
+        assertEquals(1, tokens.size());
+        assertEquals("token-a", tokens.get(0).getToken());
+        assertEquals(1L, tokens.get(0).getProjectId());
+        assertEquals(2L, tokens.get(0).getUserId());
+        assertEquals("test", tokens.get(0).getMetadata().get("source"));
+        verify(redisTemplate, never()).opsForSet();
+        verify(redisTemplate, never()).opsForHash();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNoActiveTokens() {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("project_tokens:1")), eq("download_token:"))).thenReturn(List.of());
+
+        assertTrue(downloadTokenService.getProjectActiveTokens(1L).isEmpty());
+    }
+
+    /**
+     * 按模板的序列化方式构造HGETALL返回的原始字节
+     */
+    private static List<byte[]> tokenFields(String token, Long projectId, Long userId, boolean active) {
+        Map<String, Object> data = Map.of(
+                "token", token,
+                "projectId", projectId,
+                "userId", userId,
+                "expirationTime", LocalDateTime.now().plusMinutes(30).toString(),
+                "metadata", new HashMap<>(Map.of("source", "test")),
+                "active", active);
+        List<byte[]> fields = new ArrayList<>();
+        data.forEach((field, value) -> {
+            fields.add(KEY_SERIALIZER.serialize(field));
+            fields.add(VALUE_SERIALIZER.serialize(value));
+        });
+        return fields;
+    }
+}
@@ -6,6 +6,8 @@ import com.quickcode.entity.Project;
 import com.quickcode.entity.UserFavorite;
 import com.quickcode.repository.ProjectRepository;
 import com.quickcode.repository.UserFavoriteRepository;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
 import com.quickcode.service.impl.FavoriteServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,6 +44,9 @@ class FavoriteServiceTest {
     @Mock
     private ProjectRepository projectRepository;
 
+    @Mock
+    private ProjectCounterBuffer counterBuffer;
+
     @InjectMocks
     private FavoriteServiceImpl favoriteService;
 
@@ -73,7 +78,6 @@ class FavoriteServiceTest {
         when(projectRepository.findById(projectId)).thenReturn(Optional.of(testProject));
         when(userFavoriteRepository.existsByUserIdAndProjectId(userId, projectId)).thenReturn(false);
         when(userFavoriteRepository.save(any(UserFavorite.class))).thenReturn(testFavorite);
-        when(userFavoriteRepository.countByProjectId(projectId)).thenReturn(1L);
 
         // When
         UserFavorite result = favoriteService.favoriteProject(userId, projectId);
@@ -83,7 +87,7 @@ class FavoriteServiceTest {
         assertEquals(userId, result.getUserId());
         assertEquals(projectId, result.getProjectId());
         verify(userFavoriteRepository).save(any(UserFavorite.class));
-        verify(projectRepository).save(any(Project.class));
+        verify(counterBuffer).add(projectId, CounterType.FAVORITE, 1);
     }
 
     @Test
@@ -126,14 +130,13 @@ class FavoriteServiceTest {
         // Given
         when(userFavoriteRepository.findByUserIdAndProjectId(userId, projectId))
                 .thenReturn(Optional.of(testFavorite));
-        when(userFavoriteRepository.countByProjectId(projectId)).thenReturn(0L);
 
         // When
         favoriteService.unfavoriteProject(userId, projectId);
 
         // Then
         verify(userFavoriteRepository).delete(testFavorite);
-        verify(projectRepository).save(any(Project.class));
+        verify(counterBuffer).add(projectId, CounterType.FAVORITE, -1);
     }
 
     @Test
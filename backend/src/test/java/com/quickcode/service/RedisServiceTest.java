@@ -0,0 +1,82 @@
+package com.quickcode.service;
+
+import com.quickcode.service.RedisService.CounterDrain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisServiceTest {
+
+    private static final List<String> VIEW_DRAIN_KEYS =
+            List.of("quickcode:project:view:dirty", "quickcode:project:view:dirty-since");
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @InjectMocks
+    private RedisService redisService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDrainDecodesScriptResult() {
+        List<Object> scriptResult = List.of(7L, "1700000000000", "1", "3", "2", "-2", "1", "4");
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(VIEW_DRAIN_KEYS),
+                eq("quickcode:project:view:"), eq("1000"))).thenReturn(scriptResult);
+
+        CounterDrain drain = redisService.drainProjectCounts("view", 1000);
+
+        assertEquals(Map.of(1L, 7L, 2L, -2L), drain.getCounts());
+        assertEquals(7, drain.getRemaining());
+        assertEquals(1700000000000L, drain.getOldestPendingTime());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDrainSkipsInvalidEntries() {
+        List<Object> scriptResult = List.of(0L, "", "abc", "3", "2", "x", "5", "1");
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(VIEW_DRAIN_KEYS),
+                eq("quickcode:project:view:"), eq("10"))).thenReturn(scriptResult);
+
+        CounterDrain drain = redisService.drainProjectCounts("view", 10);
+
+        assertEquals(Map.of(5L, 1L), drain.getCounts());
+        assertEquals(0, drain.getRemaining());
+        assertNull(drain.getOldestPendingTime());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDrainWithoutScriptResultIsEmpty() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(VIEW_DRAIN_KEYS),
+                eq("quickcode:project:view:"), eq("10"))).thenReturn(null);
+
+        CounterDrain drain = redisService.drainProjectCounts("view", 10);
+
+        assertTrue(drain.getCounts().isEmpty());
+        assertEquals(0, drain.getRemaining());
+        assertNull(drain.getOldestPendingTime());
+    }
+}
@@ -0,0 +1,168 @@
+package com.quickcode.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热度榜Lua脚本测试类
+ * 在真实Redis上执行前向衰减累加、跨榜单换算和逐榜单基准前移脚本；没有Docker时跳过
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisTrendingScriptTest {
+
+    private static final String GLOBAL = "quickcode:trending:global";
+    private static final String CATEGORY_PREFIX = "quickcode:trending:category:";
+    private static final String LANDMARKS = "quickcode:trending:landmarks";
+    private static final String LEGACY_LANDMARK = "quickcode:trending:landmark";
+
+    /**
+     * 半衰期1小时
+     */
+    private static final double LAMBDA = Math.log(2) / 3600;
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private RedisService redisService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushDb();
+        }
+        redisService = new RedisService(null, stringRedisTemplate);
+    }
+
+    @Test
+    void testRescaleKeepsRankingAndScalesScores() {
+        long now = now();
+        setLandmark(GLOBAL, now - 7200);
+        setLandmark(CATEGORY_PREFIX + 9, now - 7200);
+        Map<Long, Double> weights = Map.of(1L, 5.0, 2L, 1.0, 3L, 3.0, 4L, 2.0, 5L, 4.0);
+        weights.keySet().forEach(projectId -> redisService.trackTrendingProject(projectId, 9L, LAMBDA));
+
+        assertEquals(5, redisService.addTrendingScores(weights, LAMBDA));
+        // 距基准2个半衰期，增量放大4倍
+        assertEquals(20.0, score(GLOBAL, 1L), 20.0 * 1e-3);
+        List<Long> globalRanking = redisService.getTopTrendingProjectIds(null, 10);
+        List<Long> categoryRanking = redisService.getTopTrendingProjectIds(9L, 10);
+        assertEquals(List.of(1L, 5L, 3L, 4L, 2L), globalRanking);
+
+        assertEquals(0, redisService.rescaleTrendingScores(LAMBDA, 0.01));
+
+        assertEquals(globalRanking, redisService.getTopTrendingProjectIds(null, 10));
+        assertEquals(categoryRanking, redisService.getTopTrendingProjectIds(9L, 10));
+        weights.forEach((projectId, weight) -> {
+            assertEquals(weight, score(GLOBAL, projectId), weight * 1e-3);
+            assertEquals(weight, score(CATEGORY_PREFIX + 9, projectId), weight * 1e-3);
+        });
+        assertEquals(now, landmark(GLOBAL), 2);
+        assertEquals(now, landmark(CATEGORY_PREFIX + 9), 2);
+
+        // 基准前移后新的增量与已有分数仍可直接比较
+        redisService.addTrendingScores(Map.of(2L, 4.5), LAMBDA);
+        assertEquals(List.of(2L, 1L, 5L, 3L, 4L), redisService.getTopTrendingProjectIds(null, 10));
+    }
+
+    @Test
+    void testRescaleRemovesColdProjects() {
+        long now = now();
+        setLandmark(GLOBAL, now - 36000);
+        setLandmark(CATEGORY_PREFIX + 9, now - 36000);
+        redisService.trackTrendingProject(1L, 9L, LAMBDA);
+        redisService.trackTrendingProject(2L, 9L, LAMBDA);
+        redisService.addTrendingScores(Map.of(1L, 1.0, 2L, 100.0), LAMBDA);
+
+        // 10个半衰期后：1/1024 低于阈值，100/1024 保留
+        assertEquals(2, redisService.rescaleTrendingScores(LAMBDA, 0.01));
+
+        assertEquals(List.of(2L), redisService.getTopTrendingProjectIds(null, 10));
+        assertEquals(List.of(2L), redisService.getTopTrendingProjectIds(9L, 10));
+        assertEquals(100.0 / 1024, score(GLOBAL, 2L), 100.0 / 1024 * 1e-2);
+    }
+
+    @Test
+    void testCategoryChangeConvertsScoreBetweenLandmarks() {
+        long now = now();
+        setLandmark(GLOBAL, now - 3600);
+        setLandmark(CATEGORY_PREFIX + 9, now);
+        redisService.trackTrendingProject(1L, 8L, LAMBDA);
+        redisService.addTrendingScores(Map.of(1L, 2.0), LAMBDA);
+        assertEquals(4.0, score(GLOBAL, 1L), 4.0 * 1e-3);
+
+        redisService.trackTrendingProject(1L, 9L, LAMBDA);
+
+        assertNull(stringRedisTemplate.opsForZSet().score(CATEGORY_PREFIX + 8, "1"));
+        assertEquals(2.0, score(CATEGORY_PREFIX + 9, 1L), 2.0 * 1e-3);
+    }
+
+    @Test
+    void testLegacyLandmarkUsedUntilFirstRescale() {
+        long now = now();
+        stringRedisTemplate.opsForValue().set(LEGACY_LANDMARK, String.valueOf(now - 3600));
+        redisService.trackTrendingProject(1L, null, LAMBDA);
+        redisService.addTrendingScores(Map.of(1L, 1.0), LAMBDA);
+        assertEquals(2.0, score(GLOBAL, 1L), 2.0 * 1e-3);
+
+        redisService.rescaleTrendingScores(LAMBDA, 0.01);
+
+        assertEquals(1.0, score(GLOBAL, 1L), 1e-3);
+        assertFalse(Boolean.TRUE.equals(stringRedisTemplate.hasKey(LEGACY_LANDMARK)));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static void setLandmark(String board, long seconds) {
+        stringRedisTemplate.opsForHash().put(LANDMARKS, board, String.valueOf(seconds));
+    }
+
+    private static double landmark(String board) {
+        Object value = stringRedisTemplate.opsForHash().get(LANDMARKS, board);
+        assertNotNull(value, board);
+        return Double.parseDouble(value.toString());
+    }
+
+    private static double score(String board, Long projectId) {
+        Double score = stringRedisTemplate.opsForZSet().score(board, String.valueOf(projectId));
+        assertNotNull(score, board + " " + projectId);
+        return score;
+    }
+}
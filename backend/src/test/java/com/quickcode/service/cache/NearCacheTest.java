@@ -0,0 +1,70 @@
+package com.quickcode.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 近端缓存测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class NearCacheTest {
+
+    @Test
+    void testExpireAfterTtl() {
+        AtomicLong now = new AtomicLong(1000);
+        NearCache<Long, String> cache = new NearCache<>(10, 100, 0, now::get);
+
+        cache.put(1L, "a");
+        now.addAndGet(99);
+        assertEquals("a", cache.get(1L));
+
+        now.addAndGet(1);
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testStaleWindow() {
+        AtomicLong now = new AtomicLong(1000);
+        NearCache<Long, String> cache = new NearCache<>(10, 100, 50, now::get);
+
+        cache.put(1L, "a");
+        now.addAndGet(120);
+        assertNull(cache.get(1L));
+        assertEquals("a", cache.getStale(1L));
+
+        now.addAndGet(30);
+        assertNull(cache.getStale(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() {
+        NearCache<Long, String> cache = new NearCache<>(2, 60000);
+
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("c", cache.get(3L));
+    }
+
+    @Test
+    void testInvalidate() {
+        NearCache<Long, String> cache = new NearCache<>(10, 60000);
+        cache.put(1L, "a");
+
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L));
+        assertThrows(IllegalArgumentException.class, () -> new NearCache<Long, String>(0, 1000));
+    }
+}
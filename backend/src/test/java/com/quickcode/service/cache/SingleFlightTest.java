@@ -0,0 +1,114 @@
+package com.quickcode.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单飞请求合并测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flights = new SingleFlight<>(null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flights.execute(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "detail";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> flights.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (flights.coalescedCount() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("detail", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, flights.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsNotCached() {
+        SingleFlight<Long, String> flights = new SingleFlight<>(null);
+
+        assertThrows(IllegalStateException.class, () -> flights.execute(1L, () -> {
+            throw new IllegalStateException("数据库不可用");
+        }));
+        assertEquals("ok", flights.execute(1L, () -> "ok"));
+    }
+
+    @Test
+    void testStaleValueServedWhileRefreshing() {
+        List<Runnable> pending = new ArrayList<>();
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger now = new AtomicInteger();
+        NearCache<Long, String> store = new NearCache<>(10, 100, 1000, now::get);
+        CoalescingCache<Long, String> cache = new CoalescingCache<>("test", store, new SingleFlight<>(pending::add));
+
+        assertEquals("v1", cache.get(1L, key -> "v" + version.incrementAndGet()));
+
+        now.addAndGet(150);
+        assertEquals("v1", cache.get(1L, key -> "v" + version.incrementAndGet()));
+        assertEquals("v1", cache.get(1L, key -> "v" + version.incrementAndGet()));
+        // 同一key只提交一次后台刷新
+        assertEquals(1, pending.size());
+
+        pending.get(0).run();
+        assertEquals("v2", cache.get(1L, key -> "v" + version.incrementAndGet()));
+        assertEquals(2, cache.staleHitCount());
+    }
+
+    @Test
+    void testInvalidateDuringLoadSkipsStore() {
+        NearCache<Long, String> store = new NearCache<>(10, 60000);
+        CoalescingCache<Long, String> cache = new CoalescingCache<>("test", store, new SingleFlight<>(null));
+
+        assertEquals("old", cache.get(1L, key -> {
+            cache.invalidate(1L);
+            return "old";
+        }));
+        assertNull(store.get(1L));
+        assertEquals("new", cache.get(1L, key -> "new"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
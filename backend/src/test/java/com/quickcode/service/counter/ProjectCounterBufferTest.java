@@ -0,0 +1,131 @@
+package com.quickcode.service.counter;
+
+import com.quickcode.service.RedisService;
+import com.quickcode.service.trending.ProjectTrendingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 项目计数缓冲测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectCounterBufferTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ProjectCounterSyncService counterSyncService;
+
+    @Mock
+    private ProjectTrendingService trendingService;
+
+    private ProjectCounterBuffer counterBuffer;
+
+    @BeforeEach
+    void setUp() {
+        counterBuffer = new ProjectCounterBuffer(redisService, counterSyncService, trendingService,
+                new SimpleMeterRegistry());
+        counterBuffer.init();
+    }
+
+    @Test
+    void testConcurrentIncrementsFlushedAsOneBatch() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    counterBuffer.increment(1L, CounterType.VIEW);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        counterBuffer.add(2L, CounterType.LIKE, 1);
+        counterBuffer.add(2L, CounterType.LIKE, -1);
+        counterBuffer.add(3L, CounterType.FAVORITE, -1);
+
+        counterBuffer.flush();
+
+        verify(redisService).addProjectCounts("view", Map.of(1L, 8000L));
+        verify(redisService).addProjectCounts("favorite", Map.of(3L, -1L));
+        verify(redisService, never()).addProjectCounts(eq("like"), anyMap());
+        verify(trendingService).record(CounterType.VIEW, Map.of(1L, 8000L));
+        assertEquals(0, counterBuffer.pending(1L, CounterType.VIEW));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIncrementsRacingWithEvictionAreNotLost() throws InterruptedException {
+        AtomicLong flushed = new AtomicLong();
+        doAnswer(invocation -> {
+            ((Map<Long, Long>) invocation.getArgument(1)).values().forEach(flushed::addAndGet);
+            return null;
+        }).when(redisService).addProjectCounts(eq("view"), anyMap());
+
+        // 刷新线程空转，递增线程在取到计数器和累加之间被调度出去时，计数器可能已被判定空闲并移除
+        int writers = 4;
+        int incrementsPerWriter = 200_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        for (int i = 0; i < writers; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < incrementsPerWriter; j++) {
+                    counterBuffer.increment((long) (j % 2000), CounterType.VIEW);
+                }
+            });
+        }
+        executor.shutdown();
+        Thread flusher = new Thread(() -> {
+            while (writing.get()) {
+                counterBuffer.flush();
+            }
+        });
+        flusher.start();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        writing.set(false);
+        flusher.join();
+        counterBuffer.flush();
+
+        assertEquals((long) writers * incrementsPerWriter, flushed.get());
+    }
+
+    @Test
+    void testFailedFlushKeepsDeltas() {
+        counterBuffer.add(1L, CounterType.DOWNLOAD, 3);
+        doThrow(new RuntimeException("redis down")).when(redisService).addProjectCounts(eq("download"), anyMap());
+
+        counterBuffer.flush();
+
+        assertEquals(3, counterBuffer.pending(1L, CounterType.DOWNLOAD));
+    }
+
+    @Test
+    void testShutdownFallsBackToDatabase() {
+        counterBuffer.add(1L, CounterType.DOWNLOAD, 2);
+        doThrow(new RuntimeException("redis down")).when(redisService).addProjectCounts(eq("download"), anyMap());
+
+        counterBuffer.shutdown();
+
+        verify(counterSyncService).applyToDatabase(CounterType.DOWNLOAD, Map.of(1L, 2L));
+    }
+}
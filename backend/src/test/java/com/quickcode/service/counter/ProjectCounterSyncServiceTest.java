@@ -0,0 +1,165 @@
+package com.quickcode.service.counter;
+
+import com.quickcode.common.event.ProjectStatsChangedEvent;
+import com.quickcode.service.RedisService;
+import com.quickcode.service.RedisService.CounterDrain;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 项目计数同步服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectCounterSyncServiceTest {
+
+    private static final CounterDrain EMPTY = new CounterDrain(Map.of(), 0, null);
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecordingJdbcTemplate jdbcTemplate;
+
+    private ProjectCounterSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new RecordingJdbcTemplate();
+        syncService = new ProjectCounterSyncService(redisService, eventPublisher, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(syncService, "maxRounds", 50);
+        syncService.init();
+        lenient().when(redisService.drainProjectCounts(anyString(), anyInt())).thenReturn(EMPTY);
+    }
+
+    @Test
+    void testBatchUpdateSplitAtChunkBoundary() {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (long id = 1; id <= 501; id++) {
+            counts.put(id, id % 2 == 0 ? 2L : -1L);
+        }
+        when(redisService.drainProjectCounts(eq("like"), anyInt()))
+                .thenReturn(new CounterDrain(counts, 0, null));
+
+        syncService.syncCountsToDatabase();
+
+        assertEquals(2, jdbcTemplate.statements.size());
+        assertStatement(jdbcTemplate.statements.get(0), jdbcTemplate.arguments.get(0), 1, 500);
+        assertStatement(jdbcTemplate.statements.get(1), jdbcTemplate.arguments.get(1), 501, 501);
+        verify(transactionManager).commit(any());
+        verify(eventPublisher).publishEvent(any(ProjectStatsChangedEvent.class));
+        verify(redisService, never()).addProjectCounts(anyString(), anyMap());
+    }
+
+    @Test
+    void testCountsRestoredWhenTransactionFails() {
+        Map<Long, Long> counts = Map.of(1L, 3L, 2L, -1L);
+        when(redisService.drainProjectCounts(eq("download"), anyInt()))
+                .thenReturn(new CounterDrain(counts, 5, System.currentTimeMillis()));
+        jdbcTemplate.failure = new CannotAcquireLockException("deadlock");
+
+        syncService.syncCountsToDatabase();
+
+        verify(transactionManager).rollback(any());
+        verify(redisService).addProjectCounts("download", counts);
+        verify(eventPublisher, never()).publishEvent(any());
+        // 写入失败后不再继续取走同一种计数，剩余的留在Redis
+        verify(redisService, times(1)).drainProjectCounts(eq("download"), anyInt());
+    }
+
+    @Test
+    void testSyncStopsWhenDrainIsEmpty() {
+        when(redisService.drainProjectCounts(eq("view"), anyInt()))
+                .thenReturn(new CounterDrain(Map.of(1L, 1L), 1, null))
+                .thenReturn(EMPTY);
+
+        syncService.syncCountsToDatabase();
+
+        verify(redisService, times(2)).drainProjectCounts(eq("view"), anyInt());
+        verify(redisService, times(1)).drainProjectCounts(eq("favorite"), anyInt());
+        assertEquals(1, jdbcTemplate.statements.size());
+        verify(eventPublisher, times(1)).publishEvent(any(ProjectStatsChangedEvent.class));
+    }
+
+    @Test
+    void testSyncStopsAtMaxRounds() {
+        ReflectionTestUtils.setField(syncService, "maxRounds", 3);
+        when(redisService.drainProjectCounts(eq("view"), anyInt()))
+                .thenReturn(new CounterDrain(Map.of(1L, 1L), 100, null));
+
+        syncService.syncCountsToDatabase();
+
+        verify(redisService, times(3)).drainProjectCounts(eq("view"), anyInt());
+        assertEquals(3, jdbcTemplate.statements.size());
+    }
+
+    private static void assertStatement(String sql, Object[] args, long firstId, long lastId) {
+        int rows = (int) (lastId - firstId + 1);
+        StringBuilder expected = new StringBuilder(
+                "UPDATE projects SET like_count = GREATEST(like_count + CASE id");
+        expected.append(" WHEN ? THEN ?".repeat(rows));
+        expected.append(" ELSE 0 END, 0) WHERE id IN (?").append(", ?".repeat(rows - 1)).append(')');
+        assertEquals(expected.toString(), sql);
+
+        List<Object> expectedArgs = new ArrayList<>();
+        for (long id = firstId; id <= lastId; id++) {
+            expectedArgs.add(id);
+            expectedArgs.add(id % 2 == 0 ? 2L : -1L);
+        }
+        for (long id = firstId; id <= lastId; id++) {
+            expectedArgs.add(id);
+        }
+        assertEquals(expectedArgs, Arrays.asList(args));
+    }
+
+    /**
+     * 记录执行的UPDATE语句和参数，返回值按每个项目更新一行计算
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> statements = new ArrayList<>();
+        private final List<Object[]> arguments = new ArrayList<>();
+        private RuntimeException failure;
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (failure != null) {
+                throw failure;
+            }
+            statements.add(sql);
+            arguments.add(args);
+            return args.length / 3;
+        }
+    }
+}
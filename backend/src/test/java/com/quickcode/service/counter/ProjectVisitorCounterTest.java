@@ -0,0 +1,126 @@
+package com.quickcode.service.counter;
+
+import com.quickcode.dto.project.UniqueVisitorStats;
+import com.quickcode.service.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 项目独立访客计数测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectVisitorCounterTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private ProjectVisitorCounter visitorCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(visitorCounter, "enabled", true);
+        ReflectionTestUtils.setField(visitorCounter, "retentionDays", 35);
+        ReflectionTestUtils.setField(visitorCounter, "ipSecret", "test");
+        visitorCounter.init();
+    }
+
+    @Test
+    void testVisitorIdentity() {
+        visitorCounter.recordVisit(1L, 9L, 7L, "10.0.0.1");
+        visitorCounter.recordVisit(1L, 9L, null, "10.0.0.1");
+        visitorCounter.recordVisit(1L, 9L, null, "10.0.0.1");
+        visitorCounter.recordVisit(1L, 9L, null, null);
+
+        ArgumentCaptor<String> visitors = ArgumentCaptor.forClass(String.class);
+        verify(redisService, times(3)).addProjectVisitor(eq(1L), eq(9L), eq(LocalDate.now()), visitors.capture(),
+                eq(Duration.ofDays(35)));
+        assertEquals("u:7", visitors.getAllValues().get(0));
+        // 匿名访客只保存IP摘要，同一IP得到同一标识
+        assertTrue(visitors.getAllValues().get(1).startsWith("ip:"));
+        assertFalse(visitors.getAllValues().get(1).contains("10.0.0.1"));
+        assertEquals(visitors.getAllValues().get(1), visitors.getAllValues().get(2));
+    }
+
+    @Test
+    void testIpDigestDependsOnSecret() {
+        ProjectVisitorCounter otherCounter = new ProjectVisitorCounter(redisService);
+        ReflectionTestUtils.setField(otherCounter, "enabled", true);
+        ReflectionTestUtils.setField(otherCounter, "retentionDays", 35);
+        ReflectionTestUtils.setField(otherCounter, "ipSecret", "another-secret");
+        otherCounter.init();
+
+        visitorCounter.recordVisit(1L, 9L, null, "10.0.0.1");
+        otherCounter.recordVisit(1L, 9L, null, "10.0.0.1");
+
+        ArgumentCaptor<String> visitors = ArgumentCaptor.forClass(String.class);
+        verify(redisService, times(2)).addProjectVisitor(eq(1L), eq(9L), any(), visitors.capture(), any());
+        assertNotEquals(visitors.getAllValues().get(0), visitors.getAllValues().get(1));
+    }
+
+    @Test
+    void testBlankSecretFailsAtStartup() {
+        ProjectVisitorCounter unconfigured = new ProjectVisitorCounter(redisService);
+        ReflectionTestUtils.setField(unconfigured, "ipSecret", " ");
+
+        assertThrows(IllegalStateException.class, unconfigured::init);
+    }
+
+    @Test
+    void testWindowsMergeDailyCounts() {
+        LocalDate today = LocalDate.now();
+        List<Long> projectIds = List.of(1L);
+        when(redisService.countProjectVisitors(projectIds, today, today)).thenReturn(3L);
+        when(redisService.countProjectVisitors(projectIds, today.minusDays(6), today)).thenReturn(10L);
+        when(redisService.countProjectVisitors(projectIds, today.minusDays(29), today)).thenReturn(25L);
+
+        UniqueVisitorStats stats = visitorCounter.getStats(1L);
+
+        assertEquals(3L, stats.getToday());
+        assertEquals(10L, stats.getLast7Days());
+        assertEquals(25L, stats.getLast30Days());
+    }
+
+    @Test
+    void testSellerStatsReadOnlySellerKeys() {
+        LocalDate today = LocalDate.now();
+        when(redisService.countSellerVisitors(9L, today, today)).thenReturn(4L);
+        when(redisService.countSellerVisitors(9L, today.minusDays(6), today)).thenReturn(12L);
+        when(redisService.countSellerVisitors(9L, today.minusDays(29), today)).thenReturn(40L);
+
+        UniqueVisitorStats stats = visitorCounter.getSellerStats(9L);
+
+        assertEquals(4L, stats.getToday());
+        assertEquals(12L, stats.getLast7Days());
+        assertEquals(40L, stats.getLast30Days());
+        verify(redisService, never()).countProjectVisitors(any(), any(), any());
+    }
+
+    @Test
+    void testRedisFailureDoesNotPropagate() {
+        doThrow(new RuntimeException("redis down")).when(redisService)
+                .addProjectVisitor(any(), any(), any(), any(), any());
+        when(redisService.countProjectVisitors(any(), any(), any())).thenThrow(new RuntimeException("redis down"));
+
+        assertDoesNotThrow(() -> visitorCounter.recordVisit(1L, 9L, 7L, null));
+        assertEquals(0L, visitorCounter.getStats(1L).getLast30Days());
+    }
+}
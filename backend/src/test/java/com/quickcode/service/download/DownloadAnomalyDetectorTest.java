@@ -0,0 +1,166 @@
+package com.quickcode.service.download;
+
+import com.quickcode.service.download.DownloadAnomalyDetector.AnomalyFlag;
+import com.quickcode.service.download.DownloadAnomalyDetector.AnomalyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异常下载检测测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadAnomalyDetectorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownloadAnomalyDetector detector;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        detector = new DownloadAnomalyDetector(meterRegistry);
+        detector.init();
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void testNormalDownloadsNotFlagged() {
+        for (long projectId = 1; projectId <= 5; projectId++) {
+            detector.record(1L, "10.0.0.1", projectId, now);
+        }
+
+        assertFalse(detector.isAbnormal(1L, "10.0.0.1", 60, 20));
+        assertTrue(detector.getFlags(1L, "10.0.0.1").isEmpty());
+        assertTrue(detector.getFlaggedActors(10).isEmpty());
+    }
+
+    @Test
+    void testBurstFlagged() {
+        for (int i = 0; i < 21; i++) {
+            detector.record(1L, null, (long) (i % 3), now);
+        }
+
+        List<AnomalyFlag> flags = detector.getFlags(1L, null);
+        assertEquals(1, flags.size());
+        assertEquals(AnomalyType.BURST, flags.get(0).getType());
+        assertEquals("user:1", flags.get(0).getActor());
+        assertTrue(detector.isAbnormal(1L, null, 60, 100));
+        assertEquals(1.0, meterRegistry.counter("quickcode.download.anomaly.detected", "type", "BURST").count());
+    }
+
+    @Test
+    void testBurstSpreadOverWindowNotFlagged() {
+        ReflectionTestUtils.setField(detector, "repeatThreshold", 1000);
+        // 每分钟4次，任意5分钟窗口内都不超过20次
+        for (int minute = 0; minute < 30; minute++) {
+            for (int i = 0; i < 4; i++) {
+                detector.record(1L, null, (long) i, now - (30 - minute) * MINUTE);
+            }
+        }
+
+        assertTrue(detector.getFlags(1L, null).isEmpty());
+        assertTrue(detector.isAbnormal(1L, null, 60, 100));
+        assertFalse(detector.isAbnormal(1L, null, 5, 100));
+    }
+
+    @Test
+    void testSharedIpFlagged() {
+        for (long userId = 1; userId <= 6; userId++) {
+            detector.record(userId, "10.0.0.2", 1L, now);
+        }
+
+        List<AnomalyFlag> flags = detector.getFlags(null, "10.0.0.2");
+        assertEquals(1, flags.size());
+        assertEquals(AnomalyType.SHARED_IP, flags.get(0).getType());
+        assertEquals(6, flags.get(0).getObserved());
+        assertTrue(detector.getFlags(1L, null).isEmpty());
+    }
+
+    @Test
+    void testScrapingFlagged() {
+        // 每分钟1次，不触发突发检测，但一小时内下载了31个不同项目
+        for (int i = 0; i < 31; i++) {
+            detector.record(null, "10.0.0.3", (long) i, now - (31 - i) * MINUTE);
+        }
+
+        List<AnomalyFlag> flags = detector.getFlags(null, "10.0.0.3");
+        assertEquals(1, flags.size());
+        assertEquals(AnomalyType.SCRAPING, flags.get(0).getType());
+    }
+
+    @Test
+    void testRepeatedDownloadFlagged() {
+        for (int i = 0; i < 11; i++) {
+            detector.record(1L, "10.0.0.4", 7L, now - (11 - i) * MINUTE / 2);
+        }
+
+        List<AnomalyFlag> flags = detector.getFlags(1L, "10.0.0.4");
+        assertEquals(1, flags.size());
+        assertEquals(AnomalyType.REPEATED_DOWNLOAD, flags.get(0).getType());
+        assertEquals("user:1", flags.get(0).getActor());
+    }
+
+    @Test
+    void testRepeatCounterRotatesAway() {
+        for (int i = 0; i < 10; i++) {
+            detector.record(1L, "10.0.0.5", 7L, now);
+        }
+        // 两次轮换后之前的计数被丢弃
+        detector.maintain(now + 10 * MINUTE);
+        detector.maintain(now + 20 * MINUTE);
+        detector.record(1L, "10.0.0.5", 7L, now);
+
+        assertTrue(detector.getFlags(1L, "10.0.0.5").isEmpty());
+    }
+
+    @Test
+    void testFlagsExpire() {
+        for (int i = 0; i < 21; i++) {
+            detector.record(1L, null, 1L, now - 61 * MINUTE);
+        }
+
+        assertTrue(detector.getFlags(1L, null).isEmpty());
+        assertTrue(detector.getFlaggedActors(10).isEmpty());
+        detector.maintain(now);
+        assertFalse(detector.isAbnormal(1L, null, 60, 20));
+    }
+
+    @Test
+    void testFlaggedActorsOrderedByRecency() {
+        for (int i = 0; i < 21; i++) {
+            detector.record(1L, null, 1L, now - MINUTE);
+        }
+        for (int i = 0; i < 21; i++) {
+            detector.record(2L, null, 1L, now);
+        }
+
+        List<AnomalyFlag> flagged = detector.getFlaggedActors(10);
+        assertEquals(2, flagged.size());
+        assertEquals("user:2", flagged.get(0).getActor());
+        assertEquals(1, detector.getFlaggedActors(1).size());
+    }
+
+    @Test
+    void testCountMinSketchNeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("item-" + (i % 50));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(sketch.estimate("item-" + i) >= 10);
+        }
+        sketch.clear();
+        assertEquals(0, sketch.estimate("item-0"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.quickcode.service.download;
+
+import com.quickcode.config.DownloadBandwidthProperties;
+import com.quickcode.service.download.DownloadBandwidthShaper.Tier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下载带宽调度测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadBandwidthShaperTest {
+
+    private DownloadBandwidthProperties properties;
+    private DownloadBandwidthShaper shaper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DownloadBandwidthProperties();
+        properties.setAnonymous(new DownloadBandwidthProperties.TierLimit(100, 150, 1));
+        properties.setRegular(new DownloadBandwidthProperties.TierLimit(500, 800, 2));
+        properties.setVip(new DownloadBandwidthProperties.TierLimit(0, 0, 4));
+        shaper = new DownloadBandwidthShaper(properties, new SimpleMeterRegistry());
+        shaper.init();
+    }
+
+    @Test
+    void testTierCeilingsWithoutGlobalLimit() {
+        BandwidthLease anonymous = shaper.open(Tier.ANONYMOUS, null, "10.0.0.1");
+        BandwidthLease regular = shaper.open(Tier.REGULAR, 1L, "10.0.0.2");
+        BandwidthLease vip = shaper.open(Tier.VIP, 2L, "10.0.0.3");
+
+        assertEquals(100, anonymous.getRate());
+        assertEquals(500, regular.getRate());
+        assertEquals(0, vip.getRate());
+        assertTrue(anonymous.isLimited());
+        assertFalse(vip.isLimited());
+    }
+
+    @Test
+    void testUserLimitSplitAcrossConnections() {
+        BandwidthLease first = shaper.open(Tier.REGULAR, 1L, "10.0.0.1");
+        BandwidthLease second = shaper.open(Tier.REGULAR, 1L, "10.0.0.1");
+
+        assertEquals(400, first.getRate());
+        assertEquals(400, second.getRate());
+
+        second.close();
+        assertEquals(500, first.getRate());
+    }
+
+    @Test
+    void testWeightedFairShareUnderGlobalLimit() {
+        properties.setGlobalLimit(1000);
+        BandwidthLease anonymous = shaper.open(Tier.ANONYMOUS, null, "10.0.0.1");
+        BandwidthLease regular = shaper.open(Tier.REGULAR, 1L, "10.0.0.2");
+        BandwidthLease vip = shaper.open(Tier.VIP, 2L, "10.0.0.3");
+
+        // 匿名连接只需要100，剩余900按2:4分给普通和VIP
+        assertEquals(100, anonymous.getRate());
+        assertEquals(300, regular.getRate());
+        assertEquals(600, vip.getRate());
+        assertTrue(vip.isLimited());
+        assertEquals(1000, shaper.allocatedRate());
+    }
+
+    @Test
+    void testReleaseRedistributesBandwidth() {
+        properties.setGlobalLimit(1000);
+        BandwidthLease regular = shaper.open(Tier.REGULAR, 1L, "10.0.0.2");
+        BandwidthLease vip = shaper.open(Tier.VIP, 2L, "10.0.0.3");
+        assertEquals(333, regular.getRate());
+
+        vip.close();
+
+        assertEquals(500, regular.getRate());
+        assertEquals(500, shaper.allocatedRate());
+    }
+
+    @Test
+    void testDisabledReturnsUnlimitedLease() {
+        properties.setEnabled(false);
+
+        BandwidthLease lease = shaper.open(Tier.ANONYMOUS, null, "10.0.0.1");
+
+        assertSame(BandwidthLease.UNLIMITED, lease);
+        assertFalse(lease.isLimited());
+        assertEquals(0, shaper.allocatedRate());
+    }
+
+    @Test
+    void testSnapshotListsAllocations() {
+        shaper.open(Tier.ANONYMOUS, null, "10.0.0.1");
+        shaper.open(Tier.REGULAR, 1L, "10.0.0.2");
+
+        Map<String, Object> snapshot = shaper.snapshot(1);
+
+        assertEquals(2, snapshot.get("connections"));
+        assertEquals(600L, snapshot.get("allocated"));
+        assertEquals(1, ((List<?>) snapshot.get("topConnections")).size());
+        Map<?, ?> tiers = (Map<?, ?>) snapshot.get("tiers");
+        assertEquals(1, ((Map<?, ?>) tiers.get(Tier.ANONYMOUS)).get("connections"));
+    }
+
+    @Test
+    void testLeaseThrottlesToRate() throws Exception {
+        properties.setAnonymous(new DownloadBandwidthProperties.TierLimit(100_000, 0, 1));
+        BandwidthLease lease = shaper.open(Tier.ANONYMOUS, null, "10.0.0.1");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            lease.acquire(10_000);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 50KB按100KB/s约需500毫秒
+        assertTrue(elapsedMillis >= 400, "elapsed " + elapsedMillis);
+        assertTrue(elapsedMillis < 2000, "elapsed " + elapsedMillis);
+        assertEquals(50_000, lease.getTransferred());
+    }
+}
@@ -0,0 +1,80 @@
+package com.quickcode.service.download;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下载进度注册表测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadProgressRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownloadProgressRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new DownloadProgressRegistry(meterRegistry);
+        registry.init();
+    }
+
+    @Test
+    void testProgressVisibleByTransferId() {
+        DownloadProgress progress = registry.start(1L, 2L, true);
+        progress.begin(50, 200);
+        progress.add(50);
+
+        assertSame(progress, registry.get(progress.getTransferId()).orElseThrow());
+        assertEquals(100, progress.getPosition());
+        assertEquals(50, progress.getPercent());
+        assertEquals(1, registry.activeTransfers());
+        assertEquals(1.0, meterRegistry.get("quickcode.download.transfers.active").gauge().value());
+    }
+
+    @Test
+    void testFinishedProgressEvictedAfterRetention() {
+        ReflectionTestUtils.setField(registry, "retentionMillis", 1000L);
+        DownloadProgress finished = registry.start(1L, 2L, true);
+        finished.begin(0, 10);
+        finished.add(10);
+        finished.finish(DownloadProgress.State.COMPLETED);
+        DownloadProgress running = registry.start(1L, 2L, true);
+        running.begin(0, 10);
+
+        registry.evictExpired(System.currentTimeMillis() + 2000);
+
+        assertTrue(registry.get(finished.getTransferId()).isEmpty());
+        assertTrue(registry.get(running.getTransferId()).isPresent());
+        assertEquals(1, registry.activeTransfers());
+    }
+
+    @Test
+    void testFullRegistryStillReturnsProgress() {
+        ReflectionTestUtils.setField(registry, "maxEntries", 1);
+        registry.start(1L, 2L, true);
+
+        DownloadProgress untracked = registry.start(1L, 2L, true);
+
+        assertNotNull(untracked.getTransferId());
+        assertTrue(registry.get(untracked.getTransferId()).isEmpty());
+    }
+
+    @Test
+    void testAbortedProgressKeepsPartialBytes() {
+        DownloadProgress progress = registry.start(1L, 2L, true);
+        progress.begin(0, 100);
+        progress.add(40);
+        progress.finish(DownloadProgress.State.ABORTED);
+
+        assertEquals(40, progress.getPercent());
+        assertTrue(progress.isFinished());
+        assertEquals(0, registry.activeTransfers());
+    }
+}
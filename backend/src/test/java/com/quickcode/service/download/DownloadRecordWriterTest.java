@@ -0,0 +1,260 @@
+package com.quickcode.service.download;
+
+import com.quickcode.entity.ProjectDownload;
+import com.quickcode.repository.ProjectDownloadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 下载记录异步批量写入测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DownloadRecordWriterTest {
+
+    private static final int COLUMNS = 15;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProjectDownloadRepository projectDownloadRepository;
+
+    @Mock
+    private DownloadRollupService downloadRollupService;
+
+    @TempDir
+    Path journalDir;
+
+    private DownloadRecordWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = newWriter(false, 100);
+    }
+
+    @Test
+    void testSubmitDoesNotTouchDatabase() {
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+
+        verifyNoInteractions(jdbcTemplate, projectDownloadRepository, downloadRollupService);
+        assertEquals(1, writer.pendingRecords());
+    }
+
+    @Test
+    void testFlushWritesBatchInOneStatement() {
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        writer.submit(download(2L, 11L, ProjectDownload.DownloadStatus.PAUSED, 1));
+
+        writer.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO project_downloads"));
+        assertEquals(2, sql.getValue().split("\\(\\?").length - 1);
+        assertEquals(2 * COLUMNS, args.getValue().length);
+        assertEquals(ProjectDownload.DownloadStatus.COMPLETED.getCode(), args.getValue()[4]);
+        assertEquals(ProjectDownload.DownloadStatus.PAUSED.getCode(), args.getValue()[COLUMNS + 4]);
+        assertEquals(0, writer.pendingRecords());
+        verify(downloadRollupService).add(argThat(contributions -> contributions.size() == 2));
+    }
+
+    @Test
+    void testRepeatResolvedFromDatabaseAndBatch() {
+        when(projectDownloadRepository.findDownloadedUserProjectPairs(anyCollection(), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 10L}));
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        writer.submit(download(2L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 1));
+        writer.submit(download(2L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 2));
+        writer.submit(download(3L, 10L, ProjectDownload.DownloadStatus.PAUSED, 3));
+
+        writer.flush();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        Object[] values = args.getValue();
+        assertEquals(true, values[10]);
+        assertEquals(false, values[COLUMNS + 10]);
+        assertEquals(true, values[2 * COLUMNS + 10]);
+        assertEquals(false, values[3 * COLUMNS + 10]);
+    }
+
+    @Test
+    void testFailedBatchRetriedOnNextFlush() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+
+        writer.flush();
+        assertEquals(1, writer.pendingRecords());
+
+        writer.flush();
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        assertEquals(0, writer.pendingRecords());
+    }
+
+    @Test
+    void testConstraintViolationSkipsOnlyBadRecord() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataIntegrityViolationException("batch"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("user_id null"))
+                .thenReturn(1);
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        writer.submit(download(null, 10L, ProjectDownload.DownloadStatus.COMPLETED, 1));
+        writer.submit(download(3L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 2));
+
+        writer.flush();
+
+        verify(jdbcTemplate, times(4)).update(anyString(), any(Object[].class));
+        assertEquals(0, writer.pendingRecords());
+    }
+
+    @Test
+    void testFullQueueWritesDirectly() {
+        writer = newWriter(false, 1);
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        writer.submit(download(2L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 1));
+
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+        assertEquals(1, writer.pendingRecords());
+    }
+
+    @Test
+    void testReopenWithdrawsQueuedRecord() {
+        ProjectDownload paused = download(1L, 10L, ProjectDownload.DownloadStatus.PAUSED, 0);
+        writer.open(paused);
+        writer.submit(paused);
+
+        ProjectDownload reopened = writer.reopen(1L, 10L, 100L).orElseThrow();
+        assertSame(paused, reopened);
+        assertEquals(0, writer.pendingRecords());
+
+        reopened.completeDownload(1000L);
+        writer.submit(reopened);
+        writer.flush();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertEquals(COLUMNS, args.getValue().length);
+        assertEquals(ProjectDownload.DownloadStatus.COMPLETED.getCode(), args.getValue()[4]);
+        assertTrue(writer.reopen(1L, 10L, 100L).isEmpty());
+    }
+
+    @Test
+    void testParallelTransfersSubmitRecordOnce() {
+        ProjectDownload downloading = download(1L, 10L, ProjectDownload.DownloadStatus.DOWNLOADING, 0);
+        writer.open(downloading);
+        assertSame(downloading, writer.reopen(1L, 10L, 100L).orElseThrow());
+
+        writer.submit(downloading);
+        assertEquals(0, writer.pendingRecords());
+        writer.submit(downloading);
+        assertEquals(1, writer.pendingRecords());
+    }
+
+    @Test
+    void testAbandonedNewRecordNotWritten() {
+        ProjectDownload downloading = download(1L, 10L, ProjectDownload.DownloadStatus.DOWNLOADING, 0);
+        writer.open(downloading);
+
+        writer.abandon(downloading);
+
+        assertEquals(0, writer.pendingRecords());
+        assertTrue(writer.reopen(1L, 10L, 100L).isEmpty());
+    }
+
+    @Test
+    void testJournalReplayedAfterRestart() throws IOException {
+        DownloadRecordWriter crashed = newWriter(true, 100);
+        crashed.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        crashed.submit(download(2L, 11L, ProjectDownload.DownloadStatus.FAILED, 1));
+
+        DownloadRecordWriter restarted = newWriter(true, 100);
+        assertEquals(2, restarted.pendingRecords());
+
+        restarted.flush();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertEquals(2 * COLUMNS, args.getValue().length);
+        assertEquals(1L, args.getValue()[1]);
+        assertEquals(ProjectDownload.DownloadStatus.FAILED.getCode(), args.getValue()[COLUMNS + 4]);
+        assertEquals(1, journalSegments().size());
+    }
+
+    @Test
+    void testJournalSegmentDeletedAfterWrite() throws IOException {
+        writer = newWriter(true, 100);
+        writer.submit(download(1L, 10L, ProjectDownload.DownloadStatus.COMPLETED, 0));
+        assertEquals(1, journalSegments().size());
+
+        writer.flush();
+
+        // 只剩新的空分段
+        List<Path> segments = journalSegments();
+        assertEquals(1, segments.size());
+        assertEquals(0, Files.size(segments.get(0)));
+    }
+
+    private DownloadRecordWriter newWriter(boolean journalEnabled, int capacity) {
+        DownloadRecordWriter recordWriter = new DownloadRecordWriter(jdbcTemplate, transactionManager,
+                projectDownloadRepository, downloadRollupService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recordWriter, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(recordWriter, "journalEnabled", journalEnabled);
+        ReflectionTestUtils.setField(recordWriter, "journalDir", journalDir.toString());
+        recordWriter.init();
+        return recordWriter;
+    }
+
+    private List<Path> journalSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return new ArrayList<>(files.toList());
+        }
+    }
+
+    private static ProjectDownload download(Long userId, Long projectId, ProjectDownload.DownloadStatus status,
+                                            int secondsAfter) {
+        return ProjectDownload.builder()
+                .userId(userId)
+                .projectId(projectId)
+                .fileId(100L)
+                .downloadTime(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(secondsAfter))
+                .downloadStatus(status.getCode())
+                .downloadIp("10.0.0.1")
+                .downloadSource("WEB")
+                .fileSize(1024L)
+                .isRepeat(false)
+                .build();
+    }
+}
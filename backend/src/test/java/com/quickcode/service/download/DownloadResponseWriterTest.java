@@ -0,0 +1,214 @@
+package com.quickcode.service.download;
+
+import com.quickcode.entity.ProjectFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下载响应输出测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadResponseWriterTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    private final DownloadResponseWriter writer = new DownloadResponseWriter();
+
+    private ProjectFile file;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        file = ProjectFile.builder().fileName("demo.zip").fileHash("d41d8cd98f00b204e9800998ecf8427e").build();
+        request = new MockHttpServletRequest("GET", "/api/downloads/project/1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void testParseRanges() {
+        assertEquals(List.of(new ByteRange(5, 19)), ByteRange.parse("bytes=5-", 20));
+        assertEquals(List.of(new ByteRange(15, 19)), ByteRange.parse("bytes=-5", 20));
+        assertEquals(List.of(new ByteRange(0, 7)), ByteRange.parse("bytes=0-3,2-7", 20));
+        assertEquals(List.of(), ByteRange.parse("bytes=30-40", 20));
+        assertNull(ByteRange.parse("bytes=5-2", 20));
+        assertNull(ByteRange.parse("items=0-1", 20));
+        assertEquals(100, ByteRange.requestedStart("bytes=100-"));
+        assertEquals(0, ByteRange.requestedStart("bytes=-100"));
+    }
+
+    @Test
+    void testFullDownload() throws Exception {
+        DownloadResponseWriter.TransferResult result = writer.write(request, response, file, new ByteArrayResource(CONTENT));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("\"d41d8cd98f00b204e9800998ecf8427e\"", response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+        assertTrue(result.isCompleted());
+    }
+
+    @Test
+    void testProgressCountsWrittenBytes() throws Exception {
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-");
+        DownloadProgress progress = new DownloadProgress("t1", 1L, 1L, true);
+
+        writer.write(request, response, file, new ByteArrayResource(CONTENT), progress);
+
+        assertEquals(15, progress.getTransferred());
+        assertEquals(20, progress.getPosition());
+        assertEquals(100, progress.getPercent());
+        assertEquals(DownloadProgress.State.COMPLETED, progress.getState());
+    }
+
+    @Test
+    void testProgressAbortedWhenClientDisconnects() throws Exception {
+        MockHttpServletResponse broken = new MockHttpServletResponse() {
+            private final ServletOutputStream out = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            };
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return out;
+            }
+        };
+        DownloadProgress progress = new DownloadProgress("t2", 1L, 1L, true);
+
+        DownloadResponseWriter.TransferResult result = writer.write(request, broken, file,
+                new ByteArrayResource(CONTENT), progress);
+
+        assertTrue(result.isAborted());
+        assertEquals(DownloadProgress.State.ABORTED, progress.getState());
+        assertEquals(0, progress.getTransferred());
+        assertTrue(progress.getPercent() < 100);
+    }
+
+    @Test
+    void testSingleRange() throws Exception {
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"d41d8cd98f00b204e9800998ecf8427e\"");
+
+        DownloadResponseWriter.TransferResult result = writer.write(request, response, file, new ByteArrayResource(CONTENT));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("abcdefghij", response.getContentAsString());
+        assertEquals(10, result.getRangeStart());
+        assertEquals(20, result.getTransferredEnd());
+    }
+
+    @Test
+    void testFileRangeWithoutSendfileSupport(@TempDir Path dir) throws Exception {
+        Path archive = Files.write(dir.resolve("demo.zip"), CONTENT);
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        DownloadResponseWriter.TransferResult result = writer.write(request, response, file, new FileSystemResource(archive));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals(10, result.getTransferredEnd());
+    }
+
+    @Test
+    void testSendfileDelegatedToContainer(@TempDir Path dir) throws Exception {
+        byte[] large = new byte[64 * 1024];
+        Path archive = Files.write(dir.resolve("large.zip"), large);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=1024-");
+
+        DownloadResponseWriter.TransferResult result = writer.write(request, response, file, new FileSystemResource(archive));
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1024L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) large.length, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(archive.toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertTrue(result.isCompleted());
+    }
+
+    @Test
+    void testRecordedDownloadSkipsSendfile(@TempDir Path dir) throws Exception {
+        byte[] large = new byte[64 * 1024];
+        Path archive = Files.write(dir.resolve("large.zip"), large);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        // 与异步写入路径一致：新建的下载记录在传输时还没有ID
+        DownloadProgress progress = new DownloadProgressRegistry(new SimpleMeterRegistry())
+                .start(1L, 1L, true);
+
+        DownloadResponseWriter.TransferResult result = writer.write(
+                request, response, file, new FileSystemResource(archive), progress);
+
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(large.length, response.getContentAsByteArray().length);
+        assertEquals(large.length, progress.getTransferred());
+        assertTrue(result.isCompleted());
+    }
+
+    @Test
+    void testIfRangeMismatchReturnsFullFile() throws Exception {
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        writer.write(request, response, file, new ByteArrayResource(CONTENT));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+
+        writer.write(request, response, file, new ByteArrayResource(CONTENT));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testMultipleRanges() throws Exception {
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,18-19");
+
+        DownloadResponseWriter.TransferResult result = writer.write(request, response, file, new ByteArrayResource(CONTENT));
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01"));
+        assertTrue(body.contains("Content-Range: bytes 18-19/20\r\n\r\nij"));
+        assertEquals(4, result.getBytesWritten());
+        assertEquals(-1, result.getTransferredEnd());
+    }
+}
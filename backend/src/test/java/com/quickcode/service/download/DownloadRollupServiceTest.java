@@ -0,0 +1,175 @@
+package com.quickcode.service.download;
+
+import com.quickcode.entity.DownloadProjectRollup.Granularity;
+import com.quickcode.entity.ProjectDownload;
+import com.quickcode.repository.DownloadProjectRollupRepository;
+import com.quickcode.repository.DownloadUserProjectRepository;
+import com.quickcode.repository.DownloadUserRollupRepository;
+import com.quickcode.service.download.DownloadRollupService.Contribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 下载汇总服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DownloadRollupServiceTest {
+
+    private static final int COMPLETED = ProjectDownload.DownloadStatus.COMPLETED.getCode();
+    private static final int PAUSED = ProjectDownload.DownloadStatus.PAUSED.getCode();
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 12, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DownloadProjectRollupRepository projectRollupRepository;
+
+    @Mock
+    private DownloadUserRollupRepository userRollupRepository;
+
+    @Mock
+    private DownloadUserProjectRepository userProjectRepository;
+
+    private DownloadRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new DownloadRollupService(jdbcTemplate, transactionManager,
+                projectRollupRepository, userRollupRepository, userProjectRepository);
+    }
+
+    @Test
+    void testAddUpsertsHourAndDayRowsInOneStatementPerTable() {
+        rollupService.add(List.of(
+                contribution(1L, COMPLETED, TIME, 100),
+                contribution(1L, COMPLETED, TIME.plusMinutes(5), 50)));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(3)).update(sql.capture(), args.capture());
+
+        assertTrue(sql.getAllValues().get(0).startsWith("INSERT INTO download_project_rollups"));
+        assertTrue(sql.getAllValues().get(0).contains("ON DUPLICATE KEY UPDATE"));
+        // 同一小时的两次下载合并为一行，HOUR和DAY各一行
+        Object[] projectArgs = args.getAllValues().get(0);
+        assertEquals(2 * 10, projectArgs.length);
+        assertEquals(2L, projectArgs[5]);
+        assertEquals(150L, projectArgs[6]);
+
+        assertTrue(sql.getAllValues().get(1).startsWith("INSERT INTO download_user_rollups"));
+        assertEquals(2 * 8, args.getAllValues().get(1).length);
+
+        assertTrue(sql.getAllValues().get(2).startsWith("INSERT INTO download_user_projects"));
+        Object[] pairArgs = args.getAllValues().get(2);
+        assertEquals(6, pairArgs.length);
+        assertEquals(10L, pairArgs[0]);
+        assertEquals(1L, pairArgs[1]);
+    }
+
+    @Test
+    void testReplaceWithSameValuesWritesNothing() {
+        Contribution contribution = contribution(1L, COMPLETED, TIME, 100);
+
+        rollupService.replace(contribution, contribution);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testReplaceMovesCountBetweenStatuses() {
+        rollupService.replace(contribution(1L, PAUSED, TIME, 40), contribution(1L, COMPLETED, TIME, 100));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(3)).update(sql.capture(), args.capture());
+
+        // HOUR和DAY各有撤销PAUSED、计入COMPLETED两行
+        Object[] projectArgs = args.getAllValues().get(0);
+        assertEquals(4 * 10, projectArgs.length);
+        long countDelta = 0;
+        long sizeDelta = 0;
+        for (int row = 0; row < 4; row++) {
+            int status = (Integer) projectArgs[row * 10 + 4];
+            long count = (Long) projectArgs[row * 10 + 5];
+            assertEquals(status == COMPLETED ? 1L : -1L, count);
+            countDelta += count;
+            sizeDelta += (Long) projectArgs[row * 10 + 6];
+        }
+        assertEquals(0, countDelta);
+        assertEquals(2 * (100 - 40), sizeDelta);
+        assertTrue(sql.getAllValues().get(2).startsWith("INSERT INTO download_user_projects"));
+    }
+
+    @Test
+    void testReplaceOfFileSizeOnlyKeepsCount() {
+        rollupService.replace(contribution(1L, PAUSED, TIME, 40), contribution(1L, PAUSED, TIME, 90));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(anyString(), args.capture());
+        Object[] projectArgs = args.getAllValues().get(0);
+        assertEquals(2 * 10, projectArgs.length);
+        assertEquals(0L, projectArgs[5]);
+        assertEquals(50L, projectArgs[6]);
+    }
+
+    @Test
+    void testAnonymousDownloadOnlyUpdatesProjectRollup() {
+        rollupService.add(List.of(new Contribution(1L, null, null, COMPLETED, TIME, 100, 10)));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO download_project_rollups"));
+        assertEquals("UNKNOWN", args.getValue()[3]);
+    }
+
+    @Test
+    void testProjectTotals() {
+        when(projectRollupRepository.sumByProject(1L, Granularity.DAY, COMPLETED))
+                .thenReturn(List.<Object[]>of(new Object[]{4L, 4096L, 2000L}));
+        when(userProjectRepository.countByProjectId(1L)).thenReturn(3L);
+
+        DownloadRollupService.ProjectTotals totals = rollupService.getProjectTotals(1L);
+
+        assertEquals(4, totals.downloads());
+        assertEquals(4096, totals.totalSize());
+        assertEquals(3, totals.uniqueDownloaders());
+        assertEquals(500.0, totals.getAverageDuration());
+    }
+
+    @Test
+    void testUserTotalsWithoutDownloads() {
+        when(userRollupRepository.sumByUser(10L, Granularity.DAY, COMPLETED))
+                .thenReturn(List.<Object[]>of(new Object[]{null, null}));
+
+        DownloadRollupService.UserTotals totals = rollupService.getUserTotals(10L);
+
+        assertEquals(0, totals.downloads());
+        assertEquals(0, totals.totalSize());
+        assertEquals(0, totals.uniqueProjects());
+    }
+
+    private static Contribution contribution(Long projectId, int status, LocalDateTime time, long fileSize) {
+        return new Contribution(projectId, 10L, "WEB", status, time, fileSize, 0);
+    }
+}
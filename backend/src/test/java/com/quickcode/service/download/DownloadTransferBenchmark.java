@@ -0,0 +1,201 @@
+package com.quickcode.service.download;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.UrlResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 下载传输吞吐量基准
+ * 通过回环socket比较三种发送方式：
+ * 原路径（UrlResource输入流经8KB堆缓冲复制）、通道transferTo到输出流（JDK内部8KB中转）、
+ * 通道按64KB缓冲读取（不支持sendfile时的回退路径）、FileChannel直接transferTo到SocketChannel（Tomcat sendfile的等价路径）。
+ * 不在常规测试中运行，手动执行：
+ * mvn test -Dtest=DownloadTransferBenchmark -Dbenchmark.sizes=1,10,100,500 -Dbenchmark.rounds=5
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadTransferBenchmark {
+
+    private static final int MB = 1024 * 1024;
+    private static final long CHUNK_SIZE = 256 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static Path workDir;
+    private static ServerSocketChannel server;
+    private static ExecutorService drainExecutor;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        workDir = Files.createTempDirectory("download-benchmark");
+        server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        drainExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        drainExecutor.shutdownNow();
+        server.close();
+        try (var files = Files.list(workDir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(workDir);
+    }
+
+    @Test
+    void compareTransferPaths() throws Exception {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "1,10,100,500").split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim()))
+                .toArray();
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+        System.out.printf("%-8s %-18s %12s %12s%n", "size", "path", "MB/s", "ms/round");
+        for (int sizeMb : sizes) {
+            Path file = createFile(sizeMb);
+            long length = Files.size(file);
+            List<Transfer> transfers = List.of(
+                    new Transfer("heap-stream", out -> copyStream(file, out.socket().getOutputStream())),
+                    new Transfer("channel-chunked", out -> transferChunked(file, out.socket().getOutputStream())),
+                    new Transfer("channel-buffered", out -> readBuffered(file, out.socket().getOutputStream())),
+                    new Transfer("sendfile", out -> transferDirect(file, out)));
+
+            for (Transfer transfer : transfers) {
+                // 预热一轮，让文件进入页缓存并完成JIT
+                run(transfer, length);
+                long elapsed = 0;
+                for (int i = 0; i < rounds; i++) {
+                    elapsed += run(transfer, length);
+                }
+                double seconds = elapsed / 1e9;
+                System.out.printf("%-8s %-18s %12.1f %12.1f%n", sizeMb + "MB", transfer.name,
+                        (double) length * rounds / MB / seconds, elapsed / 1e6 / rounds);
+            }
+            Files.delete(file);
+        }
+    }
+
+    private long run(Transfer transfer, long length) throws Exception {
+        try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+             SocketChannel accepted = server.accept()) {
+            Future<Long> drained = drainExecutor.submit(() -> drain(accepted));
+            long start = System.nanoTime();
+            transfer.action.send(client);
+            client.shutdownOutput();
+            long received = drained.get();
+            long elapsed = System.nanoTime() - start;
+            assertEquals(length, received);
+            return elapsed;
+        }
+    }
+
+    private static long drain(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MB);
+        long total = 0;
+        int read;
+        while ((read = channel.read(buffer)) >= 0) {
+            total += read;
+            buffer.clear();
+        }
+        return total;
+    }
+
+    /**
+     * 原下载路径：Spring经输入流和8KB堆缓冲复制资源
+     */
+    private static void copyStream(Path file, OutputStream out) throws IOException {
+        try (InputStream in = new UrlResource(file.toUri()).getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * 通道transferTo到输出流：目标不是文件或socket通道，JDK退化为8KB中转缓冲
+     */
+    private static void transferChunked(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var target = Channels.newChannel(out);
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, Math.min(CHUNK_SIZE, size - position), target);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * 回退路径：与DownloadResponseWriter相同的固定缓冲顺序读
+     */
+    private static void readBuffered(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * sendfile路径：直接transferTo到socket
+     */
+    private static void transferDirect(Path file, SocketChannel out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static Path createFile(int sizeMb) throws IOException {
+        Path file = workDir.resolve("archive-" + sizeMb + "mb.zip");
+        byte[] block = new byte[MB];
+        new Random(sizeMb).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(block);
+            }
+        }
+        return file;
+    }
+
+    private record Transfer(String name, SendAction action) {
+    }
+
+    @FunctionalInterface
+    private interface SendAction {
+        void send(SocketChannel out) throws IOException;
+    }
+}
@@ -0,0 +1,230 @@
+package com.quickcode.service.download;
+
+import com.quickcode.service.download.SignedDownloadUrlService.SignedDownload;
+import com.quickcode.service.download.SignedDownloadUrlService.Verification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 签名下载链接测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SignedDownloadUrlServiceTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SignedDownloadUrlService service;
+
+    @BeforeEach
+    void setUp() {
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(Map.of());
+        meterRegistry = new SimpleMeterRegistry();
+        service = newService("test-secret");
+    }
+
+    private SignedDownloadUrlService newService(String secret) {
+        SignedDownloadUrlService urlService =
+                new SignedDownloadUrlService(stringRedisTemplate, redisMessageListenerContainer, meterRegistry);
+        ReflectionTestUtils.setField(urlService, "secret", secret);
+        urlService.init();
+        return urlService;
+    }
+
+    @Test
+    void testSignAndVerifyWithoutRedis() {
+        SignedDownload signed = service.signUntil(1L, 2L, 3L, NOW + 600);
+        clearInvocations(stringRedisTemplate, hashOperations);
+
+        Verification verification = service.verify(signed.token(), NOW);
+
+        assertTrue(verification.valid());
+        assertEquals(1L, verification.download().projectId());
+        assertEquals(2L, verification.download().userId());
+        assertEquals(3L, verification.download().fileId());
+        assertEquals(NOW + 600, verification.download().expiresAt());
+        assertTrue(signed.getPath().startsWith(SignedDownloadUrlService.PATH_PREFIX));
+        verifyNoInteractions(stringRedisTemplate, hashOperations);
+        assertEquals(1.0, meterRegistry.get("quickcode.download.signed_url.verify").tag("result", "accepted")
+                .counter().count());
+    }
+
+    @Test
+    void testPrimaryFileHasNoFileId() {
+        SignedDownload signed = service.signUntil(1L, 2L, null, NOW + 600);
+
+        Verification verification = service.verify(signed.token(), NOW);
+
+        assertTrue(verification.valid());
+        assertNull(verification.download().fileId());
+    }
+
+    @Test
+    void testSameParametersProduceDistinctLinks() {
+        SignedDownload first = service.signUntil(1L, 2L, null, NOW + 600);
+        SignedDownload second = service.signUntil(1L, 2L, null, NOW + 600);
+
+        assertNotEquals(first.token(), second.token());
+    }
+
+    @Test
+    void testTamperedLinkRejected() {
+        String token = service.signUntil(1L, 2L, null, NOW + 600).token();
+        char[] chars = token.toCharArray();
+        // 改动项目ID所在的字符
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+
+        Verification verification = service.verify(new String(chars), NOW);
+
+        assertFalse(verification.valid());
+        assertNull(verification.download());
+    }
+
+    @Test
+    void testLinkFromOtherSecretRejected() {
+        String token = newService("other-secret").signUntil(1L, 2L, null, NOW + 600).token();
+
+        assertFalse(service.verify(token, NOW).valid());
+    }
+
+    @Test
+    void testMalformedLinkRejected() {
+        assertFalse(service.verify(null, NOW).valid());
+        assertFalse(service.verify("abc", NOW).valid());
+        assertFalse(service.verify("!".repeat(82), NOW).valid());
+    }
+
+    @Test
+    void testExpiredLinkRejected() {
+        String token = service.signUntil(1L, 2L, null, NOW + 600).token();
+
+        Verification verification = service.verify(token, NOW + 600);
+
+        assertFalse(verification.valid());
+        assertEquals("链接已过期", verification.reason());
+        assertNotNull(verification.download());
+    }
+
+    @Test
+    void testRevokeUserInvalidatesEarlierLinksOnly() {
+        when(hashOperations.increment(anyString(), eq("u:2"), eq(1L))).thenReturn(1L);
+        String before = service.signUntil(1L, 2L, null, NOW + 600).token();
+        String otherUser = service.signUntil(1L, 9L, null, NOW + 600).token();
+
+        assertEquals(1, service.revokeUser(2L));
+        String after = service.signUntil(1L, 2L, null, NOW + 600).token();
+
+        assertFalse(service.verify(before, NOW).valid());
+        assertEquals("链接已被撤销", service.verify(before, NOW).reason());
+        assertTrue(service.verify(after, NOW).valid());
+        assertTrue(service.verify(otherUser, NOW).valid());
+        verify(stringRedisTemplate).convertAndSend(anyString(), eq("u:2:1"));
+    }
+
+    @Test
+    void testRevokeProjectInvalidatesLinksOfAllUsers() {
+        when(hashOperations.increment(anyString(), eq("p:1"), eq(1L))).thenReturn(1L);
+        String first = service.signUntil(1L, 2L, null, NOW + 600).token();
+        String second = service.signUntil(1L, 3L, 4L, NOW + 600).token();
+        String otherProject = service.signUntil(5L, 2L, null, NOW + 600).token();
+
+        service.revokeProject(1L);
+
+        assertFalse(service.verify(first, NOW).valid());
+        assertFalse(service.verify(second, NOW).valid());
+        assertTrue(service.verify(otherProject, NOW).valid());
+    }
+
+    @Test
+    void testRevokeStaysEffectiveWhenRedisLostEpochs() {
+        service.onEpochMessage(new DefaultMessage(new byte[0], "u:2:3".getBytes(StandardCharsets.UTF_8)));
+        String before = service.signUntil(1L, 2L, null, NOW + 600).token();
+        when(hashOperations.increment(anyString(), eq("u:2"), eq(1L))).thenReturn(1L);
+        when(hashOperations.increment(anyString(), eq("u:2"), eq(3L))).thenReturn(4L);
+
+        assertEquals(4, service.revokeUser(2L));
+        assertFalse(service.verify(before, NOW).valid());
+    }
+
+    @Test
+    void testRemoteRevocationApplied() {
+        String token = service.signUntil(1L, 2L, null, NOW + 600).token();
+
+        service.onEpochMessage(new DefaultMessage(new byte[0], "p:1:1".getBytes(StandardCharsets.UTF_8)));
+
+        assertFalse(service.verify(token, NOW).valid());
+    }
+
+    @Test
+    void testRefreshNeverLowersEpoch() {
+        service.onEpochMessage(new DefaultMessage(new byte[0], "u:2:2".getBytes(StandardCharsets.UTF_8)));
+        String revoked = service.signUntil(1L, 2L, null, NOW + 600).token();
+        service.onEpochMessage(new DefaultMessage(new byte[0], "u:2:3".getBytes(StandardCharsets.UTF_8)));
+        when(hashOperations.entries(anyString())).thenReturn(Map.of("u:2", "1"));
+
+        service.refreshEpochs();
+
+        assertFalse(service.verify(revoked, NOW).valid());
+    }
+
+    @Test
+    void testRefreshFailureKeepsLocalEpochs() {
+        service.onEpochMessage(new DefaultMessage(new byte[0], "u:2:1".getBytes(StandardCharsets.UTF_8)));
+        String current = service.signUntil(1L, 2L, null, NOW + 600).token();
+        when(hashOperations.entries(anyString())).thenThrow(new RuntimeException("连接失败"));
+
+        service.refreshEpochs();
+
+        assertTrue(service.verify(current, NOW).valid());
+    }
+
+    @Test
+    void testUnavailableUntilEpochsLoaded() {
+        SignedDownload signed = service.signUntil(1L, 2L, null, NOW + 600);
+        when(hashOperations.entries(anyString())).thenThrow(new RuntimeException("连接失败"));
+        SignedDownloadUrlService starting = newService("test-secret");
+
+        assertFalse(starting.isAvailable());
+        assertFalse(starting.verify(signed.token(), NOW).valid());
+        assertThrows(IllegalStateException.class, () -> starting.signUntil(1L, 2L, null, NOW + 600));
+
+        doReturn(Map.of("u:2", "1")).when(hashOperations).entries(anyString());
+        starting.refreshEpochs();
+
+        assertTrue(starting.isAvailable());
+        assertFalse(starting.verify(signed.token(), NOW).valid());
+        assertTrue(starting.verify(starting.signUntil(1L, 2L, null, NOW + 600).token(), NOW).valid());
+    }
+}
@@ -0,0 +1,101 @@
+package com.quickcode.service.feed;
+
+import com.quickcode.common.event.ProjectStatsChangedEvent;
+import com.quickcode.dto.project.ProjectDTO;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import com.quickcode.service.feed.HomepageFeedService.FeedType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 首页榜单物化服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class HomepageFeedServiceTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    private HomepageFeedService feedService;
+
+    @BeforeEach
+    void setUp() {
+        feedService = new HomepageFeedService(projectRepository);
+        ReflectionTestUtils.setField(feedService, "enabled", true);
+        ReflectionTestUtils.setField(feedService, "feedSize", 3);
+
+        when(projectRepository.findFeaturedProjects(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(createProject(1L, "4.5"))));
+        when(projectRepository.findPopularProjects(any(Pageable.class)))
+                .thenReturn(List.of(createProject(2L, "3.0"), createProject(1L, "4.5")));
+        when(projectRepository.findLatestProjects(any(Pageable.class)))
+                .thenReturn(List.of(createProject(3L, "2.0")));
+        when(projectRepository.findHighRatedProjects(eq(BigDecimal.ZERO), any(Pageable.class)))
+                .thenReturn(List.of(createProject(1L, "4.5"), createProject(2L, "3.0"), createProject(3L, "2.0")));
+
+        feedService.refreshAll();
+    }
+
+    @Test
+    void testGetFeed_ServedFromMemory() {
+        assertEquals(List.of(2L, 1L), ids(feedService.getFeed(FeedType.POPULAR, 3).orElseThrow()));
+        assertEquals(List.of(2L), ids(feedService.getFeed(FeedType.POPULAR, 1).orElseThrow()));
+
+        // 超过物化长度时回退数据库
+        assertTrue(feedService.getFeed(FeedType.LATEST, 4).isEmpty());
+        verify(projectRepository, times(1)).findPopularProjects(any(Pageable.class));
+    }
+
+    @Test
+    void testGetHighRated_FilterPrefix() {
+        assertEquals(List.of(1L, 2L), ids(feedService.getHighRated(new BigDecimal("3.0"), 3).orElseThrow()));
+        assertEquals(List.of(1L), ids(feedService.getHighRated(new BigDecimal("4.0"), 1).orElseThrow()));
+        assertEquals(3, feedService.getHighRated(null, 3).orElseThrow().size());
+        assertTrue(feedService.getHighRated(new BigDecimal("1.0"), 4).isEmpty());
+    }
+
+    @Test
+    void testStatsChanged_RefreshOnlyAffectedFeed() {
+        feedService.onProjectStatsChanged(ProjectStatsChangedEvent.of(
+                ProjectStatsChangedEvent.StatType.DOWNLOAD_COUNT, 1L));
+        feedService.onProjectStatsChanged(ProjectStatsChangedEvent.of(
+                ProjectStatsChangedEvent.StatType.DOWNLOAD_COUNT, 2L));
+        feedService.refreshDirtyFeeds();
+        feedService.refreshDirtyFeeds();
+
+        verify(projectRepository, times(2)).findPopularProjects(any(Pageable.class));
+        verify(projectRepository, times(1)).findLatestProjects(any(Pageable.class));
+    }
+
+    private List<Long> ids(List<ProjectDTO> projects) {
+        return projects.stream().map(ProjectDTO::getId).toList();
+    }
+
+    private Project createProject(Long id, String rating) {
+        Project project = Project.builder()
+                .title("项目" + id)
+                .rating(new BigDecimal(rating))
+                .status(1)
+                .build();
+        project.setId(id);
+        return project;
+    }
+}
@@ -0,0 +1,357 @@
+package com.quickcode.service.impl;
+
+import com.quickcode.config.RedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 下载令牌Redis往返基准
+ * 比较改造前逐条发送命令（生成6次往返，撤销和查询随令牌数线性增长）与改造后管道、Lua脚本（每次调用1次往返）
+ * 的往返次数和延迟分布。默认用Testcontainers启动redis:7-alpine作为本地Redis，
+ * 也可用-Dbenchmark.redis=host:port指定已有实例（键带随机前缀并设置过期时间，不会清库）。
+ * 连接被包装以统计往返次数，-Dbenchmark.rtt-micros可在每次往返上叠加模拟的网络延迟，回环地址上的延迟远低于跨机房部署。
+ * 不在常规测试中运行，手动执行：
+ * mvn test -Dtest=DownloadTokenRedisBenchmark -Dbenchmark.tokens=1,10,100 -Dbenchmark.iterations=200 -Dbenchmark.rtt-micros=500
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class DownloadTokenRedisBenchmark {
+
+    private static final int EXPIRATION_MINUTES = 10;
+
+    private static GenericContainer<?> redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RoundTripCounter roundTrips;
+    private static RedisTemplate<String, Object> redisTemplate;
+    private static DownloadTokenServiceImpl downloadTokenService;
+    private static String tokenPrefix;
+    private static String userTokenPrefix;
+    private static String projectTokenPrefix;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeAll
+    static void setUp() {
+        String address = System.getProperty("benchmark.redis");
+        String host;
+        int port;
+        if (address != null) {
+            host = address.substring(0, address.lastIndexOf(':'));
+            port = Integer.parseInt(address.substring(address.lastIndexOf(':') + 1));
+        } else {
+            redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+            redis.start();
+            host = redis.getHost();
+            port = redis.getMappedPort(6379);
+        }
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        roundTrips = new RoundTripCounter(Long.getLong("benchmark.rtt-micros", 0));
+        redisTemplate = new RedisConfig().redisTemplate(roundTrips.wrap(connectionFactory));
+
+        String namespace = "benchmark:" + UUID.randomUUID() + ":";
+        tokenPrefix = namespace + "download_token:";
+        userTokenPrefix = namespace + "user_tokens:";
+        projectTokenPrefix = namespace + "project_tokens:";
+        downloadTokenService = new DownloadTokenServiceImpl(redisTemplate);
+        ReflectionTestUtils.setField(downloadTokenService, "jwtSecret", "benchmark-jwt-secret-key-at-least-32-bytes");
+        ReflectionTestUtils.setField(downloadTokenService, "tokenPrefix", tokenPrefix);
+        ReflectionTestUtils.setField(downloadTokenService, "userTokenPrefix", userTokenPrefix);
+        ReflectionTestUtils.setField(downloadTokenService, "projectTokenPrefix", projectTokenPrefix);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Test
+    void compareRoundTrips() {
+        int[] tokenCounts = Arrays.stream(System.getProperty("benchmark.tokens", "1,10,100").split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim()))
+                .toArray();
+        int iterations = Integer.getInteger("benchmark.iterations", 200);
+
+        System.out.printf("%-8s %-10s %-12s %10s %12s %12s%n", "tokens", "operation", "path", "rt/op", "p50(us)", "p99(us)");
+
+        report(1, "generate", "sequential", measure(iterations, () -> 0L,
+                userId -> storeSequential(UUID.randomUUID().toString(), 1L, userId, tokenData(1L, userId))));
+        report(1, "generate", "pipelined", measure(iterations, () -> 0L,
+                userId -> downloadTokenService.storeToken(UUID.randomUUID().toString(), 1L, userId,
+                        EXPIRATION_MINUTES, tokenData(1L, userId))));
+
+        for (int tokens : tokenCounts) {
+            long listUser = seed(tokens);
+            report(tokens, "list", "sequential", measure(iterations, () -> listUser,
+                    userId -> assertEquals(tokens, listSequential(userId))));
+            report(tokens, "list", "script", measure(iterations, () -> listUser,
+                    userId -> assertEquals(tokens, downloadTokenService.getUserActiveTokens(userId).size())));
+
+            report(tokens, "revoke", "sequential", measure(iterations, () -> seed(tokens),
+                    userId -> assertEquals(tokens, revokeSequential(userId))));
+            report(tokens, "revoke", "script", measure(iterations, () -> seed(tokens),
+                    userId -> assertEquals(tokens, downloadTokenService.revokeUserDownloadTokens(userId))));
+        }
+    }
+
+    /**
+     * 每轮先执行准备（不计时、不计往返），再对操作计时
+     */
+    private Result measure(int iterations, Preparation preparation, Operation operation) {
+        for (int i = 0; i < Math.max(iterations / 5, 1); i++) {
+            operation.run(preparation.prepare());
+        }
+
+        long[] latencies = new long[iterations];
+        long totalRoundTrips = 0;
+        for (int i = 0; i < iterations; i++) {
+            long userId = preparation.prepare();
+            if (userId == 0) {
+                userId = ids.incrementAndGet();
+            }
+            roundTrips.reset();
+            long start = System.nanoTime();
+            operation.run(userId);
+            latencies[i] = System.nanoTime() - start;
+            totalRoundTrips += roundTrips.get();
+        }
+        Arrays.sort(latencies);
+        return new Result((double) totalRoundTrips / iterations,
+                latencies[iterations / 2] / 1000.0,
+                latencies[Math.min((int) Math.ceil(iterations * 0.99) - 1, iterations - 1)] / 1000.0);
+    }
+
+    private static void report(int tokens, String operation, String path, Result result) {
+        System.out.printf("%-8d %-10s %-12s %10.1f %12.1f %12.1f%n",
+                tokens, operation, path, result.roundTrips, result.p50Micros, result.p99Micros);
+    }
+
+    /**
+     * 为新用户写入指定数量的令牌
+     */
+    private long seed(int tokens) {
+        long userId = ids.incrementAndGet();
+        for (int i = 0; i < tokens; i++) {
+            downloadTokenService.storeToken(UUID.randomUUID().toString(), (long) i, userId,
+                    EXPIRATION_MINUTES, tokenData((long) i, userId));
+        }
+        return userId;
+    }
+
+    private static Map<String, Object> tokenData(Long projectId, Long userId) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("source", "download_api");
+        metadata.put("generatedAt", LocalDateTime.now().toString());
+
+        Map<String, Object> tokenData = new HashMap<>();
+        // 与JWT令牌长度相近的占位值
+        tokenData.put("token", "x".repeat(320));
+        tokenData.put("projectId", projectId);
+        tokenData.put("userId", userId);
+        tokenData.put("expirationTime", LocalDateTime.now().plusMinutes(EXPIRATION_MINUTES).toString());
+        tokenData.put("metadata", metadata);
+        tokenData.put("createdAt", LocalDateTime.now().toString());
+        tokenData.put("active", true);
+        return tokenData;
+    }
+
+    /**
+     * 改造前的写入：6条命令逐条往返
+     */
+    private static void storeSequential(String tokenId, Long projectId, Long userId, Map<String, Object> tokenData) {
+        String tokenKey = tokenPrefix + tokenId;
+        redisTemplate.opsForHash().putAll(tokenKey, tokenData);
+        redisTemplate.expire(tokenKey, EXPIRATION_MINUTES, TimeUnit.MINUTES);
+        String userTokenKey = userTokenPrefix + userId;
+        redisTemplate.opsForSet().add(userTokenKey, tokenId);
+        redisTemplate.expire(userTokenKey, EXPIRATION_MINUTES, TimeUnit.MINUTES);
+        String projectTokenKey = projectTokenPrefix + projectId;
+        redisTemplate.opsForSet().add(projectTokenKey, tokenId);
+        redisTemplate.expire(projectTokenKey, EXPIRATION_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 改造前的查询：SMEMBERS后每个令牌一次HGETALL
+     */
+    private static int listSequential(long userId) {
+        Set<Object> tokenIds = redisTemplate.opsForSet().members(userTokenPrefix + userId);
+        int active = 0;
+        for (Object tokenId : tokenIds) {
+            Map<Object, Object> tokenData = redisTemplate.opsForHash().entries(tokenPrefix + tokenId);
+            if (Boolean.TRUE.equals(tokenData.get("active"))) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * 改造前的撤销：SMEMBERS后每个令牌EXISTS + DEL，最后删除集合
+     */
+    private static int revokeSequential(long userId) {
+        String userTokenKey = userTokenPrefix + userId;
+        Set<Object> tokenIds = redisTemplate.opsForSet().members(userTokenKey);
+        int revoked = 0;
+        for (Object tokenId : tokenIds) {
+            String tokenKey = tokenPrefix + tokenId;
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(tokenKey))) {
+                redisTemplate.delete(tokenKey);
+                revoked++;
+            }
+        }
+        redisTemplate.delete(userTokenKey);
+        return revoked;
+    }
+
+    private record Result(double roundTrips, double p50Micros, double p99Micros) {
+    }
+
+    @FunctionalInterface
+    private interface Preparation {
+        /**
+         * @return 本轮操作的用户ID，0表示使用新用户
+         */
+        long prepare();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(long userId);
+    }
+
+    /**
+     * 统计Redis往返次数
+     * 非管道模式下每条命令一次往返，管道模式下closePipeline时一次往返；脚本按EVALSHA/EVAL各计一次
+     */
+    private static class RoundTripCounter {
+
+        private static final Set<String> NON_COMMANDS = Set.of("close", "isClosed", "getNativeConnection",
+                "isQueueing", "isPipelined", "openPipeline", "closePipeline", "getSentinelConnection");
+
+        private final long rttNanos;
+        private final AtomicLong count = new AtomicLong();
+
+        RoundTripCounter(long rttMicros) {
+            this.rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        long get() {
+            return count.get();
+        }
+
+        private void roundTrip() {
+            count.incrementAndGet();
+            if (rttNanos > 0) {
+                LockSupport.parkNanos(rttNanos);
+            }
+        }
+
+        RedisConnectionFactory wrap(RedisConnectionFactory factory) {
+            return (RedisConnectionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{RedisConnectionFactory.class}, (proxy, method, args) -> {
+                        Object result = invoke(factory, method, args);
+                        if (result instanceof RedisConnection && "getConnection".equals(method.getName())) {
+                            return new ConnectionHandler((RedisConnection) result).proxy();
+                        }
+                        return result;
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * 包装单个连接，xxxCommands()返回的命令接口同样包装，两种调用方式都只计一次
+         */
+        private class ConnectionHandler implements InvocationHandler {
+
+            private final RedisConnection target;
+            private boolean pipelined;
+
+            ConnectionHandler(RedisConnection target) {
+                this.target = target;
+            }
+
+            RedisConnection proxy() {
+                return (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{RedisConnection.class}, this);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if ("openPipeline".equals(name)) {
+                    pipelined = true;
+                } else if ("closePipeline".equals(name)) {
+                    pipelined = false;
+                    roundTrip();
+                } else if (isCommand(method) && !pipelined) {
+                    roundTrip();
+                }
+
+                Object result = RoundTripCounter.invoke(target, method, args);
+                if (result != null && isCommandsAccessor(method)) {
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{method.getReturnType()},
+                            (commandsProxy, command, commandArgs) -> {
+                                if (command.getDeclaringClass() != Object.class && !pipelined) {
+                                    roundTrip();
+                                }
+                                return RoundTripCounter.invoke(result, command, commandArgs);
+                            });
+                }
+                return result;
+            }
+
+            private boolean isCommand(Method method) {
+                return method.getDeclaringClass() != Object.class
+                        && !NON_COMMANDS.contains(method.getName())
+                        && !isCommandsAccessor(method);
+            }
+
+            private boolean isCommandsAccessor(Method method) {
+                return method.getParameterCount() == 0 && method.getName().endsWith("Commands")
+                        && method.getReturnType().isInterface();
+            }
+        }
+    }
+}
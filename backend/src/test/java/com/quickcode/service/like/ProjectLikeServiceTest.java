@@ -0,0 +1,75 @@
+package com.quickcode.service.like;
+
+import com.quickcode.service.RedisService;
+import com.quickcode.service.counter.CounterType;
+import com.quickcode.service.counter.ProjectCounterBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * 项目点赞服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectLikeServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ProjectCounterBuffer counterBuffer;
+
+    @InjectMocks
+    private ProjectLikeService likeService;
+
+    @Test
+    void testLikeAdjustsCounterOnlyOnChange() {
+        when(redisService.setProjectLiked(1L, 2L, true)).thenReturn(true, false);
+
+        assertTrue(likeService.like(1L, 2L));
+        assertFalse(likeService.like(1L, 2L));
+
+        verify(counterBuffer, times(1)).increment(1L, CounterType.LIKE);
+    }
+
+    @Test
+    void testUnlikeDecrementsCounter() {
+        when(redisService.setProjectLiked(1L, 2L, false)).thenReturn(true);
+
+        assertTrue(likeService.unlike(1L, 2L));
+
+        verify(counterBuffer).add(1L, CounterType.LIKE, -1);
+    }
+
+    @Test
+    void testLikedStatusBatch() {
+        Map<Long, Boolean> stored = new LinkedHashMap<>();
+        stored.put(3L, true);
+        stored.put(4L, false);
+        when(redisService.getProjectLikedStatus(2L, List.of(3L, 4L))).thenReturn(stored);
+
+        assertEquals(stored, likeService.likedStatus(2L, List.of(3L, 4L, 3L)));
+    }
+
+    @Test
+    void testLikedStatusFallsBackWhenAnonymousOrRedisDown() {
+        assertEquals(Map.of(3L, false), likeService.likedStatus(null, List.of(3L)));
+
+        when(redisService.getProjectLikedStatus(anyLong(), any())).thenThrow(new RuntimeException("redis down"));
+        assertEquals(Map.of(3L, false), likeService.likedStatus(2L, List.of(3L)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.quickcode.service.ratelimit;
+
+import com.quickcode.entity.User;
+import com.quickcode.repository.UserRepository;
+import com.quickcode.service.RedisService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 下载频率限制测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DownloadRateLimiterTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private DownloadRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new DownloadRateLimiter(redisService, userRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "userPerHour", 2);
+        ReflectionTestUtils.setField(rateLimiter, "userPerDay", 3);
+        ReflectionTestUtils.setField(rateLimiter, "vipPerHour", 20);
+        ReflectionTestUtils.setField(rateLimiter, "vipPerDay", 200);
+        ReflectionTestUtils.setField(rateLimiter, "ipPerHour", 6);
+        ReflectionTestUtils.setField(rateLimiter, "ipPerDay", 60);
+        rateLimiter.init();
+    }
+
+    @Test
+    void testVipUsesHigherLimits() {
+        User vip = new User();
+        vip.setIsVip(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(vip));
+        when(redisService.acquireSlidingWindow(anyList(), any(), any())).thenReturn(-1);
+
+        assertTrue(rateLimiter.tryAcquire(1L, "10.0.0.1"));
+
+        ArgumentCaptor<int[][]> limits = ArgumentCaptor.forClass(int[][].class);
+        verify(redisService).acquireSlidingWindow(
+                eq(List.of("quickcode:ratelimit:download:user:1", "quickcode:ratelimit:download:ip:10.0.0.1")),
+                any(), limits.capture());
+        assertArrayEquals(new int[]{20, 200}, limits.getValue()[0]);
+        assertArrayEquals(new int[]{6, 60}, limits.getValue()[1]);
+    }
+
+    @Test
+    void testRejectedByRedis() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(redisService.acquireSlidingWindow(anyList(), any(), any())).thenReturn(1);
+
+        assertFalse(rateLimiter.tryAcquire(1L, "10.0.0.1"));
+    }
+
+    @Test
+    void testFallsBackToLocalLimiterWhenRedisDown() {
+        when(redisService.acquireSlidingWindow(anyList(), any(), any()))
+                .thenThrow(new RuntimeException("redis down"));
+
+        assertTrue(rateLimiter.tryAcquire(null, "10.0.0.2"));
+        assertTrue(rateLimiter.tryAcquire(null, "10.0.0.2"));
+        assertFalse(rateLimiter.tryAcquire(null, "10.0.0.2"));
+        assertTrue(rateLimiter.tryAcquire(null, "10.0.0.3"));
+    }
+
+    @Test
+    void testLocalWindowSlides() {
+        List<String> keys = List.of("user:1");
+        int[][] limits = {{2, 3}};
+        long start = System.currentTimeMillis();
+
+        assertEquals(-1, rateLimiter.acquireLocally(keys, limits, start));
+        assertEquals(-1, rateLimiter.acquireLocally(keys, limits, start + 1));
+        // 小时窗口已满
+        assertEquals(0, rateLimiter.acquireLocally(keys, limits, start + 2));
+        // 一小时后小时窗口释放，但仍计入天窗口
+        assertEquals(-1, rateLimiter.acquireLocally(keys, limits, start + HOUR + 1));
+        assertEquals(1, rateLimiter.acquireLocally(keys, limits, start + HOUR + 2));
+    }
+}
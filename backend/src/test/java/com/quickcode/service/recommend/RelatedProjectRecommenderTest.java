@@ -0,0 +1,142 @@
+package com.quickcode.service.recommend;
+
+import com.quickcode.entity.Category;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.CategoryRepository;
+import com.quickcode.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 相关项目推荐测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class RelatedProjectRecommenderTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private RelatedProjectRecommender recommender;
+
+    @BeforeEach
+    void setUp() {
+        recommender = new RelatedProjectRecommender(projectRepository, categoryRepository);
+        ReflectionTestUtils.setField(recommender, "enabled", true);
+        ReflectionTestUtils.setField(recommender, "topN", 3);
+
+        Category web = new Category();
+        web.setId(1L);
+        Category frontend = new Category();
+        frontend.setId(2L);
+        frontend.setParentId(1L);
+        Category backend = new Category();
+        backend.setId(3L);
+        backend.setParentId(1L);
+        when(categoryRepository.findAll()).thenReturn(List.of(web, frontend, backend));
+
+        List<Project> projects = List.of(
+                createProject(1L, 2L, List.of("管理后台"), List.of("Vue 3", "TypeScript", "Vite")),
+                createProject(2L, 2L, List.of("管理后台"), List.of("Vue 3", "TypeScript", "Pinia")),
+                createProject(3L, 3L, List.of("电商"), List.of("Spring Boot", "MySQL")),
+                createProject(4L, 2L, List.of("博客"), List.of("React")),
+                createProject(5L, 3L, List.of("电商"), List.of("Spring Boot", "Redis")));
+        when(projectRepository.findByStatus(eq(1), any(Pageable.class))).thenReturn(new PageImpl<>(projects));
+
+        recommender.rebuild();
+    }
+
+    @Test
+    void testJaccard() {
+        assertEquals(0.5, RelatedProjectRecommender.jaccard(new int[]{1, 2, 3}, new int[]{2, 3, 4}));
+        assertEquals(0, RelatedProjectRecommender.jaccard(new int[]{1}, new int[0]));
+    }
+
+    @Test
+    void testGetRelated_OrderedBySimilarity() {
+        List<Long> related = recommender.getRelated(1L, 10).orElseThrow();
+
+        assertEquals(2L, related.get(0));
+        assertEquals(4L, related.get(1));
+        assertFalse(related.contains(1L));
+        assertTrue(related.size() <= 3);
+
+        assertEquals(List.of(5L), recommender.getRelated(3L, 1).orElseThrow());
+    }
+
+    @Test
+    void testIncrementalUpdate() {
+        Project similar = createProject(6L, 3L, List.of("电商"), List.of("Spring Boot", "MySQL"));
+        recommender.update(similar);
+        assertEquals(6L, recommender.getRelated(3L, 1).orElseThrow().get(0));
+
+        similar.takeOffline();
+        recommender.update(similar);
+        assertTrue(recommender.getRelated(6L, 5).isEmpty());
+        assertFalse(recommender.getRelated(3L, 5).orElseThrow().contains(6L));
+
+        recommender.remove(5L);
+        assertFalse(recommender.getRelated(3L, 5).orElseThrow().contains(5L));
+    }
+
+    @Test
+    void testIncrementalUpdate_ReferencedProjectChanged() {
+        assertEquals(2L, recommender.getRelated(1L, 1).orElseThrow().get(0));
+
+        recommender.update(createProject(2L, 3L, List.of("电商"), List.of("Spring Boot", "MySQL")));
+
+        assertNotEquals(2L, recommender.getRelated(1L, 1).orElseThrow().get(0));
+        assertEquals(2L, recommender.getRelated(3L, 1).orElseThrow().get(0));
+        assertEquals(3L, recommender.getRelated(2L, 1).orElseThrow().get(0));
+    }
+
+    @Test
+    void testCategoryFill_PrefersPopularProjects() {
+        // 各项目只共享分类特征，LSH基本找不到候选，相关项目来自同分类补充
+        List<Project> projects = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            List<String> tags = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                tags.add("p" + id + "-t" + i);
+            }
+            projects.add(createProject(id, 2L, tags, List.of()));
+        }
+        when(projectRepository.findByStatus(eq(1), any(Pageable.class))).thenReturn(new PageImpl<>(projects));
+
+        recommender.rebuild();
+
+        assertEquals(List.of(250L, 249L, 248L), recommender.getRelated(1L, 3).orElseThrow());
+    }
+
+    private Project createProject(Long id, Long categoryId, List<String> tags, List<String> techStack) {
+        Project project = Project.builder()
+                .title("项目" + id)
+                .categoryId(categoryId)
+                .tags(tags)
+                .techStack(techStack)
+                .downloadCount(id.intValue())
+                .status(1)
+                .build();
+        project.setId(id);
+        return project;
+    }
+}
@@ -0,0 +1,77 @@
+package com.quickcode.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 压缩位图测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+class CompressedBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        CompressedBitmap bitmap = CompressedBitmap.of(1, 5, 70000, 5);
+
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(2));
+
+        bitmap.remove(70000);
+        bitmap.remove(42);
+        assertArrayEquals(new long[]{1, 5}, bitmap.toArray());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void testDenseContainerConversion() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long id = 0; id < 10000; id++) {
+            bitmap.add(id);
+        }
+        assertEquals(10000, bitmap.cardinality());
+
+        for (long id = 0; id < 9000; id++) {
+            bitmap.remove(id);
+        }
+        assertEquals(1000, bitmap.cardinality());
+        assertTrue(bitmap.contains(9999));
+        assertFalse(bitmap.contains(8999));
+    }
+
+    @Test
+    void testSetOperationsMatchBitSet() {
+        Random random = new Random(42);
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        // A在前两个桶密集分布，B稀疏分布在更大范围内
+        for (int i = 0; i < 60000; i++) {
+            int value = random.nextInt(131072);
+            expectedA.set(value);
+            a.add(value);
+        }
+        for (int i = 0; i < 3000; i++) {
+            int value = random.nextInt(300000);
+            expectedB.set(value);
+            b.add(value);
+        }
+
+        BitSet expectedAnd = (BitSet) expectedA.clone();
+        expectedAnd.and(expectedB);
+        BitSet expectedOr = (BitSet) expectedA.clone();
+        expectedOr.or(expectedB);
+
+        assertArrayEquals(expectedAnd.stream().asLongStream().toArray(), a.and(b).toArray());
+        assertArrayEquals(expectedOr.stream().asLongStream().toArray(), a.or(b).toArray());
+        assertEquals(expectedAnd.cardinality(), a.andCardinality(b));
+        assertEquals(expectedA.cardinality(), a.cardinality());
+    }
+}
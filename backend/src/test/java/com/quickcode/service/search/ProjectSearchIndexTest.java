@@ -0,0 +1,201 @@
+package com.quickcode.service.search;
+
+import com.quickcode.dto.project.ProjectFacetsDTO;
+import com.quickcode.dto.project.ProjectSearchRequest;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目搜索倒排索引测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectSearchIndexTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    private ProjectSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProjectSearchIndex(projectRepository);
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+
+        List<Project> projects = List.of(
+                createProject(1L, "项目管理系统", "基于Spring Boot的后台", 1L, "100", List.of("管理后台")),
+                createProject(2L, "电商商城", "Vue3 前端 + Spring Cloud", 2L, "200", List.of("电商")),
+                createProject(3L, "博客系统", "React 单页应用", 1L, "0", List.of("博客", "Markdown")));
+        projects.get(0).setTechStack(List.of("Spring Boot", "MySQL"));
+        projects.get(1).setTechStack(List.of("Vue 3", "Spring Boot", "Redis"));
+        projects.get(2).setTechStack(List.of("React", "mysql"));
+        when(projectRepository.findByStatus(eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(projects));
+
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testTokenizeForIndex_ChineseBigrams() {
+        assertTrue(SearchTokenizer.tokenizeForIndex("项目管理").containsAll(
+                List.of("项目", "目管", "管理", "项", "理")));
+        assertTrue(SearchTokenizer.tokenizeForIndex("Spring-Boot").containsAll(List.of("spring", "boot")));
+    }
+
+    @Test
+    void testSearch_ChineseKeyword() {
+        ProjectSearchIndex.SearchHits hits = searchIndex.search(createRequest("系统")).orElseThrow();
+
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(3L, 1L), hits.getProjectIds());
+    }
+
+    @Test
+    void testSearch_PrefixAndTagMatch() {
+        assertEquals(List.of(2L, 1L), searchIndex.search(createRequest("spr")).orElseThrow().getProjectIds());
+        assertEquals(List.of(3L), searchIndex.search(createRequest("markdown")).orElseThrow().getProjectIds());
+    }
+
+    @Test
+    void testSearch_FiltersAndPaging() {
+        ProjectSearchRequest request = createRequest("系统");
+        request.setCategoryId(1L);
+        request.setMinPrice(new BigDecimal("50"));
+        assertEquals(List.of(1L), searchIndex.search(request).orElseThrow().getProjectIds());
+
+        ProjectSearchRequest paged = createRequest("spring");
+        paged.setSize(1);
+        paged.setPage(1);
+        ProjectSearchIndex.SearchHits hits = searchIndex.search(paged).orElseThrow();
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(1L), hits.getProjectIds());
+    }
+
+    @Test
+    void testSearch_PrefixExpandsAllTerms() {
+        for (long id = 10; id < 310; id++) {
+            searchIndex.index(createProject(id, "module" + id, "插件", 2L, "10", null));
+        }
+
+        assertEquals(300, searchIndex.search(createRequest("modul")).orElseThrow().getTotal());
+
+        ProjectSearchRequest narrowed = createRequest("插件 modul");
+        narrowed.setMaxPrice(new BigDecimal("10"));
+        assertEquals(300, searchIndex.search(narrowed).orElseThrow().getTotal());
+        assertEquals(1, searchIndex.search(createRequest("module309")).orElseThrow().getTotal());
+    }
+
+    @Test
+    void testIncrementalUpdate() {
+        Project project = createProject(4L, "在线考试系统", "Java", 1L, "10", null);
+        searchIndex.index(project);
+        assertEquals(3, searchIndex.search(createRequest("系统")).orElseThrow().getTotal());
+
+        project.takeOffline();
+        searchIndex.index(project);
+        assertEquals(2, searchIndex.search(createRequest("系统")).orElseThrow().getTotal());
+
+        searchIndex.remove(1L);
+        assertEquals(List.of(3L), searchIndex.search(createRequest("系统")).orElseThrow().getProjectIds());
+    }
+
+    @Test
+    void testTagFilter_AllAndAny() {
+        ProjectSearchRequest all = createRequest(null);
+        all.setTechStack(List.of("spring boot", "MySQL"));
+        assertEquals(List.of(1L), searchIndex.search(all).orElseThrow().getProjectIds());
+
+        ProjectSearchRequest any = createRequest(null);
+        any.setTechStack(List.of("Redis", "React"));
+        any.setTagMatchMode("any");
+        assertEquals(List.of(3L, 2L), searchIndex.search(any).orElseThrow().getProjectIds());
+
+        ProjectSearchRequest combined = createRequest("系统");
+        combined.setTechStack(List.of("MySQL"));
+        combined.setTags(List.of("Markdown"));
+        combined.setCategoryId(1L);
+        assertEquals(List.of(3L), searchIndex.search(combined).orElseThrow().getProjectIds());
+
+        ProjectSearchRequest unknown = createRequest(null);
+        unknown.setTags(List.of("不存在"));
+        assertEquals(0, searchIndex.search(unknown).orElseThrow().getTotal());
+    }
+
+    @Test
+    void testFacets() {
+        ProjectFacetsDTO facets = searchIndex.facets(createRequest(null), 10).orElseThrow();
+        assertEquals(3, facets.getTotal());
+        assertEquals("MySQL", facets.getTechStack().get(0).getValue());
+        assertEquals(2, facets.getTechStack().get(0).getCount());
+
+        ProjectSearchRequest filtered = createRequest(null);
+        filtered.setTechStack(List.of("Spring Boot"));
+        ProjectFacetsDTO narrowed = searchIndex.facets(filtered, 1).orElseThrow();
+        assertEquals(2, narrowed.getTotal());
+        assertEquals(1, narrowed.getTechStack().size());
+        assertEquals("Spring Boot", narrowed.getTechStack().get(0).getValue());
+    }
+
+    @Test
+    void testFacets_IncrementalUpdate() {
+        Project project = createProject(4L, "在线考试系统", "Java", 1L, "10", List.of("Markdown"));
+        project.setTechStack(List.of("Redis"));
+        searchIndex.index(project);
+
+        ProjectSearchRequest request = createRequest(null);
+        request.setTechStack(List.of("redis"));
+        assertEquals(List.of(4L, 2L), searchIndex.search(request).orElseThrow().getProjectIds());
+
+        searchIndex.remove(2L);
+        searchIndex.remove(4L);
+        assertEquals(0, searchIndex.search(request).orElseThrow().getTotal());
+        assertTrue(searchIndex.facets(createRequest(null), 10).orElseThrow().getTechStack().stream()
+                .noneMatch(facet -> facet.getValue().equals("Redis")));
+    }
+
+    @Test
+    void testSearch_NoUsableTokensFallsBack() {
+        assertTrue(searchIndex.search(createRequest("!!!")).isEmpty());
+    }
+
+    private ProjectSearchRequest createRequest(String keyword) {
+        ProjectSearchRequest request = ProjectSearchRequest.builder().keyword(keyword).build();
+        request.setDefaults();
+        request.normalize();
+        return request;
+    }
+
+    private Project createProject(Long id, String title, String description, Long categoryId,
+                                  String price, List<String> tags) {
+        Project project = Project.builder()
+                .title(title)
+                .description(description)
+                .categoryId(categoryId)
+                .price(new BigDecimal(price))
+                .tags(tags)
+                .status(1)
+                .build();
+        project.setId(id);
+        project.setCreatedTime(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(id));
+        return project;
+    }
+}
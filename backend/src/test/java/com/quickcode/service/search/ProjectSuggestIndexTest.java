@@ -0,0 +1,181 @@
+package com.quickcode.service.search;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.dto.project.ProjectSuggestionDTO;
+import com.quickcode.dto.project.ProjectSuggestionDTO.SuggestionType;
+import com.quickcode.entity.Category;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.CategoryRepository;
+import com.quickcode.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 输入联想索引测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectSuggestIndexTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ProjectSuggestIndex suggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        suggestIndex = new ProjectSuggestIndex(projectRepository, categoryRepository);
+        ReflectionTestUtils.setField(suggestIndex, "enabled", true);
+        ReflectionTestUtils.setField(suggestIndex, "maxResults", 10);
+        ReflectionTestUtils.setField(suggestIndex, "pinyin", false);
+
+        List<Project> projects = List.of(
+                createProject(1L, "项目管理后台", 1L, 50, List.of("管理后台"), List.of("Spring Boot")),
+                createProject(2L, "Spring Cloud 商城", 2L, 300, List.of("电商"), List.of("Spring Cloud", "Vue.js")),
+                createProject(3L, "博客系统", 1L, 10, List.of("博客"), List.of("Spring Boot")));
+        when(projectRepository.findByStatus(eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(projects));
+        Category category = Category.builder().name("管理系统").code("admin-system").build();
+        category.setId(1L);
+        when(categoryRepository.findActiveCategories()).thenReturn(List.of(category));
+
+        suggestIndex.rebuild();
+    }
+
+    @Test
+    void testPrefixOrderedByDownloads() {
+        List<ProjectSuggestionDTO> suggestions = suggestIndex.suggest("Spring", 10).orElseThrow();
+
+        // Spring Cloud技术栈(300+1)、商城项目(300)、Spring Boot技术栈(51+11)
+        assertEquals(List.of("Spring Cloud", "Spring Cloud 商城", "Spring Boot"),
+                suggestions.stream().map(ProjectSuggestionDTO::getText).toList());
+        assertEquals(SuggestionType.TECH_STACK, suggestions.get(0).getType());
+        assertEquals(2L, suggestions.get(1).getProjectId());
+    }
+
+    @Test
+    void testWordStartAndChineseInfixMatch() {
+        assertEquals("Spring Boot", suggestIndex.suggest("boot", 1).orElseThrow().get(0).getText());
+        assertEquals("Vue.js", suggestIndex.suggest("vuejs", 1).orElseThrow().get(0).getText());
+
+        List<String> texts = suggestIndex.suggest("后台", 10).orElseThrow().stream()
+                .map(ProjectSuggestionDTO::getText).toList();
+        assertEquals(List.of("管理后台", "项目管理后台"), texts);
+    }
+
+    @Test
+    void testCategoryNameAndCode() {
+        ProjectSuggestionDTO byCode = suggestIndex.suggest("admin", 5).orElseThrow().get(0);
+        assertEquals(SuggestionType.CATEGORY, byCode.getType());
+        assertEquals("管理系统", byCode.getText());
+
+        assertTrue(suggestIndex.suggest("管理系", 5).orElseThrow().stream()
+                .anyMatch(s -> s.getType() == SuggestionType.CATEGORY));
+    }
+
+    @Test
+    void testIncrementalPublishAndOffline() {
+        Project published = createProject(4L, "Spring Batch 调度", 2L, 1000, List.of(), List.of());
+        suggestIndex.onProjectChanged(ProjectChangedEvent.of(published, ProjectChangedEvent.ChangeType.PUBLISHED));
+        suggestIndex.refreshIfDirty();
+        assertEquals(4L, suggestIndex.suggest("spring", 1).orElseThrow().get(0).getProjectId());
+
+        suggestIndex.onProjectChanged(ProjectChangedEvent.deleted(4L));
+        suggestIndex.refreshIfDirty();
+        assertTrue(suggestIndex.suggest("spring b", 10).orElseThrow().stream()
+                .noneMatch(s -> Long.valueOf(4L).equals(s.getProjectId())));
+    }
+
+    @Test
+    void testPinyinFullAndInitials() {
+        ReflectionTestUtils.setField(suggestIndex, "pinyin", true);
+        suggestIndex.rebuild();
+
+        assertEquals("项目管理后台", suggestIndex.suggest("xiangmu", 1).orElseThrow().get(0).getText());
+        assertEquals("项目管理后台", suggestIndex.suggest("xmgl", 1).orElseThrow().get(0).getText());
+        assertEquals("博客系统", suggestIndex.suggest("bkxt", 1).orElseThrow().get(0).getText());
+        assertEquals("Spring Cloud 商城", suggestIndex.suggest("shangcheng", 1).orElseThrow().get(0).getText());
+        List<String> texts = suggestIndex.suggest("guanli", 10).orElseThrow().stream()
+                .map(ProjectSuggestionDTO::getText).toList();
+        assertTrue(texts.containsAll(List.of("管理后台", "项目管理后台", "管理系统")));
+    }
+
+    @Test
+    void testPinyinTable() {
+        assertTrue(PinyinTable.isLoaded());
+        assertEquals("pin", PinyinTable.toPinyin('拼'));
+        assertEquals("yin", PinyinTable.toPinyin('音'));
+        assertNull(PinyinTable.toPinyin('a'));
+    }
+
+    @Test
+    void testRefreshCoalescedUntilQuiet() {
+        ReflectionTestUtils.setField(suggestIndex, "quietPeriodMillis", 60_000L);
+        ReflectionTestUtils.setField(suggestIndex, "maxDelayMillis", 60_000L);
+        Project published = createProject(4L, "Spring Batch 调度", 2L, 1000, List.of(), List.of());
+        suggestIndex.onProjectChanged(ProjectChangedEvent.of(published, ProjectChangedEvent.ChangeType.PUBLISHED));
+
+        suggestIndex.refreshIfDirty();
+        assertNotEquals(4L, suggestIndex.suggest("spring", 1).orElseThrow().get(0).getProjectId());
+
+        // 持续变更时最长延迟到max-delay
+        ReflectionTestUtils.setField(suggestIndex, "maxDelayMillis", 0L);
+        suggestIndex.refreshIfDirty();
+        assertEquals(4L, suggestIndex.suggest("spring", 1).orElseThrow().get(0).getProjectId());
+    }
+
+    @Test
+    void testNotReadyReturnsEmpty() {
+        ProjectSuggestIndex fresh = new ProjectSuggestIndex(projectRepository, categoryRepository);
+        ReflectionTestUtils.setField(fresh, "enabled", true);
+
+        assertTrue(fresh.suggest("spring", 5).isEmpty());
+        assertTrue(suggestIndex.suggest("不存在的词", 5).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void testTrieKeepsTopK() {
+        SuggestTrie.Builder<String> builder = SuggestTrie.builder(2);
+        builder.addKey(builder.addEntry("a", 1), "ab");
+        builder.addKey(builder.addEntry("b", 5), "abc");
+        int c = builder.addEntry("c", 3);
+        builder.addKey(c, "abd").addKey(c, "ab");
+        SuggestTrie<String> trie = builder.build();
+
+        assertEquals(List.of("b", "c"), trie.lookup("a", 10));
+        assertEquals(List.of("c"), trie.lookup("abd", 10));
+        assertEquals(List.of(), trie.lookup("b", 10));
+    }
+
+    private Project createProject(Long id, String title, Long categoryId, int downloads,
+                                  List<String> tags, List<String> techStack) {
+        Project project = Project.builder()
+                .title(title)
+                .categoryId(categoryId)
+                .downloadCount(downloads)
+                .tags(tags)
+                .techStack(techStack)
+                .status(1)
+                .build();
+        project.setId(id);
+        return project;
+    }
+}
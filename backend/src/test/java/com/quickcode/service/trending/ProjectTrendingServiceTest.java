@@ -0,0 +1,86 @@
+package com.quickcode.service.trending;
+
+import com.quickcode.common.event.ProjectChangedEvent;
+import com.quickcode.entity.Project;
+import com.quickcode.repository.ProjectRepository;
+import com.quickcode.service.RedisService;
+import com.quickcode.service.counter.CounterType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 项目热度榜服务测试类
+ *
+ * @author QuickCode Team
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectTrendingServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @InjectMocks
+    private ProjectTrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(trendingService, "enabled", true);
+        ReflectionTestUtils.setField(trendingService, "halfLifeHours", 24.0);
+        ReflectionTestUtils.setField(trendingService, "viewWeight", 1.0);
+        ReflectionTestUtils.setField(trendingService, "likeWeight", 2.0);
+        ReflectionTestUtils.setField(trendingService, "favoriteWeight", 3.0);
+        ReflectionTestUtils.setField(trendingService, "downloadWeight", 5.0);
+        ReflectionTestUtils.setField(trendingService, "orderWeight", 10.0);
+        trendingService.init();
+    }
+
+    @Test
+    void testWeightedDeltasIgnoreNegative() {
+        trendingService.record(CounterType.DOWNLOAD, Map.of(1L, 2L, 2L, -1L));
+
+        // λ = ln2 / 一天的秒数
+        verify(redisService).addTrendingScores(Map.of(1L, 10.0), Math.log(2) / 86400);
+    }
+
+    @Test
+    void testOnlyNegativeDeltasSkipRedis() {
+        trendingService.record(CounterType.FAVORITE, Map.of(1L, -1L));
+
+        verify(redisService, never()).addTrendingScores(anyMap(), anyDouble());
+    }
+
+    @Test
+    void testOrderWeight() {
+        trendingService.recordOrder(3L);
+
+        verify(redisService).addTrendingScores(eq(Map.of(3L, 10.0)), anyDouble());
+    }
+
+    @Test
+    void testPublishAndOfflineTracking() {
+        Project project = Project.builder().categoryId(5L).status(Project.Status.PUBLISHED.getCode()).build();
+        project.setId(7L);
+        trendingService.onProjectChanged(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.PUBLISHED));
+        verify(redisService).trackTrendingProject(7L, 5L, Math.log(2) / 86400);
+
+        project.setStatus(Project.Status.OFFLINE.getCode());
+        trendingService.onProjectChanged(ProjectChangedEvent.of(project, ProjectChangedEvent.ChangeType.OFFLINE));
+        verify(redisService).untrackTrendingProject(7L);
+    }
+}